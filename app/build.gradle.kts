@@ -15,6 +15,13 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Export Room schemas so every version is reviewable and migrations can be tested
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
@@ -33,6 +40,15 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    sourceSets {
+        // Exported schemas, read by MigrationTestHelper
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
+    }
+    testOptions {
+        unitTests {
+            isIncludeAndroidResources = true
+        }
+    }
 }
 
 dependencies {
@@ -40,6 +56,7 @@ dependencies {
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
     implementation(libs.lifecycle.livedata.ktx)
     implementation(libs.lifecycle.viewmodel.ktx)
     implementation(libs.navigation.fragment)
@@ -51,6 +68,12 @@ dependencies {
     implementation("androidx.room:room-ktx:2.6.1")
     
     testImplementation(libs.junit)
+    // JVM database tests (migrations run against real SQLite through Robolectric)
+    testImplementation("org.robolectric:robolectric:4.13")
+    testImplementation("androidx.test:core:1.5.0")
+    // Runs LiveData on the calling thread so observable DAO queries can be asserted synchronously
+    testImplementation("androidx.arch.core:core-testing:2.2.0")
     androidTestImplementation(libs.ext.junit)
+    androidTestImplementation("androidx.room:room-testing:2.6.1")
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark for loading five years of synthetic history into the columnar HistoryStore.
+ * Logs load time and array footprint next to the entity-list load it replaces.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HistoryStoreBenchmark {
+
+    private static final String TAG = "HistoryStoreBenchmark";
+    private static final int DAYS = 5 * 365;
+    private static final int EXERCISES = 4;
+    private static final int SETS_PER_EXERCISE = 5;
+
+    @Test
+    public void loadFiveYearsOfHistory() {
+        Context context = ApplicationProvider.getApplicationContext();
+        FitnessDatabase db = FitnessDatabase.configure(
+                Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class)).build();
+        try {
+            int[] exerciseIds = seedHistory(db);
+            int totalSets = DAYS * EXERCISES * SETS_PER_EXERCISE;
+
+            long start = System.nanoTime();
+            List<ExerciseRecord> entities = db.exerciseRecordDao().getAllExerciseRecords();
+            long entityMillis = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(totalSets, entities.size());
+
+            start = System.nanoTime();
+            HistoryStore store = HistoryStore.load(db.getOpenHelper().getReadableDatabase());
+            long columnarMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals(totalSets, store.getSetCount());
+            // Exact per-exercise sizing: 20 bytes per set, no spare capacity
+            assertEquals(totalSets * 20L, store.footprintBytes());
+
+            ExerciseSeries series = store.getSeries(exerciseIds[0]);
+            assertNotNull(series);
+            assertEquals(DAYS * SETS_PER_EXERCISE, series.size());
+            for (int i = 1; i < series.size(); i++) {
+                assertTrue(series.timestampAt(i - 1) <= series.timestampAt(i));
+            }
+
+            start = System.nanoTime();
+            double best = series.bestEstimatedOneRepMax();
+            long scanMicros = (System.nanoTime() - start) / 1000;
+
+            Log.i(TAG, String.format(Locale.US,
+                    "%d sets: entity load %d ms, columnar load %d ms, %d KB of arrays, e1RM scan %d us (%.1f kg)",
+                    totalSets, entityMillis, columnarMillis, store.footprintBytes() / 1024, scanMicros, best));
+        } finally {
+            db.close();
+        }
+    }
+
+    private int[] seedHistory(FitnessDatabase db) {
+        int[] exerciseIds = new int[EXERCISES];
+        long today = TrainingDay.today();
+        db.runInTransaction(() -> {
+            for (int e = 0; e < EXERCISES; e++) {
+                exerciseIds[e] = (int) db.exerciseDao().insertExercise(
+                        new Exercise("Exercise " + e, "strength", "", "chest"));
+            }
+            for (long day = today - DAYS + 1; day <= today; day++) {
+                long sessionStart = TrainingDay.startOfDayMillis(day) + 18 * 3600_000L;
+                int sessionId = (int) db.workoutSessionDao().insertWorkoutSession(
+                        new WorkoutSession(new Date(sessionStart)));
+                int set = 0;
+                for (int exerciseId : exerciseIds) {
+                    for (int i = 0; i < SETS_PER_EXERCISE; i++, set++) {
+                        ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, 8 + i % 3);
+                        record.setWeight(40f + (day % 100) * 0.5f);
+                        record.setTimestamp(new Date(sessionStart + set * 120_000L));
+                        db.exerciseRecordDao().insertExerciseRecord(record);
+                    }
+                }
+            }
+        });
+        return exerciseIds;
+    }
+}
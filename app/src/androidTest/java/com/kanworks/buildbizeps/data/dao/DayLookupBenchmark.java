@@ -0,0 +1,103 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark for the per-day lookups used by the dashboard.
+ * Seeds growing histories and checks the day lookup goes through the epochDay index,
+ * logging the per-lookup time so it can be compared across history sizes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DayLookupBenchmark {
+
+    private static final String TAG = "DayLookupBenchmark";
+    private static final int[] HISTORY_DAYS = {30, 365, 5 * 365};
+    private static final int SETS_PER_DAY = 20;
+    private static final int LOOKUPS = 200;
+
+    @Test
+    public void dayLookupStaysFlatAsHistoryGrows() {
+        Context context = ApplicationProvider.getApplicationContext();
+
+        for (int days : HISTORY_DAYS) {
+            FitnessDatabase db = FitnessDatabase.configure(
+                    Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class)).build();
+            try {
+                long lastDay = seedHistory(db, days);
+                long targetDay = lastDay - days / 2;
+
+                // Warm up statement cache
+                assertEquals(SETS_PER_DAY, db.exerciseRecordDao().getRecordsByDate(targetDay).size());
+
+                long start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    db.exerciseRecordDao().getRecordsByDate(targetDay);
+                    db.workoutSessionDao().getWorkoutSessionsByDate(targetDay);
+                }
+                long micros = (System.nanoTime() - start) / LOOKUPS / 1000;
+
+                Log.i(TAG, String.format(Locale.US, "%d days, %d sets: %d us per day lookup",
+                        days, days * SETS_PER_DAY, micros));
+
+                assertPlanUsesIndex(db, "SELECT * FROM exercise_records WHERE epochDay = ?",
+                        targetDay, "index_exercise_records_epochDay");
+                assertPlanUsesIndex(db, "SELECT * FROM workout_sessions WHERE epochDay = ?",
+                        targetDay, "index_workout_sessions_epochDay");
+            } finally {
+                db.close();
+            }
+        }
+    }
+
+    private long seedHistory(FitnessDatabase db, int days) {
+        long today = TrainingDay.today();
+        long firstDay = today - days + 1;
+        db.runInTransaction(() -> {
+            int exerciseId = (int) db.exerciseDao().insertExercise(
+                    new Exercise("Bench Press", "strength", "", "chest"));
+            for (long day = firstDay; day <= today; day++) {
+                long dayStart = TrainingDay.startOfDayMillis(day);
+                WorkoutSession session = new WorkoutSession(new Date(dayStart + 18 * 3600_000L));
+                int sessionId = (int) db.workoutSessionDao().insertWorkoutSession(session);
+                for (int set = 0; set < SETS_PER_DAY; set++) {
+                    ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, 8);
+                    record.setWeight(60f);
+                    record.setTimestamp(new Date(dayStart + 18 * 3600_000L + set * 120_000L));
+                    db.exerciseRecordDao().insertExerciseRecord(record);
+                }
+            }
+        });
+        return today;
+    }
+
+    private void assertPlanUsesIndex(FitnessDatabase db, String sql, long day, String index) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql, new Object[]{day})) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        assertTrue("Expected " + index + " in plan:\n" + plan, plan.toString().contains(index));
+    }
+}
@@ -0,0 +1,79 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.model.LoggedSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark for the "Save Set" write path. Uses an on-disk database so each
+ * transaction pays its real commit cost; logs per-set latency and burst throughput.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LogSetBenchmark {
+
+    private static final String TAG = "LogSetBenchmark";
+    private static final String DB_NAME = "log_set_benchmark.db";
+    private static final int WARMUP_SETS = 20;
+    private static final int SETS = 500;
+
+    private Context context;
+    private FitnessDatabase db;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        db = FitnessDatabase.configure(Room.databaseBuilder(context, FitnessDatabase.class, DB_NAME)).build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void logSetLatencyAndBurstRate() {
+        int exerciseId = (int) db.exerciseDao().insertExercise(new Exercise("Bench Press", "strength", "", "chest"));
+        WorkoutLogDao dao = db.workoutLogDao();
+
+        int sessionId = 0;
+        for (int i = 0; i < WARMUP_SETS; i++) {
+            sessionId = dao.logSet(sessionId, exerciseId, 60f, 8, new Date()).getSessionId();
+        }
+
+        long[] nanos = new long[SETS];
+        long burstStart = System.nanoTime();
+        for (int i = 0; i < SETS; i++) {
+            long start = System.nanoTime();
+            LoggedSet logged = dao.logSet(sessionId, exerciseId, 60f, 8, new Date());
+            nanos[i] = System.nanoTime() - start;
+            assertFalse(logged.isNewSession());
+        }
+        long burstNanos = System.nanoTime() - burstStart;
+
+        Arrays.sort(nanos);
+        Log.i(TAG, String.format(Locale.US, "logSet: median %d us, p95 %d us, burst %.0f sets/s",
+                nanos[SETS / 2] / 1000, nanos[SETS * 95 / 100] / 1000, SETS * 1e9 / burstNanos));
+
+        assertEquals(WARMUP_SETS + SETS, db.exerciseRecordDao().getRecordsByWorkoutSession(sessionId).size());
+    }
+}
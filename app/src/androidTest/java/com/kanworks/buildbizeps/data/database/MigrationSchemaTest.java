@@ -0,0 +1,41 @@
+package com.kanworks.buildbizeps.data.database;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs each migration from a database built from the exported schema of its start version
+ * and checks the result against the exported schema of the next one
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationSchemaTest {
+
+    private static final String TEST_DB = "migration_schema_test.db";
+    private static final int FIRST_VERSION = 2;
+    private static final int LATEST_VERSION = 12;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), FitnessDatabase.class);
+
+    @Test
+    public void testEachMigrationMatchesExportedSchema() throws Exception {
+        for (int version = FIRST_VERSION; version < LATEST_VERSION; version++) {
+            SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, version);
+            db.close();
+            helper.runMigrationsAndValidate(TEST_DB, version + 1, true, Migrations.ALL).close();
+        }
+    }
+
+    @Test
+    public void testFullUpgradeMatchesExportedSchema() throws Exception {
+        helper.createDatabase(TEST_DB, FIRST_VERSION).close();
+        helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, Migrations.ALL).close();
+    }
+}
@@ -0,0 +1,119 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.RangeSummary;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark for summarising a one-year range out of a five-year history with the grouped
+ * range query, next to the per-day summary calls it replaces.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RangeSummaryBenchmark {
+
+    private static final String TAG = "RangeSummaryBenchmark";
+    private static final int HISTORY_DAYS = 5 * 365;
+    private static final int RANGE_DAYS = 365;
+    private static final int EXERCISES = 4;
+    private static final int SETS_PER_EXERCISE = 5;
+    private static final int RUNS = 10;
+
+    @Test
+    public void summariseOneYear() {
+        Context context = ApplicationProvider.getApplicationContext();
+        FitnessDatabase db = FitnessDatabase.configure(
+                Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class)).build();
+        try {
+            long lastDay = seedHistory(db);
+            long firstDay = lastDay - RANGE_DAYS + 1;
+            RangeSummaryLoader loader = new RangeSummaryLoader(db);
+
+            // Warm up statement cache
+            RangeSummary summary = loader.load(firstDay, lastDay, null);
+            assertEquals(RANGE_DAYS, summary.getTrainedDays());
+            assertEquals(RANGE_DAYS * EXERCISES * SETS_PER_EXERCISE, summary.getTotalSets());
+            assertEquals(EXERCISES, summary.getExercises().size());
+
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                loader.load(firstDay, lastDay, null);
+            }
+            long rangeMicros = (System.nanoTime() - start) / RUNS / 1000;
+
+            start = System.nanoTime();
+            int perDaySets = 0;
+            for (long day = firstDay; day <= lastDay; day++) {
+                perDaySets += db.exerciseRecordDao().getDailySummary(day, TrainingDay.format(day)).getTotalSets();
+            }
+            long perDayMicros = (System.nanoTime() - start) / 1000;
+            assertEquals(summary.getTotalSets(), perDaySets);
+
+            Log.i(TAG, String.format(Locale.US,
+                    "%d of %d days, %d sets: grouped query %d us, %d per-day summaries %d us",
+                    RANGE_DAYS, HISTORY_DAYS, summary.getTotalSets(), rangeMicros, RANGE_DAYS, perDayMicros));
+
+            assertPlanUsesIndex(db, firstDay, lastDay);
+        } finally {
+            db.close();
+        }
+    }
+
+    private long seedHistory(FitnessDatabase db) {
+        long today = TrainingDay.today();
+        long firstDay = today - HISTORY_DAYS + 1;
+        db.runInTransaction(() -> {
+            int[] exerciseIds = new int[EXERCISES];
+            for (int e = 0; e < EXERCISES; e++) {
+                exerciseIds[e] = (int) db.exerciseDao().insertExercise(
+                        new Exercise("Exercise " + e, "strength", "", "arms"));
+            }
+            for (long day = firstDay; day <= today; day++) {
+                long dayStart = TrainingDay.startOfDayMillis(day);
+                int sessionId = (int) db.workoutSessionDao().insertWorkoutSession(
+                        new WorkoutSession(new Date(dayStart + 18 * 3600_000L)));
+                int set = 0;
+                for (int exerciseId : exerciseIds) {
+                    for (int s = 0; s < SETS_PER_EXERCISE; s++) {
+                        ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, 8 + s);
+                        record.setWeight(40f + (day % 20));
+                        record.setTimestamp(new Date(dayStart + 18 * 3600_000L + set++ * 120_000L));
+                        db.exerciseRecordDao().insertExerciseRecord(record);
+                    }
+                }
+            }
+        });
+        return today;
+    }
+
+    private void assertPlanUsesIndex(FitnessDatabase db, long firstDay, long lastDay) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + RangeSummaryLoader.RANGE_SQL,
+                new Object[]{firstDay, lastDay})) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        assertTrue("Expected the epochDay index in plan:\n" + plan,
+                plan.toString().contains("index_exercise_records_epochDay"));
+    }
+}
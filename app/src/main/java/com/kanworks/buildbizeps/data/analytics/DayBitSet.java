@@ -0,0 +1,206 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * One bit per training day, bit n of the set standing for epochDay n. Fifty-odd years
+ * of days fit in under 3 KB, and ranges and runs are answered a 64-day word at a time
+ * with masks and Long.bitCount / numberOfLeadingZeros rather than day by day.
+ *
+ * Not thread-safe; TrainingDays guards it.
+ */
+public class DayBitSet {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private long[] words;
+    private int cardinality;
+
+    public DayBitSet() {
+        this(new long[0]);
+    }
+
+    private DayBitSet(long[] words) {
+        this.words = words;
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        this.cardinality = count;
+    }
+
+    /**
+     * Mark a day as trained
+     *
+     * @return true if it wasn't already
+     */
+    public boolean set(long epochDay) {
+        if (epochDay < 0) return false;
+        int index = (int) (epochDay >>> 6);
+        if (index >= words.length) {
+            words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+        }
+        long mask = 1L << epochDay;
+        if ((words[index] & mask) != 0) return false;
+        words[index] |= mask;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * @return true if the day was marked
+     */
+    public boolean clear(long epochDay) {
+        if (!get(epochDay)) return false;
+        words[(int) (epochDay >>> 6)] &= ~(1L << epochDay);
+        cardinality--;
+        return true;
+    }
+
+    public boolean get(long epochDay) {
+        if (epochDay < 0) return false;
+        int index = (int) (epochDay >>> 6);
+        return index < words.length && (words[index] & (1L << epochDay)) != 0;
+    }
+
+    public void clearAll() {
+        Arrays.fill(words, 0);
+        cardinality = 0;
+    }
+
+    /**
+     * Number of trained days overall
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Latest trained day, or -1 if there are none
+     */
+    public long last() {
+        for (int index = words.length - 1; index >= 0; index--) {
+            if (words[index] != 0) {
+                return ((long) index << 6) + 63 - Long.numberOfLeadingZeros(words[index]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sum of the trained days' numbers; with cardinality() and last(), a fingerprint to
+     * compare against the database
+     */
+    public long sum() {
+        long sum = 0;
+        for (int index = 0; index < words.length; index++) {
+            // Visit only the set bits, lowest first
+            for (long word = words[index]; word != 0; word &= word - 1) {
+                sum += ((long) index << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Trained days from firstDay to lastDay, both inclusive
+     */
+    public int count(long firstDay, long lastDay) {
+        firstDay = Math.max(firstDay, 0);
+        lastDay = Math.min(lastDay, ((long) words.length << 6) - 1);
+        if (firstDay > lastDay) return 0;
+
+        int firstIndex = (int) (firstDay >>> 6);
+        int lastIndex = (int) (lastDay >>> 6);
+        // -1L << n keeps bits n..63; -1L >>> (63 - n) keeps bits 0..n
+        long firstMask = -1L << firstDay;
+        long lastMask = -1L >>> (63 - (lastDay & 63));
+        if (firstIndex == lastIndex) {
+            return Long.bitCount(words[firstIndex] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words[firstIndex] & firstMask);
+        for (int index = firstIndex + 1; index < lastIndex; index++) {
+            count += Long.bitCount(words[index]);
+        }
+        return count + Long.bitCount(words[lastIndex] & lastMask);
+    }
+
+    /**
+     * Length of the run of trained days ending on the given day, 0 if it wasn't trained
+     */
+    public int runEndingAt(long epochDay) {
+        if (!get(epochDay)) return 0;
+
+        int run = 0;
+        int index = (int) (epochDay >>> 6);
+        int bit = (int) (epochDay & 63);
+        while (index >= 0) {
+            // Move the day to the top bit and count the ones below it, down to the word start
+            long shifted = words[index] << (63 - bit);
+            int ones = Long.numberOfLeadingZeros(~shifted);
+            if (ones <= bit) {
+                return run + ones;
+            }
+            run += bit + 1;
+            index--;
+            bit = 63;
+        }
+        return run;
+    }
+
+    /**
+     * Longest run of consecutive trained days
+     */
+    public int longestRun() {
+        int longest = 0;
+        // Run reaching the top of the previous word
+        int carried = 0;
+        for (long word : words) {
+            if (word == -1L) {
+                carried += 64;
+                continue;
+            }
+            longest = Math.max(longest, carried + Long.numberOfTrailingZeros(~word));
+            // Each step shortens every run of ones by one; the step count is the longest run
+            int inWord = 0;
+            for (long x = word; x != 0; x &= x << 1) {
+                inWord++;
+            }
+            longest = Math.max(longest, inWord);
+            carried = Long.numberOfLeadingZeros(~word);
+        }
+        return Math.max(longest, carried);
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        int used = words.length;
+        while (used > 0 && words[used - 1] == 0) {
+            used--;
+        }
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(used);
+        for (int index = 0; index < used; index++) {
+            out.writeLong(words[index]);
+        }
+    }
+
+    public static DayBitSet readFrom(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unknown training day format " + version);
+        }
+        int count = in.readInt();
+        // Far beyond any real date; guards against a corrupt length
+        if (count < 0 || count > 1 << 16) {
+            throw new IOException("Bad training day word count " + count);
+        }
+        long[] words = new long[count];
+        for (int index = 0; index < count; index++) {
+            words[index] = in.readLong();
+        }
+        return new DayBitSet(words);
+    }
+}
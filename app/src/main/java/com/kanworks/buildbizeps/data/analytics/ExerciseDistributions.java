@@ -0,0 +1,182 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.SetDistribution;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains exercise_distribution: a weight and a reps QuantileSketch per exercise and
+ * calendar month. Logged sets are folded into their month's row inside the transaction that
+ * inserts them, so a set costs one row read and one row write whatever the history length.
+ * Sketches can't forget a value, so edits and deletes recompute the affected month from its
+ * records.
+ */
+public final class ExerciseDistributions {
+
+    private static final String UPSERT = "INSERT OR REPLACE INTO exercise_distribution "
+            + "(exerciseId, monthStart, setCount, weightSketch, repsSketch) VALUES (?, ?, ?, ?, ?)";
+
+    // Ordered so each (exercise, month) is one run of rows
+    private static final String RECORDS_BY_MONTH = "SELECT exerciseId, epochDay, weight, reps, sets "
+            + "FROM exercise_records %s ORDER BY exerciseId, epochDay";
+
+    private ExerciseDistributions() {}
+
+    /**
+     * Distribution of one exercise over the months overlapping [firstDay, lastDay];
+     * whole months, read as at most one row per month
+     */
+    @WorkerThread
+    @NonNull
+    public static SetDistribution load(FitnessDatabase database, int exerciseId, long firstDay, long lastDay) {
+        return SetDistribution.merge(database.exerciseDao().getDistributions(exerciseId,
+                TrainingDay.firstOfMonth(firstDay), TrainingDay.firstOfMonth(lastDay)));
+    }
+
+    /**
+     * Fold newly inserted records into their monthly sketches. Call inside the transaction
+     * that inserted them, so the rows never disagree with exercise_records.
+     */
+    public static void addSets(SupportSQLiteDatabase db, List<ExerciseRecord> records) {
+        if (records.isEmpty()) return;
+        Map<Long, Month> months = new HashMap<>();
+        for (ExerciseRecord record : records) {
+            long monthStart = TrainingDay.firstOfMonth(record.getEpochDay());
+            long key = ((long) record.getExerciseId() << 32) ^ (monthStart & 0xFFFFFFFFL);
+            Month month = months.get(key);
+            if (month == null) {
+                month = readMonth(db, record.getExerciseId(), monthStart);
+                months.put(key, month);
+            }
+            month.add(record.getWeight(), record.getReps(), record.getSets());
+        }
+
+        SupportSQLiteStatement upsert = db.compileStatement(UPSERT);
+        for (Month month : months.values()) {
+            month.write(upsert);
+        }
+    }
+
+    /**
+     * Recompute the month holding a cleared day from the records left in it
+     */
+    @WorkerThread
+    public static void onDayCleared(FitnessDatabase database, long epochDay) {
+        long monthStart = TrainingDay.firstOfMonth(epochDay);
+        long monthEnd = monthStart + TrainingDay.daysInMonth(monthStart) - 1;
+        database.runInTransaction(() -> {
+            SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+            db.execSQL("DELETE FROM exercise_distribution WHERE monthStart = ?", new Object[]{monthStart});
+            rebuild(db, String.format(RECORDS_BY_MONTH, "WHERE epochDay BETWEEN ? AND ?"),
+                    new Object[]{monthStart, monthEnd});
+        });
+    }
+
+    /**
+     * Recompute one exercise's month from its records after a record in it was edited or
+     * deleted. Call inside the transaction that changed the record.
+     */
+    public static void rebuildMonth(SupportSQLiteDatabase db, int exerciseId, long epochDay) {
+        long monthStart = TrainingDay.firstOfMonth(epochDay);
+        long monthEnd = monthStart + TrainingDay.daysInMonth(monthStart) - 1;
+        db.execSQL("DELETE FROM exercise_distribution WHERE exerciseId = ? AND monthStart = ?",
+                new Object[]{exerciseId, monthStart});
+        rebuild(db, String.format(RECORDS_BY_MONTH, "WHERE exerciseId = ? AND epochDay BETWEEN ? AND ?"),
+                new Object[]{exerciseId, monthStart, monthEnd});
+    }
+
+    @WorkerThread
+    public static void onAllCleared(FitnessDatabase database) {
+        database.getOpenHelper().getWritableDatabase().execSQL("DELETE FROM exercise_distribution");
+    }
+
+    /**
+     * Recompute every row from exercise_records in one pass, e.g. when the table is created
+     */
+    public static void rebuildAll(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM exercise_distribution");
+        rebuild(db, String.format(RECORDS_BY_MONTH, ""), new Object[0]);
+    }
+
+    private static void rebuild(SupportSQLiteDatabase db, String sql, Object[] args) {
+        SupportSQLiteStatement upsert = db.compileStatement(UPSERT);
+        Month month = null;
+        try (Cursor cursor = db.query(sql, args)) {
+            while (cursor.moveToNext()) {
+                int exerciseId = cursor.getInt(0);
+                long monthStart = TrainingDay.firstOfMonth(cursor.getLong(1));
+                if (month == null || month.exerciseId != exerciseId || month.monthStart != monthStart) {
+                    if (month != null) month.write(upsert);
+                    month = new Month(exerciseId, monthStart, null, null, 0);
+                }
+                month.add(cursor.getFloat(2), cursor.getInt(3), cursor.getInt(4));
+            }
+        }
+        if (month != null) month.write(upsert);
+    }
+
+    private static Month readMonth(SupportSQLiteDatabase db, int exerciseId, long monthStart) {
+        try (Cursor cursor = db.query("SELECT weightSketch, repsSketch, setCount FROM exercise_distribution "
+                + "WHERE exerciseId = ? AND monthStart = ?", new Object[]{exerciseId, monthStart})) {
+            if (cursor.moveToFirst()) {
+                return new Month(exerciseId, monthStart, QuantileSketch.fromBytes(cursor.getBlob(0)),
+                        QuantileSketch.fromBytes(cursor.getBlob(1)), cursor.getInt(2));
+            }
+        }
+        return new Month(exerciseId, monthStart, null, null, 0);
+    }
+
+    /**
+     * One row being built or updated
+     */
+    private static final class Month {
+        final int exerciseId;
+        final long monthStart;
+        final QuantileSketch weights;
+        final QuantileSketch reps;
+        int setCount;
+
+        Month(int exerciseId, long monthStart, @Nullable QuantileSketch weights,
+              @Nullable QuantileSketch reps, int setCount) {
+            this.exerciseId = exerciseId;
+            this.monthStart = monthStart;
+            // An unreadable row starts over; only a format change can cause one
+            boolean readable = weights != null && reps != null;
+            this.weights = readable ? weights : new QuantileSketch();
+            this.reps = readable ? reps : new QuantileSketch();
+            this.setCount = readable ? setCount : 0;
+        }
+
+        void add(float weight, int repCount, int sets) {
+            // A row may stand for several identical sets
+            for (int i = 0; i < sets; i++) {
+                weights.update(weight);
+                reps.update(repCount);
+            }
+            setCount += sets;
+        }
+
+        void write(SupportSQLiteStatement upsert) {
+            upsert.clearBindings();
+            upsert.bindLong(1, exerciseId);
+            upsert.bindLong(2, monthStart);
+            upsert.bindLong(3, setCount);
+            upsert.bindBlob(4, weights.toBytes());
+            upsert.bindBlob(5, reps.toBytes());
+            upsert.executeInsert();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import com.kanworks.buildbizeps.data.entity.ExerciseProgress;
+
+import java.util.Arrays;
+
+/**
+ * Every logged set of one exercise as parallel primitive arrays, ordered by timestamp.
+ * Analytics read the columns directly, so a pass over years of sets allocates nothing per row.
+ */
+public class ExerciseSeries {
+    
+    private static final int MIN_CAPACITY = 16;
+    
+    private final int exerciseId;
+    private long[] timestamps;
+    private float[] weights;
+    private int[] reps;
+    private int[] sets;
+    private int size;
+    
+    public ExerciseSeries(int exerciseId, int capacity) {
+        this.exerciseId = exerciseId;
+        capacity = Math.max(capacity, MIN_CAPACITY);
+        timestamps = new long[capacity];
+        weights = new float[capacity];
+        reps = new int[capacity];
+        sets = new int[capacity];
+    }
+    
+    private ExerciseSeries(ExerciseSeries other) {
+        exerciseId = other.exerciseId;
+        size = other.size;
+        timestamps = Arrays.copyOf(other.timestamps, size);
+        weights = Arrays.copyOf(other.weights, size);
+        reps = Arrays.copyOf(other.reps, size);
+        sets = Arrays.copyOf(other.sets, size);
+    }
+    
+    /**
+     * Add a set, keeping timestamp order (a late journal replay may arrive out of order)
+     */
+    public void append(long timestamp, float weight, int setReps, int setCount) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        int index = size;
+        if (size > 0 && timestamp < timestamps[size - 1]) {
+            index = indexAtOrAfter(timestamp);
+            int moved = size - index;
+            System.arraycopy(timestamps, index, timestamps, index + 1, moved);
+            System.arraycopy(weights, index, weights, index + 1, moved);
+            System.arraycopy(reps, index, reps, index + 1, moved);
+            System.arraycopy(sets, index, sets, index + 1, moved);
+        }
+        timestamps[index] = timestamp;
+        weights[index] = weight;
+        reps[index] = setReps;
+        sets[index] = setCount;
+        size++;
+    }
+    
+    private void grow() {
+        int capacity = timestamps.length + (timestamps.length >> 1);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        reps = Arrays.copyOf(reps, capacity);
+        sets = Arrays.copyOf(sets, capacity);
+    }
+    
+    /**
+     * Trimmed copy that is safe to read while this series keeps growing
+     */
+    public ExerciseSeries copy() {
+        return new ExerciseSeries(this);
+    }
+    
+    public int getExerciseId() { return exerciseId; }
+    
+    public int size() { return size; }
+    
+    public long timestampAt(int i) { return timestamps[i]; }
+    
+    public float weightAt(int i) { return weights[i]; }
+    
+    public int repsAt(int i) { return reps[i]; }
+    
+    public int setsAt(int i) { return sets[i]; }
+    
+    /**
+     * First index whose timestamp is >= the given one, or size() if there is none
+     */
+    public int indexAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    public float maxWeight() {
+        float max = 0f;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, weights[i]);
+        }
+        return max;
+    }
+    
+    /**
+     * Best estimated one-rep max over all sets, same estimate as the exercise_progress rollup
+     */
+    public double bestEstimatedOneRepMax() {
+        double best = 0;
+        for (int i = 0; i < size; i++) {
+            best = Math.max(best, ExerciseProgress.estimateOneRepMax(weights[i], reps[i]));
+        }
+        return best;
+    }
+    
+    /**
+     * Tonnage (sets * reps * weight) of the sets in [fromMillis, toMillis)
+     */
+    public double volumeBetween(long fromMillis, long toMillis) {
+        double volume = 0;
+        for (int i = indexAtOrAfter(fromMillis); i < size && timestamps[i] < toMillis; i++) {
+            volume += (double) sets[i] * reps[i] * weights[i];
+        }
+        return volume;
+    }
+    
+    /**
+     * Bytes held by the column arrays, including unused capacity
+     */
+    public long footprintBytes() {
+        return (long) timestamps.length * (Long.BYTES + Float.BYTES + Integer.BYTES + Integer.BYTES);
+    }
+}
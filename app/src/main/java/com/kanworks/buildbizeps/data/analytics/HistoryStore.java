@@ -0,0 +1,219 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.ExerciseTrend;
+
+import java.util.List;
+
+/**
+ * In-memory columnar copy of exercise_records, one ExerciseSeries per exercise.
+ * Loaded once with a raw cursor (no entity objects, no Date boxing), then kept current by
+ * the set write queue appending each batch it commits. Code that deletes records calls
+ * invalidate() so the next reader reloads.
+ *
+ * Like TrainingLoad, the store remembers the highest record id it holds: appends at or below
+ * it are already in, and each reader first catches up on any rows above it, so a batch that
+ * commits while the store is loading is neither lost nor counted twice. A load that was
+ * still running when invalidate() was called is thrown away instead of being published.
+ */
+public final class HistoryStore {
+
+    private static final long TREND_WINDOW_MS = LoadWindow.CHRONIC_DAYS * 24 * 3600_000L;
+
+    private static volatile HistoryStore INSTANCE;
+    // Bumped by invalidate(); guarded by the class lock
+    private static int generation;
+
+    private final SparseArray<ExerciseSeries> seriesByExercise;
+    private long loadedThroughId;
+
+    private HistoryStore(SparseArray<ExerciseSeries> seriesByExercise, long loadedThroughId) {
+        this.seriesByExercise = seriesByExercise;
+        this.loadedThroughId = loadedThroughId;
+    }
+
+    /**
+     * The app-wide store, loading it from the database on first use
+     */
+    @WorkerThread
+    public static HistoryStore getInstance(Context context) {
+        return getInstance(FitnessDatabase.getDatabase(context));
+    }
+
+    @WorkerThread
+    static HistoryStore getInstance(FitnessDatabase database) {
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        HistoryStore store = INSTANCE;
+        while (store == null) {
+            int startedAt = currentGeneration();
+            // Outside the lock, so appends and invalidate() never wait on a full load
+            store = publish(load(db), startedAt);
+        }
+        store.catchUp(db);
+        return store;
+    }
+
+    /**
+     * Drop the loaded store after records were deleted; the next getInstance() reloads
+     */
+    public static void invalidate() {
+        synchronized (HistoryStore.class) {
+            INSTANCE = null;
+            generation++;
+        }
+    }
+
+    /**
+     * Called after new sets are committed; a no-op until something has loaded the store
+     */
+    public static void onSetsWritten(List<ExerciseRecord> records) {
+        HistoryStore store = INSTANCE;
+        if (store == null) return;
+        for (ExerciseRecord record : records) {
+            store.append(record.getId(), record.getExerciseId(), record.getTimestamp().getTime(),
+                    record.getWeight(), record.getReps(), record.getSets());
+        }
+    }
+
+    static int currentGeneration() {
+        synchronized (HistoryStore.class) {
+            return generation;
+        }
+    }
+
+    /**
+     * Make a finished load the app-wide store, unless invalidate() ran since it started
+     * @return the published store, or null if the load is stale and must be repeated
+     */
+    @Nullable
+    static HistoryStore publish(HistoryStore loaded, int startedAt) {
+        synchronized (HistoryStore.class) {
+            if (generation != startedAt) return null;
+            if (INSTANCE == null) {
+                INSTANCE = loaded;
+            }
+            return INSTANCE;
+        }
+    }
+
+    /**
+     * Read every record up to the current highest id column-by-column; arrays are sized
+     * exactly from a per-exercise count
+     */
+    @NonNull
+    public static HistoryStore load(SupportSQLiteDatabase db) {
+        // Fix the end first; rows committed after this are left for catchUp()
+        long maxId = 0;
+        try (Cursor cursor = db.query("SELECT COALESCE(MAX(id), 0) FROM exercise_records")) {
+            if (cursor.moveToFirst()) maxId = cursor.getLong(0);
+        }
+
+        SparseArray<ExerciseSeries> seriesByExercise = new SparseArray<>();
+        try (Cursor counts = db.query("SELECT exerciseId, COUNT(*) FROM exercise_records "
+                + "WHERE id <= ? GROUP BY exerciseId", new Object[]{maxId})) {
+            while (counts.moveToNext()) {
+                int exerciseId = counts.getInt(0);
+                seriesByExercise.put(exerciseId, new ExerciseSeries(exerciseId, counts.getInt(1)));
+            }
+        }
+
+        HistoryStore store = new HistoryStore(seriesByExercise, maxId);
+        try (Cursor cursor = db.query("SELECT exerciseId, timestamp, weight, reps, sets "
+                + "FROM exercise_records WHERE id <= ? ORDER BY exerciseId, timestamp", new Object[]{maxId})) {
+            ExerciseSeries current = null;
+            while (cursor.moveToNext()) {
+                int exerciseId = cursor.getInt(0);
+                if (current == null || current.getExerciseId() != exerciseId) {
+                    // Only missing if the exercise's records were rewritten between the two reads
+                    current = store.seriesFor(exerciseId);
+                }
+                current.append(cursor.getLong(1), cursor.getFloat(2), cursor.getInt(3), cursor.getInt(4));
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Add one committed record, unless the store already holds it
+     */
+    public synchronized void append(long recordId, int exerciseId, long timestamp, float weight, int reps, int sets) {
+        if (recordId <= loadedThroughId) return;
+        seriesFor(exerciseId).append(timestamp, weight, reps, sets);
+        loadedThroughId = recordId;
+    }
+
+    /**
+     * Append the records committed past the high-water mark, e.g. while the store was loading
+     */
+    synchronized void catchUp(SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT id, exerciseId, timestamp, weight, reps, sets "
+                + "FROM exercise_records WHERE id > ? ORDER BY id", new Object[]{loadedThroughId})) {
+            while (cursor.moveToNext()) {
+                append(cursor.getLong(0), cursor.getInt(1), cursor.getLong(2), cursor.getFloat(3),
+                        cursor.getInt(4), cursor.getInt(5));
+            }
+        }
+    }
+
+    private ExerciseSeries seriesFor(int exerciseId) {
+        ExerciseSeries series = seriesByExercise.get(exerciseId);
+        if (series == null) {
+            series = new ExerciseSeries(exerciseId, 0);
+            seriesByExercise.put(exerciseId, series);
+        }
+        return series;
+    }
+
+    /**
+     * Snapshot of one exercise's sets, or null if it has none
+     */
+    @Nullable
+    public synchronized ExerciseSeries getSeries(int exerciseId) {
+        ExerciseSeries series = seriesByExercise.get(exerciseId);
+        return series != null ? series.copy() : null;
+    }
+
+    /**
+     * Records and 28-day volume trend of one exercise, scanned straight off its columns;
+     * null if it has no sets
+     */
+    @Nullable
+    public synchronized ExerciseTrend getTrend(int exerciseId, long nowMillis) {
+        ExerciseSeries series = seriesByExercise.get(exerciseId);
+        if (series == null || series.size() == 0) return null;
+        long recentStart = nowMillis - TREND_WINDOW_MS;
+        return new ExerciseTrend(series.size(), series.maxWeight(), series.bestEstimatedOneRepMax(),
+                series.volumeBetween(recentStart, Long.MAX_VALUE),
+                series.volumeBetween(recentStart - TREND_WINDOW_MS, recentStart));
+    }
+
+    public synchronized long getLoadedThroughId() {
+        return loadedThroughId;
+    }
+
+    public synchronized int getSetCount() {
+        int count = 0;
+        for (int i = 0; i < seriesByExercise.size(); i++) {
+            count += seriesByExercise.valueAt(i).size();
+        }
+        return count;
+    }
+
+    public synchronized long footprintBytes() {
+        long bytes = 0;
+        for (int i = 0; i < seriesByExercise.size(); i++) {
+            bytes += seriesByExercise.valueAt(i).footprintBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,98 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import com.kanworks.buildbizeps.data.model.WorkloadSnapshot;
+
+/**
+ * Rolling 7-day (acute) and 28-day (chronic) sets and tonnage over a ring of per-day slots.
+ * Slot epochDay % CHRONIC_DAYS holds that day while it is one of the last 28; adding a set
+ * touches one slot and the two running sums. Moving to a later day clears only the slots
+ * that fall out, at most 28, and re-sums the ring so float error never accumulates.
+ *
+ * Not thread-safe; TrainingLoad guards it.
+ */
+public class LoadWindow {
+
+    public static final int ACUTE_DAYS = 7;
+    public static final int CHRONIC_DAYS = 28;
+
+    private final double[] tonnage = new double[CHRONIC_DAYS];
+    private final int[] sets = new int[CHRONIC_DAYS];
+
+    // Latest day in the ring; the ring covers currentDay - 27 .. currentDay
+    private long currentDay;
+    private double acuteTonnage;
+    private double chronicTonnage;
+    private int acuteSets;
+    private int chronicSets;
+
+    public LoadWindow(long currentDay) {
+        this.currentDay = currentDay;
+    }
+
+    public long getCurrentDay() {
+        return currentDay;
+    }
+
+    /**
+     * Count sets on a day. Days after the current one advance the window first; days that
+     * have already left the 28-day window are ignored.
+     */
+    public void add(long epochDay, int setCount, double setTonnage) {
+        if (epochDay > currentDay) {
+            advanceTo(epochDay);
+        }
+        long age = currentDay - epochDay;
+        if (age >= CHRONIC_DAYS) return;
+
+        int slot = slotOf(epochDay);
+        sets[slot] += setCount;
+        tonnage[slot] += setTonnage;
+        chronicSets += setCount;
+        chronicTonnage += setTonnage;
+        if (age < ACUTE_DAYS) {
+            acuteSets += setCount;
+            acuteTonnage += setTonnage;
+        }
+    }
+
+    /**
+     * Move the window's end to a later day, e.g. at day rollover; earlier days are a no-op
+     */
+    public void advanceTo(long epochDay) {
+        if (epochDay <= currentDay) return;
+
+        long steps = Math.min(epochDay - currentDay, CHRONIC_DAYS);
+        // The slots of the new days held the days that are now 28 or more days old
+        for (long day = epochDay - steps + 1; day <= epochDay; day++) {
+            int slot = slotOf(day);
+            sets[slot] = 0;
+            tonnage[slot] = 0;
+        }
+        currentDay = epochDay;
+        resum();
+    }
+
+    private void resum() {
+        acuteTonnage = 0;
+        chronicTonnage = 0;
+        acuteSets = 0;
+        chronicSets = 0;
+        for (int age = 0; age < CHRONIC_DAYS; age++) {
+            int slot = slotOf(currentDay - age);
+            chronicSets += sets[slot];
+            chronicTonnage += tonnage[slot];
+            if (age < ACUTE_DAYS) {
+                acuteSets += sets[slot];
+                acuteTonnage += tonnage[slot];
+            }
+        }
+    }
+
+    public WorkloadSnapshot snapshot() {
+        return new WorkloadSnapshot(currentDay, acuteSets, chronicSets, acuteTonnage, chronicTonnage);
+    }
+
+    private static int slotOf(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) CHRONIC_DAYS);
+    }
+}
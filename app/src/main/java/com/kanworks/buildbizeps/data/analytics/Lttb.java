@@ -0,0 +1,76 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013). Keeps the first and last
+ * point and, from each of threshold - 2 equal buckets in between, the point that spans the
+ * largest triangle with the point kept before it and the average of the next bucket. Peaks
+ * and dips survive, unlike plain averaging or every-nth sampling. One pass, O(n).
+ */
+public final class Lttb {
+
+    private Lttb() {}
+
+    /**
+     * Indices of the points to keep, ascending
+     *
+     * @param x         ascending x values
+     * @param y         y value of each point
+     * @param threshold most points to keep; below 3, or with no more points than this,
+     *                  every point is kept
+     */
+    public static int[] select(long[] x, float[] y, int threshold) {
+        int n = x.length;
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+
+        int[] kept = new int[threshold];
+        int count = 0;
+        kept[count++] = 0;
+
+        // Points 1 .. n - 2 are split into threshold - 2 buckets
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket; the last point for the final bucket
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            if (nextStart >= n - 1) {
+                nextStart = n - 1;
+                nextEnd = n;
+            }
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            double previousX = x[previous];
+            double previousY = y[previous];
+            double largestArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle's area; only the comparison matters
+                double area = Math.abs((previousX - averageX) * (y[i] - previousY)
+                        - (previousX - x[i]) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = i;
+                }
+            }
+            kept[count++] = chosen;
+            previous = chosen;
+        }
+
+        kept[count] = n - 1;
+        return kept;
+    }
+}
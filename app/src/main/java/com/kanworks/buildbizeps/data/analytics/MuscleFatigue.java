@@ -0,0 +1,301 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.AtomicFile;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.MuscleReadiness;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fatigue per muscle group (Exercise.muscleGroup), as an exponentially decaying count of
+ * sets: each set adds its set count, and the total halves every HALF_LIFE_HOURS. A group
+ * only stores its fatigue at its last update and the time of it, so logging a set is O(1)
+ * and decay is applied on read.
+ *
+ * The state, plus the id of the last record folded in, lives in a small file. On first use
+ * records after that id are caught up in one pass; with no file, backfill() streams the
+ * recent records once. Code that deletes records calls invalidate(), which drops the file.
+ */
+public final class MuscleFatigue {
+
+    private static final String TAG = "MuscleFatigue";
+    private static final String FILE_NAME = "muscle_fatigue.bin";
+    private static final int FORMAT_VERSION = 1;
+
+    static final double HALF_LIFE_HOURS = 48;
+    private static final double DECAY_PER_MILLI = Math.log(2) / (HALF_LIFE_HOURS * 3600_000L);
+
+    // Sets still "carried" at which a group counts as fully fatigued
+    static final double FATIGUED_SETS = 12;
+
+    // Older sets have decayed below a thousandth of a set
+    private static final long BACKFILL_HORIZON_MS = 30L * 24 * 3600_000L;
+
+    private static final String UNGROUPED = "other";
+
+    private static volatile MuscleFatigue INSTANCE;
+
+    private final AtomicFile file;
+    private final MutableLiveData<Long> changes = new MutableLiveData<>(0L);
+    private long version;
+
+    // Null until first read, and again after invalidate()
+    @Nullable
+    private Map<String, GroupState> groups;
+    private long lastRecordId;
+
+    MuscleFatigue(File file) {
+        this.file = new AtomicFile(file);
+    }
+
+    public static MuscleFatigue getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (MuscleFatigue.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MuscleFatigue(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Called after new sets are committed; a no-op until something has loaded the model,
+     * since loading catches up on records past the saved id anyway
+     */
+    @WorkerThread
+    public static void onSetsWritten(FitnessDatabase database, List<ExerciseRecord> records) {
+        MuscleFatigue model = INSTANCE;
+        if (model != null) model.addSets(database, records);
+    }
+
+    /**
+     * Bumped whenever a group's fatigue changes by more than decay
+     */
+    public LiveData<Long> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Readiness of every trained group at the given time, least ready first
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized List<MuscleReadiness> getReadiness(FitnessDatabase database, long nowMillis) {
+        Map<String, GroupState> loaded = load(database, nowMillis);
+        List<MuscleReadiness> readiness = new ArrayList<>(loaded.size());
+        for (Map.Entry<String, GroupState> entry : loaded.entrySet()) {
+            double fatigue = entry.getValue().fatigueAt(nowMillis);
+            readiness.add(new MuscleReadiness(entry.getKey(), fatigue,
+                    Math.max(0, 1 - fatigue / FATIGUED_SETS)));
+        }
+        Collections.sort(readiness, (a, b) -> Double.compare(a.getReadiness(), b.getReadiness()));
+        return readiness;
+    }
+
+    @WorkerThread
+    synchronized void addSets(FitnessDatabase database, List<ExerciseRecord> records) {
+        if (groups == null || records.isEmpty()) return;
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        // Per batch and not kept, so an edited exercise maps to its current group
+        SparseArray<String> groupByExercise = new SparseArray<>();
+        boolean changed = false;
+        for (ExerciseRecord record : records) {
+            // Already folded in by a load that ran after the batch committed
+            if (record.getId() <= lastRecordId) continue;
+            add(groupOf(db, groupByExercise, record.getExerciseId()), record.getTimestamp().getTime(),
+                    record.getSets());
+            lastRecordId = record.getId();
+            changed = true;
+        }
+        if (changed) {
+            save();
+            notifyChanged();
+        }
+    }
+
+    /**
+     * Drop the saved state after records were deleted; the next reader backfills
+     */
+    public void invalidate() {
+        synchronized (this) {
+            groups = null;
+            file.delete();
+        }
+        notifyChanged();
+    }
+
+    /**
+     * Rebuild from exercise_records in one pass over the records of the last
+     * BACKFILL_HORIZON_MS, in timestamp order through index_exercise_records_timestamp
+     */
+    @WorkerThread
+    synchronized void backfill(FitnessDatabase database, long nowMillis) {
+        groups = new HashMap<>();
+        lastRecordId = 0;
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        // Fix the end first; a set committed during the pass is left for addSets()
+        try (Cursor cursor = db.query("SELECT COALESCE(MAX(id), 0) FROM exercise_records")) {
+            if (cursor.moveToFirst()) lastRecordId = cursor.getLong(0);
+        }
+        try (Cursor cursor = db.query("SELECT r.timestamp, r.sets, e.muscleGroup "
+                + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+                + "WHERE r.timestamp >= ? AND r.id <= ? ORDER BY r.timestamp",
+                new Object[]{nowMillis - BACKFILL_HORIZON_MS, lastRecordId})) {
+            while (cursor.moveToNext()) {
+                add(normalise(cursor.getString(2)), cursor.getLong(0), cursor.getInt(1));
+            }
+        }
+        Log.d(TAG, "Backfilled fatigue for " + groups.size() + " muscle groups");
+        save();
+    }
+
+    private Map<String, GroupState> load(FitnessDatabase database, long nowMillis) {
+        if (groups != null) return groups;
+        if (!read()) {
+            backfill(database, nowMillis);
+            return groups;
+        }
+
+        // Sets written while nothing had the model loaded
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        int caughtUp = 0;
+        try (Cursor cursor = db.query("SELECT r.timestamp, r.sets, e.muscleGroup, r.id "
+                + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+                + "WHERE r.id > ? ORDER BY r.id", new Object[]{lastRecordId})) {
+            while (cursor.moveToNext()) {
+                add(normalise(cursor.getString(2)), cursor.getLong(0), cursor.getInt(1));
+                lastRecordId = cursor.getLong(3);
+                caughtUp++;
+            }
+        }
+        if (caughtUp > 0) save();
+        return groups;
+    }
+
+    private void add(String group, long atMillis, int sets) {
+        GroupState state = groups.get(group);
+        if (state == null) {
+            state = new GroupState(0, atMillis);
+            groups.put(group, state);
+        }
+        state.add(atMillis, sets);
+    }
+
+    private static String groupOf(SupportSQLiteDatabase db, SparseArray<String> groupByExercise, int exerciseId) {
+        String group = groupByExercise.get(exerciseId);
+        if (group == null) {
+            try (Cursor cursor = db.query("SELECT muscleGroup FROM exercises WHERE id = ?",
+                    new Object[]{exerciseId})) {
+                group = normalise(cursor.moveToFirst() ? cursor.getString(0) : null);
+            }
+            groupByExercise.put(exerciseId, group);
+        }
+        return group;
+    }
+
+    private static String normalise(@Nullable String muscleGroup) {
+        if (muscleGroup == null || muscleGroup.trim().isEmpty()) return UNGROUPED;
+        return muscleGroup.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private boolean read() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+            if (in.readInt() != FORMAT_VERSION) return false;
+            long recordId = in.readLong();
+            int count = in.readInt();
+            Map<String, GroupState> read = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                read.put(in.readUTF(), new GroupState(in.readDouble(), in.readLong()));
+            }
+            groups = read;
+            lastRecordId = recordId;
+            return true;
+        } catch (FileNotFoundException e) {
+            return false;
+        } catch (IOException e) {
+            Log.w(TAG, "Unreadable fatigue file, backfilling", e);
+            return false;
+        }
+    }
+
+    private void save() {
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(lastRecordId);
+            out.writeInt(groups.size());
+            for (Map.Entry<String, GroupState> entry : groups.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue().fatigue);
+                out.writeLong(entry.getValue().updatedAt);
+            }
+            out.flush();
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            // Only costs a backfill on next start
+            Log.e(TAG, "Error saving fatigue", e);
+            if (stream != null) file.failWrite(stream);
+        }
+    }
+
+    private synchronized void notifyChanged() {
+        changes.postValue(++version);
+    }
+
+    /**
+     * One group's fatigue as of updatedAt
+     */
+    static final class GroupState {
+        double fatigue;
+        long updatedAt;
+
+        GroupState(double fatigue, long updatedAt) {
+            this.fatigue = fatigue;
+            this.updatedAt = updatedAt;
+        }
+
+        void add(long atMillis, double sets) {
+            if (atMillis >= updatedAt) {
+                fatigue = fatigueAt(atMillis) + sets;
+                updatedAt = atMillis;
+            } else {
+                // A set logged out of order still decays from its own time
+                fatigue += sets * Math.exp(-DECAY_PER_MILLI * (updatedAt - atMillis));
+            }
+        }
+
+        double fatigueAt(long nowMillis) {
+            if (nowMillis <= updatedAt) return fatigue;
+            return fatigue * Math.exp(-DECAY_PER_MILLI * (nowMillis - updatedAt));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming quantile sketch (KLL, Karnin-Lang-Liberty) over float values. Items sit in a
+ * stack of compactors; an item on level h stands for 2^h inputs. When a level fills up it is
+ * sorted and every other item is promoted one level, so the sketch keeps O(k) items however
+ * many values it has seen, with rank error around 1.7 / k.
+ *
+ * Two sketches merge by concatenating their levels and compacting, which is what lets one
+ * sketch per exercise and month be combined into any range of months. Below k items nothing
+ * is ever compacted, so a month of one exercise is stored exactly.
+ *
+ * Not thread-safe.
+ */
+public class QuantileSketch {
+
+    static final int DEFAULT_K = 200;
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 8;
+
+    private final int k;
+    private final List<float[]> levels = new ArrayList<>();
+    private int[] sizes = new int[0];
+    private long count;
+    private int retained;
+    private float min = Float.NaN;
+    private float max = Float.NaN;
+    // Picks the half that survives a compaction; fixed seed so equal inputs give equal sketches
+    private long coin = 0x9E3779B97F4A7C15L;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY) throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+        this.k = k;
+        addLevel();
+    }
+
+    /** Number of values seen */
+    public long getCount() { return count; }
+
+    public boolean isEmpty() { return count == 0; }
+
+    /** Smallest value seen, exact; NaN when empty */
+    public float getMin() { return min; }
+
+    /** Largest value seen, exact; NaN when empty */
+    public float getMax() { return max; }
+
+    /** Items kept, for tests and size checks */
+    int getRetained() { return retained; }
+
+    public void update(float value) {
+        if (Float.isNaN(value)) return;
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        push(0, value);
+        count++;
+        retained++;
+        if (retained >= maxRetained()) compress();
+    }
+
+    /**
+     * Fold another sketch into this one; the other sketch is not changed
+     */
+    public void merge(@NonNull QuantileSketch other) {
+        if (other.count == 0) return;
+        while (levels.size() < other.levels.size()) addLevel();
+        for (int h = 0; h < other.levels.size(); h++) {
+            float[] items = other.levels.get(h);
+            for (int i = 0; i < other.sizes[h]; i++) {
+                push(h, items[i]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        retained += other.retained;
+        while (retained >= maxRetained()) compress();
+    }
+
+    /**
+     * Estimated fraction of values strictly below the given one, in [0, 1]; NaN when empty
+     */
+    public double rank(float value) {
+        if (count == 0) return Double.NaN;
+        long below = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            float[] items = levels.get(h);
+            for (int i = 0; i < sizes[h]; i++) {
+                if (items[i] < value) below += 1L << h;
+            }
+        }
+        return (double) below / count;
+    }
+
+    /**
+     * Estimated value at the given fraction of the sorted input, e.g. 0.5 for the median;
+     * 0 and 1 give the exact min and max. NaN when empty.
+     */
+    public float quantile(double fraction) {
+        if (count == 0) return Float.NaN;
+        if (fraction <= 0) return min;
+        if (fraction >= 1) return max;
+
+        float[] items = new float[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            float[] level = levels.get(h);
+            for (int i = 0; i < sizes[h]; i++) {
+                items[n] = level[i];
+                weights[n] = 1L << h;
+                n++;
+            }
+        }
+        sortTogether(items, weights, n);
+
+        double target = fraction * count;
+        long cumulative = 0;
+        for (int i = 0; i < n; i++) {
+            cumulative += weights[i];
+            if (cumulative >= target) return items[i];
+        }
+        return max;
+    }
+
+    @NonNull
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 8 + 4 + 4 + 1 + 4 * levels.size() + 4 * retained);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(k);
+        buffer.putLong(count);
+        buffer.putFloat(min);
+        buffer.putFloat(max);
+        buffer.put((byte) levels.size());
+        for (int h = 0; h < levels.size(); h++) {
+            buffer.putInt(sizes[h]);
+            float[] items = levels.get(h);
+            for (int i = 0; i < sizes[h]; i++) {
+                buffer.putFloat(items[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Read a sketch written by toBytes(); null for a blob in an unknown or damaged format
+     */
+    @Nullable
+    public static QuantileSketch fromBytes(@Nullable byte[] bytes) {
+        if (bytes == null) return null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != FORMAT_VERSION) return null;
+            QuantileSketch sketch = new QuantileSketch(buffer.getInt());
+            sketch.count = buffer.getLong();
+            sketch.min = buffer.getFloat();
+            sketch.max = buffer.getFloat();
+            int levelCount = buffer.get();
+            while (sketch.levels.size() < levelCount) sketch.addLevel();
+            for (int h = 0; h < levelCount; h++) {
+                int size = buffer.getInt();
+                if (size < 0) return null;
+                for (int i = 0; i < size; i++) {
+                    sketch.push(h, buffer.getFloat());
+                }
+                sketch.retained += size;
+            }
+            return sketch;
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private int capacity(int level) {
+        int depth = levels.size() - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private int maxRetained() {
+        int total = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            total += capacity(h);
+        }
+        return total;
+    }
+
+    /**
+     * Compact the lowest full level: sort it and promote every other item, keeping one back
+     * if the count is odd
+     */
+    private void compress() {
+        for (int h = 0; h < levels.size(); h++) {
+            if (sizes[h] < capacity(h)) continue;
+            if (h + 1 == levels.size()) addLevel();
+
+            float[] items = levels.get(h);
+            int size = sizes[h];
+            Arrays.sort(items, 0, size);
+            int pairs = size / 2;
+            int start = size - 2 * pairs;
+            int offset = flip() ? 1 : 0;
+            for (int i = start + offset; i < size; i += 2) {
+                push(h + 1, items[i]);
+            }
+            sizes[h] = start;
+            retained -= pairs;
+            return;
+        }
+    }
+
+    private boolean flip() {
+        // xorshift64
+        coin ^= coin << 13;
+        coin ^= coin >>> 7;
+        coin ^= coin << 17;
+        return (coin & 1) != 0;
+    }
+
+    private void addLevel() {
+        levels.add(new float[MIN_CAPACITY]);
+        sizes = Arrays.copyOf(sizes, levels.size());
+    }
+
+    private void push(int level, float value) {
+        float[] items = levels.get(level);
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels.set(level, items);
+        }
+        items[sizes[level]++] = value;
+    }
+
+    private static void sortTogether(float[] items, long[] weights, int n) {
+        // Levels are only sorted right after a compaction, so sort everything with its weight
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Float.compare(items[a], items[b]));
+        float[] sortedItems = new float[n];
+        long[] sortedWeights = new long[n];
+        for (int i = 0; i < n; i++) {
+            sortedItems[i] = items[order[i]];
+            sortedWeights[i] = weights[order[i]];
+        }
+        System.arraycopy(sortedItems, 0, items, 0, n);
+        System.arraycopy(sortedWeights, 0, weights, 0, n);
+    }
+}
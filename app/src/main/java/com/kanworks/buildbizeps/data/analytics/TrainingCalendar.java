@@ -0,0 +1,133 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.MonthActivity;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-day training activity for the calendar heatmap, cached by month.
+ * A month is read with one primary-key range query on daily_summary, which the triggers
+ * keep grouped by local day, so it costs the same however long the history is.
+ * It is kept current by the set write queue: each committed batch
+ * re-reads just the days it touched. Code that deletes records calls invalidate().
+ */
+public final class TrainingCalendar {
+
+    // A year of browsing; a month is two small arrays
+    private static final int MAX_MONTHS = 12;
+
+    private static final TrainingCalendar INSTANCE = new TrainingCalendar();
+
+    // Keyed by the training day of the first of the month
+    private final LruCache<Long, MonthActivity> months = new LruCache<>(MAX_MONTHS);
+    private final AtomicLong version = new AtomicLong();
+    private final MutableLiveData<Long> changes = new MutableLiveData<>(0L);
+
+    private TrainingCalendar() {}
+
+    public static TrainingCalendar getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Bumped whenever a cached month changes or the cache is dropped
+     */
+    public LiveData<Long> getChanges() {
+        return changes;
+    }
+
+    /**
+     * The month containing the given day, if it is cached
+     */
+    @Nullable
+    public MonthActivity getCachedMonth(long epochDay) {
+        return months.get(TrainingDay.firstOfMonth(epochDay));
+    }
+
+    /**
+     * The month containing the given day, loading it on a miss
+     */
+    @WorkerThread
+    @NonNull
+    public MonthActivity getMonth(FitnessDatabase database, long epochDay) {
+        long firstDay = TrainingDay.firstOfMonth(epochDay);
+        MonthActivity month = months.get(firstDay);
+        if (month != null) return month;
+
+        long loadVersion = version.get();
+        long lastDay = firstDay + TrainingDay.daysInMonth(firstDay) - 1;
+        month = MonthActivity.fromRollups(firstDay,
+                database.dailySummaryDao().getRollupsBetween(firstDay, lastDay));
+        synchronized (this) {
+            // A write or delete landed while loading; hand this result out but don't keep it
+            if (version.get() == loadVersion) {
+                months.put(firstDay, month);
+            }
+        }
+        return month;
+    }
+
+    /**
+     * Called after new sets are committed: re-read the rollup row of each day they landed on,
+     * for months that are cached. A no-op for months nobody has looked at.
+     */
+    @WorkerThread
+    public void onSetsWritten(FitnessDatabase database, List<ExerciseRecord> records) {
+        TreeSet<Long> days = new TreeSet<>();
+        for (ExerciseRecord record : records) {
+            days.add(record.getEpochDay());
+        }
+        if (days.isEmpty()) return;
+
+        // Also stops a month load that read before this batch committed from being cached
+        version.incrementAndGet();
+        boolean changed = false;
+        for (long day : days) {
+            if (months.get(TrainingDay.firstOfMonth(day)) == null) continue;
+            DailyRollup rollup = database.dailySummaryDao().getDailyRollup(day);
+            synchronized (this) {
+                MonthActivity month = months.get(TrainingDay.firstOfMonth(day));
+                if (month == null) continue;
+                months.put(month.getFirstDay(), rollup != null
+                        ? month.withDay(day, rollup.getTotalSets(), rollup.getTotalTonnage())
+                        : month.withDay(day, 0, 0));
+                changed = true;
+            }
+        }
+        if (changed) {
+            changes.postValue(version.get());
+        }
+    }
+
+    /**
+     * Drop every cached month after records were deleted; the next reader reloads
+     */
+    public void invalidate() {
+        synchronized (this) {
+            months.evictAll();
+            version.incrementAndGet();
+        }
+        changes.postValue(version.get());
+    }
+
+    /**
+     * Months currently cached, for tests
+     */
+    int cachedMonthCount() {
+        return months.size();
+    }
+}
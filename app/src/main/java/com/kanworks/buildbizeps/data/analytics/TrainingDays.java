@@ -0,0 +1,228 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.ConsistencyStats;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Every day anything was trained, as a DayBitSet kept in memory and in a small file, for
+ * streaks and days-per-week/month/year without listing workout dates from the database.
+ *
+ * On first use the file is checked against a count/sum/max fingerprint of the trained days
+ * in daily_summary and rebuilt from that table if it is missing or out of step, e.g. because
+ * sets were written while nothing had loaded it. After that, like TrainingCalendar, it is kept
+ * current by the set write queue and the delete paths through the static hooks below.
+ */
+public final class TrainingDays {
+
+    private static final String TAG = "TrainingDays";
+    private static final String FILE_NAME = "training_days.bin";
+
+    private static final String TRAINED_DAYS = "FROM daily_summary WHERE totalSets > 0";
+
+    private static volatile TrainingDays INSTANCE;
+
+    private final AtomicFile file;
+    private final MutableLiveData<Long> changes = new MutableLiveData<>(0L);
+    private long version;
+    // Null until first read, and again after invalidate()
+    @Nullable
+    private DayBitSet days;
+
+    TrainingDays(File file) {
+        this.file = new AtomicFile(file);
+    }
+
+    /**
+     * The app-wide index; cheap, the file and database are only read on first query
+     */
+    public static TrainingDays getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (TrainingDays.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new TrainingDays(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Called after new sets are committed; a no-op until something has loaded the index
+     */
+    public static void onSetsWritten(List<ExerciseRecord> records) {
+        TrainingDays index = INSTANCE;
+        if (index != null) index.markTrained(records);
+    }
+
+    /**
+     * Called after every record of a day was deleted
+     */
+    public static void onDayCleared(long epochDay) {
+        TrainingDays index = INSTANCE;
+        if (index != null) index.clearDay(epochDay);
+    }
+
+    /**
+     * Called after all records were deleted
+     */
+    public static void onAllCleared() {
+        TrainingDays index = INSTANCE;
+        if (index != null) index.clearAll();
+    }
+
+    /**
+     * Called after records of unknown days were deleted; the next reader re-checks the database
+     */
+    public static void invalidate() {
+        TrainingDays index = INSTANCE;
+        if (index != null) index.reset();
+    }
+
+    /**
+     * Bumped whenever the set of trained days changes
+     */
+    public LiveData<Long> getChanges() {
+        return changes;
+    }
+
+    @WorkerThread
+    @NonNull
+    public synchronized ConsistencyStats getStats(FitnessDatabase database, long today) {
+        DayBitSet trained = load(database);
+        // Today doesn't break the streak until it is over
+        int currentStreak = trained.get(today) ? trained.runEndingAt(today) : trained.runEndingAt(today - 1);
+        return new ConsistencyStats(
+                currentStreak,
+                trained.longestRun(),
+                trained.count(TrainingDay.firstOfWeek(today), today),
+                trained.count(TrainingDay.firstOfMonth(today), today),
+                trained.count(TrainingDay.firstOfYear(today), today),
+                trained.cardinality());
+    }
+
+    /**
+     * Trained days from firstDay to lastDay inclusive, e.g. one week of a frequency chart
+     */
+    @WorkerThread
+    public synchronized int countDays(FitnessDatabase database, long firstDay, long lastDay) {
+        return load(database).count(firstDay, lastDay);
+    }
+
+    synchronized void markTrained(List<ExerciseRecord> records) {
+        if (days == null) return;
+        boolean changed = false;
+        for (ExerciseRecord record : records) {
+            changed |= days.set(record.getEpochDay());
+        }
+        // Usually only the first set of the day changes anything
+        if (changed) {
+            save(days);
+            notifyChanged();
+        }
+    }
+
+    synchronized void clearDay(long epochDay) {
+        if (days == null || !days.clear(epochDay)) return;
+        save(days);
+        notifyChanged();
+    }
+
+    synchronized void clearAll() {
+        if (days == null) return;
+        days.clearAll();
+        save(days);
+        notifyChanged();
+    }
+
+    synchronized void reset() {
+        days = null;
+        notifyChanged();
+    }
+
+    private DayBitSet load(FitnessDatabase database) {
+        if (days != null) return days;
+
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        DayBitSet stored = read();
+        if (stored != null && matchesDatabase(stored, db)) {
+            days = stored;
+            return days;
+        }
+
+        DayBitSet rebuilt = new DayBitSet();
+        try (Cursor cursor = db.query("SELECT epochDay " + TRAINED_DAYS)) {
+            while (cursor.moveToNext()) {
+                rebuilt.set(cursor.getLong(0));
+            }
+        }
+        Log.d(TAG, "Rebuilt " + rebuilt.cardinality() + " training days from the database");
+        save(rebuilt);
+        days = rebuilt;
+        return days;
+    }
+
+    private static boolean matchesDatabase(DayBitSet stored, SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT COUNT(*), COALESCE(SUM(epochDay), 0), COALESCE(MAX(epochDay), -1) "
+                + TRAINED_DAYS)) {
+            if (!cursor.moveToFirst()) return false;
+            return cursor.getInt(0) == stored.cardinality()
+                    && cursor.getLong(1) == stored.sum()
+                    && cursor.getLong(2) == stored.last();
+        }
+    }
+
+    @Nullable
+    private DayBitSet read() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+            return DayBitSet.readFrom(in);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            Log.w(TAG, "Unreadable training day file, rebuilding", e);
+            return null;
+        }
+    }
+
+    private void save(DayBitSet trained) {
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            trained.writeTo(out);
+            out.flush();
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            // Only costs a rebuild on next start
+            Log.e(TAG, "Error saving training days", e);
+            if (stream != null) file.failWrite(stream);
+        }
+    }
+
+    private void notifyChanged() {
+        changes.postValue(++version);
+    }
+}
@@ -0,0 +1,140 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.database.Cursor;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.WorkloadSnapshot;
+
+import java.util.List;
+
+/**
+ * Acute/chronic training load for the whole user and per exercise, one LoadWindow each.
+ * Filled once from the last 28 days with one grouped query, then advanced by the set write
+ * queue: each committed set adds to two ring slots, O(1) however long the history is.
+ * Windows move to a new day lazily, when a set or a read arrives on it. Code that deletes
+ * records calls invalidate() so the next reader reloads.
+ */
+public final class TrainingLoad {
+
+    private static final TrainingLoad INSTANCE = new TrainingLoad();
+
+    private final MutableLiveData<Long> changes = new MutableLiveData<>(0L);
+    private long version;
+
+    // Null until first read, and again after invalidate()
+    @Nullable
+    private LoadWindow overall;
+    private final SparseArray<LoadWindow> byExercise = new SparseArray<>();
+    // Highest record id the load saw; a batch committed just before the load is already in it
+    private long loadedThroughId;
+
+    private TrainingLoad() {}
+
+    public static TrainingLoad getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Bumped whenever sets are added or the engine is dropped
+     */
+    public LiveData<Long> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Load of all exercises together, as of the given day
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized WorkloadSnapshot getOverall(FitnessDatabase database, long today) {
+        load(database, today);
+        overall.advanceTo(today);
+        return overall.snapshot();
+    }
+
+    /**
+     * Load of one exercise as of the given day; all zero if it wasn't trained in 28 days
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized WorkloadSnapshot getExercise(FitnessDatabase database, int exerciseId, long today) {
+        load(database, today);
+        LoadWindow window = byExercise.get(exerciseId);
+        if (window == null) {
+            return new LoadWindow(today).snapshot();
+        }
+        window.advanceTo(today);
+        return window.snapshot();
+    }
+
+    /**
+     * Called after new sets are committed; a no-op until something has loaded the engine
+     */
+    public void onSetsWritten(List<ExerciseRecord> records) {
+        synchronized (this) {
+            if (overall == null || records.isEmpty()) return;
+            for (ExerciseRecord record : records) {
+                if (record.getId() <= loadedThroughId) continue;
+                add(record.getExerciseId(), record.getEpochDay(), record.getSets(),
+                        (double) record.getSets() * record.getReps() * record.getWeight());
+            }
+        }
+        notifyChanged();
+    }
+
+    /**
+     * Drop the engine after records were deleted; the next reader reloads
+     */
+    public void invalidate() {
+        synchronized (this) {
+            overall = null;
+            byExercise.clear();
+        }
+        notifyChanged();
+    }
+
+    private void load(FitnessDatabase database, long today) {
+        if (overall != null) return;
+
+        overall = new LoadWindow(today);
+        byExercise.clear();
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        // At most 28 rows per exercise, read through the epochDay index
+        loadedThroughId = 0;
+        try (Cursor cursor = db.query("SELECT exerciseId, epochDay, SUM(sets), SUM(sets * reps * weight), MAX(id) "
+                + "FROM exercise_records WHERE epochDay BETWEEN ? AND ? GROUP BY exerciseId, epochDay",
+                new Object[]{today - LoadWindow.CHRONIC_DAYS + 1, today})) {
+            while (cursor.moveToNext()) {
+                add(cursor.getInt(0), cursor.getLong(1), cursor.getInt(2), cursor.getDouble(3));
+                loadedThroughId = Math.max(loadedThroughId, cursor.getLong(4));
+            }
+        }
+    }
+
+    private void add(int exerciseId, long epochDay, int sets, double tonnage) {
+        overall.add(epochDay, sets, tonnage);
+        LoadWindow window = byExercise.get(exerciseId);
+        if (window == null) {
+            window = new LoadWindow(overall.getCurrentDay());
+            byExercise.put(exerciseId, window);
+        }
+        window.add(epochDay, sets, tonnage);
+    }
+
+    private void notifyChanged() {
+        long next;
+        synchronized (this) {
+            next = ++version;
+        }
+        changes.postValue(next);
+    }
+}
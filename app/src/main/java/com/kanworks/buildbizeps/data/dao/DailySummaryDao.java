@@ -0,0 +1,58 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.kanworks.buildbizeps.data.database.DailySummaryTriggers;
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+
+import java.util.List;
+
+@Dao
+public interface DailySummaryDao {
+    
+    @Query("SELECT * FROM daily_summary WHERE epochDay = :epochDay")
+    DailyRollup getDailyRollup(long epochDay);
+    
+    @Query("SELECT * FROM daily_summary WHERE epochDay = :epochDay")
+    LiveData<DailyRollup> observeDailyRollup(long epochDay);
+    
+    /**
+     * Rollup rows of a day range, e.g. a calendar month; a primary-key range read, so the
+     * cost depends on the range and not on how long the history is
+     */
+    @Query("SELECT * FROM daily_summary WHERE epochDay BETWEEN :firstDay AND :lastDay ORDER BY epochDay")
+    List<DailyRollup> getRollupsBetween(long firstDay, long lastDay);
+    
+    @Query("DELETE FROM daily_summary")
+    void deleteAllRollups();
+    
+    @Query("DELETE FROM daily_summary WHERE epochDay = :epochDay")
+    void deleteRollup(long epochDay);
+    
+    @Query(DailySummaryTriggers.REBUILD_ALL)
+    void insertRollupsFromHistory();
+    
+    @Query(DailySummaryTriggers.REBUILD_DAY)
+    void insertRollupFromHistory(long epochDay);
+    
+    /**
+     * Recompute the whole rollup table from exercise_records and workout_sessions
+     */
+    @Transaction
+    default void rebuildAll() {
+        deleteAllRollups();
+        insertRollupsFromHistory();
+    }
+    
+    /**
+     * Recompute one day's row, e.g. after it was found out of step with its records
+     */
+    @Transaction
+    default void repairDay(long epochDay) {
+        deleteRollup(epochDay);
+        insertRollupFromHistory(epochDay);
+    }
+}
@@ -1,5 +1,6 @@
 package com.kanworks.buildbizeps.data.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -7,6 +8,8 @@ import androidx.room.Query;
 import androidx.room.Update;
 
 import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseDistribution;
+import com.kanworks.buildbizeps.data.entity.ExerciseProgress;
 
 import java.util.List;
 
@@ -25,9 +28,33 @@ public interface ExerciseDao {
     @Query("SELECT * FROM exercises WHERE isFavorite = 1")
     List<Exercise> getFavoriteExercises();
     
+    // Observable variants: Room re-runs these whenever the exercises table is invalidated
+    @Query("SELECT * FROM exercises")
+    LiveData<List<Exercise>> observeAllExercises();
+    
+    @Query("SELECT * FROM exercises WHERE isFavorite = 1")
+    LiveData<List<Exercise>> observeFavoriteExercises();
+    
     @Query("SELECT * FROM exercises WHERE isCustom = 1")
     List<Exercise> getCustomExercises();
     
+    // Personal records and lifetime totals, one trigger-maintained row per trained exercise
+    @Query("SELECT * FROM exercise_progress WHERE exerciseId = :exerciseId")
+    ExerciseProgress getProgress(int exerciseId);
+    
+    @Query("SELECT * FROM exercise_progress ORDER BY bestOneRepMax DESC")
+    List<ExerciseProgress> getProgressBoard();
+    
+    @Query("SELECT p.* FROM exercise_progress p INNER JOIN exercises e ON e.id = p.exerciseId WHERE e.isFavorite = 1")
+    LiveData<List<ExerciseProgress>> observeFavoriteProgress();
+    
+    // Monthly weight/reps sketches, merged into ranges by SetDistribution.merge()
+    @Query("SELECT * FROM exercise_distribution WHERE exerciseId = :exerciseId AND monthStart BETWEEN :firstMonth AND :lastMonth")
+    List<ExerciseDistribution> getDistributions(int exerciseId, long firstMonth, long lastMonth);
+    
+    @Query("SELECT d.* FROM exercise_distribution d INNER JOIN exercises e ON e.id = d.exerciseId WHERE e.isFavorite = 1 AND d.monthStart >= :firstMonth")
+    LiveData<List<ExerciseDistribution>> observeFavoriteDistributions(long firstMonth);
+    
     @Query("UPDATE exercises SET isFavorite = :isFavorite WHERE id = :exerciseId")
     void updateFavoriteStatus(int exerciseId, boolean isFavorite);
     
@@ -1,19 +1,32 @@
 package com.kanworks.buildbizeps.data.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
-import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
-import androidx.room.Update;
+import androidx.room.Transaction;
 
+import com.kanworks.buildbizeps.data.database.ExerciseProgressTriggers;
 import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.DailySummary;
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+import com.kanworks.buildbizeps.data.model.ProgressPoint;
 
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 
 @Dao
 public interface ExerciseRecordDao {
     
+    String SET_ROW_COLUMNS = "r.id AS id, r.exerciseId AS exerciseId, e.name AS exerciseName, "
+            + "r.sets AS sets, r.reps AS reps, r.weight AS weight, r.timestamp AS timestamp ";
+    
+    // Aggregates of a progress bucket; the one-rep max matches ExerciseProgress.estimateOneRepMax()
+    String PROGRESS_COLUMNS = "MAX(weight) AS topWeight, "
+            + "MAX(CASE WHEN reps <= 1 THEN weight ELSE weight * (1 + reps / 30.0) END) AS bestOneRepMax, "
+            + "SUM(sets * reps * weight) AS volume, SUM(sets) AS setCount "
+            + "FROM exercise_records WHERE exerciseId = :exerciseId ";
+    
     @Query("SELECT * FROM exercise_records ORDER BY timestamp DESC")
     List<ExerciseRecord> getAllExerciseRecords();
     
@@ -23,33 +36,163 @@ public interface ExerciseRecordDao {
     @Query("SELECT * FROM exercise_records WHERE exerciseId = :exerciseId ORDER BY timestamp DESC")
     List<ExerciseRecord> getRecordsByExercise(int exerciseId);
     
-    @Query("SELECT * FROM exercise_records WHERE DATE(timestamp/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    List<ExerciseRecord> getRecordsByDate(Date date);
+    @Query("SELECT * FROM exercise_records WHERE epochDay = :epochDay")
+    List<ExerciseRecord> getRecordsByDate(long epochDay);
+    
+    /**
+     * One exercise's progress bucketed in SQLite, so only one row per bucket reaches Java;
+     * the exercise's sets are found through the (exerciseId, timestamp) index
+     */
+    @Query("SELECT epochDay AS bucketStart, " + PROGRESS_COLUMNS
+            + "GROUP BY bucketStart ORDER BY bucketStart")
+    List<ProgressPoint> getDailyProgress(int exerciseId);
+    
+    // Weeks start on Monday; epochDay 0 was a Thursday
+    @Query("SELECT epochDay - (epochDay + 3) % 7 AS bucketStart, " + PROGRESS_COLUMNS
+            + "GROUP BY bucketStart ORDER BY bucketStart")
+    List<ProgressPoint> getWeeklyProgress(int exerciseId);
+    
+    @Query("SELECT epochDay - CAST(strftime('%d', epochDay * 86400, 'unixepoch') AS INTEGER) + 1 AS bucketStart, "
+            + PROGRESS_COLUMNS + "GROUP BY bucketStart ORDER BY bucketStart")
+    List<ProgressPoint> getMonthlyProgress(int exerciseId);
+    
+    @Query("SELECT SUM(reps) FROM exercise_records WHERE exerciseId = :exerciseId AND epochDay = :epochDay")
+    int getTotalRepsByExerciseAndDate(int exerciseId, long epochDay);
+    
+    @Query("SELECT DISTINCT epochDay FROM exercise_records ORDER BY epochDay DESC")
+    List<Long> getWorkoutDates();
+    
+    @Query("SELECT COUNT(*) FROM exercise_records WHERE epochDay = :epochDay")
+    int getWorkoutCountForDate(long epochDay);
+    
+    /**
+     * Aggregate a day's records and sessions in SQLite, one round trip and no per-row objects.
+     * Live counterpart of the daily_summary rollup; date is passed through as the label.
+     * Duration and density come from the set timestamps, as in WorkoutSessionDao.getDayDensity().
+     */
+    @Query("SELECT :date AS date, "
+            + "COALESCE(SUM(sets * reps), 0) AS totalReps, "
+            + "COALESCE(SUM(sets), 0) AS totalSets, "
+            + "COUNT(DISTINCT exerciseId) AS totalExercises, "
+            + "(SELECT COUNT(*) FROM workout_sessions WHERE epochDay = :epochDay) AS workoutCount, "
+            + "(SELECT " + WorkoutSessionDao.ACTIVE_MINUTES + " FROM (" + WorkoutSessionDao.SET_GAPS
+            + "WHERE r.epochDay = :epochDay LIMIT -1)) AS totalDurationMinutes, "
+            + "(SELECT " + WorkoutSessionDao.WORK_DENSITY + " FROM (" + WorkoutSessionDao.SET_GAPS
+            + "WHERE r.epochDay = :epochDay LIMIT -1)) AS workDensity, "
+            + "COALESCE(SUM(sets * reps * weight), 0) AS totalTonnage "
+            + "FROM exercise_records WHERE epochDay = :epochDay")
+    DailySummary getDailySummary(long epochDay, String date);
+    
+    /**
+     * Every set of a day with its exercise name in one JOIN, ordered by exercise then time
+     */
+    @Query("SELECT " + SET_ROW_COLUMNS
+            + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+            + "WHERE r.epochDay = :epochDay "
+            + "ORDER BY r.exerciseId, r.timestamp, r.id")
+    List<ExerciseSetRow> getExerciseSetsForDay(long epochDay);
+    
+    /**
+     * Observable form of getExerciseSetsForDay(); re-queried when exercise_records or exercises change
+     */
+    @Query("SELECT " + SET_ROW_COLUMNS
+            + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+            + "WHERE r.epochDay = :epochDay "
+            + "ORDER BY r.exerciseId, r.timestamp, r.id")
+    LiveData<List<ExerciseSetRow>> observeExerciseSetsForDay(long epochDay);
     
-    @Query("SELECT SUM(reps) FROM exercise_records WHERE exerciseId = :exerciseId AND DATE(timestamp/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    int getTotalRepsByExerciseAndDate(int exerciseId, Date date);
+    /**
+     * Newest page of the history feed. Pages are keyed on (timestamp, id) and walk
+     * index_exercise_records_timestamp, so cost depends on the page size, not the table size.
+     */
+    @Query("SELECT " + SET_ROW_COLUMNS
+            + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+            + "WHERE r.timestamp IS NOT NULL "
+            + "ORDER BY r.timestamp DESC, r.id DESC LIMIT :limit")
+    List<ExerciseSetRow> getHistoryNewest(int limit);
     
-    @Query("SELECT DISTINCT DATE(timestamp/1000, 'unixepoch') as workout_date FROM exercise_records ORDER BY workout_date DESC")
-    List<String> getWorkoutDates();
+    /**
+     * Page of sets logged before the (timestamp, id) key, newest first
+     */
+    @Query("SELECT " + SET_ROW_COLUMNS
+            + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+            + "WHERE r.timestamp <= :timestamp AND (r.timestamp < :timestamp OR r.id < :id) "
+            + "ORDER BY r.timestamp DESC, r.id DESC LIMIT :limit")
+    List<ExerciseSetRow> getHistoryBefore(long timestamp, int id, int limit);
     
-    @Query("SELECT COUNT(*) FROM exercise_records WHERE DATE(timestamp/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    int getWorkoutCountForDate(Date date);
+    /**
+     * Page of sets logged after the (timestamp, id) key, oldest first
+     */
+    @Query("SELECT " + SET_ROW_COLUMNS
+            + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+            + "WHERE r.timestamp >= :timestamp AND (r.timestamp > :timestamp OR r.id > :id) "
+            + "ORDER BY r.timestamp ASC, r.id ASC LIMIT :limit")
+    List<ExerciseSetRow> getHistoryAfter(long timestamp, int id, int limit);
     
-    @Query("DELETE FROM exercise_records WHERE DATE(timestamp/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    void deleteRecordsByDate(Date date);
+    /**
+     * Most recent set of every favorite exercise in one query. Each favorite costs one
+     * backwards seek on the (exerciseId, timestamp) index, independent of history length.
+     */
+    @Query("SELECT " + SET_ROW_COLUMNS
+            + "FROM exercises e INNER JOIN exercise_records r ON r.id = ("
+            + "SELECT id FROM exercise_records WHERE exerciseId = e.id "
+            + "ORDER BY timestamp DESC, id DESC LIMIT 1) "
+            + "WHERE e.isFavorite = 1")
+    List<ExerciseSetRow> getLastSetPerFavorite();
+    
+    @Query("DELETE FROM exercise_records WHERE epochDay = :epochDay")
+    void deleteRecordRowsByDate(long epochDay);
     
     @Query("DELETE FROM exercise_records")
-    void deleteAllRecords();
+    void deleteAllRecordRows();
     
     @Query("DELETE FROM exercise_records WHERE exerciseId = :exerciseId")
-    void deleteRecordsByExerciseId(int exerciseId);
+    void deleteRecordRowsByExerciseId(int exerciseId);
+    
+    @Query("SELECT DISTINCT exerciseId FROM exercise_records WHERE epochDay = :epochDay")
+    List<Integer> getExerciseIdsByDate(long epochDay);
+    
+    @Query("DELETE FROM exercise_progress WHERE exerciseId IN (:exerciseIds)")
+    void deleteProgress(List<Integer> exerciseIds);
+    
+    @Query("DELETE FROM exercise_progress")
+    void deleteAllProgress();
+    
+    @Query(ExerciseProgressTriggers.REBUILD_EXERCISES)
+    void insertProgressFromHistory(List<Integer> exerciseIds);
     
+    /**
+     * Delete a day's records. The exercise_progress rows of the exercises trained that day
+     * are dropped first, so the per-row delete trigger has nothing to rescan, and rebuilt
+     * once from what is left.
+     */
+    @Transaction
+    default void deleteRecordsByDate(long epochDay) {
+        List<Integer> exerciseIds = getExerciseIdsByDate(epochDay);
+        deleteProgress(exerciseIds);
+        deleteRecordRowsByDate(epochDay);
+        insertProgressFromHistory(exerciseIds);
+    }
+    
+    @Transaction
+    default void deleteAllRecords() {
+        deleteAllProgress();
+        deleteAllRecordRows();
+    }
+    
+    @Transaction
+    default void deleteRecordsByExerciseId(int exerciseId) {
+        deleteProgress(Collections.singletonList(exerciseId));
+        deleteRecordRowsByExerciseId(exerciseId);
+    }
+    
+    /**
+     * Raw insert that leaves exercise_distribution alone, for seeding and tests; sets are
+     * logged through WorkoutLogDao, which also edits and deletes single records
+     */
     @Insert
     long insertExerciseRecord(ExerciseRecord exerciseRecord);
     
-    @Update
-    void updateExerciseRecord(ExerciseRecord exerciseRecord);
-    
-    @Delete
-    void deleteExerciseRecord(ExerciseRecord exerciseRecord);
+    @Insert
+    List<Long> insertExerciseRecords(List<ExerciseRecord> exerciseRecords);
 }
\ No newline at end of file
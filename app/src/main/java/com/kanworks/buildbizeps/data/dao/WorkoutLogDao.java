@@ -0,0 +1,181 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import androidx.annotation.Nullable;
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.kanworks.buildbizeps.data.analytics.ExerciseDistributions;
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.LoggedSet;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Write path for logging a set from the workout screen. Resolving the session and
+ * inserting the record happen in one SQLite transaction, so a press of "Save Set"
+ * costs a single commit and can never leave a session without its record.
+ * Editing and deleting a single record, and clearing a day or the whole history, also go
+ * through here, so exercise_distribution is recomputed in the same transaction.
+ */
+@Dao
+public abstract class WorkoutLogDao {
+    
+    private final FitnessDatabase database;
+    
+    protected WorkoutLogDao(FitnessDatabase database) {
+        this.database = database;
+    }
+    
+    @Query("SELECT EXISTS(SELECT 1 FROM exercises WHERE id = :exerciseId)")
+    abstract boolean exerciseExists(int exerciseId);
+    
+    @Query("SELECT EXISTS(SELECT 1 FROM workout_sessions WHERE id = :sessionId AND epochDay = :epochDay)")
+    abstract boolean sessionExistsOnDay(int sessionId, long epochDay);
+    
+    @Query("SELECT EXISTS(SELECT 1 FROM exercise_records WHERE exerciseId = :exerciseId AND timestamp = :timestamp)")
+    abstract boolean recordExists(int exerciseId, long timestamp);
+    
+    @Insert
+    abstract long insertSession(WorkoutSession session);
+    
+    @Insert
+    abstract long insertRecord(ExerciseRecord record);
+    
+    @Query("SELECT * FROM exercise_records WHERE id = :recordId")
+    abstract ExerciseRecord getRecord(int recordId);
+    
+    @Update
+    abstract void updateRecord(ExerciseRecord record);
+    
+    @Delete
+    abstract void deleteRecordRow(ExerciseRecord record);
+    
+    /**
+     * Log one set of an exercise
+     * @param sessionId session the caller is currently logging into, or 0 for none;
+     *                  a new session is started if it no longer exists (e.g. day cleared)
+     *                  or belongs to an earlier training day (logging past midnight)
+     * @return ids of the new record and its session, or null if the exercise was deleted
+     */
+    @Nullable
+    @Transaction
+    public LoggedSet logSet(int sessionId, int exerciseId, float weight, int reps, Date now) {
+        if (!exerciseExists(exerciseId)) {
+            return null;
+        }
+        
+        boolean newSession = sessionId <= 0 || !sessionExistsOnDay(sessionId, TrainingDay.fromDate(now));
+        if (newSession) {
+            sessionId = (int) insertSession(new WorkoutSession(now));
+        }
+        
+        ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(now);
+        long recordId = insertRecord(record);
+        ExerciseDistributions.addSets(database.getOpenHelper().getWritableDatabase(),
+                Collections.singletonList(record));
+        return new LoggedSet(recordId, sessionId, newSession);
+    }
+    
+    /**
+     * Batch form of logSet() used by the write-behind queue: all sets go into one
+     * transaction. Sets whose exercise was deleted are dropped, and sets already stored
+     * (same exercise and timestamp, e.g. replayed from the journal after a crash) are skipped.
+     * Each set goes into a session of its own training day, so a batch spanning midnight
+     * starts a new session rather than filing the later sets under the day before.
+     * Inserted records get their new ids; skipped ones keep id 0.
+     * @return the session the last set was logged into
+     */
+    @Transaction
+    public int logSets(int sessionId, List<ExerciseRecord> records) {
+        List<ExerciseRecord> toInsert = new ArrayList<>(records.size());
+        for (ExerciseRecord record : records) {
+            if (exerciseExists(record.getExerciseId())
+                    && !recordExists(record.getExerciseId(), record.getTimestamp().getTime())) {
+                toInsert.add(record);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return sessionId;
+        }
+        
+        long sessionDay = Long.MIN_VALUE;
+        for (ExerciseRecord record : toInsert) {
+            long epochDay = TrainingDay.fromDate(record.getTimestamp());
+            if (epochDay != sessionDay) {
+                sessionDay = epochDay;
+                if (sessionId <= 0 || !sessionExistsOnDay(sessionId, sessionDay)) {
+                    sessionId = (int) insertSession(new WorkoutSession(record.getTimestamp()));
+                }
+            }
+            record.setWorkoutSessionId(sessionId);
+        }
+        List<Long> ids = database.exerciseRecordDao().insertExerciseRecords(toInsert);
+        for (int i = 0; i < toInsert.size(); i++) {
+            toInsert.get(i).setId(ids.get(i).intValue());
+        }
+        ExerciseDistributions.addSets(database.getOpenHelper().getWritableDatabase(), toInsert);
+        return sessionId;
+    }
+    
+    /**
+     * Save an edited record, recomputing the distribution month it left and the one it joined
+     */
+    @Transaction
+    public void editRecord(ExerciseRecord record) {
+        ExerciseRecord stored = getRecord(record.getId());
+        if (stored == null) return;
+        updateRecord(record);
+        
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        ExerciseDistributions.rebuildMonth(db, stored.getExerciseId(), stored.getEpochDay());
+        if (record.getExerciseId() != stored.getExerciseId()
+                || TrainingDay.firstOfMonth(record.getEpochDay()) != TrainingDay.firstOfMonth(stored.getEpochDay())) {
+            ExerciseDistributions.rebuildMonth(db, record.getExerciseId(), record.getEpochDay());
+        }
+    }
+    
+    /**
+     * Delete one record and recompute its distribution month
+     */
+    @Transaction
+    public void deleteRecord(ExerciseRecord record) {
+        ExerciseRecord stored = getRecord(record.getId());
+        if (stored == null) return;
+        deleteRecordRow(stored);
+        ExerciseDistributions.rebuildMonth(database.getOpenHelper().getWritableDatabase(),
+                stored.getExerciseId(), stored.getEpochDay());
+    }
+    
+    /**
+     * Delete a training day's records and sessions and recompute its distribution month
+     */
+    @Transaction
+    public void clearDay(long epochDay) {
+        database.exerciseRecordDao().deleteRecordsByDate(epochDay);
+        database.workoutSessionDao().deleteSessionsByDate(epochDay);
+        ExerciseDistributions.onDayCleared(database, epochDay);
+    }
+    
+    /**
+     * Delete every record and session along with the distribution rows built from them
+     */
+    @Transaction
+    public void clearAll() {
+        database.exerciseRecordDao().deleteAllRecords();
+        database.workoutSessionDao().deleteAllSessions();
+        ExerciseDistributions.onAllCleared(database);
+    }
+}
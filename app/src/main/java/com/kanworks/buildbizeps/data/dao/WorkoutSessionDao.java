@@ -7,24 +7,66 @@ import androidx.room.Query;
 import androidx.room.Update;
 
 import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.SessionDensity;
 
-import java.util.Date;
 import java.util.List;
 
 @Dao
 public interface WorkoutSessionDao {
     
+    // Gaps longer than this are a break, not rest between sets, and are left out
+    long MAX_REST_MS = 10 * 60_000L;
+    
+    /**
+     * Each set with the time since the set before it in its session (NULL for the first),
+     * ordered by (timestamp, id). The minimum API level ships SQLite 3.22, without LAG(),
+     * so the previous set is a correlated backwards seek on (workoutSessionId, timestamp).
+     * Append a WHERE on r ending in LIMIT -1: SQLite doesn't flatten a subquery with a LIMIT
+     * into an aggregate, so each gap is computed once rather than at every use.
+     */
+    String SET_GAPS = "SELECT r.workoutSessionId AS workoutSessionId, "
+            + "r.sets * r.reps * r.weight AS tonnage, "
+            + "r.timestamp - (SELECT p.timestamp FROM exercise_records p "
+            + "WHERE p.workoutSessionId = r.workoutSessionId AND p.timestamp <= r.timestamp "
+            + "AND (p.timestamp < r.timestamp OR p.id < r.id) "
+            + "ORDER BY p.timestamp DESC, p.id DESC LIMIT 1) AS gap "
+            + "FROM exercise_records r ";
+    
+    // Sum of the rests between sets; a session's active time
+    String ACTIVE_MILLIS = "SUM(CASE WHEN gap <= " + MAX_REST_MS + " THEN gap END)";
+    
+    String ACTIVE_MINUTES = "CAST(ROUND(COALESCE(" + ACTIVE_MILLIS + ", 0) / 60000.0) AS INTEGER)";
+    
+    // Tonnage per active minute; 0 without any rest to divide by
+    String WORK_DENSITY = "COALESCE(SUM(tonnage) * 60000.0 / " + ACTIVE_MILLIS + ", 0)";
+    
+    String DENSITY_COLUMNS = "COUNT(DISTINCT workoutSessionId) AS sessionCount, "
+            + "COUNT(*) AS setCount, "
+            + "COUNT(CASE WHEN gap <= " + MAX_REST_MS + " THEN 1 END) AS restCount, "
+            + "COALESCE(" + ACTIVE_MILLIS + ", 0) AS activeMillis, "
+            + "COALESCE(SUM(tonnage), 0) AS tonnage, "
+            + WORK_DENSITY + " AS workDensity ";
+    
     @Query("SELECT * FROM workout_sessions ORDER BY startTime DESC")
     List<WorkoutSession> getAllWorkoutSessions();
     
     @Query("SELECT * FROM workout_sessions WHERE id = :id")
     WorkoutSession getWorkoutSessionById(int id);
     
-    @Query("SELECT * FROM workout_sessions WHERE DATE(startTime/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    List<WorkoutSession> getWorkoutSessionsByDate(Date date);
+    @Query("SELECT * FROM workout_sessions WHERE epochDay = :epochDay")
+    List<WorkoutSession> getWorkoutSessionsByDate(long epochDay);
+    
+    /**
+     * Rest, active time and work density over every session of a day, in one query
+     */
+    @Query("SELECT " + DENSITY_COLUMNS + "FROM (" + SET_GAPS + "WHERE r.epochDay = :epochDay LIMIT -1)")
+    SessionDensity getDayDensity(long epochDay);
+    
+    @Query("SELECT " + DENSITY_COLUMNS + "FROM (" + SET_GAPS + "WHERE r.workoutSessionId = :sessionId LIMIT -1)")
+    SessionDensity getSessionDensity(int sessionId);
     
-    @Query("DELETE FROM workout_sessions WHERE DATE(startTime/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    void deleteSessionsByDate(Date date);
+    @Query("DELETE FROM workout_sessions WHERE epochDay = :epochDay")
+    void deleteSessionsByDate(long epochDay);
     
     @Query("DELETE FROM workout_sessions")
     void deleteAllSessions();
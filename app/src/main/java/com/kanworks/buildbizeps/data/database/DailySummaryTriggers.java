@@ -0,0 +1,131 @@
+package com.kanworks.buildbizeps.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL that keeps the daily_summary rollup in step with exercise_records and workout_sessions.
+ * The triggers apply each change as a delta to its day's row, so they run inside whatever
+ * transaction touched the records (including CASCADE deletes and bulk deletes by day).
+ * Written without UPSERT because minSdk 29 ships SQLite 3.22.
+ *
+ * Every change to a day, including edits that leave its totals alone such as a new timestamp
+ * or note, also moves the row's changedAt stamp forward, so readers can tell it changed.
+ */
+public final class DailySummaryTriggers {
+
+    private DailySummaryTriggers() {}
+
+    private static final String COLUMNS =
+            "(`epochDay`, `totalSets`, `totalReps`, `totalTonnage`, `distinctExercises`, `sessionCount`, `durationMinutes`, `changedAt`)";
+
+    private static final String NOW_MILLIS = "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)";
+
+    // Strictly later than the previous stamp even when the clock hasn't moved
+    private static final String TOUCH = "`changedAt` = MAX(`changedAt` + 1, " + NOW_MILLIS + ")";
+
+    private static String ensureRow(String day) {
+        return "INSERT OR IGNORE INTO `daily_summary` " + COLUMNS + " VALUES (" + day + ", 0, 0, 0, 0, 0, 0, 0);";
+    }
+
+    private static String deleteIfEmpty(String day) {
+        return "DELETE FROM `daily_summary` WHERE `epochDay` = " + day
+                + " AND NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE `epochDay` = " + day + ")"
+                + " AND NOT EXISTS (SELECT 1 FROM `workout_sessions` WHERE `epochDay` = " + day + ");";
+    }
+
+    private static String addRecord(String row, String sign) {
+        return "`totalSets` = `totalSets` " + sign + " " + row + ".`sets`, "
+                + "`totalReps` = `totalReps` " + sign + " " + row + ".`sets` * " + row + ".`reps`, "
+                + "`totalTonnage` = `totalTonnage` " + sign + " " + row + ".`sets` * " + row + ".`reps` * " + row + ".`weight`";
+    }
+
+    private static String addSession(String row, String sign) {
+        return "`sessionCount` = `sessionCount` " + sign + " 1, "
+                + "`durationMinutes` = `durationMinutes` " + sign + " " + row + ".`durationMinutes`";
+    }
+
+    static final String[] CREATE_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_insert` AFTER INSERT ON `exercise_records` BEGIN "
+                    + ensureRow("NEW.`epochDay`")
+                    + " UPDATE `daily_summary` SET " + addRecord("NEW", "+") + ", "
+                    + "`distinctExercises` = `distinctExercises` + (NOT EXISTS (SELECT 1 FROM `exercise_records`"
+                    + " WHERE `epochDay` = NEW.`epochDay` AND `exerciseId` = NEW.`exerciseId` AND `id` != NEW.`id`)), "
+                    + TOUCH + " WHERE `epochDay` = NEW.`epochDay`; "
+                    + "END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_delete` AFTER DELETE ON `exercise_records` BEGIN "
+                    + "UPDATE `daily_summary` SET " + addRecord("OLD", "-") + ", "
+                    + "`distinctExercises` = `distinctExercises` - (NOT EXISTS (SELECT 1 FROM `exercise_records`"
+                    + " WHERE `epochDay` = OLD.`epochDay` AND `exerciseId` = OLD.`exerciseId`)), "
+                    + TOUCH + " WHERE `epochDay` = OLD.`epochDay`; "
+                    + deleteIfEmpty("OLD.`epochDay`")
+                    + " END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_update` AFTER UPDATE ON `exercise_records` BEGIN "
+                    + ensureRow("NEW.`epochDay`")
+                    + " UPDATE `daily_summary` SET " + addRecord("OLD", "-") + " WHERE `epochDay` = OLD.`epochDay`;"
+                    + " UPDATE `daily_summary` SET " + addRecord("NEW", "+") + " WHERE `epochDay` = NEW.`epochDay`;"
+                    + " UPDATE `daily_summary` SET `distinctExercises` = (SELECT COUNT(DISTINCT `exerciseId`)"
+                    + " FROM `exercise_records` WHERE `epochDay` = `daily_summary`.`epochDay`), " + TOUCH
+                    + " WHERE `epochDay` IN (OLD.`epochDay`, NEW.`epochDay`); "
+                    + deleteIfEmpty("OLD.`epochDay`")
+                    + " END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_insert` AFTER INSERT ON `workout_sessions` BEGIN "
+                    + ensureRow("NEW.`epochDay`")
+                    + " UPDATE `daily_summary` SET " + addSession("NEW", "+") + ", " + TOUCH
+                    + " WHERE `epochDay` = NEW.`epochDay`; "
+                    + "END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_delete` AFTER DELETE ON `workout_sessions` BEGIN "
+                    + "UPDATE `daily_summary` SET " + addSession("OLD", "-") + ", " + TOUCH
+                    + " WHERE `epochDay` = OLD.`epochDay`; "
+                    + deleteIfEmpty("OLD.`epochDay`")
+                    + " END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_update` AFTER UPDATE ON `workout_sessions` BEGIN "
+                    + ensureRow("NEW.`epochDay`")
+                    + " UPDATE `daily_summary` SET " + addSession("OLD", "-") + ", " + TOUCH
+                    + " WHERE `epochDay` = OLD.`epochDay`;"
+                    + " UPDATE `daily_summary` SET " + addSession("NEW", "+") + ", " + TOUCH
+                    + " WHERE `epochDay` = NEW.`epochDay`; "
+                    + deleteIfEmpty("OLD.`epochDay`")
+                    + " END"
+    };
+
+    /**
+     * Recompute every day's row from scratch, used by the migration and the repair routine
+     */
+    public static final String REBUILD_ALL =
+            "INSERT INTO `daily_summary` " + COLUMNS
+                    + " SELECT days.epochDay, COALESCE(r.totalSets, 0), COALESCE(r.totalReps, 0), COALESCE(r.totalTonnage, 0),"
+                    + " COALESCE(r.distinctExercises, 0), COALESCE(s.sessionCount, 0), COALESCE(s.durationMinutes, 0), "
+                    + NOW_MILLIS
+                    + " FROM (SELECT epochDay FROM exercise_records UNION SELECT epochDay FROM workout_sessions) AS days"
+                    + " LEFT JOIN (SELECT epochDay, SUM(sets) AS totalSets, SUM(sets * reps) AS totalReps,"
+                    + " SUM(sets * reps * weight) AS totalTonnage, COUNT(DISTINCT exerciseId) AS distinctExercises"
+                    + " FROM exercise_records GROUP BY epochDay) AS r ON r.epochDay = days.epochDay"
+                    + " LEFT JOIN (SELECT epochDay, COUNT(*) AS sessionCount, SUM(durationMinutes) AS durationMinutes"
+                    + " FROM workout_sessions GROUP BY epochDay) AS s ON s.epochDay = days.epochDay";
+
+    /**
+     * Recompute a single day's row; both aggregates are index lookups on epochDay
+     */
+    public static final String REBUILD_DAY =
+            "INSERT INTO `daily_summary` " + COLUMNS
+                    + " SELECT :epochDay, r.totalSets, r.totalReps, r.totalTonnage, r.distinctExercises, s.sessionCount, s.durationMinutes, "
+                    + NOW_MILLIS
+                    + " FROM (SELECT COALESCE(SUM(sets), 0) AS totalSets, COALESCE(SUM(sets * reps), 0) AS totalReps,"
+                    + " COALESCE(SUM(sets * reps * weight), 0) AS totalTonnage, COUNT(DISTINCT exerciseId) AS distinctExercises,"
+                    + " COUNT(*) AS recordCount FROM exercise_records WHERE epochDay = :epochDay) AS r,"
+                    + " (SELECT COUNT(*) AS sessionCount, COALESCE(SUM(durationMinutes), 0) AS durationMinutes"
+                    + " FROM workout_sessions WHERE epochDay = :epochDay) AS s"
+                    + " WHERE r.recordCount > 0 OR s.sessionCount > 0";
+
+    public static void create(@NonNull SupportSQLiteDatabase db) {
+        for (String sql : CREATE_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.kanworks.buildbizeps.data.database;
+
+import android.os.Process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The app's database threads, created once for the whole process.
+ *
+ * Writes go through a single lane so they apply in the order they were issued, whichever
+ * screen issued them. SQLite allows one writer at a time anyway, so a second write thread
+ * would only wait on the lock. Reads run on a small pool: in WAL mode readers don't block
+ * each other or the writer, so a dashboard query doesn't queue behind a history page.
+ */
+public final class DatabaseExecutors {
+
+    // Android's WAL connection pool keeps a handful of read connections; more threads would just wait
+    private static final int READ_THREADS = 3;
+
+    private DatabaseExecutors() {}
+
+    private static final class Holder {
+        // Writes are already off the UI's path (write-behind), so they yield to the reads that render it
+        static final ScheduledExecutorService WRITE = Executors.newSingleThreadScheduledExecutor(
+                threadFactory("fitness-write", Process.THREAD_PRIORITY_BACKGROUND));
+        static final ExecutorService READ = Executors.newFixedThreadPool(READ_THREADS,
+                threadFactory("fitness-read", Process.THREAD_PRIORITY_DEFAULT));
+    }
+
+    /**
+     * Single-thread lane for every write; also schedules the set queue's flush window
+     */
+    public static ScheduledExecutorService writeLane() {
+        return Holder.WRITE;
+    }
+
+    /**
+     * Pool for reads, including the queries behind Room's LiveData
+     */
+    public static ExecutorService readPool() {
+        return Holder.READ;
+    }
+
+    private static ThreadFactory threadFactory(String name, int priority) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(priority);
+                runnable.run();
+            }, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.kanworks.buildbizeps.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL that keeps the exercise_progress rollup (personal records and lifetime totals per
+ * exercise) in step with exercise_records. Inserts only raise maxima and add totals.
+ * Deletes subtract totals and rescan an exercise's maxima only when the deleted set
+ * held one of them and no remaining set ties it; first/last day come from the
+ * (exerciseId, timestamp) index. Bulk deletes in ExerciseRecordDao drop the affected rows
+ * first, so the per-row trigger has nothing to maintain, and rebuild them once afterwards.
+ * Written without UPSERT because minSdk 29 ships SQLite 3.22.
+ */
+public final class ExerciseProgressTriggers {
+
+    private ExerciseProgressTriggers() {}
+
+    private static final String COLUMNS =
+            "(`exerciseId`, `heaviestWeight`, `bestOneRepMax`, `bestSetVolume`, `lifetimeTonnage`, `totalSets`, `firstEpochDay`, `lastEpochDay`)";
+
+    /**
+     * Epley estimate; a single is its own one-rep max. Matches ExerciseProgress.estimateOneRepMax()
+     */
+    private static String oneRepMax(String row) {
+        return "(CASE WHEN " + row + "`reps` <= 1 THEN " + row + "`weight`"
+                + " ELSE " + row + "`weight` * (1 + " + row + "`reps` / 30.0) END)";
+    }
+
+    private static String setVolume(String row) {
+        return "(" + row + "`reps` * " + row + "`weight`)";
+    }
+
+    private static String tonnage(String row) {
+        return "(" + row + "`sets` * " + row + "`reps` * " + row + "`weight`)";
+    }
+
+    private static String aggregates(String exerciseId) {
+        return " SELECT " + exerciseId + ", MAX(`weight`), MAX(" + oneRepMax("") + "), MAX(" + setVolume("") + "),"
+                + " SUM(" + tonnage("") + "), SUM(`sets`), MIN(`epochDay`), MAX(`epochDay`) FROM `exercise_records`";
+    }
+
+    /**
+     * The GROUP BY makes an exercise without records yield no row. HAVING on an ungrouped
+     * aggregate would too, but SQLite only accepts that from 3.39.
+     */
+    private static String rebuildExercise(String exerciseId) {
+        return "DELETE FROM `exercise_progress` WHERE `exerciseId` = " + exerciseId + ";"
+                + " INSERT INTO `exercise_progress` " + COLUMNS + aggregates(exerciseId)
+                + " WHERE `exerciseId` = " + exerciseId + " GROUP BY `exerciseId`;";
+    }
+
+    private static String edgeDay(String exerciseId, String order) {
+        return "(SELECT `epochDay` FROM `exercise_records` WHERE `exerciseId` = " + exerciseId
+                + " ORDER BY `timestamp` " + order + " LIMIT 1)";
+    }
+
+    /**
+     * True when the deleted row held a maximum that no remaining set of the exercise still
+     * reaches. Bodyweight sets and repeated top sets tie, so they skip the full rescan.
+     */
+    private static String lostMaximum(String value, String oldValue, String maximum) {
+        return "(" + oldValue + " >= " + maximum + " AND NOT EXISTS (SELECT 1 FROM `exercise_records`"
+                + " WHERE `exerciseId` = OLD.`exerciseId` AND " + value + " >= `exercise_progress`." + maximum + "))";
+    }
+
+    static final String[] CREATE_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS `exercise_progress_record_insert` AFTER INSERT ON `exercise_records` BEGIN "
+                    + "INSERT OR IGNORE INTO `exercise_progress` " + COLUMNS
+                    + " VALUES (NEW.`exerciseId`, 0, 0, 0, 0, 0, NEW.`epochDay`, NEW.`epochDay`);"
+                    + " UPDATE `exercise_progress` SET"
+                    + " `heaviestWeight` = MAX(`heaviestWeight`, NEW.`weight`),"
+                    + " `bestOneRepMax` = MAX(`bestOneRepMax`, " + oneRepMax("NEW.") + "),"
+                    + " `bestSetVolume` = MAX(`bestSetVolume`, " + setVolume("NEW.") + "),"
+                    + " `lifetimeTonnage` = `lifetimeTonnage` + " + tonnage("NEW.") + ","
+                    + " `totalSets` = `totalSets` + NEW.`sets`,"
+                    + " `firstEpochDay` = MIN(`firstEpochDay`, NEW.`epochDay`),"
+                    + " `lastEpochDay` = MAX(`lastEpochDay`, NEW.`epochDay`)"
+                    + " WHERE `exerciseId` = NEW.`exerciseId`; "
+                    + "END",
+
+            "CREATE TRIGGER IF NOT EXISTS `exercise_progress_record_delete` AFTER DELETE ON `exercise_records` BEGIN "
+                    + "UPDATE `exercise_progress` SET"
+                    + " `lifetimeTonnage` = `lifetimeTonnage` - " + tonnage("OLD.") + ","
+                    + " `totalSets` = `totalSets` - OLD.`sets`,"
+                    + " `firstEpochDay` = COALESCE(" + edgeDay("OLD.`exerciseId`", "ASC") + ", `firstEpochDay`),"
+                    + " `lastEpochDay` = COALESCE(" + edgeDay("OLD.`exerciseId`", "DESC") + ", `lastEpochDay`)"
+                    + " WHERE `exerciseId` = OLD.`exerciseId`;"
+                    + " UPDATE `exercise_progress` SET"
+                    + " (`heaviestWeight`, `bestOneRepMax`, `bestSetVolume`) = (SELECT COALESCE(MAX(`weight`), 0),"
+                    + " COALESCE(MAX(" + oneRepMax("") + "), 0), COALESCE(MAX(" + setVolume("") + "), 0)"
+                    + " FROM `exercise_records` WHERE `exerciseId` = OLD.`exerciseId`)"
+                    + " WHERE `exerciseId` = OLD.`exerciseId` AND (" + lostMaximum("`weight`", "OLD.`weight`", "`heaviestWeight`")
+                    + " OR " + lostMaximum(oneRepMax(""), oneRepMax("OLD."), "`bestOneRepMax`")
+                    + " OR " + lostMaximum(setVolume(""), setVolume("OLD."), "`bestSetVolume`") + ");"
+                    + " DELETE FROM `exercise_progress` WHERE `exerciseId` = OLD.`exerciseId`"
+                    + " AND NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE `exerciseId` = OLD.`exerciseId`); "
+                    + "END",
+
+            // Edits are rare; recompute both affected exercises
+            "CREATE TRIGGER IF NOT EXISTS `exercise_progress_record_update` AFTER UPDATE OF"
+                    + " `exerciseId`, `sets`, `reps`, `weight`, `epochDay` ON `exercise_records` BEGIN "
+                    + rebuildExercise("OLD.`exerciseId`")
+                    + " " + rebuildExercise("NEW.`exerciseId`")
+                    + " END"
+    };
+
+    /**
+     * Recompute every exercise's row from scratch, used by the migration and the repair routine
+     */
+    public static final String REBUILD_ALL =
+            "INSERT INTO `exercise_progress` " + COLUMNS + aggregates("`exerciseId`") + " GROUP BY `exerciseId`";
+
+    /**
+     * Recompute the rows of the exercises bound to :exerciseIds, for DAO bulk deletes. Spelled
+     * out because @Query needs a constant; must match aggregates()
+     */
+    public static final String REBUILD_EXERCISES =
+            "INSERT INTO `exercise_progress` " + COLUMNS
+                    + " SELECT `exerciseId`, MAX(`weight`), MAX((CASE WHEN `reps` <= 1 THEN `weight` ELSE `weight` * (1 + `reps` / 30.0) END)),"
+                    + " MAX((`reps` * `weight`)), SUM((`sets` * `reps` * `weight`)), SUM(`sets`), MIN(`epochDay`), MAX(`epochDay`)"
+                    + " FROM `exercise_records` WHERE `exerciseId` IN (:exerciseIds) GROUP BY `exerciseId`";
+
+    public static void create(@NonNull SupportSQLiteDatabase db) {
+        for (String sql : CREATE_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+}
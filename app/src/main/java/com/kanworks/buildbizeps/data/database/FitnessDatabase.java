@@ -2,22 +2,30 @@ package com.kanworks.buildbizeps.data.database;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import com.kanworks.buildbizeps.data.dao.DailySummaryDao;
 import com.kanworks.buildbizeps.data.dao.ExerciseDao;
 import com.kanworks.buildbizeps.data.dao.ExerciseRecordDao;
+import com.kanworks.buildbizeps.data.dao.WorkoutLogDao;
 import com.kanworks.buildbizeps.data.dao.WorkoutSessionDao;
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
 import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseDistribution;
+import com.kanworks.buildbizeps.data.entity.ExerciseProgress;
 import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
 import com.kanworks.buildbizeps.data.entity.WorkoutSession;
 
 @Database(
-    entities = {Exercise.class, WorkoutSession.class, ExerciseRecord.class},
-    version = 2,
-    exportSchema = false
+    entities = {Exercise.class, WorkoutSession.class, ExerciseRecord.class, DailyRollup.class, ExerciseProgress.class,
+            ExerciseDistribution.class},
+    version = 12,
+    exportSchema = true
 )
 @TypeConverters({DateConverter.class})
 public abstract class FitnessDatabase extends RoomDatabase {
@@ -27,19 +35,46 @@ public abstract class FitnessDatabase extends RoomDatabase {
     public abstract ExerciseDao exerciseDao();
     public abstract WorkoutSessionDao workoutSessionDao();
     public abstract ExerciseRecordDao exerciseRecordDao();
+    public abstract DailySummaryDao dailySummaryDao();
+    public abstract WorkoutLogDao workoutLogDao();
     
     public static FitnessDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (FitnessDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
-                            FitnessDatabase.class, "fitness_database")
+                    INSTANCE = configure(Room.databaseBuilder(context.getApplicationContext(),
+                            FitnessDatabase.class, "fitness_database"))
                             .allowMainThreadQueries() // For simplicity - in production, use background threads
-                            .fallbackToDestructiveMigration() // Handle schema changes
+                            .fallbackToDestructiveMigrationFrom(1) // Pre-release schema, no migration exists
+                            // Concurrent readers alongside the single write lane
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                            .setQueryExecutor(DatabaseExecutors.readPool())
                             .build();
                 }
             }
         }
         return INSTANCE;
     }
+    
+    /**
+     * Migrations and callbacks every FitnessDatabase needs, shared with tests
+     */
+    public static RoomDatabase.Builder<FitnessDatabase> configure(RoomDatabase.Builder<FitnessDatabase> builder) {
+        return builder
+                .addMigrations(Migrations.ALL) // Never wipe history on schema changes
+                .addCallback(new RoomDatabase.Callback() {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        // Triggers are not part of the entity schema, so fresh installs add them here
+                        DailySummaryTriggers.create(db);
+                        ExerciseProgressTriggers.create(db);
+                    }
+                    
+                    @Override
+                    public void onDestructiveMigration(@NonNull SupportSQLiteDatabase db) {
+                        DailySummaryTriggers.create(db);
+                        ExerciseProgressTriggers.create(db);
+                    }
+                });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,520 @@
+package com.kanworks.buildbizeps.data.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Hand-written schema migrations for FitnessDatabase.
+ * Every version bump gets a Migration here so users keep their workout history.
+ */
+public final class Migrations {
+
+    private Migrations() {}
+
+    /**
+     * Local training day of a millisecond column, computed by SQLite in the device time zone.
+     * julianday() of a plain date is midnight, 2440587.5 is 1970-01-01.
+     */
+    private static String localEpochDay(String millisColumn) {
+        return "CAST(julianday(date(`" + millisColumn + "` / 1000, 'unixepoch', 'localtime')) - 2440587.5 AS INTEGER)";
+    }
+
+    /**
+     * Version 3 adds an indexed local epochDay bucket to records and sessions,
+     * backfilled from the stored timestamps.
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `exercise_records` ADD COLUMN `epochDay` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `exercise_records` SET `epochDay` = " + localEpochDay("timestamp")
+                    + " WHERE `timestamp` IS NOT NULL");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_exercise_records_epochDay` ON `exercise_records` (`epochDay`)");
+
+            db.execSQL("ALTER TABLE `workout_sessions` ADD COLUMN `epochDay` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `workout_sessions` SET `epochDay` = " + localEpochDay("startTime")
+                    + " WHERE `startTime` IS NOT NULL");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_workout_sessions_epochDay` ON `workout_sessions` (`epochDay`)");
+        }
+    };
+
+    /**
+     * Version 4 indexes both foreign keys of exercise_records, so CASCADE deletes and
+     * per-exercise / per-session lookups stop scanning the whole table.
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_exercise_records_exerciseId_timestamp` ON `exercise_records` (`exerciseId`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_exercise_records_workoutSessionId` ON `exercise_records` (`workoutSessionId`)");
+        }
+    };
+
+    /**
+     * Version 5 adds the trigger-maintained daily_summary rollup and fills it from history.
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_summary` (`epochDay` INTEGER NOT NULL, `totalSets` INTEGER NOT NULL, `totalReps` INTEGER NOT NULL, `totalTonnage` REAL NOT NULL, `distinctExercises` INTEGER NOT NULL, `sessionCount` INTEGER NOT NULL, `durationMinutes` INTEGER NOT NULL, PRIMARY KEY(`epochDay`))");
+            execAll(db, DAILY_SUMMARY_TRIGGERS_V5);
+            db.execSQL(DAILY_SUMMARY_REBUILD_V5);
+        }
+    };
+
+    /**
+     * Version 6 indexes timestamp for the keyset-paginated history feed.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_exercise_records_timestamp` ON `exercise_records` (`timestamp`)");
+        }
+    };
+
+    /**
+     * Version 7 adds the trigger-maintained exercise_progress rollup (PRs and lifetime totals)
+     * and fills it from history.
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `exercise_progress` (`exerciseId` INTEGER NOT NULL, `heaviestWeight` REAL NOT NULL, `bestOneRepMax` REAL NOT NULL, `bestSetVolume` REAL NOT NULL, `lifetimeTonnage` REAL NOT NULL, `totalSets` INTEGER NOT NULL, `firstEpochDay` INTEGER NOT NULL, `lastEpochDay` INTEGER NOT NULL, PRIMARY KEY(`exerciseId`))");
+            execAll(db, EXERCISE_PROGRESS_TRIGGERS_V7);
+            db.execSQL(EXERCISE_PROGRESS_REBUILD_V7);
+        }
+    };
+
+    /**
+     * Version 8 adds exercise_distribution, per-exercise monthly weight and rep sketches,
+     * and fills it from history in one pass.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `exercise_distribution` (`exerciseId` INTEGER NOT NULL, `monthStart` INTEGER NOT NULL, `setCount` INTEGER NOT NULL, `weightSketch` BLOB NOT NULL, `repsSketch` BLOB NOT NULL, PRIMARY KEY(`exerciseId`, `monthStart`), FOREIGN KEY(`exerciseId`) REFERENCES `exercises`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            backfillDistributionsV8(db);
+        }
+    };
+
+    /**
+     * Version 9 widens the session index to (workoutSessionId, timestamp), so the set before
+     * any set of a session is one index seek for rest and density analytics.
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_exercise_records_workoutSessionId`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_exercise_records_workoutSessionId_timestamp` ON `exercise_records` (`workoutSessionId`, `timestamp`)");
+        }
+    };
+
+    /**
+     * Version 10 recreates the exercise_progress update trigger. Its first form used HAVING
+     * without GROUP BY, which SQLite only accepts from 3.39, so on older devices every
+     * update of a record failed.
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TRIGGER IF EXISTS `exercise_progress_record_update`");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS `exercise_progress_record_update` AFTER UPDATE OF"
+                    + " `exerciseId`, `sets`, `reps`, `weight`, `epochDay` ON `exercise_records` BEGIN"
+                    + " DELETE FROM `exercise_progress` WHERE `exerciseId` = OLD.`exerciseId`;"
+                    + " INSERT INTO `exercise_progress` (`exerciseId`, `heaviestWeight`, `bestOneRepMax`, `bestSetVolume`, `lifetimeTonnage`, `totalSets`, `firstEpochDay`, `lastEpochDay`)"
+                    + " SELECT OLD.`exerciseId`, MAX(`weight`), MAX((CASE WHEN `reps` <= 1 THEN `weight` ELSE `weight` * (1 + `reps` / 30.0) END)),"
+                    + " MAX((`reps` * `weight`)), SUM((`sets` * `reps` * `weight`)), SUM(`sets`), MIN(`epochDay`), MAX(`epochDay`)"
+                    + " FROM `exercise_records` WHERE `exerciseId` = OLD.`exerciseId` GROUP BY `exerciseId`;"
+                    + " DELETE FROM `exercise_progress` WHERE `exerciseId` = NEW.`exerciseId`;"
+                    + " INSERT INTO `exercise_progress` (`exerciseId`, `heaviestWeight`, `bestOneRepMax`, `bestSetVolume`, `lifetimeTonnage`, `totalSets`, `firstEpochDay`, `lastEpochDay`)"
+                    + " SELECT NEW.`exerciseId`, MAX(`weight`), MAX((CASE WHEN `reps` <= 1 THEN `weight` ELSE `weight` * (1 + `reps` / 30.0) END)),"
+                    + " MAX((`reps` * `weight`)), SUM((`sets` * `reps` * `weight`)), SUM(`sets`), MIN(`epochDay`), MAX(`epochDay`)"
+                    + " FROM `exercise_records` WHERE `exerciseId` = NEW.`exerciseId` GROUP BY `exerciseId`;"
+                    + " END");
+        }
+    };
+
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Lets readers see edits that leave a day's totals unchanged
+            db.execSQL("ALTER TABLE `daily_summary` ADD COLUMN `changedAt` INTEGER NOT NULL DEFAULT 0");
+            for (String trigger : new String[] {"daily_summary_record_insert", "daily_summary_record_delete",
+                    "daily_summary_record_update", "daily_summary_session_insert",
+                    "daily_summary_session_delete", "daily_summary_session_update"}) {
+                db.execSQL("DROP TRIGGER IF EXISTS `" + trigger + "`");
+            }
+            execAll(db, DAILY_SUMMARY_TRIGGERS_V11);
+        }
+    };
+
+    /**
+     * Version 12 recreates the exercise_progress delete trigger so it only rescans maxima
+     * that no remaining set ties; before, every bodyweight set and repeated top set caused
+     * a full scan of its exercise and clearing a long history was quadratic.
+     */
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TRIGGER IF EXISTS `exercise_progress_record_delete`");
+            db.execSQL(EXERCISE_PROGRESS_DELETE_TRIGGER_V12);
+        }
+    };
+
+    public static final Migration[] ALL = {
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+            MIGRATION_11_12
+    };
+
+    private static void execAll(SupportSQLiteDatabase db, String[] statements) {
+        for (String sql : statements) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * Version 8 backfill, frozen. Each exercise and month gets exact sketches in QuantileSketch
+     * format 1 (k = 200, a single level holding every value); the app compacts a month the
+     * next time a set is added to it. Month starts are computed from epochDay in SQL.
+     */
+    private static void backfillDistributionsV8(SupportSQLiteDatabase db) {
+        SupportSQLiteStatement insert = db.compileStatement("INSERT OR REPLACE INTO `exercise_distribution` "
+                + "(`exerciseId`, `monthStart`, `setCount`, `weightSketch`, `repsSketch`) VALUES (?, ?, ?, ?, ?)");
+        try (Cursor cursor = db.query("SELECT `exerciseId`, "
+                + "`epochDay` - CAST(strftime('%d', `epochDay` * 86400, 'unixepoch') AS INTEGER) + 1 AS monthStart, "
+                + "`weight`, `reps`, `sets` FROM `exercise_records` ORDER BY `exerciseId`, `epochDay`")) {
+            int exerciseId = 0;
+            long monthStart = 0;
+            float[] weights = new float[64];
+            float[] reps = new float[64];
+            int count = 0;
+            while (cursor.moveToNext()) {
+                if (count > 0 && (cursor.getInt(0) != exerciseId || cursor.getLong(1) != monthStart)) {
+                    writeDistributionV8(insert, exerciseId, monthStart, weights, reps, count);
+                    count = 0;
+                }
+                exerciseId = cursor.getInt(0);
+                monthStart = cursor.getLong(1);
+                // A row may stand for several identical sets
+                for (int i = 0; i < cursor.getInt(4); i++) {
+                    if (count == weights.length) {
+                        weights = Arrays.copyOf(weights, count * 2);
+                        reps = Arrays.copyOf(reps, count * 2);
+                    }
+                    weights[count] = cursor.getFloat(2);
+                    reps[count] = cursor.getInt(3);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                writeDistributionV8(insert, exerciseId, monthStart, weights, reps, count);
+            }
+        }
+    }
+
+    private static void writeDistributionV8(SupportSQLiteStatement insert, int exerciseId, long monthStart,
+                                            float[] weights, float[] reps, int count) {
+        insert.clearBindings();
+        insert.bindLong(1, exerciseId);
+        insert.bindLong(2, monthStart);
+        insert.bindLong(3, count);
+        insert.bindBlob(4, exactSketchV8(weights, count));
+        insert.bindBlob(5, exactSketchV8(reps, count));
+        insert.executeInsert();
+    }
+
+    private static byte[] exactSketchV8(float[] values, int count) {
+        float min = values[0];
+        float max = values[0];
+        for (int i = 1; i < count; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 8 + 4 + 4 + 1 + 4 + 4 * count);
+        buffer.put((byte) 1);    // format version
+        buffer.putInt(200);      // k
+        buffer.putLong(count);
+        buffer.putFloat(min);
+        buffer.putFloat(max);
+        buffer.put((byte) 1);    // levels
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.putFloat(values[i]);
+        }
+        return buffer.array();
+    }
+
+    // Frozen copies of the SQL the migrations install. Migrations must not call live code:
+    // later changes to the triggers or analytics would silently change what an old upgrade does.
+
+    private static final String[] DAILY_SUMMARY_TRIGGERS_V5 = {
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_insert` AFTER INSERT ON "
+                    + "`exercise_records` BEGIN INSERT OR IGNORE INTO `daily_summary` (`epochDay`, "
+                    + "`totalSets`, `totalReps`, `totalTonnage`, `distinctExercises`, `sessionCount`, "
+                    + "`durationMinutes`) VALUES (NEW.`epochDay`, 0, 0, 0, 0, 0, 0); UPDATE "
+                    + "`daily_summary` SET `totalSets` = `totalSets` + NEW.`sets`, `totalReps` = "
+                    + "`totalReps` + NEW.`sets` * NEW.`reps`, `totalTonnage` = `totalTonnage` + "
+                    + "NEW.`sets` * NEW.`reps` * NEW.`weight`, `distinctExercises` = "
+                    + "`distinctExercises` + (NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE "
+                    + "`epochDay` = NEW.`epochDay` AND `exerciseId` = NEW.`exerciseId` AND `id` != "
+                    + "NEW.`id`)) WHERE `epochDay` = NEW.`epochDay`; END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_delete` AFTER DELETE ON "
+                    + "`exercise_records` BEGIN UPDATE `daily_summary` SET `totalSets` = `totalSets` "
+                    + "- OLD.`sets`, `totalReps` = `totalReps` - OLD.`sets` * OLD.`reps`, "
+                    + "`totalTonnage` = `totalTonnage` - OLD.`sets` * OLD.`reps` * OLD.`weight`, "
+                    + "`distinctExercises` = `distinctExercises` - (NOT EXISTS (SELECT 1 FROM "
+                    + "`exercise_records` WHERE `epochDay` = OLD.`epochDay` AND `exerciseId` = "
+                    + "OLD.`exerciseId`)) WHERE `epochDay` = OLD.`epochDay`; DELETE FROM "
+                    + "`daily_summary` WHERE `epochDay` = OLD.`epochDay` AND NOT EXISTS (SELECT 1 "
+                    + "FROM `exercise_records` WHERE `epochDay` = OLD.`epochDay`) AND NOT EXISTS "
+                    + "(SELECT 1 FROM `workout_sessions` WHERE `epochDay` = OLD.`epochDay`); END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_update` AFTER UPDATE OF "
+                    + "`exerciseId`, `sets`, `reps`, `weight`, `epochDay` ON `exercise_records` BEGIN "
+                    + "INSERT OR IGNORE INTO `daily_summary` (`epochDay`, `totalSets`, `totalReps`, "
+                    + "`totalTonnage`, `distinctExercises`, `sessionCount`, `durationMinutes`) VALUES "
+                    + "(NEW.`epochDay`, 0, 0, 0, 0, 0, 0); UPDATE `daily_summary` SET `totalSets` = "
+                    + "`totalSets` - OLD.`sets`, `totalReps` = `totalReps` - OLD.`sets` * OLD.`reps`, "
+                    + "`totalTonnage` = `totalTonnage` - OLD.`sets` * OLD.`reps` * OLD.`weight` WHERE "
+                    + "`epochDay` = OLD.`epochDay`; UPDATE `daily_summary` SET `totalSets` = "
+                    + "`totalSets` + NEW.`sets`, `totalReps` = `totalReps` + NEW.`sets` * NEW.`reps`, "
+                    + "`totalTonnage` = `totalTonnage` + NEW.`sets` * NEW.`reps` * NEW.`weight` WHERE "
+                    + "`epochDay` = NEW.`epochDay`; UPDATE `daily_summary` SET `distinctExercises` = "
+                    + "(SELECT COUNT(DISTINCT `exerciseId`) FROM `exercise_records` WHERE `epochDay` "
+                    + "= `daily_summary`.`epochDay`) WHERE `epochDay` IN (OLD.`epochDay`, "
+                    + "NEW.`epochDay`); DELETE FROM `daily_summary` WHERE `epochDay` = OLD.`epochDay` "
+                    + "AND NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE `epochDay` = "
+                    + "OLD.`epochDay`) AND NOT EXISTS (SELECT 1 FROM `workout_sessions` WHERE "
+                    + "`epochDay` = OLD.`epochDay`); END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_insert` AFTER INSERT ON "
+                    + "`workout_sessions` BEGIN INSERT OR IGNORE INTO `daily_summary` (`epochDay`, "
+                    + "`totalSets`, `totalReps`, `totalTonnage`, `distinctExercises`, `sessionCount`, "
+                    + "`durationMinutes`) VALUES (NEW.`epochDay`, 0, 0, 0, 0, 0, 0); UPDATE "
+                    + "`daily_summary` SET `sessionCount` = `sessionCount` + 1, `durationMinutes` = "
+                    + "`durationMinutes` + NEW.`durationMinutes` WHERE `epochDay` = NEW.`epochDay`; "
+                    + "END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_delete` AFTER DELETE ON "
+                    + "`workout_sessions` BEGIN UPDATE `daily_summary` SET `sessionCount` = "
+                    + "`sessionCount` - 1, `durationMinutes` = `durationMinutes` - "
+                    + "OLD.`durationMinutes` WHERE `epochDay` = OLD.`epochDay`; DELETE FROM "
+                    + "`daily_summary` WHERE `epochDay` = OLD.`epochDay` AND NOT EXISTS (SELECT 1 "
+                    + "FROM `exercise_records` WHERE `epochDay` = OLD.`epochDay`) AND NOT EXISTS "
+                    + "(SELECT 1 FROM `workout_sessions` WHERE `epochDay` = OLD.`epochDay`); END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_update` AFTER UPDATE OF "
+                    + "`durationMinutes`, `epochDay` ON `workout_sessions` BEGIN INSERT OR IGNORE "
+                    + "INTO `daily_summary` (`epochDay`, `totalSets`, `totalReps`, `totalTonnage`, "
+                    + "`distinctExercises`, `sessionCount`, `durationMinutes`) VALUES "
+                    + "(NEW.`epochDay`, 0, 0, 0, 0, 0, 0); UPDATE `daily_summary` SET `sessionCount` "
+                    + "= `sessionCount` - 1, `durationMinutes` = `durationMinutes` - "
+                    + "OLD.`durationMinutes` WHERE `epochDay` = OLD.`epochDay`; UPDATE "
+                    + "`daily_summary` SET `sessionCount` = `sessionCount` + 1, `durationMinutes` = "
+                    + "`durationMinutes` + NEW.`durationMinutes` WHERE `epochDay` = NEW.`epochDay`; "
+                    + "DELETE FROM `daily_summary` WHERE `epochDay` = OLD.`epochDay` AND NOT EXISTS "
+                    + "(SELECT 1 FROM `exercise_records` WHERE `epochDay` = OLD.`epochDay`) AND NOT "
+                    + "EXISTS (SELECT 1 FROM `workout_sessions` WHERE `epochDay` = OLD.`epochDay`); "
+                    + "END"
+    };
+
+    private static final String DAILY_SUMMARY_REBUILD_V5 =
+            "INSERT INTO `daily_summary` (`epochDay`, `totalSets`, `totalReps`, "
+                    + "`totalTonnage`, `distinctExercises`, `sessionCount`, `durationMinutes`) SELECT "
+                    + "days.epochDay, COALESCE(r.totalSets, 0), COALESCE(r.totalReps, 0), "
+                    + "COALESCE(r.totalTonnage, 0), COALESCE(r.distinctExercises, 0), "
+                    + "COALESCE(s.sessionCount, 0), COALESCE(s.durationMinutes, 0) FROM (SELECT "
+                    + "epochDay FROM exercise_records UNION SELECT epochDay FROM workout_sessions) AS "
+                    + "days LEFT JOIN (SELECT epochDay, SUM(sets) AS totalSets, SUM(sets * reps) AS "
+                    + "totalReps, SUM(sets * reps * weight) AS totalTonnage, COUNT(DISTINCT "
+                    + "exerciseId) AS distinctExercises FROM exercise_records GROUP BY epochDay) AS r "
+                    + "ON r.epochDay = days.epochDay LEFT JOIN (SELECT epochDay, COUNT(*) AS "
+                    + "sessionCount, SUM(durationMinutes) AS durationMinutes FROM workout_sessions "
+                    + "GROUP BY epochDay) AS s ON s.epochDay = days.epochDay";
+
+    private static final String[] EXERCISE_PROGRESS_TRIGGERS_V7 = {
+            "CREATE TRIGGER IF NOT EXISTS `exercise_progress_record_insert` AFTER INSERT ON "
+                    + "`exercise_records` BEGIN INSERT OR IGNORE INTO `exercise_progress` "
+                    + "(`exerciseId`, `heaviestWeight`, `bestOneRepMax`, `bestSetVolume`, "
+                    + "`lifetimeTonnage`, `totalSets`, `firstEpochDay`, `lastEpochDay`) VALUES "
+                    + "(NEW.`exerciseId`, 0, 0, 0, 0, 0, NEW.`epochDay`, NEW.`epochDay`); UPDATE "
+                    + "`exercise_progress` SET `heaviestWeight` = MAX(`heaviestWeight`, "
+                    + "NEW.`weight`), `bestOneRepMax` = MAX(`bestOneRepMax`, (CASE WHEN NEW.`reps` <= "
+                    + "1 THEN NEW.`weight` ELSE NEW.`weight` * (1 + NEW.`reps` / 30.0) END)), "
+                    + "`bestSetVolume` = MAX(`bestSetVolume`, (NEW.`reps` * NEW.`weight`)), "
+                    + "`lifetimeTonnage` = `lifetimeTonnage` + (NEW.`sets` * NEW.`reps` * "
+                    + "NEW.`weight`), `totalSets` = `totalSets` + NEW.`sets`, `firstEpochDay` = "
+                    + "MIN(`firstEpochDay`, NEW.`epochDay`), `lastEpochDay` = MAX(`lastEpochDay`, "
+                    + "NEW.`epochDay`) WHERE `exerciseId` = NEW.`exerciseId`; END",
+
+            "CREATE TRIGGER IF NOT EXISTS `exercise_progress_record_delete` AFTER DELETE ON "
+                    + "`exercise_records` BEGIN UPDATE `exercise_progress` SET `lifetimeTonnage` = "
+                    + "`lifetimeTonnage` - (OLD.`sets` * OLD.`reps` * OLD.`weight`), `totalSets` = "
+                    + "`totalSets` - OLD.`sets`, `firstEpochDay` = COALESCE((SELECT `epochDay` FROM "
+                    + "`exercise_records` WHERE `exerciseId` = OLD.`exerciseId` ORDER BY `timestamp` "
+                    + "ASC LIMIT 1), `firstEpochDay`), `lastEpochDay` = COALESCE((SELECT `epochDay` "
+                    + "FROM `exercise_records` WHERE `exerciseId` = OLD.`exerciseId` ORDER BY "
+                    + "`timestamp` DESC LIMIT 1), `lastEpochDay`) WHERE `exerciseId` = "
+                    + "OLD.`exerciseId`; UPDATE `exercise_progress` SET (`heaviestWeight`, "
+                    + "`bestOneRepMax`, `bestSetVolume`) = (SELECT COALESCE(MAX(`weight`), 0), "
+                    + "COALESCE(MAX((CASE WHEN `reps` <= 1 THEN `weight` ELSE `weight` * (1 + `reps` "
+                    + "/ 30.0) END)), 0), COALESCE(MAX((`reps` * `weight`)), 0) FROM "
+                    + "`exercise_records` WHERE `exerciseId` = OLD.`exerciseId`) WHERE `exerciseId` = "
+                    + "OLD.`exerciseId` AND (OLD.`weight` >= `heaviestWeight` OR (CASE WHEN "
+                    + "OLD.`reps` <= 1 THEN OLD.`weight` ELSE OLD.`weight` * (1 + OLD.`reps` / 30.0) "
+                    + "END) >= `bestOneRepMax` OR (OLD.`reps` * OLD.`weight`) >= `bestSetVolume`); "
+                    + "DELETE FROM `exercise_progress` WHERE `exerciseId` = OLD.`exerciseId` AND NOT "
+                    + "EXISTS (SELECT 1 FROM `exercise_records` WHERE `exerciseId` = "
+                    + "OLD.`exerciseId`); END",
+
+            "CREATE TRIGGER IF NOT EXISTS `exercise_progress_record_update` AFTER UPDATE OF "
+                    + "`exerciseId`, `sets`, `reps`, `weight`, `epochDay` ON `exercise_records` BEGIN "
+                    + "DELETE FROM `exercise_progress` WHERE `exerciseId` = OLD.`exerciseId`; INSERT "
+                    + "INTO `exercise_progress` (`exerciseId`, `heaviestWeight`, `bestOneRepMax`, "
+                    + "`bestSetVolume`, `lifetimeTonnage`, `totalSets`, `firstEpochDay`, "
+                    + "`lastEpochDay`) SELECT OLD.`exerciseId`, MAX(`weight`), MAX((CASE WHEN `reps` "
+                    + "<= 1 THEN `weight` ELSE `weight` * (1 + `reps` / 30.0) END)), MAX((`reps` * "
+                    + "`weight`)), SUM((`sets` * `reps` * `weight`)), SUM(`sets`), MIN(`epochDay`), "
+                    + "MAX(`epochDay`) FROM `exercise_records` WHERE `exerciseId` = OLD.`exerciseId` "
+                    + "GROUP BY `exerciseId`; DELETE FROM `exercise_progress` WHERE `exerciseId` = "
+                    + "NEW.`exerciseId`; INSERT INTO `exercise_progress` (`exerciseId`, "
+                    + "`heaviestWeight`, `bestOneRepMax`, `bestSetVolume`, `lifetimeTonnage`, "
+                    + "`totalSets`, `firstEpochDay`, `lastEpochDay`) SELECT NEW.`exerciseId`, "
+                    + "MAX(`weight`), MAX((CASE WHEN `reps` <= 1 THEN `weight` ELSE `weight` * (1 + "
+                    + "`reps` / 30.0) END)), MAX((`reps` * `weight`)), SUM((`sets` * `reps` * "
+                    + "`weight`)), SUM(`sets`), MIN(`epochDay`), MAX(`epochDay`) FROM "
+                    + "`exercise_records` WHERE `exerciseId` = NEW.`exerciseId` GROUP BY "
+                    + "`exerciseId`; END"
+    };
+
+    private static final String EXERCISE_PROGRESS_REBUILD_V7 =
+            "INSERT INTO `exercise_progress` (`exerciseId`, `heaviestWeight`, "
+                    + "`bestOneRepMax`, `bestSetVolume`, `lifetimeTonnage`, `totalSets`, "
+                    + "`firstEpochDay`, `lastEpochDay`) SELECT `exerciseId`, MAX(`weight`), MAX((CASE "
+                    + "WHEN `reps` <= 1 THEN `weight` ELSE `weight` * (1 + `reps` / 30.0) END)), "
+                    + "MAX((`reps` * `weight`)), SUM((`sets` * `reps` * `weight`)), SUM(`sets`), "
+                    + "MIN(`epochDay`), MAX(`epochDay`) FROM `exercise_records` GROUP BY `exerciseId`";
+
+    private static final String[] DAILY_SUMMARY_TRIGGERS_V11 = {
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_insert` AFTER INSERT ON "
+                    + "`exercise_records` BEGIN INSERT OR IGNORE INTO `daily_summary` (`epochDay`, "
+                    + "`totalSets`, `totalReps`, `totalTonnage`, `distinctExercises`, `sessionCount`, "
+                    + "`durationMinutes`, `changedAt`) VALUES (NEW.`epochDay`, 0, 0, 0, 0, 0, 0, 0); "
+                    + "UPDATE `daily_summary` SET `totalSets` = `totalSets` + NEW.`sets`, `totalReps` "
+                    + "= `totalReps` + NEW.`sets` * NEW.`reps`, `totalTonnage` = `totalTonnage` + "
+                    + "NEW.`sets` * NEW.`reps` * NEW.`weight`, `distinctExercises` = "
+                    + "`distinctExercises` + (NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE "
+                    + "`epochDay` = NEW.`epochDay` AND `exerciseId` = NEW.`exerciseId` AND `id` != "
+                    + "NEW.`id`)), `changedAt` = MAX(`changedAt` + 1, CAST((julianday('now') - "
+                    + "2440587.5) * 86400000 AS INTEGER)) WHERE `epochDay` = NEW.`epochDay`; END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_delete` AFTER DELETE ON "
+                    + "`exercise_records` BEGIN UPDATE `daily_summary` SET `totalSets` = `totalSets` - "
+                    + "OLD.`sets`, `totalReps` = `totalReps` - OLD.`sets` * OLD.`reps`, `totalTonnage` "
+                    + "= `totalTonnage` - OLD.`sets` * OLD.`reps` * OLD.`weight`, `distinctExercises` "
+                    + "= `distinctExercises` - (NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE "
+                    + "`epochDay` = OLD.`epochDay` AND `exerciseId` = OLD.`exerciseId`)), `changedAt` "
+                    + "= MAX(`changedAt` + 1, CAST((julianday('now') - 2440587.5) * 86400000 AS "
+                    + "INTEGER)) WHERE `epochDay` = OLD.`epochDay`; DELETE FROM `daily_summary` WHERE "
+                    + "`epochDay` = OLD.`epochDay` AND NOT EXISTS (SELECT 1 FROM `exercise_records` "
+                    + "WHERE `epochDay` = OLD.`epochDay`) AND NOT EXISTS (SELECT 1 FROM "
+                    + "`workout_sessions` WHERE `epochDay` = OLD.`epochDay`); END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_record_update` AFTER UPDATE ON "
+                    + "`exercise_records` BEGIN INSERT OR IGNORE INTO `daily_summary` (`epochDay`, "
+                    + "`totalSets`, `totalReps`, `totalTonnage`, `distinctExercises`, `sessionCount`, "
+                    + "`durationMinutes`, `changedAt`) VALUES (NEW.`epochDay`, 0, 0, 0, 0, 0, 0, 0); "
+                    + "UPDATE `daily_summary` SET `totalSets` = `totalSets` - OLD.`sets`, `totalReps` "
+                    + "= `totalReps` - OLD.`sets` * OLD.`reps`, `totalTonnage` = `totalTonnage` - "
+                    + "OLD.`sets` * OLD.`reps` * OLD.`weight` WHERE `epochDay` = OLD.`epochDay`; "
+                    + "UPDATE `daily_summary` SET `totalSets` = `totalSets` + NEW.`sets`, `totalReps` "
+                    + "= `totalReps` + NEW.`sets` * NEW.`reps`, `totalTonnage` = `totalTonnage` + "
+                    + "NEW.`sets` * NEW.`reps` * NEW.`weight` WHERE `epochDay` = NEW.`epochDay`; "
+                    + "UPDATE `daily_summary` SET `distinctExercises` = (SELECT COUNT(DISTINCT "
+                    + "`exerciseId`) FROM `exercise_records` WHERE `epochDay` = "
+                    + "`daily_summary`.`epochDay`), `changedAt` = MAX(`changedAt` + 1, "
+                    + "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)) WHERE `epochDay` IN "
+                    + "(OLD.`epochDay`, NEW.`epochDay`); DELETE FROM `daily_summary` WHERE `epochDay` "
+                    + "= OLD.`epochDay` AND NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE "
+                    + "`epochDay` = OLD.`epochDay`) AND NOT EXISTS (SELECT 1 FROM `workout_sessions` "
+                    + "WHERE `epochDay` = OLD.`epochDay`); END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_insert` AFTER INSERT ON "
+                    + "`workout_sessions` BEGIN INSERT OR IGNORE INTO `daily_summary` (`epochDay`, "
+                    + "`totalSets`, `totalReps`, `totalTonnage`, `distinctExercises`, `sessionCount`, "
+                    + "`durationMinutes`, `changedAt`) VALUES (NEW.`epochDay`, 0, 0, 0, 0, 0, 0, 0); "
+                    + "UPDATE `daily_summary` SET `sessionCount` = `sessionCount` + 1, "
+                    + "`durationMinutes` = `durationMinutes` + NEW.`durationMinutes`, `changedAt` = "
+                    + "MAX(`changedAt` + 1, CAST((julianday('now') - 2440587.5) * 86400000 AS "
+                    + "INTEGER)) WHERE `epochDay` = NEW.`epochDay`; END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_delete` AFTER DELETE ON "
+                    + "`workout_sessions` BEGIN UPDATE `daily_summary` SET `sessionCount` = "
+                    + "`sessionCount` - 1, `durationMinutes` = `durationMinutes` - "
+                    + "OLD.`durationMinutes`, `changedAt` = MAX(`changedAt` + 1, "
+                    + "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)) WHERE `epochDay` = "
+                    + "OLD.`epochDay`; DELETE FROM `daily_summary` WHERE `epochDay` = OLD.`epochDay` "
+                    + "AND NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE `epochDay` = "
+                    + "OLD.`epochDay`) AND NOT EXISTS (SELECT 1 FROM `workout_sessions` WHERE "
+                    + "`epochDay` = OLD.`epochDay`); END",
+
+            "CREATE TRIGGER IF NOT EXISTS `daily_summary_session_update` AFTER UPDATE ON "
+                    + "`workout_sessions` BEGIN INSERT OR IGNORE INTO `daily_summary` (`epochDay`, "
+                    + "`totalSets`, `totalReps`, `totalTonnage`, `distinctExercises`, `sessionCount`, "
+                    + "`durationMinutes`, `changedAt`) VALUES (NEW.`epochDay`, 0, 0, 0, 0, 0, 0, 0); "
+                    + "UPDATE `daily_summary` SET `sessionCount` = `sessionCount` - 1, "
+                    + "`durationMinutes` = `durationMinutes` - OLD.`durationMinutes`, `changedAt` = "
+                    + "MAX(`changedAt` + 1, CAST((julianday('now') - 2440587.5) * 86400000 AS "
+                    + "INTEGER)) WHERE `epochDay` = OLD.`epochDay`; UPDATE `daily_summary` SET "
+                    + "`sessionCount` = `sessionCount` + 1, `durationMinutes` = `durationMinutes` + "
+                    + "NEW.`durationMinutes`, `changedAt` = MAX(`changedAt` + 1, "
+                    + "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)) WHERE `epochDay` = "
+                    + "NEW.`epochDay`; DELETE FROM `daily_summary` WHERE `epochDay` = OLD.`epochDay` "
+                    + "AND NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE `epochDay` = "
+                    + "OLD.`epochDay`) AND NOT EXISTS (SELECT 1 FROM `workout_sessions` WHERE "
+                    + "`epochDay` = OLD.`epochDay`); END"
+    };
+
+    private static final String EXERCISE_PROGRESS_DELETE_TRIGGER_V12 =
+            "CREATE TRIGGER IF NOT EXISTS `exercise_progress_record_delete` AFTER DELETE ON "
+                    + "`exercise_records` BEGIN UPDATE `exercise_progress` SET `lifetimeTonnage` = "
+                    + "`lifetimeTonnage` - (OLD.`sets` * OLD.`reps` * OLD.`weight`), `totalSets` = "
+                    + "`totalSets` - OLD.`sets`, `firstEpochDay` = COALESCE((SELECT `epochDay` FROM "
+                    + "`exercise_records` WHERE `exerciseId` = OLD.`exerciseId` ORDER BY `timestamp` "
+                    + "ASC LIMIT 1), `firstEpochDay`), `lastEpochDay` = COALESCE((SELECT `epochDay` "
+                    + "FROM `exercise_records` WHERE `exerciseId` = OLD.`exerciseId` ORDER BY "
+                    + "`timestamp` DESC LIMIT 1), `lastEpochDay`) WHERE `exerciseId` = "
+                    + "OLD.`exerciseId`; UPDATE `exercise_progress` SET (`heaviestWeight`, "
+                    + "`bestOneRepMax`, `bestSetVolume`) = (SELECT COALESCE(MAX(`weight`), 0), "
+                    + "COALESCE(MAX((CASE WHEN `reps` <= 1 THEN `weight` ELSE `weight` * (1 + `reps` / "
+                    + "30.0) END)), 0), COALESCE(MAX((`reps` * `weight`)), 0) FROM `exercise_records` "
+                    + "WHERE `exerciseId` = OLD.`exerciseId`) WHERE `exerciseId` = OLD.`exerciseId` "
+                    + "AND ((OLD.`weight` >= `heaviestWeight` AND NOT EXISTS (SELECT 1 FROM "
+                    + "`exercise_records` WHERE `exerciseId` = OLD.`exerciseId` AND `weight` >= "
+                    + "`exercise_progress`.`heaviestWeight`)) OR ((CASE WHEN OLD.`reps` <= 1 THEN "
+                    + "OLD.`weight` ELSE OLD.`weight` * (1 + OLD.`reps` / 30.0) END) >= "
+                    + "`bestOneRepMax` AND NOT EXISTS (SELECT 1 FROM `exercise_records` WHERE "
+                    + "`exerciseId` = OLD.`exerciseId` AND (CASE WHEN `reps` <= 1 THEN `weight` ELSE "
+                    + "`weight` * (1 + `reps` / 30.0) END) >= `exercise_progress`.`bestOneRepMax`)) OR "
+                    + "((OLD.`reps` * OLD.`weight`) >= `bestSetVolume` AND NOT EXISTS (SELECT 1 FROM "
+                    + "`exercise_records` WHERE `exerciseId` = OLD.`exerciseId` AND (`reps` * "
+                    + "`weight`) >= `exercise_progress`.`bestSetVolume`))); DELETE FROM "
+                    + "`exercise_progress` WHERE `exerciseId` = OLD.`exerciseId` AND NOT EXISTS "
+                    + "(SELECT 1 FROM `exercise_records` WHERE `exerciseId` = OLD.`exerciseId`); END";
+}
@@ -0,0 +1,85 @@
+package com.kanworks.buildbizeps.data.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.kanworks.buildbizeps.data.model.DailySummary;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.Objects;
+
+/**
+ * Persisted per-day rollup of exercise_records and workout_sessions.
+ * Kept up to date by SQLite triggers (see DailySummaryTriggers), so it changes in the
+ * same transaction as every insert, update or delete of the underlying rows.
+ * changedAt moves forward with every such change, even one that leaves the totals as they were.
+ */
+@Entity(tableName = "daily_summary")
+public class DailyRollup {
+    @PrimaryKey
+    private long epochDay;
+    
+    private int totalSets;
+    private int totalReps;        // sets * reps
+    private double totalTonnage;  // sets * reps * weight (kg)
+    private int distinctExercises;
+    private int sessionCount;
+    private long durationMinutes;
+    @ColumnInfo(defaultValue = "0")
+    private long changedAt;       // epoch millis of the day's latest change
+    
+    public DailyRollup() {}
+    
+    public DailySummary toDailySummary() {
+        DailySummary summary = new DailySummary(TrainingDay.format(epochDay), totalReps, totalSets,
+                distinctExercises, sessionCount, durationMinutes);
+        summary.setTotalTonnage(totalTonnage);
+        return summary;
+    }
+    
+    // Getters and Setters
+    public long getEpochDay() { return epochDay; }
+    public void setEpochDay(long epochDay) { this.epochDay = epochDay; }
+    
+    public int getTotalSets() { return totalSets; }
+    public void setTotalSets(int totalSets) { this.totalSets = totalSets; }
+    
+    public int getTotalReps() { return totalReps; }
+    public void setTotalReps(int totalReps) { this.totalReps = totalReps; }
+    
+    public double getTotalTonnage() { return totalTonnage; }
+    public void setTotalTonnage(double totalTonnage) { this.totalTonnage = totalTonnage; }
+    
+    public int getDistinctExercises() { return distinctExercises; }
+    public void setDistinctExercises(int distinctExercises) { this.distinctExercises = distinctExercises; }
+    
+    public int getSessionCount() { return sessionCount; }
+    public void setSessionCount(int sessionCount) { this.sessionCount = sessionCount; }
+    
+    public long getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(long durationMinutes) { this.durationMinutes = durationMinutes; }
+    
+    public long getChangedAt() { return changedAt; }
+    public void setChangedAt(long changedAt) { this.changedAt = changedAt; }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailyRollup)) return false;
+        DailyRollup other = (DailyRollup) o;
+        return epochDay == other.epochDay
+                && totalSets == other.totalSets
+                && totalReps == other.totalReps
+                && Double.compare(totalTonnage, other.totalTonnage) == 0
+                && distinctExercises == other.distinctExercises
+                && sessionCount == other.sessionCount
+                && durationMinutes == other.durationMinutes
+                && changedAt == other.changedAt;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(epochDay, totalSets, totalReps, totalTonnage, distinctExercises, sessionCount, durationMinutes, changedAt);
+    }
+}
@@ -3,6 +3,8 @@ package com.kanworks.buildbizeps.data.entity;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 
+import java.util.Objects;
+
 @Entity(tableName = "exercises")
 public class Exercise {
     @PrimaryKey(autoGenerate = true)
@@ -57,4 +59,24 @@ public class Exercise {
     
     public boolean isCustom() { return isCustom; }
     public void setCustom(boolean custom) { isCustom = custom; }
+    
+    // Value equality so observed lists only re-render when a row actually changed
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Exercise)) return false;
+        Exercise other = (Exercise) o;
+        return id == other.id
+                && isFavorite == other.isFavorite
+                && isCustom == other.isCustom
+                && Objects.equals(name, other.name)
+                && Objects.equals(type, other.type)
+                && Objects.equals(description, other.description)
+                && Objects.equals(muscleGroup, other.muscleGroup);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, type, description, muscleGroup, isFavorite, isCustom);
+    }
 }
\ No newline at end of file
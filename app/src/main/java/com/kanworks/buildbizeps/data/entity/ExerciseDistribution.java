@@ -0,0 +1,48 @@
+package com.kanworks.buildbizeps.data.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * Weight and rep distribution of one exercise in one calendar month, as serialized
+ * QuantileSketch blobs. Kept up to date by ExerciseDistributions in the same transaction
+ * that logs the sets; months merge into any range without reading exercise_records.
+ */
+@Entity(tableName = "exercise_distribution",
+        primaryKeys = {"exerciseId", "monthStart"},
+        foreignKeys = {
+            @ForeignKey(entity = Exercise.class,
+                       parentColumns = "id",
+                       childColumns = "exerciseId",
+                       onDelete = ForeignKey.CASCADE)
+        })
+public class ExerciseDistribution {
+    private int exerciseId;
+    private long monthStart;    // epochDay of the 1st of the month
+    private int setCount;
+    @NonNull
+    private byte[] weightSketch = new byte[0];
+    @NonNull
+    private byte[] repsSketch = new byte[0];
+
+    public ExerciseDistribution() {}
+
+    // Getters and Setters
+    public int getExerciseId() { return exerciseId; }
+    public void setExerciseId(int exerciseId) { this.exerciseId = exerciseId; }
+
+    public long getMonthStart() { return monthStart; }
+    public void setMonthStart(long monthStart) { this.monthStart = monthStart; }
+
+    public int getSetCount() { return setCount; }
+    public void setSetCount(int setCount) { this.setCount = setCount; }
+
+    @NonNull
+    public byte[] getWeightSketch() { return weightSketch; }
+    public void setWeightSketch(@NonNull byte[] weightSketch) { this.weightSketch = weightSketch; }
+
+    @NonNull
+    public byte[] getRepsSketch() { return repsSketch; }
+    public void setRepsSketch(@NonNull byte[] repsSketch) { this.repsSketch = repsSketch; }
+}
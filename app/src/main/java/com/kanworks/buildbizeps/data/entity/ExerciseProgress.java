@@ -0,0 +1,99 @@
+package com.kanworks.buildbizeps.data.entity;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.util.Objects;
+
+/**
+ * Persisted per-exercise personal records and lifetime totals.
+ * Kept up to date by SQLite triggers (see ExerciseProgressTriggers), so PR checks and a
+ * PR board read one row per exercise instead of scanning its history.
+ */
+@Entity(tableName = "exercise_progress")
+public class ExerciseProgress {
+    @PrimaryKey
+    private int exerciseId;
+    
+    private double heaviestWeight;
+    private double bestOneRepMax;   // Epley estimate, see estimateOneRepMax()
+    private double bestSetVolume;   // reps * weight of the best single set
+    private double lifetimeTonnage; // sets * reps * weight over all records
+    private int totalSets;
+    private long firstEpochDay;
+    private long lastEpochDay;
+    
+    public ExerciseProgress() {}
+    
+    /**
+     * Epley one-rep max estimate, weight * (1 + reps / 30); a single is its own max.
+     * The triggers compute the same expression in SQL.
+     */
+    public static double estimateOneRepMax(double weight, int reps) {
+        return reps <= 1 ? weight : weight * (1 + reps / 30.0);
+    }
+    
+    /**
+     * Whether a new set would beat the heaviest weight or the best estimated one-rep max
+     */
+    public boolean isPersonalRecord(float weight, int reps) {
+        return weight > heaviestWeight || estimateOneRepMax(weight, reps) > bestOneRepMax;
+    }
+    
+    /**
+     * Fold a set that is not in the database yet into this row (maxima and totals only)
+     */
+    public void recordSet(float weight, int reps) {
+        heaviestWeight = Math.max(heaviestWeight, weight);
+        bestOneRepMax = Math.max(bestOneRepMax, estimateOneRepMax(weight, reps));
+        bestSetVolume = Math.max(bestSetVolume, (double) reps * weight);
+        lifetimeTonnage += (double) reps * weight;
+        totalSets++;
+    }
+    
+    // Getters and Setters
+    public int getExerciseId() { return exerciseId; }
+    public void setExerciseId(int exerciseId) { this.exerciseId = exerciseId; }
+    
+    public double getHeaviestWeight() { return heaviestWeight; }
+    public void setHeaviestWeight(double heaviestWeight) { this.heaviestWeight = heaviestWeight; }
+    
+    public double getBestOneRepMax() { return bestOneRepMax; }
+    public void setBestOneRepMax(double bestOneRepMax) { this.bestOneRepMax = bestOneRepMax; }
+    
+    public double getBestSetVolume() { return bestSetVolume; }
+    public void setBestSetVolume(double bestSetVolume) { this.bestSetVolume = bestSetVolume; }
+    
+    public double getLifetimeTonnage() { return lifetimeTonnage; }
+    public void setLifetimeTonnage(double lifetimeTonnage) { this.lifetimeTonnage = lifetimeTonnage; }
+    
+    public int getTotalSets() { return totalSets; }
+    public void setTotalSets(int totalSets) { this.totalSets = totalSets; }
+    
+    public long getFirstEpochDay() { return firstEpochDay; }
+    public void setFirstEpochDay(long firstEpochDay) { this.firstEpochDay = firstEpochDay; }
+    
+    public long getLastEpochDay() { return lastEpochDay; }
+    public void setLastEpochDay(long lastEpochDay) { this.lastEpochDay = lastEpochDay; }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExerciseProgress)) return false;
+        ExerciseProgress other = (ExerciseProgress) o;
+        return exerciseId == other.exerciseId
+                && Double.compare(heaviestWeight, other.heaviestWeight) == 0
+                && Double.compare(bestOneRepMax, other.bestOneRepMax) == 0
+                && Double.compare(bestSetVolume, other.bestSetVolume) == 0
+                && Double.compare(lifetimeTonnage, other.lifetimeTonnage) == 0
+                && totalSets == other.totalSets
+                && firstEpochDay == other.firstEpochDay
+                && lastEpochDay == other.lastEpochDay;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(exerciseId, heaviestWeight, bestOneRepMax, bestSetVolume, lifetimeTonnage,
+                totalSets, firstEpochDay, lastEpochDay);
+    }
+}
@@ -1,9 +1,13 @@
 package com.kanworks.buildbizeps.data.entity;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
 import java.util.Date;
 
 @Entity(tableName = "exercise_records",
@@ -16,6 +20,12 @@ import java.util.Date;
                        parentColumns = "id", 
                        childColumns = "workoutSessionId",
                        onDelete = ForeignKey.CASCADE)
+        },
+        indices = {
+            @Index("epochDay"),
+            @Index(value = {"exerciseId", "timestamp"}),
+            @Index(value = {"workoutSessionId", "timestamp"}),
+            @Index("timestamp")
         })
 public class ExerciseRecord {
     @PrimaryKey(autoGenerate = true)
@@ -27,6 +37,9 @@ public class ExerciseRecord {
     private int reps;
     private float weight; // weight used (if applicable)
     private Date timestamp;
+    // Local training day of timestamp; declared after it so the stored value wins when Room loads a row
+    @ColumnInfo(defaultValue = "0")
+    private long epochDay;
     private String notes;
     
     // Constructors
@@ -37,7 +50,7 @@ public class ExerciseRecord {
         this.workoutSessionId = workoutSessionId;
         this.sets = sets;
         this.reps = reps;
-        this.timestamp = new Date();
+        setTimestamp(new Date());
     }
     
     // Getters and Setters
@@ -60,7 +73,15 @@ public class ExerciseRecord {
     public void setWeight(float weight) { this.weight = weight; }
     
     public Date getTimestamp() { return timestamp; }
-    public void setTimestamp(Date timestamp) { this.timestamp = timestamp; }
+    public void setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+        if (timestamp != null) {
+            this.epochDay = TrainingDay.fromDate(timestamp);
+        }
+    }
+    
+    public long getEpochDay() { return epochDay; }
+    public void setEpochDay(long epochDay) { this.epochDay = epochDay; }
     
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
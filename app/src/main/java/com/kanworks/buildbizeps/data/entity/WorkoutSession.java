@@ -1,16 +1,26 @@
 package com.kanworks.buildbizeps.data.entity;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
 import java.util.Date;
 
-@Entity(tableName = "workout_sessions")
+@Entity(tableName = "workout_sessions",
+        indices = {
+            @Index("epochDay")
+        })
 public class WorkoutSession {
     @PrimaryKey(autoGenerate = true)
     private int id;
     
     private Date startTime;
+    // Local training day of startTime; declared after it so the stored value wins when Room loads a row
+    @ColumnInfo(defaultValue = "0")
+    private long epochDay;
     private Date endTime;
     private long durationMinutes;
     private String notes;
@@ -19,7 +29,7 @@ public class WorkoutSession {
     public WorkoutSession() {}
     
     public WorkoutSession(Date startTime) {
-        this.startTime = startTime;
+        setStartTime(startTime);
     }
     
     // Getters and Setters
@@ -27,7 +37,15 @@ public class WorkoutSession {
     public void setId(int id) { this.id = id; }
     
     public Date getStartTime() { return startTime; }
-    public void setStartTime(Date startTime) { this.startTime = startTime; }
+    public void setStartTime(Date startTime) {
+        this.startTime = startTime;
+        if (startTime != null) {
+            this.epochDay = TrainingDay.fromDate(startTime);
+        }
+    }
+    
+    public long getEpochDay() { return epochDay; }
+    public void setEpochDay(long epochDay) { this.epochDay = epochDay; }
     
     public Date getEndTime() { return endTime; }
     public void setEndTime(Date endTime) { this.endTime = endTime; }
@@ -0,0 +1,30 @@
+package com.kanworks.buildbizeps.data.model;
+
+/**
+ * Points of one chart line, ready to draw: bucket days and values as parallel arrays,
+ * already reduced to at most the width they were requested for. Immutable.
+ */
+public class ChartPoints {
+
+    private final long[] days;
+    private final float[] values;
+    private final int bucketCount;
+
+    public ChartPoints(long[] days, float[] values, int bucketCount) {
+        this.days = days;
+        this.values = values;
+        this.bucketCount = bucketCount;
+    }
+
+    /** Points to draw */
+    public int size() { return days.length; }
+
+    public long dayAt(int i) { return days[i]; }
+
+    public float valueAt(int i) { return values[i]; }
+
+    /** Buckets read from the database before downsampling */
+    public int getBucketCount() { return bucketCount; }
+
+    public boolean isEmpty() { return days.length == 0; }
+}
@@ -0,0 +1,38 @@
+package com.kanworks.buildbizeps.data.model;
+
+/**
+ * Streak and frequency figures for the dashboard, all counted in training days
+ */
+public class ConsistencyStats {
+    private final int currentStreak;
+    private final int longestStreak;
+    private final int daysThisWeek;
+    private final int daysThisMonth;
+    private final int daysThisYear;
+    private final int totalDays;
+    
+    public ConsistencyStats(int currentStreak, int longestStreak, int daysThisWeek,
+                            int daysThisMonth, int daysThisYear, int totalDays) {
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.daysThisWeek = daysThisWeek;
+        this.daysThisMonth = daysThisMonth;
+        this.daysThisYear = daysThisYear;
+        this.totalDays = totalDays;
+    }
+    
+    /**
+     * Consecutive days trained up to today, or up to yesterday while today is still open
+     */
+    public int getCurrentStreak() { return currentStreak; }
+    
+    public int getLongestStreak() { return longestStreak; }
+    
+    public int getDaysThisWeek() { return daysThisWeek; }
+    
+    public int getDaysThisMonth() { return daysThisMonth; }
+    
+    public int getDaysThisYear() { return daysThisYear; }
+    
+    public int getTotalDays() { return totalDays; }
+}
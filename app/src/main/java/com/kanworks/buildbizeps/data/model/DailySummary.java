@@ -1,5 +1,7 @@
 package com.kanworks.buildbizeps.data.model;
 
+import androidx.room.Ignore;
+
 public class DailySummary {
     private String date;
     private int totalReps;  // This will be sets * reps for all exercises
@@ -7,9 +9,12 @@ public class DailySummary {
     private int totalExercises;  // Number of different exercises performed
     private int workoutCount;
     private long totalDurationMinutes;
+    private double totalTonnage;  // sets * reps * weight (kg)
+    private double workDensity;   // tonnage per active minute (kg/min)
     
     public DailySummary() {}
     
+    @Ignore
     public DailySummary(String date, int totalReps, int totalSets, 
                        int totalExercises, int workoutCount, long totalDurationMinutes) {
         this.date = date;
@@ -38,4 +43,10 @@ public class DailySummary {
     
     public long getTotalDurationMinutes() { return totalDurationMinutes; }
     public void setTotalDurationMinutes(long totalDurationMinutes) { this.totalDurationMinutes = totalDurationMinutes; }
+    
+    public double getTotalTonnage() { return totalTonnage; }
+    public void setTotalTonnage(double totalTonnage) { this.totalTonnage = totalTonnage; }
+    
+    public double getWorkDensity() { return workDensity; }
+    public void setWorkDensity(double workDensity) { this.workDensity = workDensity; }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.kanworks.buildbizeps.data.model;
+
+import androidx.annotation.Nullable;
+
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+
+import java.util.List;
+
+/**
+ * Everything the dashboard shows for one day, loaded together so the summary and the
+ * exercise list always describe the same day
+ */
+public class DaySnapshot {
+    private final long epochDay;
+    @Nullable
+    private final DailyRollup rollup;
+    private final DailySummary summary;
+    private final SessionDensity density;
+    private final List<ExerciseHistoryDetail> exercises;
+    
+    public DaySnapshot(long epochDay, @Nullable DailyRollup rollup, DailySummary summary,
+                       SessionDensity density, List<ExerciseHistoryDetail> exercises) {
+        this.epochDay = epochDay;
+        this.rollup = rollup;
+        this.summary = summary;
+        this.density = density;
+        this.exercises = exercises;
+    }
+    
+    public long getEpochDay() { return epochDay; }
+    
+    /**
+     * The day's daily_summary row, or null if nothing was logged that day
+     */
+    @Nullable
+    public DailyRollup getRollup() { return rollup; }
+    
+    public DailySummary getSummary() { return summary; }
+    
+    /**
+     * Rest and work density over the day's sessions; all zero if nothing was logged
+     */
+    public SessionDensity getDensity() { return density; }
+    
+    public List<ExerciseHistoryDetail> getExercises() { return exercises; }
+}
@@ -1,5 +1,6 @@
 package com.kanworks.buildbizeps.data.model;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -17,6 +18,40 @@ public class ExerciseHistoryDetail {
         this.setDetails = setDetails;
     }
     
+    /**
+     * Build the history in a single pass over rows already ordered by exercise,
+     * as returned by ExerciseRecordDao.getExerciseSetsForDay()
+     */
+    public static List<ExerciseHistoryDetail> fromSetRows(List<ExerciseSetRow> rows) {
+        List<ExerciseHistoryDetail> historyDetails = new ArrayList<>();
+        
+        int currentExerciseId = 0;
+        String currentName = null;
+        List<SetDetail> currentSets = null;
+        
+        for (ExerciseSetRow row : rows) {
+            if (currentSets == null || row.getExerciseId() != currentExerciseId) {
+                if (currentSets != null) {
+                    historyDetails.add(new ExerciseHistoryDetail(currentName, currentSets.size(), currentSets));
+                }
+                currentExerciseId = row.getExerciseId();
+                currentName = row.getExerciseName() != null ? row.getExerciseName() : "Unknown Exercise";
+                currentSets = new ArrayList<>();
+            }
+            
+            // Each row may hold several identical sets
+            for (int i = 0; i < row.getSets(); i++) {
+                currentSets.add(new SetDetail(row.getReps(), row.getWeight(), row.getTimestamp()));
+            }
+        }
+        
+        if (currentSets != null) {
+            historyDetails.add(new ExerciseHistoryDetail(currentName, currentSets.size(), currentSets));
+        }
+        
+        return historyDetails;
+    }
+    
     // Getters
     public String getExerciseName() { return exerciseName; }
     public int getTotalSets() { return totalSets; }
@@ -78,13 +113,21 @@ public class ExerciseHistoryDetail {
     public static class SetDetail {
         private int reps;
         private float weight;
+        private long timestamp;
         
         public SetDetail(int reps, float weight) {
             this.reps = reps;
             this.weight = weight;
         }
         
+        public SetDetail(int reps, float weight, long timestamp) {
+            this.reps = reps;
+            this.weight = weight;
+            this.timestamp = timestamp;
+        }
+        
         public int getReps() { return reps; }
         public float getWeight() { return weight; }
+        public long getTimestamp() { return timestamp; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.kanworks.buildbizeps.data.model;
+
+import androidx.room.Ignore;
+
+import java.util.Objects;
+
+/**
+ * One logged set joined with its exercise name, as read by
+ * ExerciseRecordDao.getExerciseSetsForDay() and the paged history queries
+ */
+public class ExerciseSetRow {
+    private int id;  // exercise_records id
+    private int exerciseId;
+    private String exerciseName;
+    private int sets;
+    private int reps;
+    private float weight;
+    private long timestamp;
+    
+    public ExerciseSetRow() {}
+    
+    // For tests; Room fills rows through the setters
+    @Ignore
+    public ExerciseSetRow(int exerciseId, String exerciseName, int sets, int reps, float weight, long timestamp) {
+        this.exerciseId = exerciseId;
+        this.exerciseName = exerciseName;
+        this.sets = sets;
+        this.reps = reps;
+        this.weight = weight;
+        this.timestamp = timestamp;
+    }
+    
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+    
+    public int getExerciseId() { return exerciseId; }
+    public void setExerciseId(int exerciseId) { this.exerciseId = exerciseId; }
+    
+    public String getExerciseName() { return exerciseName; }
+    public void setExerciseName(String exerciseName) { this.exerciseName = exerciseName; }
+    
+    public int getSets() { return sets; }
+    public void setSets(int sets) { this.sets = sets; }
+    
+    public int getReps() { return reps; }
+    public void setReps(int reps) { this.reps = reps; }
+    
+    public float getWeight() { return weight; }
+    public void setWeight(float weight) { this.weight = weight; }
+    
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExerciseSetRow)) return false;
+        ExerciseSetRow other = (ExerciseSetRow) o;
+        return id == other.id
+                && exerciseId == other.exerciseId
+                && sets == other.sets
+                && reps == other.reps
+                && Float.compare(weight, other.weight) == 0
+                && timestamp == other.timestamp
+                && Objects.equals(exerciseName, other.exerciseName);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, exerciseId, exerciseName, sets, reps, weight, timestamp);
+    }
+}
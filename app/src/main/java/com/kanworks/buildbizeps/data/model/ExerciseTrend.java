@@ -0,0 +1,46 @@
+package com.kanworks.buildbizeps.data.model;
+
+/**
+ * Records and recent trend of one exercise: the heaviest set and best estimated one-rep max
+ * ever logged, and the volume of the last 28 days against the 28 days before them.
+ */
+public class ExerciseTrend {
+
+    private final int setCount;
+    private final float topWeight;
+    private final double bestOneRepMax;
+    private final double recentVolume;
+    private final double previousVolume;
+
+    public ExerciseTrend(int setCount, float topWeight, double bestOneRepMax,
+                         double recentVolume, double previousVolume) {
+        this.setCount = setCount;
+        this.topWeight = topWeight;
+        this.bestOneRepMax = bestOneRepMax;
+        this.recentVolume = recentVolume;
+        this.previousVolume = previousVolume;
+    }
+
+    /** Set rows logged in total */
+    public int getSetCount() { return setCount; }
+
+    /** Heaviest set ever (kg) */
+    public float getTopWeight() { return topWeight; }
+
+    /** Best Epley estimate ever, see ExerciseProgress.estimateOneRepMax() */
+    public double getBestOneRepMax() { return bestOneRepMax; }
+
+    /** Tonnage (kg) in the last 28 days */
+    public double getRecentVolume() { return recentVolume; }
+
+    /** Tonnage (kg) in the 28 days before those */
+    public double getPreviousVolume() { return previousVolume; }
+
+    /**
+     * Relative change of the last 28 days' volume over the 28 before, e.g. 0.1 for 10% more;
+     * NaN when nothing was lifted in the earlier window
+     */
+    public double getVolumeChange() {
+        return previousVolume > 0 ? recentVolume / previousVolume - 1 : Double.NaN;
+    }
+}
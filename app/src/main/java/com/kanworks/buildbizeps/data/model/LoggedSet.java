@@ -0,0 +1,23 @@
+package com.kanworks.buildbizeps.data.model;
+
+/**
+ * Ids written by WorkoutLogDao.logSet(): the new exercise_records row and the
+ * workout session it was attached to (existing or newly started)
+ */
+public class LoggedSet {
+    private final long recordId;
+    private final int sessionId;
+    private final boolean newSession;
+    
+    public LoggedSet(long recordId, int sessionId, boolean newSession) {
+        this.recordId = recordId;
+        this.sessionId = sessionId;
+        this.newSession = newSession;
+    }
+    
+    public long getRecordId() { return recordId; }
+    
+    public int getSessionId() { return sessionId; }
+    
+    public boolean isNewSession() { return newSession; }
+}
@@ -0,0 +1,95 @@
+package com.kanworks.buildbizeps.data.model;
+
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sets and tonnage per day of one calendar month, as parallel arrays indexed by day of
+ * month - 1. Immutable; a changed day produces a new instance so readers on the main
+ * thread never see a half-applied update.
+ */
+public class MonthActivity {
+
+    /** Intensity levels, 0 for a rest day up to LEVELS - 1 for the month's biggest day */
+    public static final int LEVELS = 5;
+
+    private final long firstDay;
+    private final int[] sets;
+    private final double[] tonnage;
+    private final int maxSets;
+
+    private MonthActivity(long firstDay, int[] sets, double[] tonnage) {
+        this.firstDay = firstDay;
+        this.sets = sets;
+        this.tonnage = tonnage;
+        int max = 0;
+        for (int daySets : sets) {
+            max = Math.max(max, daySets);
+        }
+        this.maxSets = max;
+    }
+
+    /**
+     * @param firstDay training day of the first of the month
+     * @param rollups  daily_summary rows of the month, in any order
+     */
+    public static MonthActivity fromRollups(long firstDay, List<DailyRollup> rollups) {
+        int days = TrainingDay.daysInMonth(firstDay);
+        int[] sets = new int[days];
+        double[] tonnage = new double[days];
+        for (DailyRollup rollup : rollups) {
+            int index = (int) (rollup.getEpochDay() - firstDay);
+            if (index < 0 || index >= days) continue;
+            sets[index] = rollup.getTotalSets();
+            tonnage[index] = rollup.getTotalTonnage();
+        }
+        return new MonthActivity(firstDay, sets, tonnage);
+    }
+
+    /**
+     * Copy with one day's totals replaced, e.g. after sets were logged on it
+     */
+    public MonthActivity withDay(long epochDay, int daySets, double dayTonnage) {
+        int index = indexOf(epochDay);
+        int[] newSets = Arrays.copyOf(sets, sets.length);
+        double[] newTonnage = Arrays.copyOf(tonnage, tonnage.length);
+        newSets[index] = daySets;
+        newTonnage[index] = dayTonnage;
+        return new MonthActivity(firstDay, newSets, newTonnage);
+    }
+
+    public long getFirstDay() { return firstDay; }
+
+    public long getLastDay() { return firstDay + sets.length - 1; }
+
+    public int getDayCount() { return sets.length; }
+
+    public boolean contains(long epochDay) {
+        return epochDay >= firstDay && epochDay <= getLastDay();
+    }
+
+    public int getSets(long epochDay) { return sets[indexOf(epochDay)]; }
+
+    public double getTonnage(long epochDay) { return tonnage[indexOf(epochDay)]; }
+
+    /**
+     * Intensity of a day relative to the month's busiest day, by sets so bodyweight work
+     * counts as much as loaded work. Any training gives at least level 1.
+     */
+    public int getLevel(long epochDay) {
+        int daySets = sets[indexOf(epochDay)];
+        if (daySets == 0) return 0;
+        return Math.max(1, (int) Math.ceil((double) daySets * (LEVELS - 1) / maxSets));
+    }
+
+    private int indexOf(long epochDay) {
+        if (!contains(epochDay)) {
+            throw new IllegalArgumentException("Day " + TrainingDay.format(epochDay)
+                    + " is not in the month of " + TrainingDay.format(firstDay));
+        }
+        return (int) (epochDay - firstDay);
+    }
+}
@@ -0,0 +1,24 @@
+package com.kanworks.buildbizeps.data.model;
+
+/**
+ * How recovered one muscle group is, from MuscleFatigue
+ */
+public class MuscleReadiness {
+    private final String muscleGroup;
+    private final double fatigue;
+    private final double readiness;
+    
+    public MuscleReadiness(String muscleGroup, double fatigue, double readiness) {
+        this.muscleGroup = muscleGroup;
+        this.fatigue = fatigue;
+        this.readiness = readiness;
+    }
+    
+    public String getMuscleGroup() { return muscleGroup; }
+    
+    /** Decayed sets still carried by the group */
+    public double getFatigue() { return fatigue; }
+    
+    /** 0 for fully fatigued up to 1 for fully recovered */
+    public double getReadiness() { return readiness; }
+}
@@ -0,0 +1,31 @@
+package com.kanworks.buildbizeps.data.model;
+
+/**
+ * Progress of one exercise over one chart bucket (a day, week or month), as aggregated
+ * by the ExerciseRecordDao progress queries
+ */
+public class ProgressPoint {
+    private long bucketStart;     // epochDay of the bucket's first day
+    private float topWeight;      // heaviest set
+    private double bestOneRepMax; // Epley estimate, see ExerciseProgress.estimateOneRepMax()
+    private double volume;        // sets * reps * weight
+    private int setCount;
+    
+    public ProgressPoint() {}
+    
+    // Getters and Setters
+    public long getBucketStart() { return bucketStart; }
+    public void setBucketStart(long bucketStart) { this.bucketStart = bucketStart; }
+    
+    public float getTopWeight() { return topWeight; }
+    public void setTopWeight(float topWeight) { this.topWeight = topWeight; }
+    
+    public double getBestOneRepMax() { return bestOneRepMax; }
+    public void setBestOneRepMax(double bestOneRepMax) { this.bestOneRepMax = bestOneRepMax; }
+    
+    public double getVolume() { return volume; }
+    public void setVolume(double volume) { this.volume = volume; }
+    
+    public int getSetCount() { return setCount; }
+    public void setSetCount(int setCount) { this.setCount = setCount; }
+}
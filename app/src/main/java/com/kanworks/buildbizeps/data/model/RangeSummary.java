@@ -0,0 +1,156 @@
+package com.kanworks.buildbizeps.data.model;
+
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Totals of a day range (a week, a month, a year or any custom span) with a breakdown
+ * per exercise. Built by RangeSummaryLoader from one row per (day, exercise) streamed
+ * off a cursor, so no per-set objects are created however long the range is.
+ */
+public class RangeSummary {
+
+    private final long firstDay;
+    private final long lastDay;
+    private final int trainedDays;
+    private final int totalSets;
+    private final int totalReps;
+    private final double totalTonnage;
+    private final List<ExerciseTotals> exercises;
+
+    private RangeSummary(long firstDay, long lastDay, int trainedDays, int totalSets, int totalReps,
+                         double totalTonnage, List<ExerciseTotals> exercises) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.trainedDays = trainedDays;
+        this.totalSets = totalSets;
+        this.totalReps = totalReps;
+        this.totalTonnage = totalTonnage;
+        this.exercises = exercises;
+    }
+
+    public long getFirstDay() { return firstDay; }
+
+    public long getLastDay() { return lastDay; }
+
+    public int getTrainedDays() { return trainedDays; }
+
+    public int getTotalSets() { return totalSets; }
+
+    public int getTotalReps() { return totalReps; }
+
+    public double getTotalTonnage() { return totalTonnage; }
+
+    /**
+     * Exercises trained in the range, most sets first
+     */
+    public List<ExerciseTotals> getExercises() { return exercises; }
+
+    /**
+     * One exercise's totals over the range and its best set: the heaviest, then the most reps
+     */
+    public static class ExerciseTotals {
+        private final int exerciseId;
+        private final String exerciseName;
+        private int days;
+        private int sets;
+        private int reps;
+        private double tonnage;
+        private float bestWeight;
+        private int bestReps;
+        private long bestDay;
+
+        ExerciseTotals(int exerciseId, String exerciseName) {
+            this.exerciseId = exerciseId;
+            this.exerciseName = exerciseName;
+        }
+
+        public int getExerciseId() { return exerciseId; }
+
+        public String getExerciseName() { return exerciseName; }
+
+        /** Days in the range the exercise was trained on */
+        public int getDays() { return days; }
+
+        public int getSets() { return sets; }
+
+        public int getReps() { return reps; }
+
+        public double getTonnage() { return tonnage; }
+
+        public float getBestWeight() { return bestWeight; }
+
+        public int getBestReps() { return bestReps; }
+
+        public long getBestDay() { return bestDay; }
+    }
+
+    /**
+     * Accumulates the grouped rows of one range
+     */
+    public static class Builder {
+        private final long firstDay;
+        private final long lastDay;
+        private final SparseArray<ExerciseTotals> byExercise = new SparseArray<>();
+        private int trainedDays;
+        private long lastSeenDay = Long.MIN_VALUE;
+        private int totalSets;
+        private int totalReps;
+        private double totalTonnage;
+
+        public Builder(long firstDay, long lastDay) {
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+        }
+
+        /**
+         * Add one exercise's totals for one day. Rows must come in day order.
+         */
+        public Builder addDay(long epochDay, int exerciseId, @Nullable String exerciseName, int sets,
+                              int reps, double tonnage, float bestWeight, int bestReps) {
+            if (epochDay != lastSeenDay) {
+                trainedDays++;
+                lastSeenDay = epochDay;
+            }
+            totalSets += sets;
+            totalReps += reps;
+            totalTonnage += tonnage;
+
+            ExerciseTotals totals = byExercise.get(exerciseId);
+            if (totals == null) {
+                totals = new ExerciseTotals(exerciseId, exerciseName != null ? exerciseName : "");
+                byExercise.put(exerciseId, totals);
+            }
+            totals.days++;
+            totals.sets += sets;
+            totals.reps += reps;
+            totals.tonnage += tonnage;
+            if (totals.days == 1 || bestWeight > totals.bestWeight
+                    || (bestWeight == totals.bestWeight && bestReps > totals.bestReps)) {
+                totals.bestWeight = bestWeight;
+                totals.bestReps = bestReps;
+                totals.bestDay = epochDay;
+            }
+            return this;
+        }
+
+        @NonNull
+        public RangeSummary build() {
+            List<ExerciseTotals> exercises = new ArrayList<>(byExercise.size());
+            for (int i = 0; i < byExercise.size(); i++) {
+                exercises.add(byExercise.valueAt(i));
+            }
+            Collections.sort(exercises, (a, b) -> a.sets != b.sets
+                    ? Integer.compare(b.sets, a.sets)
+                    : a.exerciseName.compareToIgnoreCase(b.exerciseName));
+            return new RangeSummary(firstDay, lastDay, trainedDays, totalSets, totalReps, totalTonnage,
+                    Collections.unmodifiableList(exercises));
+        }
+    }
+}
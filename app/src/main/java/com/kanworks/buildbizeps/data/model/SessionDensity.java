@@ -0,0 +1,44 @@
+package com.kanworks.buildbizeps.data.model;
+
+/**
+ * Pace of one session or of a day's sessions, derived from set timestamps. A rest is the
+ * time from one set to the next in the same session, so it includes the next set itself;
+ * gaps over WorkoutSessionDao.MAX_REST_MS count as breaks and are left out. Active time is
+ * the sum of the rests.
+ */
+public class SessionDensity {
+    private int sessionCount;
+    private int setCount;
+    private int restCount;
+    private long activeMillis;
+    private double tonnage;       // sets * reps * weight (kg)
+    private double workDensity;   // kg per active minute
+    
+    public SessionDensity() {}
+    
+    public int getSessionCount() { return sessionCount; }
+    public void setSessionCount(int sessionCount) { this.sessionCount = sessionCount; }
+    
+    public int getSetCount() { return setCount; }
+    public void setSetCount(int setCount) { this.setCount = setCount; }
+    
+    /** Rests counted, at most one per set after the first of each session */
+    public int getRestCount() { return restCount; }
+    public void setRestCount(int restCount) { this.restCount = restCount; }
+    
+    public long getActiveMillis() { return activeMillis; }
+    public void setActiveMillis(long activeMillis) { this.activeMillis = activeMillis; }
+    
+    public double getTonnage() { return tonnage; }
+    public void setTonnage(double tonnage) { this.tonnage = tonnage; }
+    
+    public double getWorkDensity() { return workDensity; }
+    public void setWorkDensity(double workDensity) { this.workDensity = workDensity; }
+    
+    public long getActiveMinutes() { return Math.round(activeMillis / 60_000.0); }
+    
+    /** Mean rest between sets, 0 if no rest was counted */
+    public long getAverageRestSeconds() {
+        return restCount == 0 ? 0 : Math.round(activeMillis / 1000.0 / restCount);
+    }
+}
@@ -0,0 +1,63 @@
+package com.kanworks.buildbizeps.data.model;
+
+import androidx.annotation.NonNull;
+
+import com.kanworks.buildbizeps.data.analytics.QuantileSketch;
+import com.kanworks.buildbizeps.data.entity.ExerciseDistribution;
+
+import java.util.List;
+
+/**
+ * Weight and rep distribution of one exercise over a range of months, merged from its
+ * monthly ExerciseDistribution rows. Percentiles are sketch estimates; with fewer than a
+ * couple of hundred sets in the range they are exact.
+ */
+public class SetDistribution {
+
+    private final QuantileSketch weights;
+    private final QuantileSketch reps;
+
+    public SetDistribution(@NonNull QuantileSketch weights, @NonNull QuantileSketch reps) {
+        this.weights = weights;
+        this.reps = reps;
+    }
+
+    /**
+     * Merge monthly rows; rows whose blobs can't be read are skipped
+     */
+    @NonNull
+    public static SetDistribution merge(List<ExerciseDistribution> months) {
+        QuantileSketch weights = new QuantileSketch();
+        QuantileSketch reps = new QuantileSketch();
+        for (ExerciseDistribution month : months) {
+            QuantileSketch monthWeights = QuantileSketch.fromBytes(month.getWeightSketch());
+            QuantileSketch monthReps = QuantileSketch.fromBytes(month.getRepsSketch());
+            if (monthWeights == null || monthReps == null) continue;
+            weights.merge(monthWeights);
+            reps.merge(monthReps);
+        }
+        return new SetDistribution(weights, reps);
+    }
+
+    /** Sets in the range */
+    public long getSetCount() { return weights.getCount(); }
+
+    public boolean isEmpty() { return weights.isEmpty(); }
+
+    /** Median working weight (kg) */
+    public float getMedianWeight() { return weights.quantile(0.5); }
+
+    /** 90th percentile working weight (kg) */
+    public float getP90Weight() { return weights.quantile(0.9); }
+
+    /** Lower end of the typical rep range, the 25th percentile */
+    public int getTypicalRepsLow() { return Math.round(reps.quantile(0.25)); }
+
+    /** Upper end of the typical rep range, the 75th percentile */
+    public int getTypicalRepsHigh() { return Math.round(reps.quantile(0.75)); }
+
+    /**
+     * Fraction of the range's sets done with less weight than the given one, in [0, 1]
+     */
+    public double getWeightRank(float weight) { return weights.rank(weight); }
+}
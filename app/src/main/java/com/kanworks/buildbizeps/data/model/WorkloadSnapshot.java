@@ -0,0 +1,54 @@
+package com.kanworks.buildbizeps.data.model;
+
+/**
+ * Acute (last 7 days) and chronic (last 28 days) training load as of one day.
+ * The acute:chronic ratio compares the last week with the average week of the last four;
+ * around 0.8-1.3 is steady, well above means a sudden jump in work.
+ */
+public class WorkloadSnapshot {
+
+    private static final int WEEKS_IN_CHRONIC = 4;
+
+    private final long epochDay;
+    private final int acuteSets;
+    private final int chronicSets;
+    private final double acuteTonnage;
+    private final double chronicTonnage;
+
+    public WorkloadSnapshot(long epochDay, int acuteSets, int chronicSets,
+                            double acuteTonnage, double chronicTonnage) {
+        this.epochDay = epochDay;
+        this.acuteSets = acuteSets;
+        this.chronicSets = chronicSets;
+        this.acuteTonnage = acuteTonnage;
+        this.chronicTonnage = chronicTonnage;
+    }
+
+    public long getEpochDay() { return epochDay; }
+
+    /** Sets in the last 7 days */
+    public int getAcuteSets() { return acuteSets; }
+
+    /** Sets in the last 28 days */
+    public int getChronicSets() { return chronicSets; }
+
+    /** Tonnage (kg) in the last 7 days */
+    public double getAcuteTonnage() { return acuteTonnage; }
+
+    /** Tonnage (kg) in the last 28 days */
+    public double getChronicTonnage() { return chronicTonnage; }
+
+    /**
+     * Acute:chronic ratio by tonnage, or by sets when nothing in the last 28 days carried
+     * weight; NaN with no training in the last 28 days
+     */
+    public double getRatio() {
+        if (chronicTonnage > 0) {
+            return acuteTonnage / (chronicTonnage / WEEKS_IN_CHRONIC);
+        }
+        if (chronicSets > 0) {
+            return acuteSets / ((double) chronicSets / WEEKS_IN_CHRONIC);
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,141 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import com.kanworks.buildbizeps.data.dao.ExerciseRecordDao;
+import com.kanworks.buildbizeps.data.dao.WorkoutSessionDao;
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+import com.kanworks.buildbizeps.data.model.DailySummary;
+import com.kanworks.buildbizeps.data.model.DaySnapshot;
+import com.kanworks.buildbizeps.data.model.ExerciseHistoryDetail;
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+import com.kanworks.buildbizeps.data.model.SessionDensity;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads a DaySnapshot with every query bound to a CancellationSignal, so a load that has
+ * been superseded stops inside SQLite instead of running to the end. Same SQL as
+ * DailySummaryDao.getDailyRollup(), ExerciseRecordDao.getExerciseSetsForDay() and
+ * WorkoutSessionDao.getDayDensity(); Room's generated DAO methods can't take a signal.
+ */
+public class DayLoader {
+    
+    static final String ROLLUP_SELECT = "SELECT epochDay, totalSets, totalReps, totalTonnage, "
+            + "distinctExercises, sessionCount, durationMinutes, changedAt FROM daily_summary";
+    
+    static final String ROLLUP_SQL = ROLLUP_SELECT + " WHERE epochDay = ?";
+    
+    static final String SETS_SQL = "SELECT " + ExerciseRecordDao.SET_ROW_COLUMNS
+            + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+            + "WHERE r.epochDay = ? "
+            + "ORDER BY r.exerciseId, r.timestamp, r.id";
+    
+    static final String DENSITY_SQL = "SELECT " + WorkoutSessionDao.DENSITY_COLUMNS
+            + "FROM (" + WorkoutSessionDao.SET_GAPS + "WHERE r.epochDay = ? LIMIT -1)";
+    
+    private final FitnessDatabase database;
+    
+    public DayLoader(FitnessDatabase database) {
+        this.database = database;
+    }
+    
+    /**
+     * @throws android.os.OperationCanceledException if the signal is cancelled before or
+     *         while a query runs
+     */
+    @WorkerThread
+    @NonNull
+    public DaySnapshot load(long epochDay, @Nullable CancellationSignal signal) {
+        DailyRollup rollup = loadRollup(epochDay, signal);
+        List<ExerciseSetRow> rows = loadSets(epochDay, signal);
+        
+        // No rollup row means the triggers saw nothing logged on that day
+        DailySummary summary;
+        SessionDensity density;
+        if (rollup != null) {
+            density = loadDensity(epochDay, signal);
+            summary = rollup.toDailySummary();
+            summary.setTotalDurationMinutes(density.getActiveMinutes());
+            summary.setWorkDensity(density.getWorkDensity());
+        } else {
+            density = new SessionDensity();
+            summary = new DailySummary(TrainingDay.format(epochDay), 0, 0, 0, 0, 0);
+        }
+        return new DaySnapshot(epochDay, rollup, summary, density, ExerciseHistoryDetail.fromSetRows(rows));
+    }
+    
+    @Nullable
+    private DailyRollup loadRollup(long epochDay, @Nullable CancellationSignal signal) {
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(ROLLUP_SQL, new Object[]{epochDay}), signal)) {
+            return cursor.moveToFirst() ? readRollup(cursor) : null;
+        }
+    }
+    
+    /**
+     * Row of a ROLLUP_SELECT cursor
+     */
+    static DailyRollup readRollup(Cursor cursor) {
+        DailyRollup rollup = new DailyRollup();
+        rollup.setEpochDay(cursor.getLong(0));
+        rollup.setTotalSets(cursor.getInt(1));
+        rollup.setTotalReps(cursor.getInt(2));
+        rollup.setTotalTonnage(cursor.getDouble(3));
+        rollup.setDistinctExercises(cursor.getInt(4));
+        rollup.setSessionCount(cursor.getInt(5));
+        rollup.setDurationMinutes(cursor.getLong(6));
+        rollup.setChangedAt(cursor.getLong(7));
+        return rollup;
+    }
+    
+    private SessionDensity loadDensity(long epochDay, @Nullable CancellationSignal signal) {
+        SessionDensity density = new SessionDensity();
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(DENSITY_SQL, new Object[]{epochDay}), signal)) {
+            // An aggregate without GROUP BY always returns its one row
+            if (cursor.moveToFirst()) {
+                density.setSessionCount(cursor.getInt(0));
+                density.setSetCount(cursor.getInt(1));
+                density.setRestCount(cursor.getInt(2));
+                density.setActiveMillis(cursor.getLong(3));
+                density.setTonnage(cursor.getDouble(4));
+                density.setWorkDensity(cursor.getDouble(5));
+            }
+        }
+        return density;
+    }
+    
+    private List<ExerciseSetRow> loadSets(long epochDay, @Nullable CancellationSignal signal) {
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(SETS_SQL, new Object[]{epochDay}), signal)) {
+            int id = cursor.getColumnIndexOrThrow("id");
+            int exerciseId = cursor.getColumnIndexOrThrow("exerciseId");
+            int exerciseName = cursor.getColumnIndexOrThrow("exerciseName");
+            int sets = cursor.getColumnIndexOrThrow("sets");
+            int reps = cursor.getColumnIndexOrThrow("reps");
+            int weight = cursor.getColumnIndexOrThrow("weight");
+            int timestamp = cursor.getColumnIndexOrThrow("timestamp");
+            
+            List<ExerciseSetRow> rows = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                ExerciseSetRow row = new ExerciseSetRow();
+                row.setId(cursor.getInt(id));
+                row.setExerciseId(cursor.getInt(exerciseId));
+                row.setExerciseName(cursor.getString(exerciseName));
+                row.setSets(cursor.getInt(sets));
+                row.setReps(cursor.getInt(reps));
+                row.setWeight(cursor.getFloat(weight));
+                row.setTimestamp(cursor.getLong(timestamp));
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.database.Cursor;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+import com.kanworks.buildbizeps.data.model.DaySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recently viewed dashboard days, dropping the least recently used beyond MAX_DAYS.
+ *
+ * An entry is only dropped when its own day changes. The daily_summary triggers update a
+ * day's rollup row, including its changedAt stamp, in the same transaction as any insert,
+ * update or delete of its records or sessions, so comparing the cached rollups with the table
+ * (one primary-key lookup per day) tells exactly which cached days went stale, even after an
+ * edit that only touched a timestamp or a note.
+ */
+public class DaySnapshotCache {
+
+    // The selection plus a few weeks of browsing either side; a snapshot is a few KB
+    static final int MAX_DAYS = 42;
+
+    private final LruCache<Long, DaySnapshot> cache;
+
+    public DaySnapshotCache() {
+        this(MAX_DAYS);
+    }
+
+    DaySnapshotCache(int maxDays) {
+        cache = new LruCache<>(maxDays);
+    }
+
+    @Nullable
+    public DaySnapshot get(long epochDay) {
+        return cache.get(epochDay);
+    }
+
+    public boolean contains(long epochDay) {
+        return cache.snapshot().containsKey(epochDay);
+    }
+
+    public void put(@NonNull DaySnapshot snapshot) {
+        cache.put(snapshot.getEpochDay(), snapshot);
+    }
+
+    public void evict(long epochDay) {
+        cache.remove(epochDay);
+    }
+
+    public void evictAll() {
+        cache.evictAll();
+    }
+
+    /**
+     * Cached days whose rollup row no longer matches the database, i.e. whose records or
+     * sessions changed since they were loaded
+     */
+    @WorkerThread
+    @NonNull
+    public List<Long> findStale(FitnessDatabase database) {
+        Map<Long, DaySnapshot> entries = cache.snapshot();
+        if (entries.isEmpty()) return Collections.emptyList();
+
+        Map<Long, DailyRollup> current = loadRollups(database, entries.keySet());
+        List<Long> stale = new ArrayList<>();
+        for (Map.Entry<Long, DaySnapshot> entry : entries.entrySet()) {
+            DailyRollup cached = entry.getValue().getRollup();
+            DailyRollup now = current.get(entry.getKey());
+            if (cached == null ? now != null : !cached.equals(now)) {
+                stale.add(entry.getKey());
+            }
+        }
+        return stale;
+    }
+
+    private static Map<Long, DailyRollup> loadRollups(FitnessDatabase database, Collection<Long> days) {
+        // At most MAX_DAYS primary-key lookups
+        StringBuilder sql = new StringBuilder(DayLoader.ROLLUP_SELECT).append(" WHERE epochDay IN (");
+        Object[] args = days.toArray();
+        for (int i = 0; i < args.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Map<Long, DailyRollup> rollups = new HashMap<>();
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(sql.toString(), args))) {
+            while (cursor.moveToNext()) {
+                DailyRollup rollup = DayLoader.readRollup(cursor);
+                rollups.put(rollup.getEpochDay(), rollup);
+            }
+        }
+        return rollups;
+    }
+}
@@ -0,0 +1,142 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.kanworks.buildbizeps.data.database.DatabaseExecutors;
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * App-wide entry point for database work off the main thread.
+ *
+ * Writes run in order on the shared write lane and are not tied to any screen, so leaving
+ * a fragment never drops a delete or insert halfway. Reads run on the read pool and can be
+ * bound to a lifecycle: they are cancelled, and their result discarded, once it is destroyed.
+ */
+public class FitnessRepository {
+
+    private static final String TAG = "FitnessRepository";
+
+    private static volatile FitnessRepository INSTANCE;
+
+    private final FitnessDatabase database;
+    private final ExecutorService writeExecutor;
+    private final ExecutorService readExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    FitnessRepository(FitnessDatabase database, ExecutorService writeExecutor, ExecutorService readExecutor) {
+        this.database = database;
+        this.writeExecutor = writeExecutor;
+        this.readExecutor = readExecutor;
+    }
+
+    public static FitnessRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (FitnessRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new FitnessRepository(
+                            FitnessDatabase.getDatabase(context.getApplicationContext()),
+                            DatabaseExecutors.writeLane(),
+                            DatabaseExecutors.readPool());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public FitnessDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * Queue a write behind every write issued before it. It runs to completion even if the
+     * caller goes away, so UI callbacks from it must check their views are still there.
+     */
+    public void write(@NonNull Runnable work) {
+        writeExecutor.execute(() -> {
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                // Keep the lane alive for the writes queued behind this one
+                Log.e(TAG, "Error in database write", e);
+            }
+        });
+    }
+
+    /**
+     * Run a read on the pool, for callers that manage the result themselves (e.g. a ViewModel
+     * posting to LiveData); cancel the returned future when it is no longer wanted
+     */
+    public Future<?> read(@NonNull Runnable work) {
+        return readExecutor.submit(work);
+    }
+
+    /**
+     * Run a query on the read pool and hand its result to the main thread while the owner
+     * is alive. Errors are logged.
+     */
+    @MainThread
+    public <T> Future<T> read(@NonNull LifecycleOwner owner, @NonNull Callable<T> query,
+                              @NonNull Consumer<T> onResult) {
+        return read(owner, query, onResult, e -> Log.e(TAG, "Error in database read", e));
+    }
+
+    /**
+     * Run a query on the read pool and hand its result, or its error, to the main thread
+     * while the owner is alive. Destroying the owner cancels the query if it hasn't started
+     * and interrupts it if it has; either way no callback runs.
+     */
+    @MainThread
+    public <T> Future<T> read(@NonNull LifecycleOwner owner, @NonNull Callable<T> query,
+                              @NonNull Consumer<T> onResult, @NonNull Consumer<Exception> onError) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        FutureTask<T> task = new FutureTask<>(query);
+        LifecycleEventObserver cancelOnDestroy = (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                task.cancel(true);
+            }
+        };
+        if (!lifecycle.getCurrentState().isAtLeast(Lifecycle.State.INITIALIZED)) {
+            task.cancel(false);
+            return task;
+        }
+        lifecycle.addObserver(cancelOnDestroy);
+
+        readExecutor.execute(() -> {
+            task.run();
+            mainHandler.post(() -> {
+                lifecycle.removeObserver(cancelOnDestroy);
+                if (task.isCancelled() || !lifecycle.getCurrentState().isAtLeast(Lifecycle.State.CREATED)) {
+                    return;
+                }
+                T result;
+                try {
+                    // Already done, so this doesn't block
+                    result = task.get();
+                } catch (ExecutionException e) {
+                    onError.accept(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                    return;
+                } catch (InterruptedException e) {
+                    return;
+                }
+                onResult.accept(result);
+            });
+        });
+        return task;
+    }
+}
@@ -0,0 +1,127 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.kanworks.buildbizeps.data.analytics.Lttb;
+import com.kanworks.buildbizeps.data.dao.ExerciseRecordDao;
+import com.kanworks.buildbizeps.data.model.ChartPoints;
+import com.kanworks.buildbizeps.data.model.ProgressPoint;
+
+import java.util.List;
+
+/**
+ * Progress chart lines of one exercise. Each zoom level buckets the exercise's sets in SQL
+ * (days, weeks or months), so years of history reach Java as at most a few thousand rows;
+ * the chosen metric is then reduced with LTTB to at most one point per pixel column.
+ *
+ * Bucket rows are cached per zoom and the reduced lines per zoom and metric, so switching
+ * metric or going back to a zoom level draws from memory. invalidate() drops both after
+ * the exercise's records change.
+ */
+public class ProgressChartLoader {
+
+    public static final int ZOOM_DAY = 0;
+    public static final int ZOOM_WEEK = 1;
+    public static final int ZOOM_MONTH = 2;
+    private static final int ZOOM_LEVELS = 3;
+
+    public static final int METRIC_TOP_WEIGHT = 0;
+    public static final int METRIC_ONE_REP_MAX = 1;
+    public static final int METRIC_VOLUME = 2;
+    private static final int METRICS = 3;
+
+    private final ExerciseRecordDao dao;
+    private final int exerciseId;
+
+    // A zoom level has no entry until it is first drawn
+    private final SparseArray<List<ProgressPoint>> bucketsByZoom = new SparseArray<>(ZOOM_LEVELS);
+    private final ChartPoints[][] pointsByZoom = new ChartPoints[ZOOM_LEVELS][METRICS];
+    // Width each cached line was reduced for
+    private final int[][] pointsWidth = new int[ZOOM_LEVELS][METRICS];
+    private int queryCount;
+
+    public ProgressChartLoader(ExerciseRecordDao dao, int exerciseId) {
+        this.dao = dao;
+        this.exerciseId = exerciseId;
+    }
+
+    public int getExerciseId() {
+        return exerciseId;
+    }
+
+    /**
+     * @param maxPoints most points to draw, normally the chart's width in pixels
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized ChartPoints load(int zoom, int metric, int maxPoints) {
+        ChartPoints cached = pointsByZoom[zoom][metric];
+        if (cached != null && pointsWidth[zoom][metric] == maxPoints) {
+            return cached;
+        }
+
+        List<ProgressPoint> buckets = bucketsByZoom.get(zoom);
+        if (buckets == null) {
+            buckets = query(zoom);
+            bucketsByZoom.put(zoom, buckets);
+        }
+
+        int n = buckets.size();
+        long[] days = new long[n];
+        float[] values = new float[n];
+        for (int i = 0; i < n; i++) {
+            ProgressPoint bucket = buckets.get(i);
+            days[i] = bucket.getBucketStart();
+            values[i] = valueOf(bucket, metric);
+        }
+        int[] kept = Lttb.select(days, values, maxPoints);
+        long[] keptDays = new long[kept.length];
+        float[] keptValues = new float[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            keptDays[i] = days[kept[i]];
+            keptValues[i] = values[kept[i]];
+        }
+
+        ChartPoints points = new ChartPoints(keptDays, keptValues, n);
+        pointsByZoom[zoom][metric] = points;
+        pointsWidth[zoom][metric] = maxPoints;
+        return points;
+    }
+
+    /**
+     * Forget every cached line, e.g. after the exercise's records changed
+     */
+    public synchronized void invalidate() {
+        bucketsByZoom.clear();
+        for (int zoom = 0; zoom < ZOOM_LEVELS; zoom++) {
+            for (int metric = 0; metric < METRICS; metric++) {
+                pointsByZoom[zoom][metric] = null;
+            }
+        }
+    }
+
+    /** Bucket queries run so far, for tests */
+    synchronized int getQueryCount() {
+        return queryCount;
+    }
+
+    private List<ProgressPoint> query(int zoom) {
+        queryCount++;
+        switch (zoom) {
+            case ZOOM_WEEK: return dao.getWeeklyProgress(exerciseId);
+            case ZOOM_MONTH: return dao.getMonthlyProgress(exerciseId);
+            default: return dao.getDailyProgress(exerciseId);
+        }
+    }
+
+    private static float valueOf(ProgressPoint bucket, int metric) {
+        switch (metric) {
+            case METRIC_ONE_REP_MAX: return (float) bucket.getBestOneRepMax();
+            case METRIC_VOLUME: return (float) bucket.getVolume();
+            default: return bucket.getTopWeight();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.model.RangeSummary;
+
+/**
+ * Loads a RangeSummary with one query: exercise_records in the range, found through
+ * index_exercise_records_epochDay and grouped by (day, exercise) inside SQLite. The cursor
+ * is streamed straight into RangeSummary.Builder, so a year costs one pass over that year's
+ * sets and a few hundred small rows, not one query per day.
+ *
+ * The best set of each group is picked with SQLite's bare-column rule: with a single max()
+ * aggregate, weight and reps are read from the row that produced the max. The key orders
+ * by weight, then reps (reps stay well below the 1e6 weight step).
+ */
+public class RangeSummaryLoader {
+
+    static final String RANGE_SQL = "SELECT r.epochDay, r.exerciseId, e.name, "
+            + "SUM(r.sets), SUM(r.sets * r.reps), SUM(r.sets * r.reps * r.weight), "
+            + "MAX(r.weight * 1000000 + r.reps), r.weight, r.reps "
+            + "FROM exercise_records r INNER JOIN exercises e ON e.id = r.exerciseId "
+            + "WHERE r.epochDay BETWEEN ? AND ? "
+            + "GROUP BY r.epochDay, r.exerciseId "
+            + "ORDER BY r.epochDay";
+
+    private final FitnessDatabase database;
+
+    public RangeSummaryLoader(FitnessDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * @param firstDay first training day of the range, inclusive
+     * @param lastDay  last training day of the range, inclusive
+     * @throws android.os.OperationCanceledException if the signal is cancelled before or
+     *         while the query runs
+     */
+    @WorkerThread
+    @NonNull
+    public RangeSummary load(long firstDay, long lastDay, @Nullable CancellationSignal signal) {
+        RangeSummary.Builder builder = new RangeSummary.Builder(firstDay, lastDay);
+        try (Cursor cursor = database.query(
+                new SimpleSQLiteQuery(RANGE_SQL, new Object[]{firstDay, lastDay}), signal)) {
+            while (cursor.moveToNext()) {
+                builder.addDay(cursor.getLong(0), cursor.getInt(1), cursor.getString(2),
+                        cursor.getInt(3), cursor.getInt(4), cursor.getDouble(5),
+                        cursor.getFloat(7), cursor.getInt(8));
+            }
+        }
+        return builder.build();
+    }
+}
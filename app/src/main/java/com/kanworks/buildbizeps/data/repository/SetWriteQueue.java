@@ -0,0 +1,254 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.kanworks.buildbizeps.data.analytics.HistoryStore;
+import com.kanworks.buildbizeps.data.analytics.MuscleFatigue;
+import com.kanworks.buildbizeps.data.analytics.TrainingCalendar;
+import com.kanworks.buildbizeps.data.analytics.TrainingDays;
+import com.kanworks.buildbizeps.data.analytics.TrainingLoad;
+import com.kanworks.buildbizeps.data.database.DatabaseExecutors;
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for logged sets. The UI hands a set over and moves on; sets that
+ * arrive within FLUSH_WINDOW_MS of each other are written in one transaction.
+ *
+ * Every pending set is first appended to a small journal file, which is deleted once the
+ * batch commits. If the process dies in between, the journal is replayed on next start;
+ * sets that did reach the database are recognised by (exerciseId, timestamp) and skipped.
+ * The journal is not fsynced, so it survives process death but not a power cut.
+ *
+ * Runs on the app's write lane, so queued sets and other writes apply in issue order.
+ * All state is confined to that single thread, except the session id, which the
+ * UI reads to save it across process death.
+ */
+public class SetWriteQueue {
+    
+    private static final String TAG = "SetWriteQueue";
+    private static final String JOURNAL_NAME = "pending_sets.journal";
+    static final long FLUSH_WINDOW_MS = 300;
+    
+    private static volatile SetWriteQueue INSTANCE;
+    
+    private final FitnessDatabase database;
+    private final File journal;
+    private final ScheduledExecutorService executor;
+    private final long windowMs;
+    
+    private final List<PendingSet> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private volatile int sessionId;
+    
+    SetWriteQueue(FitnessDatabase database, File journal, ScheduledExecutorService executor, long windowMs) {
+        this.database = database;
+        this.journal = journal;
+        this.executor = executor;
+        this.windowMs = windowMs;
+        executor.execute(this::replayJournal);
+    }
+    
+    public static SetWriteQueue getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (SetWriteQueue.class) {
+                if (INSTANCE == null) {
+                    Context appContext = context.getApplicationContext();
+                    INSTANCE = new SetWriteQueue(
+                            FitnessDatabase.getDatabase(appContext),
+                            new File(appContext.getFilesDir(), JOURNAL_NAME),
+                            DatabaseExecutors.writeLane(),
+                            FLUSH_WINDOW_MS);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+    
+    /**
+     * Queue one set for the exercise; it is timestamped now and written within the flush window
+     */
+    public void enqueue(int exerciseId, float weight, int reps) {
+        PendingSet set = new PendingSet(System.currentTimeMillis(), exerciseId, weight, reps);
+        executor.execute(() -> {
+            appendToJournal(set);
+            pending.add(set);
+            if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::writePending, windowMs, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+    
+    /**
+     * The workout session sets are currently logged into, or 0 before the first write
+     */
+    public int getSessionId() {
+        return sessionId;
+    }
+    
+    /**
+     * Continue a session saved before the process was killed. Ignored once this process has
+     * written to a session of its own; a session that no longer exists is replaced on write.
+     */
+    public void resumeSession(int sessionId) {
+        executor.execute(() -> {
+            if (this.sessionId == 0) {
+                this.sessionId = sessionId;
+            }
+        });
+    }
+    
+    /**
+     * Write everything queued so far without waiting for the window, e.g. when leaving the screen
+     */
+    public Future<?> flush() {
+        return executor.submit(this::writePending);
+    }
+    
+    private void writePending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pending.isEmpty()) return;
+        
+        List<ExerciseRecord> records = new ArrayList<>(pending.size());
+        for (PendingSet set : pending) {
+            records.add(set.toRecord());
+        }
+        
+        try {
+            sessionId = database.workoutLogDao().logSets(sessionId, records);
+        } catch (Exception e) {
+            // Keep the sets and the journal; the next enqueue or start retries them
+            Log.e(TAG, "Error writing " + pending.size() + " queued sets", e);
+            return;
+        }
+        
+        Log.d(TAG, "Wrote " + pending.size() + " queued sets to session " + sessionId);
+        // Committed, so a failing analytics hook below must not get the batch replayed
+        pending.clear();
+        if (journal.exists() && !journal.delete()) {
+            Log.w(TAG, "Could not delete set journal");
+        }
+        
+        List<ExerciseRecord> inserted = new ArrayList<>(records.size());
+        for (ExerciseRecord record : records) {
+            if (record.getId() != 0) {
+                inserted.add(record);
+            }
+        }
+        runHook("HistoryStore", () -> HistoryStore.onSetsWritten(inserted));
+        runHook("TrainingCalendar", () -> TrainingCalendar.getInstance().onSetsWritten(database, inserted));
+        runHook("TrainingDays", () -> TrainingDays.onSetsWritten(inserted));
+        runHook("TrainingLoad", () -> TrainingLoad.getInstance().onSetsWritten(inserted));
+        runHook("MuscleFatigue", () -> MuscleFatigue.onSetsWritten(database, inserted));
+    }
+    
+    /**
+     * Run one post-commit hook; a failure only leaves that index stale, not the others
+     */
+    private static void runHook(String name, Runnable hook) {
+        try {
+            hook.run();
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating " + name + " after write", e);
+        }
+    }
+    
+    private void appendToJournal(PendingSet set) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(journal, true), StandardCharsets.UTF_8)) {
+            writer.write(set.encode());
+            writer.write('\n');
+        } catch (IOException e) {
+            Log.e(TAG, "Error journaling set", e);
+        }
+    }
+    
+    private void replayJournal() {
+        if (!journal.exists()) return;
+        
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journal), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                PendingSet set = PendingSet.decode(line);
+                if (set != null) {
+                    pending.add(set);
+                } else {
+                    // A torn last line from the crash; the set never reached the UI's commit either
+                    Log.w(TAG, "Skipping unreadable journal line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading set journal", e);
+            return;
+        }
+        
+        Log.d(TAG, "Replaying " + pending.size() + " journaled sets");
+        writePending();
+    }
+    
+    /**
+     * A set waiting to be written, in the form stored in the journal
+     */
+    static class PendingSet {
+        final long timestamp;
+        final int exerciseId;
+        final float weight;
+        final int reps;
+        
+        PendingSet(long timestamp, int exerciseId, float weight, int reps) {
+            this.timestamp = timestamp;
+            this.exerciseId = exerciseId;
+            this.weight = weight;
+            this.reps = reps;
+        }
+        
+        ExerciseRecord toRecord() {
+            ExerciseRecord record = new ExerciseRecord(exerciseId, 0, 1, reps);
+            record.setWeight(weight);
+            record.setTimestamp(new Date(timestamp));
+            return record;
+        }
+        
+        @NonNull
+        String encode() {
+            return String.format(Locale.US, "%d,%d,%s,%d", timestamp, exerciseId, Float.toString(weight), reps);
+        }
+        
+        @Nullable
+        static PendingSet decode(String line) {
+            String[] parts = line.split(",");
+            if (parts.length != 4) return null;
+            try {
+                return new PendingSet(Long.parseLong(parts[0]), Integer.parseInt(parts[1]),
+                        Float.parseFloat(parts[2]), Integer.parseInt(parts[3]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
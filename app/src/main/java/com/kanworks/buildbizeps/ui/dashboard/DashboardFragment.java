@@ -16,35 +16,35 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.navigation.Navigation;
 
+import com.kanworks.buildbizeps.R;
 import com.kanworks.buildbizeps.databinding.FragmentDashboardBinding;
+import com.kanworks.buildbizeps.data.analytics.HistoryStore;
+import com.kanworks.buildbizeps.data.analytics.MuscleFatigue;
+import com.kanworks.buildbizeps.data.analytics.TrainingCalendar;
+import com.kanworks.buildbizeps.data.analytics.TrainingDays;
+import com.kanworks.buildbizeps.data.analytics.TrainingLoad;
 import com.kanworks.buildbizeps.data.database.FitnessDatabase;
-import com.kanworks.buildbizeps.data.entity.Exercise;
-import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
-import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.ConsistencyStats;
 import com.kanworks.buildbizeps.data.model.DailySummary;
 import com.kanworks.buildbizeps.data.model.ExerciseHistoryDetail;
+import com.kanworks.buildbizeps.data.model.RangeSummary;
+import com.kanworks.buildbizeps.data.model.SessionDensity;
+import com.kanworks.buildbizeps.data.model.WorkloadSnapshot;
+import com.kanworks.buildbizeps.data.repository.FitnessRepository;
+import com.kanworks.buildbizeps.utils.TrainingDay;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class DashboardFragment extends Fragment {
 
     private FragmentDashboardBinding binding;
+    private DashboardViewModel dashboardViewModel;
+    private FitnessRepository repository;
     private FitnessDatabase database;
-    private ExecutorService executor;
-    private Date selectedDate;
-    private SimpleDateFormat dateFormat;
 
     public View onCreateView(@NonNull LayoutInflater inflater,
                              ViewGroup container, Bundle savedInstanceState) {
@@ -52,89 +52,189 @@ public class DashboardFragment extends Fragment {
         binding = FragmentDashboardBinding.inflate(inflater, container, false);
         View root = binding.getRoot();
         
-        // Initialize database and executor
-        database = FitnessDatabase.getDatabase(getContext());
-        executor = Executors.newSingleThreadExecutor();
-        dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        repository = FitnessRepository.getInstance(requireContext());
+        database = repository.getDatabase();
         
-        // Set default selected date to today
-        selectedDate = new Date();
+        // The selected day (today by default) and its loaded data outlive this view
+        dashboardViewModel = new ViewModelProvider(this).get(DashboardViewModel.class);
         
         setupCalendarView();
+        setupRangeToggle();
         setupHistoryButtons();
-        loadDailySummary(selectedDate);
+        observeSelectedDay();
+        dashboardViewModel.getConsistency().observe(getViewLifecycleOwner(), this::updateConsistencyDisplay);
+        dashboardViewModel.getWorkload().observe(getViewLifecycleOwner(), this::updateWorkloadDisplay);
         
         return root;
     }
     
     private void setupCalendarView() {
+        Long selectedDay = dashboardViewModel.getSelectedDay().getValue();
+        if (selectedDay != null) {
+            binding.calendarView.setDate(TrainingDay.startOfDayMillis(selectedDay));
+        }
         binding.calendarView.setOnDateChangeListener((view, year, month, dayOfMonth) -> {
             Calendar calendar = Calendar.getInstance();
             calendar.set(year, month, dayOfMonth);
-            selectedDate = calendar.getTime();
-            loadDailySummary(selectedDate);
+            dashboardViewModel.selectDay(TrainingDay.fromDate(calendar.getTime()));
+        });
+        
+        // Heatmap of the selected day's month; tapping a day selects it on the calendar too
+        binding.trainingHeatmap.setOnDaySelectedListener(epochDay -> {
+            binding.calendarView.setDate(TrainingDay.startOfDayMillis(epochDay));
+            dashboardViewModel.selectDay(epochDay);
         });
+        dashboardViewModel.getSelectedDay().observe(getViewLifecycleOwner(),
+                binding.trainingHeatmap::setSelectedDay);
+        dashboardViewModel.getMonth().observe(getViewLifecycleOwner(),
+                binding.trainingHeatmap::setMonth);
     }
     
-    private void loadDailySummary(Date date) {
-        executor.execute(() -> {
-            try {
-                // Get all exercise records for the selected date
-                List<ExerciseRecord> records = database.exerciseRecordDao().getRecordsByDate(date);
-                
-                // Calculate summary data properly
-                int totalReps = 0;  // This will be sets * reps for all exercises
-                int totalSets = 0;
-                Set<Integer> uniqueExercises = new HashSet<>();
-                
-                // Calculate total reps as sets * reps for each record
-                for (ExerciseRecord record : records) {
-                    totalReps += (record.getSets() * record.getReps());  // Correct formula: sets * reps
-                    totalSets += record.getSets();
-                    uniqueExercises.add(record.getExerciseId());
-                }
-                
-                // Get workout sessions count for the day
-                List<WorkoutSession> sessions = database.workoutSessionDao().getWorkoutSessionsByDate(date);
-                
-                // Create summary object with correct data
-                DailySummary summary = new DailySummary(
-                    dateFormat.format(date),
-                    totalReps,           // Total reps (sets * reps)
-                    totalSets,           // Total sets
-                    uniqueExercises.size(), // Number of different exercises
-                    sessions.size(),     // Number of workout sessions
-                    0 // Duration calculation can be added later
-                );
-                
-                // Load detailed exercise history
-                List<ExerciseHistoryDetail> exerciseHistory = loadDetailedExerciseHistory(records);
-                
-                // Update UI on main thread
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        updateCombinedSummaryDisplay(summary, exerciseHistory);
-                    });
-                }
-                
-            } catch (Exception e) {
-                Log.e("DashboardFragment", "Error loading detailed exercise history", e);
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> 
-                        Toast.makeText(getContext(), "Error loading data: " + e.getMessage(), 
-                                     Toast.LENGTH_SHORT).show()
-                    );
-                }
+    private void setupRangeToggle() {
+        Integer range = dashboardViewModel.getRange().getValue();
+        binding.rangeToggle.check(rangeButtonId(range != null ? range : DashboardViewModel.RANGE_WEEK));
+        binding.rangeToggle.addOnButtonCheckedListener((group, checkedId, isChecked) -> {
+            if (!isChecked) return;
+            if (checkedId == R.id.btn_range_month) {
+                dashboardViewModel.selectRange(DashboardViewModel.RANGE_MONTH);
+            } else if (checkedId == R.id.btn_range_year) {
+                dashboardViewModel.selectRange(DashboardViewModel.RANGE_YEAR);
+            } else {
+                dashboardViewModel.selectRange(DashboardViewModel.RANGE_WEEK);
             }
         });
+        dashboardViewModel.getRangeSummary().observe(getViewLifecycleOwner(), this::updateRangeSummaryDisplay);
+    }
+    
+    private static int rangeButtonId(int range) {
+        switch (range) {
+            case DashboardViewModel.RANGE_MONTH: return R.id.btn_range_month;
+            case DashboardViewModel.RANGE_YEAR: return R.id.btn_range_year;
+            default: return R.id.btn_range_week;
+        }
+    }
+    
+    /**
+     * Render the selected day's snapshot. Loads for days scrolled past are cancelled in the
+     * ViewModel, so only the day the user settles on arrives here; after a configuration
+     * change the last snapshot is handed back without touching the database.
+     */
+    private void observeSelectedDay() {
+        dashboardViewModel.getDay().observe(getViewLifecycleOwner(), snapshot ->
+                updateCombinedSummaryDisplay(snapshot.getSummary(), snapshot.getDensity(), snapshot.getExercises()));
+    }
+    
+    private void updateConsistencyDisplay(ConsistencyStats stats) {
+        if (stats.getTotalDays() == 0) {
+            binding.textConsistency.setText("No training days yet");
+            return;
+        }
+        binding.textConsistency.setText(String.format(Locale.getDefault(),
+            "🔥 Current streak: %d %s (best %d)\n" +
+            "📆 This week: %d · This month: %d · This year: %d",
+            stats.getCurrentStreak(),
+            stats.getCurrentStreak() == 1 ? "day" : "days",
+            stats.getLongestStreak(),
+            stats.getDaysThisWeek(),
+            stats.getDaysThisMonth(),
+            stats.getDaysThisYear()
+        ));
+    }
+    
+    private void updateWorkloadDisplay(WorkloadSnapshot load) {
+        double ratio = load.getRatio();
+        if (Double.isNaN(ratio)) {
+            binding.textTrainingLoad.setText("No training in the last 4 weeks");
+            return;
+        }
+        String trend;
+        if (ratio > 1.5) {
+            trend = "spiking - well above your usual week";
+        } else if (ratio > 1.3) {
+            trend = "building fast";
+        } else if (ratio >= 0.8) {
+            trend = "steady";
+        } else {
+            trend = "lighter than usual";
+        }
+        binding.textTrainingLoad.setText(String.format(Locale.getDefault(),
+            "📈 Last 7 days: %d sets · %.0f kg\n" +
+            "📊 Last 28 days: %d sets · %.0f kg\n" +
+            "⚖️ Acute:chronic ratio: %.2f (%s)",
+            load.getAcuteSets(),
+            load.getAcuteTonnage(),
+            load.getChronicSets(),
+            load.getChronicTonnage(),
+            ratio,
+            trend
+        ));
+    }
+    
+    private void updateRangeSummaryDisplay(RangeSummary summary) {
+        StringBuilder text = new StringBuilder();
+        text.append(TrainingDay.format(summary.getFirstDay()))
+            .append(" → ")
+            .append(TrainingDay.format(summary.getLastDay()))
+            .append("\n\n");
+        
+        if (summary.getTrainedDays() == 0) {
+            text.append("No workouts recorded in this period");
+            binding.textRangeSummary.setText(text.toString());
+            return;
+        }
+        
+        text.append(String.format(Locale.getDefault(),
+            "📅 Days trained: %d\n" +
+            "🏋️ Sets: %d · Reps: %d\n" +
+            "⚖️ Tonnage: %.0f kg\n",
+            summary.getTrainedDays(),
+            summary.getTotalSets(),
+            summary.getTotalReps(),
+            summary.getTotalTonnage()
+        ));
+        
+        // The breakdown is sorted by sets; the most trained few are enough for a card
+        List<RangeSummary.ExerciseTotals> exercises = summary.getExercises();
+        int shown = Math.min(exercises.size(), 5);
+        for (int i = 0; i < shown; i++) {
+            RangeSummary.ExerciseTotals totals = exercises.get(i);
+            text.append(String.format(Locale.getDefault(),
+                "\n%s\n  %d sets on %d %s · best %s",
+                totals.getExerciseName(),
+                totals.getSets(),
+                totals.getDays(),
+                totals.getDays() == 1 ? "day" : "days",
+                totals.getBestWeight() > 0
+                    ? String.format(Locale.getDefault(), "%.1f kg × %d", totals.getBestWeight(), totals.getBestReps())
+                    : totals.getBestReps() + " reps"
+            ));
+        }
+        if (exercises.size() > shown) {
+            text.append(String.format(Locale.getDefault(), "\n\n+%d more exercises", exercises.size() - shown));
+        }
+        
+        binding.textRangeSummary.setText(text.toString());
     }
     
     /**
      * Update the combined summary display with both stats and exercise details
      */
-    private void updateCombinedSummaryDisplay(DailySummary summary, List<ExerciseHistoryDetail> exerciseHistory) {
+    private void updateCombinedSummaryDisplay(DailySummary summary, SessionDensity density,
+                                              List<ExerciseHistoryDetail> exerciseHistory) {
         StringBuilder combinedText = new StringBuilder();
         
+        // Pace of the day, once there are two sets in a session to measure between
+        if (density.getRestCount() > 0) {
+            long rest = density.getAverageRestSeconds();
+            combinedText.append(String.format(Locale.getDefault(),
+                "⏱️ %d min active · rest %d:%02d avg · %.0f kg/min\n\n",
+                summary.getTotalDurationMinutes(),
+                rest / 60,
+                rest % 60,
+                summary.getWorkDensity()
+            ));
+        }
+        
         // Add summary stats
         // combinedText.append(String.format(Locale.getDefault(),
         //     "📅 %s\n\n" +
@@ -171,59 +271,25 @@ public class DashboardFragment extends Fragment {
         binding.textCombinedSummary.setText(combinedText.toString());
     }
     
-    /**
-     * Load detailed exercise history from records
-     */
-    private List<ExerciseHistoryDetail> loadDetailedExerciseHistory(List<ExerciseRecord> records) {
-        Map<Integer, List<ExerciseRecord>> exerciseGroups = new HashMap<>();
-        
-        // Group records by exercise ID
-        for (ExerciseRecord record : records) {
-            exerciseGroups.computeIfAbsent(record.getExerciseId(), k -> new ArrayList<>()).add(record);
-        }
-        
-        List<ExerciseHistoryDetail> historyDetails = new ArrayList<>();
-        
-        // Process each exercise group
-        for (Map.Entry<Integer, List<ExerciseRecord>> entry : exerciseGroups.entrySet()) {
-            int exerciseId = entry.getKey();
-            List<ExerciseRecord> exerciseRecords = entry.getValue();
-            
-            // Get exercise name
-            Exercise exercise = database.exerciseDao().getExerciseById(exerciseId);
-            String exerciseName = exercise != null ? exercise.getName() : "Unknown Exercise";
-            
-            // Calculate total sets and create set details
-            int totalSets = 0;
-            List<ExerciseHistoryDetail.SetDetail> setDetails = new ArrayList<>();
-            
-            for (ExerciseRecord record : exerciseRecords) {
-                // For each record, add individual sets based on the sets count
-                for (int i = 0; i < record.getSets(); i++) {
-                    setDetails.add(new ExerciseHistoryDetail.SetDetail(record.getReps(), record.getWeight()));
-                    totalSets++;
-                }
-            }
-            
-            historyDetails.add(new ExerciseHistoryDetail(exerciseName, totalSets, setDetails));
-        }
-        
-        return historyDetails;
-    }
-    
     private void setupHistoryButtons() {
+        // Full paginated history of every set
+        binding.btnViewAllSets.setOnClickListener(v ->
+            Navigation.findNavController(v).navigate(R.id.navigation_history)
+        );
+        
         // Clear Selected Day button
         binding.btnClearDay.setOnClickListener(v -> {
             Log.d("DashboardFragment", "=== CLEAR DAY BUTTON PRESSED ===");
-            Log.d("DashboardFragment", "Selected date: " + (selectedDate != null ? dateFormat.format(selectedDate) : "null"));
+            Long selectedDay = dashboardViewModel.getSelectedDay().getValue();
+            Log.d("DashboardFragment", "Selected date: " + (selectedDay != null ? TrainingDay.format(selectedDay) : "null"));
             
-            if (selectedDate == null) {
+            if (selectedDay == null) {
                 Log.d("DashboardFragment", "No date selected - showing error message");
                 Toast.makeText(getContext(), "Please select a date first", Toast.LENGTH_SHORT).show();
                 return;
             }
             
-            String dateStr = dateFormat.format(selectedDate);
+            String dateStr = TrainingDay.format(selectedDay);
             Log.d("DashboardFragment", "Showing confirmation dialog for date: " + dateStr);
             
             new AlertDialog.Builder(getContext())
@@ -231,7 +297,7 @@ public class DashboardFragment extends Fragment {
                 .setMessage("Are you sure you want to clear all workout data for " + dateStr + "?")
                 .setPositiveButton("Clear", (dialog, which) -> {
                     Log.d("DashboardFragment", "User confirmed deletion for date: " + dateStr);
-                    clearDayHistory(selectedDate);
+                    clearDayHistory(selectedDay);
                 })
                 .setNegativeButton("Cancel", (dialog, which) -> {
                     Log.d("DashboardFragment", "User cancelled deletion for date: " + dateStr);
@@ -257,31 +323,30 @@ public class DashboardFragment extends Fragment {
         });
     }
     
-    private void clearDayHistory(Date date) {
+    private void clearDayHistory(long epochDay) {
         Log.d("DashboardFragment", "=== STARTING CLEAR DAY HISTORY ===");
-        Log.d("DashboardFragment", "Date to clear: " + dateFormat.format(date));
+        Log.d("DashboardFragment", "Date to clear: " + TrainingDay.format(epochDay));
         
-        executor.execute(() -> {
+        MuscleFatigue fatigue = MuscleFatigue.getInstance(requireContext());
+        // On the write lane, so the delete completes even if the user leaves the screen
+        repository.write(() -> {
             try {
                 Log.d("DashboardFragment", "Starting database deletion operations...");
                 
-                // Delete records and sessions for the selected date
-                Log.d("DashboardFragment", "Deleting exercise records for date...");
-                database.exerciseRecordDao().deleteRecordsByDate(date);
-                Log.d("DashboardFragment", "Exercise records deleted");
-                
-                Log.d("DashboardFragment", "Deleting workout sessions for date...");
-                database.workoutSessionDao().deleteSessionsByDate(date);
-                Log.d("DashboardFragment", "Workout sessions deleted");
+                // Delete records and sessions for the selected date in one transaction
+                database.workoutLogDao().clearDay(epochDay);
+                Log.d("DashboardFragment", "Exercise records and workout sessions deleted");
+                HistoryStore.invalidate();
+                TrainingCalendar.getInstance().invalidate();
+                TrainingLoad.getInstance().invalidate();
+                fatigue.invalidate();
+                TrainingDays.onDayCleared(epochDay);
                 
                 // Update UI on main thread
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
                         Log.d("DashboardFragment", "Updating UI after successful day deletion");
                         Toast.makeText(getContext(), "Day history cleared successfully", Toast.LENGTH_SHORT).show();
-                        // Refresh the current day's summary
-                        Log.d("DashboardFragment", "Refreshing daily summary after deletion");
-                        loadDailySummary(selectedDate);
                     });
                 }
                 
@@ -300,27 +365,26 @@ public class DashboardFragment extends Fragment {
     private void clearAllHistory() {
         Log.d("DashboardFragment", "=== STARTING CLEAR ALL HISTORY ===");
         
-        executor.execute(() -> {
+        MuscleFatigue fatigue = MuscleFatigue.getInstance(requireContext());
+        // On the write lane, so the delete completes even if the user leaves the screen
+        repository.write(() -> {
             try {
                 Log.d("DashboardFragment", "Starting complete database wipe...");
                 
-                // Delete all records and sessions
-                Log.d("DashboardFragment", "Deleting all exercise records...");
-                database.exerciseRecordDao().deleteAllRecords();
-                Log.d("DashboardFragment", "All exercise records deleted");
-                
-                Log.d("DashboardFragment", "Deleting all workout sessions...");
-                database.workoutSessionDao().deleteAllSessions();
-                Log.d("DashboardFragment", "All workout sessions deleted");
+                // Delete all records and sessions in one transaction
+                database.workoutLogDao().clearAll();
+                Log.d("DashboardFragment", "All exercise records and workout sessions deleted");
+                HistoryStore.invalidate();
+                TrainingCalendar.getInstance().invalidate();
+                TrainingLoad.getInstance().invalidate();
+                fatigue.invalidate();
+                TrainingDays.onAllCleared();
                 
                 // Update UI on main thread
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
                         Log.d("DashboardFragment", "Updating UI after successful complete deletion");
                         Toast.makeText(getContext(), "All history cleared successfully", Toast.LENGTH_SHORT).show();
-                        // Refresh the current day's summary
-                        Log.d("DashboardFragment", "Refreshing daily summary after complete deletion");
-                        loadDailySummary(selectedDate);
                     });
                 }
                 
@@ -339,9 +403,6 @@ public class DashboardFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
         binding = null;
     }
 }
\ No newline at end of file
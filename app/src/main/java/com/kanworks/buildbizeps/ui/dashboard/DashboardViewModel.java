@@ -1,19 +1,495 @@
 package com.kanworks.buildbizeps.ui.dashboard;
 
+import android.app.Application;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.room.InvalidationTracker;
+
+import com.kanworks.buildbizeps.data.analytics.TrainingCalendar;
+import com.kanworks.buildbizeps.data.analytics.TrainingDays;
+import com.kanworks.buildbizeps.data.analytics.TrainingLoad;
+import com.kanworks.buildbizeps.data.model.ConsistencyStats;
+import com.kanworks.buildbizeps.data.model.DaySnapshot;
+import com.kanworks.buildbizeps.data.model.MonthActivity;
+import com.kanworks.buildbizeps.data.model.RangeSummary;
+import com.kanworks.buildbizeps.data.model.WorkloadSnapshot;
+import com.kanworks.buildbizeps.data.repository.DayLoader;
+import com.kanworks.buildbizeps.data.repository.DaySnapshotCache;
+import com.kanworks.buildbizeps.data.repository.FitnessRepository;
+import com.kanworks.buildbizeps.data.repository.RangeSummaryLoader;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * Selected dashboard day and its loaded snapshot. The day is kept in the SavedStateHandle,
+ * so it survives process death as well as configuration changes.
+ *
+ * Loads are latest-wins: a new selection is debounced, and any load still running for an
+ * earlier one is cancelled through its CancellationSignal, so scrubbing the calendar
+ * computes and renders only the day the user stops on.
+ *
+ * Loaded days stay in an LRU cache, and once a day is shown the days either side of it are
+ * loaded in the background, so stepping to the next or previous day renders from memory.
+ * The heatmap month of the selected day comes from the app-wide TrainingCalendar, the
+ * streak figures from the TrainingDays index and the acute/chronic load from TrainingLoad.
+ * The week, month or year around the selected day is summarised with one grouped query,
+ * re-run when the period moves or the data changes.
+ */
+public class DashboardViewModel extends AndroidViewModel {
+
+    private static final String TAG = "DashboardViewModel";
+    private static final String KEY_SELECTED_DAY = "selected_day";
+    private static final String KEY_RANGE = "range";
+
+    public static final int RANGE_WEEK = 0;
+    public static final int RANGE_MONTH = 1;
+    public static final int RANGE_YEAR = 2;
+
+    // Long enough to swallow a fling through the calendar, short enough to feel immediate
+    static final long DEBOUNCE_MS = 150;
+
+    // Days loaded either side of the selection
+    static final int PREFETCH_DAYS = 1;
+
+    private final FitnessRepository repository;
+    private final DayLoader loader;
+    private final RangeSummaryLoader rangeLoader;
+    private final DaySnapshotCache cache = new DaySnapshotCache();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final MutableLiveData<Long> selectedDay;
+    private final MutableLiveData<DaySnapshot> day = new MutableLiveData<>();
+    private final MutableLiveData<Integer> range;
+    private final MutableLiveData<RangeSummary> rangeSummary = new MutableLiveData<>();
+    private final MutableLiveData<MonthActivity> month = new MutableLiveData<>();
+    private final TrainingCalendar calendar = TrainingCalendar.getInstance();
+    private final MutableLiveData<ConsistencyStats> consistency = new MutableLiveData<>();
+    private final TrainingDays trainingDays;
+    private final MutableLiveData<WorkloadSnapshot> workload = new MutableLiveData<>();
+    private final TrainingLoad trainingLoad = TrainingLoad.getInstance();
+
+    // Sets logged or records deleted anywhere in the app
+    private final Observer<Long> calendarChanges = version -> loadMonth();
+    // A day gained its first set or lost its last one
+    private final Observer<Long> trainingDayChanges = version -> loadConsistency();
+    private final Observer<Long> trainingLoadChanges = version -> loadWorkload();
+
+    // Main-thread state of the loads in flight
+    private CancellationSignal loadSignal;
+    private Future<?> loadFuture;
+    private int loadGeneration;
+    private CancellationSignal prefetchSignal;
+    private int prefetchGeneration;
+    private CancellationSignal rangeSignal;
+    private int rangeGeneration;
+
+    // Bumped on every database change; a load that straddles one isn't cached
+    private int dataVersion;
+
+    private final Runnable loadSelectedDayTask = this::loadSelectedDay;
+
+    // Sets, sessions and exercise names all feed a day's snapshot
+    private final InvalidationTracker.Observer tableObserver =
+            new InvalidationTracker.Observer("daily_summary", "exercise_records", "exercises") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    boolean namesChanged = tables.contains("exercises");
+                    mainHandler.post(() -> onDataChanged(namesChanged));
+                }
+            };
+
+    public DashboardViewModel(@NonNull Application application, @NonNull SavedStateHandle state) {
+        super(application);
+        repository = FitnessRepository.getInstance(application);
+        loader = new DayLoader(repository.getDatabase());
+        rangeLoader = new RangeSummaryLoader(repository.getDatabase());
+        selectedDay = state.getLiveData(KEY_SELECTED_DAY, TrainingDay.today());
+        range = state.getLiveData(KEY_RANGE, RANGE_WEEK);
+        trainingDays = TrainingDays.getInstance(application);
+
+        repository.getDatabase().getInvalidationTracker().addObserver(tableObserver);
+        loadSelectedDay();
+        // Delivers the current version straight away, which loads the first month
+        calendar.getChanges().observeForever(calendarChanges);
+        trainingDays.getChanges().observeForever(trainingDayChanges);
+        trainingLoad.getChanges().observeForever(trainingLoadChanges);
+    }
+
+    public LiveData<Long> getSelectedDay() {
+        return selectedDay;
+    }
+
+    /**
+     * The selected day's summary and sets; only ever set for the latest selection
+     */
+    public LiveData<DaySnapshot> getDay() {
+        return day;
+    }
+
+    /**
+     * Per-day activity of the selected day's month, for the heatmap
+     */
+    public LiveData<MonthActivity> getMonth() {
+        return month;
+    }
+
+    /**
+     * Streaks and days trained this week, month and year, as of today
+     */
+    public LiveData<ConsistencyStats> getConsistency() {
+        return consistency;
+    }
+
+    /**
+     * Acute and chronic load of all exercises, as of today
+     */
+    public LiveData<WorkloadSnapshot> getWorkload() {
+        return workload;
+    }
+
+    /**
+     * RANGE_WEEK, RANGE_MONTH or RANGE_YEAR
+     */
+    public LiveData<Integer> getRange() {
+        return range;
+    }
+
+    /**
+     * Summary of the selected range around the selected day
+     */
+    public LiveData<RangeSummary> getRangeSummary() {
+        return rangeSummary;
+    }
+
+    @MainThread
+    public void selectRange(int kind) {
+        Integer current = range.getValue();
+        if (current != null && current == kind) return;
+        range.setValue(kind);
+        loadRange();
+    }
 
-public class DashboardViewModel extends ViewModel {
+    @MainThread
+    public void selectDay(long epochDay) {
+        Long current = selectedDay.getValue();
+        if (current != null && current == epochDay) return;
 
-    private final MutableLiveData<String> mText;
+        selectedDay.setValue(epochDay);
+        MonthActivity shown = month.getValue();
+        if (shown == null || !shown.contains(epochDay)) {
+            loadMonth();
+        }
+        // Stop the previous day's queries now rather than when the debounce fires
+        cancelLoad();
+        cancelPrefetch();
+        if (!showsRangeOf(epochDay)) {
+            cancelRangeLoad();
+        }
+
+        DaySnapshot cached = cache.get(epochDay);
+        if (cached != null) {
+            day.setValue(cached);
+        }
+        // Load on a miss, or just warm the neighbours on a hit, once the selection settles
+        mainHandler.removeCallbacks(loadSelectedDayTask);
+        mainHandler.postDelayed(loadSelectedDayTask, DEBOUNCE_MS);
+    }
+
+    @MainThread
+    private void loadSelectedDay() {
+        mainHandler.removeCallbacks(loadSelectedDayTask);
+        cancelLoad();
+
+        Long epochDay = selectedDay.getValue();
+        if (epochDay == null) return;
+        if (!showsRangeOf(epochDay)) {
+            loadRange();
+        }
+
+        DaySnapshot cached = cache.get(epochDay);
+        if (cached != null) {
+            if (day.getValue() != cached) {
+                day.setValue(cached);
+            }
+            prefetchAround(epochDay);
+            return;
+        }
+
+        int generation = ++loadGeneration;
+        int version = dataVersion;
+        CancellationSignal signal = new CancellationSignal();
+        loadSignal = signal;
+        loadFuture = repository.read(() -> {
+            try {
+                DaySnapshot snapshot = loader.load(epochDay, signal);
+                mainHandler.post(() -> {
+                    if (version == dataVersion) {
+                        cache.put(snapshot);
+                    }
+                    // A newer selection may have started after this one finished
+                    if (generation == loadGeneration) {
+                        loadSignal = null;
+                        loadFuture = null;
+                        day.setValue(snapshot);
+                        prefetchAround(epochDay);
+                    }
+                });
+            } catch (OperationCanceledException e) {
+                Log.d(TAG, "Superseded load of " + TrainingDay.format(epochDay) + " cancelled");
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading " + TrainingDay.format(epochDay), e);
+            }
+        });
+    }
+
+    /**
+     * Load the days either side of the shown one into the cache, on the read pool
+     */
+    @MainThread
+    private void prefetchAround(long epochDay) {
+        cancelPrefetch();
+
+        List<Long> missing = new ArrayList<>(2 * PREFETCH_DAYS);
+        for (int offset = 1; offset <= PREFETCH_DAYS; offset++) {
+            if (!cache.contains(epochDay + offset)) missing.add(epochDay + offset);
+            if (!cache.contains(epochDay - offset)) missing.add(epochDay - offset);
+        }
+        if (missing.isEmpty()) return;
+
+        int generation = ++prefetchGeneration;
+        int version = dataVersion;
+        CancellationSignal signal = new CancellationSignal();
+        prefetchSignal = signal;
+        repository.read(() -> {
+            try {
+                for (long prefetchDay : missing) {
+                    DaySnapshot snapshot = loader.load(prefetchDay, signal);
+                    mainHandler.post(() -> {
+                        if (generation == prefetchGeneration && version == dataVersion) {
+                            cache.put(snapshot);
+                        }
+                    });
+                }
+            } catch (OperationCanceledException e) {
+                // The selection moved on
+            } catch (Exception e) {
+                Log.e(TAG, "Error prefetching around " + TrainingDay.format(epochDay), e);
+            }
+        });
+    }
+
+    /**
+     * Show the selected day's month: straight from the calendar cache, or after one range
+     * query on the read pool
+     */
+    @MainThread
+    private void loadMonth() {
+        Long epochDay = selectedDay.getValue();
+        if (epochDay == null) return;
+
+        MonthActivity cached = calendar.getCachedMonth(epochDay);
+        if (cached != null) {
+            if (month.getValue() != cached) {
+                month.setValue(cached);
+            }
+            return;
+        }
+        repository.read(() -> {
+            try {
+                MonthActivity loaded = calendar.getMonth(repository.getDatabase(), epochDay);
+                mainHandler.post(() -> {
+                    // Skip a month the selection has already left
+                    Long selected = selectedDay.getValue();
+                    if (selected != null && loaded.contains(selected)) {
+                        month.setValue(loaded);
+                    }
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading month of " + TrainingDay.format(epochDay), e);
+            }
+        });
+    }
+
+    /**
+     * First and last day of the range of the given kind that contains the day
+     */
+    static long[] rangeBounds(long epochDay, int kind) {
+        switch (kind) {
+            case RANGE_MONTH: {
+                long first = TrainingDay.firstOfMonth(epochDay);
+                return new long[]{first, first + TrainingDay.daysInMonth(first) - 1};
+            }
+            case RANGE_YEAR: {
+                long first = TrainingDay.firstOfYear(epochDay);
+                return new long[]{first, first + TrainingDay.daysInYear(first) - 1};
+            }
+            default: {
+                long first = TrainingDay.firstOfWeek(epochDay);
+                return new long[]{first, first + 6};
+            }
+        }
+    }
+
+    private long[] selectedRangeBounds(long epochDay) {
+        Integer kind = range.getValue();
+        return rangeBounds(epochDay, kind != null ? kind : RANGE_WEEK);
+    }
+
+    /**
+     * Whether the shown range summary is already the selected range around this day
+     */
+    @MainThread
+    private boolean showsRangeOf(long epochDay) {
+        RangeSummary shown = rangeSummary.getValue();
+        if (shown == null) return false;
+        long[] bounds = selectedRangeBounds(epochDay);
+        return shown.getFirstDay() == bounds[0] && shown.getLastDay() == bounds[1];
+    }
+
+    /**
+     * Summarise the selected range around the selected day, latest-wins like the day load
+     */
+    @MainThread
+    private void loadRange() {
+        cancelRangeLoad();
+        Long epochDay = selectedDay.getValue();
+        if (epochDay == null) return;
+
+        long[] bounds = selectedRangeBounds(epochDay);
+        int generation = ++rangeGeneration;
+        CancellationSignal signal = new CancellationSignal();
+        rangeSignal = signal;
+        repository.read(() -> {
+            try {
+                RangeSummary summary = rangeLoader.load(bounds[0], bounds[1], signal);
+                mainHandler.post(() -> {
+                    if (generation == rangeGeneration) {
+                        rangeSignal = null;
+                        rangeSummary.setValue(summary);
+                    }
+                });
+            } catch (OperationCanceledException e) {
+                // The selection moved to another range
+            } catch (Exception e) {
+                Log.e(TAG, "Error summarising " + TrainingDay.format(bounds[0])
+                        + " to " + TrainingDay.format(bounds[1]), e);
+            }
+        });
+    }
+
+    private void loadWorkload() {
+        repository.read(() -> {
+            try {
+                workload.postValue(trainingLoad.getOverall(repository.getDatabase(), TrainingDay.today()));
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading training load", e);
+            }
+        });
+    }
+
+    private void loadConsistency() {
+        repository.read(() -> {
+            try {
+                consistency.postValue(trainingDays.getStats(repository.getDatabase(), TrainingDay.today()));
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading training days", e);
+            }
+        });
+    }
+
+    /**
+     * Drop exactly the cached days that changed and re-load the shown day if it is one of them
+     */
+    @MainThread
+    private void onDataChanged(boolean namesChanged) {
+        dataVersion++;
+        cancelPrefetch();
+        // One grouped query; cheaper to re-run than to work out whether it is affected
+        loadRange();
+        if (namesChanged) {
+            // A renamed or deleted exercise can appear on any day
+            cache.evictAll();
+            loadSelectedDay();
+            return;
+        }
+
+        int version = dataVersion;
+        repository.read(() -> {
+            try {
+                List<Long> stale = cache.findStale(repository.getDatabase());
+                mainHandler.post(() -> {
+                    for (long staleDay : stale) {
+                        cache.evict(staleDay);
+                    }
+                    // A later change already re-validates
+                    if (version != dataVersion) return;
+                    Long epochDay = selectedDay.getValue();
+                    if (epochDay != null && !cache.contains(epochDay)) {
+                        loadSelectedDay();
+                    }
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error checking cached days", e);
+            }
+        });
+    }
+
+    @MainThread
+    private void cancelLoad() {
+        if (loadSignal != null) {
+            loadSignal.cancel();
+            loadSignal = null;
+        }
+        if (loadFuture != null) {
+            // Drops it from the read queue if it hasn't started
+            loadFuture.cancel(false);
+            loadFuture = null;
+        }
+        loadGeneration++;
+    }
+
+    @MainThread
+    private void cancelRangeLoad() {
+        if (rangeSignal != null) {
+            rangeSignal.cancel();
+            rangeSignal = null;
+        }
+        rangeGeneration++;
+    }
 
-    public DashboardViewModel() {
-        mText = new MutableLiveData<>();
-        mText.setValue("This is dashboard fragment");
+    @MainThread
+    private void cancelPrefetch() {
+        if (prefetchSignal != null) {
+            prefetchSignal.cancel();
+            prefetchSignal = null;
+        }
+        prefetchGeneration++;
     }
 
-    public LiveData<String> getText() {
-        return mText;
+    @Override
+    protected void onCleared() {
+        repository.getDatabase().getInvalidationTracker().removeObserver(tableObserver);
+        calendar.getChanges().removeObserver(calendarChanges);
+        trainingDays.getChanges().removeObserver(trainingDayChanges);
+        trainingLoad.getChanges().removeObserver(trainingLoadChanges);
+        mainHandler.removeCallbacks(loadSelectedDayTask);
+        cancelLoad();
+        cancelPrefetch();
+        cancelRangeLoad();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,194 @@
+package com.kanworks.buildbizeps.ui.dashboard;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.core.graphics.ColorUtils;
+
+import com.kanworks.buildbizeps.R;
+import com.kanworks.buildbizeps.data.model.MonthActivity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.time.temporal.WeekFields;
+import java.util.Locale;
+
+/**
+ * Month grid with one cell per day, shaded by how much was trained that day.
+ * Draws straight from a MonthActivity; tapping a day reports it to the listener.
+ */
+public class TrainingHeatmapView extends View {
+
+    public interface OnDaySelectedListener {
+        void onDaySelected(long epochDay);
+    }
+
+    // Always six week rows, so the card doesn't change height between months
+    private static final int ROWS = 6;
+    private static final int COLUMNS = 7;
+
+    private final Paint cellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint selectedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint dayTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint headerTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF cell = new RectF();
+    private final int[] levelColors = new int[MonthActivity.LEVELS];
+    private final String[] weekdayLabels = new String[COLUMNS];
+    private final int lightTextColor;
+    private final int darkTextColor;
+    private final DayOfWeek firstDayOfWeek;
+    private final float gap;
+    private final float corner;
+
+    @Nullable
+    private MonthActivity month;
+    private long selectedDay = Long.MIN_VALUE;
+    // Column of the first of the month
+    private int leadingBlanks;
+    private float cellSize;
+    private float headerHeight;
+    @Nullable
+    private OnDaySelectedListener listener;
+
+    public TrainingHeatmapView(Context context) {
+        this(context, null);
+    }
+
+    public TrainingHeatmapView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        gap = 3 * density;
+        corner = 4 * density;
+
+        int primary = ContextCompat.getColor(context, R.color.primary);
+        levelColors[0] = ContextCompat.getColor(context, R.color.surface_secondary);
+        for (int level = 1; level < MonthActivity.LEVELS; level++) {
+            // Evenly stepped from a light tint of the brand colour up to the full colour
+            float ratio = (float) level / (MonthActivity.LEVELS - 1);
+            levelColors[level] = ColorUtils.setAlphaComponent(primary, (int) (255 * (0.25f + 0.75f * ratio)));
+        }
+
+        selectedPaint.setStyle(Paint.Style.STROKE);
+        selectedPaint.setStrokeWidth(2 * density);
+        selectedPaint.setColor(ContextCompat.getColor(context, R.color.on_surface_primary));
+
+        lightTextColor = ContextCompat.getColor(context, R.color.on_primary);
+        darkTextColor = ContextCompat.getColor(context, R.color.on_surface_secondary);
+        dayTextPaint.setTextAlign(Paint.Align.CENTER);
+        dayTextPaint.setTextSize(11 * getResources().getDisplayMetrics().scaledDensity);
+        headerTextPaint.setTextAlign(Paint.Align.CENTER);
+        headerTextPaint.setTextSize(11 * getResources().getDisplayMetrics().scaledDensity);
+        headerTextPaint.setColor(ContextCompat.getColor(context, R.color.on_surface_secondary));
+
+        Locale locale = Locale.getDefault();
+        firstDayOfWeek = WeekFields.of(locale).getFirstDayOfWeek();
+        for (int column = 0; column < COLUMNS; column++) {
+            weekdayLabels[column] = firstDayOfWeek.plus(column).getDisplayName(TextStyle.NARROW, locale);
+        }
+    }
+
+    public void setOnDaySelectedListener(@Nullable OnDaySelectedListener listener) {
+        this.listener = listener;
+    }
+
+    public void setMonth(@Nullable MonthActivity month) {
+        this.month = month;
+        if (month != null) {
+            DayOfWeek first = LocalDate.ofEpochDay(month.getFirstDay()).getDayOfWeek();
+            leadingBlanks = (first.getValue() - firstDayOfWeek.getValue() + COLUMNS) % COLUMNS;
+        }
+        invalidate();
+    }
+
+    public void setSelectedDay(long epochDay) {
+        if (selectedDay == epochDay) return;
+        selectedDay = epochDay;
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        cellSize = (width - getPaddingLeft() - getPaddingRight()) / (float) COLUMNS;
+        headerHeight = headerTextPaint.getTextSize() * 2;
+        int height = (int) (headerHeight + cellSize * ROWS) + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        float left = getPaddingLeft();
+        float top = getPaddingTop();
+
+        float headerBaseline = top + headerTextPaint.getTextSize() * 1.25f;
+        for (int column = 0; column < COLUMNS; column++) {
+            canvas.drawText(weekdayLabels[column], left + (column + 0.5f) * cellSize, headerBaseline, headerTextPaint);
+        }
+        if (month == null) return;
+
+        float textOffset = (dayTextPaint.descent() + dayTextPaint.ascent()) / 2;
+        for (int index = 0; index < month.getDayCount(); index++) {
+            long day = month.getFirstDay() + index;
+            int position = leadingBlanks + index;
+            float x = left + (position % COLUMNS) * cellSize;
+            float y = top + headerHeight + (position / COLUMNS) * cellSize;
+            cell.set(x + gap / 2, y + gap / 2, x + cellSize - gap / 2, y + cellSize - gap / 2);
+
+            int level = month.getLevel(day);
+            cellPaint.setColor(levelColors[level]);
+            canvas.drawRoundRect(cell, corner, corner, cellPaint);
+            if (day == selectedDay) {
+                canvas.drawRoundRect(cell, corner, corner, selectedPaint);
+            }
+
+            // Light text on the darker levels
+            dayTextPaint.setColor(level >= MonthActivity.LEVELS / 2 ? lightTextColor : darkTextColor);
+            canvas.drawText(String.valueOf(index + 1), cell.centerX(), cell.centerY() - textOffset, dayTextPaint);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (month == null || listener == null) return super.onTouchEvent(event);
+
+        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            return true;
+        }
+        if (event.getAction() == MotionEvent.ACTION_UP) {
+            long day = dayAt(event.getX(), event.getY());
+            if (day != Long.MIN_VALUE) {
+                listener.onDaySelected(day);
+                performClick();
+            }
+            return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private long dayAt(float x, float y) {
+        float gridY = y - getPaddingTop() - headerHeight;
+        float gridX = x - getPaddingLeft();
+        if (gridX < 0 || gridY < 0 || cellSize <= 0) return Long.MIN_VALUE;
+
+        int column = (int) (gridX / cellSize);
+        int row = (int) (gridY / cellSize);
+        if (column >= COLUMNS || row >= ROWS) return Long.MIN_VALUE;
+
+        int index = row * COLUMNS + column - leadingBlanks;
+        if (month == null || index < 0 || index >= month.getDayCount()) return Long.MIN_VALUE;
+        return month.getFirstDay() + index;
+    }
+}
@@ -0,0 +1,81 @@
+package com.kanworks.buildbizeps.ui.history;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+import com.kanworks.buildbizeps.databinding.ItemHistorySetBinding;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Recycled list of logged sets for the history screen, newest first
+ */
+public class HistoryAdapter extends ListAdapter<ExerciseSetRow, HistoryAdapter.SetViewHolder> {
+
+    private static final DiffUtil.ItemCallback<ExerciseSetRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<ExerciseSetRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ExerciseSetRow oldItem, @NonNull ExerciseSetRow newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ExerciseSetRow oldItem, @NonNull ExerciseSetRow newItem) {
+            return oldItem.getSets() == newItem.getSets()
+                    && oldItem.getReps() == newItem.getReps()
+                    && oldItem.getWeight() == newItem.getWeight()
+                    && oldItem.getTimestamp() == newItem.getTimestamp()
+                    && Objects.equals(oldItem.getExerciseName(), newItem.getExerciseName());
+        }
+    };
+
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("EEE, d MMM yyyy  HH:mm", Locale.getDefault());
+
+    public HistoryAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    @NonNull
+    @Override
+    public SetViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new SetViewHolder(ItemHistorySetBinding.inflate(LayoutInflater.from(parent.getContext()), parent, false));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull SetViewHolder holder, int position) {
+        ExerciseSetRow row = getItem(position);
+        holder.binding.textExerciseName.setText(row.getExerciseName());
+        holder.binding.textSetTime.setText(timeFormat.format(new Date(row.getTimestamp())));
+
+        String detail = row.getWeight() > 0
+                ? String.format(Locale.getDefault(), "%.0fkg×%d", row.getWeight(), row.getReps())
+                : String.format(Locale.getDefault(), "%d reps", row.getReps());
+        if (row.getSets() > 1) {
+            detail = row.getSets() + " × " + detail;
+        }
+        holder.binding.textSetDetail.setText(detail);
+    }
+
+    static class SetViewHolder extends RecyclerView.ViewHolder {
+        final ItemHistorySetBinding binding;
+
+        SetViewHolder(ItemHistorySetBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.kanworks.buildbizeps.ui.history;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.kanworks.buildbizeps.data.dao.ExerciseRecordDao;
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+import com.kanworks.buildbizeps.data.repository.FitnessRepository;
+import com.kanworks.buildbizeps.databinding.FragmentHistoryBinding;
+
+import java.util.List;
+
+/**
+ * Scrollable feed of every logged set, backed by the keyset HistoryPager
+ */
+public class HistoryFragment extends Fragment {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_PAGES = 6;
+    private static final int PREFETCH_DISTANCE = 15;
+
+    private FragmentHistoryBinding binding;
+    private FitnessRepository repository;
+    private HistoryPager pager;
+    private HistoryAdapter adapter;
+
+    // Main-thread copies of the pager state
+    private boolean loading;
+    private boolean hasOlder = true;
+    private boolean hasNewer;
+
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             ViewGroup container, Bundle savedInstanceState) {
+
+        binding = FragmentHistoryBinding.inflate(inflater, container, false);
+
+        repository = FitnessRepository.getInstance(requireContext());
+        ExerciseRecordDao dao = repository.getDatabase().exerciseRecordDao();
+        pager = new HistoryPager(new HistoryPager.PageSource() {
+            @Override
+            public List<ExerciseSetRow> loadNewest(int limit) {
+                return dao.getHistoryNewest(limit);
+            }
+
+            @Override
+            public List<ExerciseSetRow> loadBefore(long timestamp, int id, int limit) {
+                return dao.getHistoryBefore(timestamp, id, limit);
+            }
+
+            @Override
+            public List<ExerciseSetRow> loadAfter(long timestamp, int id, int limit) {
+                return dao.getHistoryAfter(timestamp, id, limit);
+            }
+        }, PAGE_SIZE, MAX_PAGES);
+
+        adapter = new HistoryAdapter();
+        binding.historyList.setAdapter(adapter);
+        binding.historyList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                loadMoreIfNearEdge();
+            }
+        });
+
+        loadPage(true);
+
+        return binding.getRoot();
+    }
+
+    private void loadMoreIfNearEdge() {
+        if (binding == null || loading) return;
+
+        LinearLayoutManager layoutManager = (LinearLayoutManager) binding.historyList.getLayoutManager();
+        if (layoutManager == null) return;
+
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+
+        if (hasOlder && last >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+            loadPage(true);
+        } else if (hasNewer && first != RecyclerView.NO_POSITION && first <= PREFETCH_DISTANCE) {
+            loadPage(false);
+        }
+    }
+
+    private void loadPage(boolean older) {
+        loading = true;
+        // One load at a time (the loading flag), so the pager is never touched concurrently;
+        // a page still loading when the view goes away is cancelled with it
+        repository.read(getViewLifecycleOwner(), () -> {
+            boolean changed = older ? pager.loadOlder() : pager.loadNewer();
+            return new PageResult(changed, pager.snapshot(), pager.hasOlder(), pager.hasNewer());
+        }, result -> {
+            loading = false;
+            hasOlder = result.hasOlder;
+            hasNewer = result.hasNewer;
+
+            binding.textHistoryEmpty.setVisibility(result.rows.isEmpty() ? View.VISIBLE : View.GONE);
+            if (result.changed) {
+                // Keep filling until the screen is covered or the edge is reached
+                adapter.submitList(result.rows, this::loadMoreIfNearEdge);
+            }
+        }, e -> {
+            Log.e("HistoryFragment", "Error loading history page", e);
+            loading = false;
+            Toast.makeText(getContext(), "Error loading history", Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        binding = null;
+    }
+
+    /**
+     * Pager state captured on the read thread for the main thread
+     */
+    private static class PageResult {
+        final boolean changed;
+        final List<ExerciseSetRow> rows;
+        final boolean hasOlder;
+        final boolean hasNewer;
+
+        PageResult(boolean changed, List<ExerciseSetRow> rows, boolean hasOlder, boolean hasNewer) {
+            this.changed = changed;
+            this.rows = rows;
+            this.hasOlder = hasOlder;
+            this.hasNewer = hasNewer;
+        }
+    }
+}
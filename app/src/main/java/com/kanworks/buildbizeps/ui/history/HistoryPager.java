@@ -0,0 +1,99 @@
+package com.kanworks.buildbizeps.ui.history;
+
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keyset pager over the history feed, newest set first.
+ * Keeps a bounded window of rows: loading older pages drops rows from the top and
+ * loading newer pages drops rows from the bottom, so memory stays flat however far
+ * the user scrolls. Pages are keyed on the (timestamp, id) of the edge rows.
+ * Not thread-safe; call from one background thread.
+ */
+public class HistoryPager {
+
+    /**
+     * Where pages come from, normally the ExerciseRecordDao history queries
+     */
+    public interface PageSource {
+        List<ExerciseSetRow> loadNewest(int limit);
+        List<ExerciseSetRow> loadBefore(long timestamp, int id, int limit);  // newest first
+        List<ExerciseSetRow> loadAfter(long timestamp, int id, int limit);   // oldest first
+    }
+
+    private final PageSource source;
+    private final int pageSize;
+    private final int maxRows;
+    private final ArrayList<ExerciseSetRow> rows = new ArrayList<>();
+    private boolean started;
+    private boolean hasOlder = true;
+    private boolean hasNewer;
+
+    public HistoryPager(PageSource source, int pageSize, int maxPages) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.maxRows = pageSize * maxPages;
+    }
+
+    /**
+     * Load the next page of older sets; returns true if the window changed
+     */
+    public boolean loadOlder() {
+        if (!hasOlder) return false;
+
+        List<ExerciseSetRow> page;
+        if (!started) {
+            started = true;
+            page = source.loadNewest(pageSize);
+        } else if (rows.isEmpty()) {
+            return false;
+        } else {
+            ExerciseSetRow last = rows.get(rows.size() - 1);
+            page = source.loadBefore(last.getTimestamp(), last.getId(), pageSize);
+        }
+
+        hasOlder = page.size() == pageSize;
+        rows.addAll(page);
+
+        int overflow = rows.size() - maxRows;
+        if (overflow > 0) {
+            rows.subList(0, overflow).clear();
+            hasNewer = true;
+        }
+        return !page.isEmpty();
+    }
+
+    /**
+     * Load the previous page of newer sets dropped from the window; returns true if the window changed
+     */
+    public boolean loadNewer() {
+        if (!hasNewer || rows.isEmpty()) return false;
+
+        ExerciseSetRow first = rows.get(0);
+        List<ExerciseSetRow> page = new ArrayList<>(source.loadAfter(first.getTimestamp(), first.getId(), pageSize));
+        Collections.reverse(page);
+
+        hasNewer = page.size() == pageSize;
+        rows.addAll(0, page);
+
+        int overflow = rows.size() - maxRows;
+        if (overflow > 0) {
+            rows.subList(rows.size() - overflow, rows.size()).clear();
+            hasOlder = true;
+        }
+        return !page.isEmpty();
+    }
+
+    /**
+     * Immutable copy of the current window, safe to hand to the UI thread
+     */
+    public List<ExerciseSetRow> snapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(rows));
+    }
+
+    public boolean hasOlder() { return hasOlder; }
+    public boolean hasNewer() { return hasNewer; }
+}
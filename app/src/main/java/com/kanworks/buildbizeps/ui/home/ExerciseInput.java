@@ -0,0 +1,43 @@
+package com.kanworks.buildbizeps.ui.home;
+
+import android.util.SparseArray;
+
+/**
+ * In-progress input of one exercise card: typed weight, reps counter and sets saved so far.
+ * Held outside the views so it survives the card being recycled.
+ */
+public class ExerciseInput {
+    private String weightText = "";
+    private int reps;
+    private int setsCompleted;
+    
+    /**
+     * The input of one exercise in a card-input array keyed by exercise id, added empty if missing
+     */
+    static ExerciseInput forExercise(SparseArray<ExerciseInput> inputs, int exerciseId) {
+        ExerciseInput input = inputs.get(exerciseId);
+        if (input == null) {
+            input = new ExerciseInput();
+            inputs.put(exerciseId, input);
+        }
+        return input;
+    }
+    
+    public String getWeightText() { return weightText; }
+    public void setWeightText(String weightText) { this.weightText = weightText; }
+    
+    public int getReps() { return reps; }
+    public void setReps(int reps) { this.reps = Math.max(0, reps); }
+    
+    public int getSetsCompleted() { return setsCompleted; }
+    public void setSetsCompleted(int setsCompleted) { this.setsCompleted = setsCompleted; }
+    
+    /**
+     * Save is enabled once both a non-zero weight and at least one rep are entered
+     */
+    public boolean canSave() {
+        String weight = weightText.trim();
+        boolean hasWeight = !weight.isEmpty() && !weight.equals("0.0") && !weight.equals("0");
+        return hasWeight && reps > 0;
+    }
+}
@@ -1,19 +1,340 @@
 package com.kanworks.buildbizeps.ui.home;
 
+import android.app.Application;
+import android.os.Bundle;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.lifecycle.Transformations;
+
+import com.kanworks.buildbizeps.data.analytics.MuscleFatigue;
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseDistribution;
+import com.kanworks.buildbizeps.data.entity.ExerciseProgress;
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+import com.kanworks.buildbizeps.data.model.MuscleReadiness;
+import com.kanworks.buildbizeps.data.model.SetDistribution;
+import com.kanworks.buildbizeps.data.repository.FitnessRepository;
+import com.kanworks.buildbizeps.data.repository.SetWriteQueue;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Workout state of the Home screen: the favorites list, the in-progress input of every card
+ * and the session sets are logged into. Held here so a rotation or a tab switch re-renders
+ * from memory; the drafts and the session id are also saved for process death.
+ */
+public class HomeViewModel extends AndroidViewModel {
+
+    private static final String TAG = "HomeViewModel";
+    private static final String KEY_WORKOUT = "workout";
+
+    private static final String KEY_SESSION_ID = "session_id";
+    private static final String KEY_IDS = "ids";
+    private static final String KEY_WEIGHTS = "weights";
+    private static final String KEY_REPS = "reps";
+    private static final String KEY_SETS = "sets";
+
+    // Distributions on the cards cover the months overlapping this many recent days
+    private static final int DISTRIBUTION_DAYS = 90;
+    private static final int MIN_SETS_TO_RANK = 5;
+
+    private final FitnessRepository repository;
+    private final FitnessDatabase database;
+    private final SetWriteQueue writeQueue;
+    private Future<?> lastSetsLoad;
+
+    private final LiveData<List<Exercise>> favoriteExercises;
+    private final LiveData<SparseArray<ExerciseProgress>> favoriteProgress;
+    private final LiveData<SparseArray<SetDistribution>> favoriteDistributions;
+    private final MutableLiveData<List<ExerciseSetRow>> lastSets = new MutableLiveData<>();
+    private final MutableLiveData<List<MuscleReadiness>> readiness = new MutableLiveData<>();
+    private final MuscleFatigue fatigue;
+
+    // Sets logged here or anywhere else move the readiness strip
+    private final Observer<Long> fatigueChanges = version -> refreshReadiness();
+
+    // Latest personal records per favorite, for the "new PR" check on save; kept current
+    // whether or not a screen is observing
+    private SparseArray<ExerciseProgress> progressByExercise = new SparseArray<>();
+    private final Observer<SparseArray<ExerciseProgress>> progressChanges =
+            byExercise -> progressByExercise = byExercise;
+
+    // In-progress weight/reps and sets completed per exercise, independent of the card views
+    private final SparseArray<ExerciseInput> inputs = new SparseArray<>();
+
+    // Exercises whose card was already started from the last set, so it happens once per exercise
+    private final SparseBooleanArray prefilled = new SparseBooleanArray();
+
+    public HomeViewModel(@NonNull Application application, @NonNull SavedStateHandle state) {
+        super(application);
+        repository = FitnessRepository.getInstance(application);
+        database = repository.getDatabase();
+        writeQueue = SetWriteQueue.getInstance(application);
+        fatigue = MuscleFatigue.getInstance(application);
+
+        Bundle saved = state.get(KEY_WORKOUT);
+        if (saved != null) {
+            restoreInputs(saved, inputs);
+            for (int i = 0; i < inputs.size(); i++) {
+                prefilled.put(inputs.keyAt(i), true);
+            }
+            int sessionId = saved.getInt(KEY_SESSION_ID);
+            if (sessionId > 0) {
+                writeQueue.resumeSession(sessionId);
+            }
+        }
+        state.setSavedStateProvider(KEY_WORKOUT, () -> {
+            Bundle bundle = saveInputs(inputs);
+            bundle.putInt(KEY_SESSION_ID, writeQueue.getSessionId());
+            return bundle;
+        });
+
+        // Room only re-runs these when their tables change, so observers attached after
+        // a configuration change get the last result without a query
+        favoriteExercises = Transformations.distinctUntilChanged(
+                database.exerciseDao().observeFavoriteExercises());
+        favoriteProgress = Transformations.map(
+                Transformations.distinctUntilChanged(database.exerciseDao().observeFavoriteProgress()),
+                rows -> {
+                    SparseArray<ExerciseProgress> byExercise = new SparseArray<>(rows.size());
+                    for (ExerciseProgress progress : rows) {
+                        byExercise.put(progress.getExerciseId(), progress);
+                    }
+                    return byExercise;
+                });
+        // A few small sketch rows per favorite; re-run when a logged set updates its month
+        favoriteDistributions = Transformations.map(
+                database.exerciseDao().observeFavoriteDistributions(
+                        TrainingDay.firstOfMonth(TrainingDay.today() - DISTRIBUTION_DAYS)),
+                HomeViewModel::mergeByExercise);
+
+        // Delivers the current version straight away, which does the first load
+        fatigue.getChanges().observeForever(fatigueChanges);
+        favoriteProgress.observeForever(progressChanges);
+    }
+
+    public LiveData<List<Exercise>> getFavoriteExercises() {
+        return favoriteExercises;
+    }
+
+    /**
+     * Recent weight and rep distribution per favorite exercise
+     */
+    public LiveData<SparseArray<SetDistribution>> getFavoriteDistributions() {
+        return favoriteDistributions;
+    }
+
+    /**
+     * Fraction of the exercise's recent sets done with less weight, or NaN without enough
+     * history to compare against
+     */
+    public double getRecentWeightRank(int exerciseId, float weight) {
+        SparseArray<SetDistribution> byExercise = favoriteDistributions.getValue();
+        SetDistribution distribution = byExercise != null ? byExercise.get(exerciseId) : null;
+        if (distribution == null || distribution.getSetCount() < MIN_SETS_TO_RANK) return Double.NaN;
+        return distribution.getWeightRank(weight);
+    }
 
-public class HomeViewModel extends ViewModel {
+    /**
+     * Last set of each favorite that has not been prefilled yet; apply with {@link #applyLastSets}
+     */
+    public LiveData<List<ExerciseSetRow>> getLastSets() {
+        return lastSets;
+    }
+
+    /**
+     * Readiness of each trained muscle group, least recovered first
+     */
+    public LiveData<List<MuscleReadiness>> getReadiness() {
+        return readiness;
+    }
+
+    /**
+     * Recompute readiness for the current time; recovery continues while nothing is logged
+     */
+    public void refreshReadiness() {
+        repository.read(() -> {
+            try {
+                readiness.postValue(fatigue.getReadiness(database, System.currentTimeMillis()));
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading muscle readiness", e);
+            }
+        });
+    }
+
+    SparseArray<ExerciseInput> getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Fetch the last set of every favorite in a single query, unless each card was already
+     * started from one
+     */
+    public void loadLastSets(List<Exercise> favorites) {
+        boolean pending = false;
+        for (Exercise exercise : favorites) {
+            if (!prefilled.get(exercise.getId())) {
+                pending = true;
+                break;
+            }
+        }
+        if (!pending) return;
+
+        lastSetsLoad = repository.read(() -> {
+            try {
+                lastSets.postValue(database.exerciseRecordDao().getLastSetPerFavorite());
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading last sets", e);
+            }
+        });
+    }
+
+    /**
+     * Start each card not prefilled so far at the weight and reps of its last set
+     *
+     * @return ids of the exercises whose input changed
+     */
+    public List<Integer> applyLastSets(List<ExerciseSetRow> rows) {
+        List<Integer> changed = new ArrayList<>();
+        for (ExerciseSetRow lastSet : rows) {
+            int exerciseId = lastSet.getExerciseId();
+            if (prefilled.get(exerciseId)) continue;
+            prefilled.put(exerciseId, true);
+            if (prefillInput(ExerciseInput.forExercise(inputs, exerciseId), lastSet)) {
+                changed.add(exerciseId);
+            }
+        }
+        return changed;
+    }
 
-    private final MutableLiveData<String> mText;
+    static boolean prefillInput(ExerciseInput input, ExerciseSetRow lastSet) {
+        boolean changed = false;
+        // Don't overwrite anything the user already started typing
+        if (input.getWeightText().isEmpty() && lastSet.getWeight() > 0) {
+            float weight = lastSet.getWeight();
+            input.setWeightText(weight == (int) weight
+                    ? String.valueOf((int) weight)
+                    : String.valueOf(weight));
+            changed = true;
+        }
+        if (input.getReps() == 0) {
+            input.setReps(lastSet.getReps());
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Queue one set and advance the card's input to the next set
+     *
+     * @return true if the set is a new personal record for the exercise
+     */
+    public boolean logSet(int exerciseId, float weight, int reps) {
+        // One-row PR check against the progress rollup; the first set of an exercise isn't a PR
+        ExerciseProgress progress = progressByExercise.get(exerciseId);
+        boolean personalRecord = progress != null && progress.isPersonalRecord(weight, reps);
+        if (progress != null) {
+            // Count the queued set until the rollup row catches up
+            progress.recordSet(weight, reps);
+        }
+
+        // Hand the set to the write-behind queue; sets saved in quick succession
+        // are written together in one transaction
+        writeQueue.enqueue(exerciseId, weight, reps);
+
+        // Reset reps counter for next set
+        ExerciseInput input = ExerciseInput.forExercise(inputs, exerciseId);
+        input.setSetsCompleted(input.getSetsCompleted() + 1);
+        input.setReps(0);
+        return personalRecord;
+    }
+
+    /**
+     * Don't leave sets waiting in the window when the user leaves the screen
+     */
+    public void flushSets() {
+        writeQueue.flush();
+    }
+
+    @Override
+    protected void onCleared() {
+        fatigue.getChanges().removeObserver(fatigueChanges);
+        favoriteProgress.removeObserver(progressChanges);
+        if (lastSetsLoad != null) {
+            lastSetsLoad.cancel(true);
+        }
+    }
 
-    public HomeViewModel() {
-        mText = new MutableLiveData<>();
-        mText.setValue("This is home fragment");
+    @NonNull
+    static SparseArray<SetDistribution> mergeByExercise(List<ExerciseDistribution> months) {
+        SparseArray<List<ExerciseDistribution>> monthsByExercise = new SparseArray<>();
+        for (ExerciseDistribution month : months) {
+            List<ExerciseDistribution> exerciseMonths = monthsByExercise.get(month.getExerciseId());
+            if (exerciseMonths == null) {
+                exerciseMonths = new ArrayList<>();
+                monthsByExercise.put(month.getExerciseId(), exerciseMonths);
+            }
+            exerciseMonths.add(month);
+        }
+        SparseArray<SetDistribution> byExercise = new SparseArray<>(monthsByExercise.size());
+        for (int i = 0; i < monthsByExercise.size(); i++) {
+            byExercise.put(monthsByExercise.keyAt(i), SetDistribution.merge(monthsByExercise.valueAt(i)));
+        }
+        return byExercise;
     }
 
-    public LiveData<String> getText() {
-        return mText;
+    /**
+     * Drafts as parallel arrays, so saving them costs four array copies instead of a Parcelable per card
+     */
+    @NonNull
+    static Bundle saveInputs(SparseArray<ExerciseInput> inputs) {
+        int size = inputs.size();
+        int[] ids = new int[size];
+        String[] weights = new String[size];
+        int[] reps = new int[size];
+        int[] sets = new int[size];
+        for (int i = 0; i < size; i++) {
+            ExerciseInput input = inputs.valueAt(i);
+            ids[i] = inputs.keyAt(i);
+            weights[i] = input.getWeightText();
+            reps[i] = input.getReps();
+            sets[i] = input.getSetsCompleted();
+        }
+        Bundle bundle = new Bundle();
+        bundle.putIntArray(KEY_IDS, ids);
+        bundle.putStringArray(KEY_WEIGHTS, weights);
+        bundle.putIntArray(KEY_REPS, reps);
+        bundle.putIntArray(KEY_SETS, sets);
+        return bundle;
+    }
+
+    static void restoreInputs(@Nullable Bundle bundle, SparseArray<ExerciseInput> inputs) {
+        if (bundle == null) return;
+        int[] ids = bundle.getIntArray(KEY_IDS);
+        String[] weights = bundle.getStringArray(KEY_WEIGHTS);
+        int[] reps = bundle.getIntArray(KEY_REPS);
+        int[] sets = bundle.getIntArray(KEY_SETS);
+        if (ids == null || weights == null || reps == null || sets == null) return;
+
+        for (int i = 0; i < ids.length; i++) {
+            ExerciseInput input = new ExerciseInput();
+            input.setWeightText(weights[i]);
+            input.setReps(reps[i]);
+            input.setSetsCompleted(sets[i]);
+            inputs.put(ids[i], input);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,221 @@
+package com.kanworks.buildbizeps.ui.home;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.inputmethod.EditorInfo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.model.SetDistribution;
+import com.kanworks.buildbizeps.databinding.ItemWorkoutExerciseBinding;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Recycled workout cards for the favorite exercises on Home. Input state lives in the
+ * ExerciseInput array, keyed by exercise id, so a recycled card shows what the user typed.
+ */
+public class WorkoutExerciseAdapter extends ListAdapter<Exercise, WorkoutExerciseAdapter.ExerciseViewHolder> {
+    
+    // Payload for a rebind of the input widgets only (after a save or a prefill)
+    private static final Object PAYLOAD_INPUT = new Object();
+    // Payload for a rebind of the distribution line only
+    private static final Object PAYLOAD_DISTRIBUTION = new Object();
+    
+    public interface Listener {
+        void onSaveSet(Exercise exercise, ExerciseInput input);
+        
+        void onRepsTapped();
+    }
+    
+    private static final DiffUtil.ItemCallback<Exercise> DIFF_CALLBACK = new DiffUtil.ItemCallback<Exercise>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Exercise oldItem, @NonNull Exercise newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull Exercise oldItem, @NonNull Exercise newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+    
+    private final SparseArray<ExerciseInput> inputs;
+    private final Listener listener;
+    @Nullable
+    private SparseArray<SetDistribution> distributions;
+    
+    public WorkoutExerciseAdapter(SparseArray<ExerciseInput> inputs, Listener listener) {
+        super(DIFF_CALLBACK);
+        this.inputs = inputs;
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+    
+    /**
+     * Rebind the input widgets of one exercise's card, if it is in the list
+     */
+    public void notifyInputChanged(int exerciseId) {
+        List<Exercise> exercises = getCurrentList();
+        for (int i = 0; i < exercises.size(); i++) {
+            if (exercises.get(i).getId() == exerciseId) {
+                notifyItemChanged(i, PAYLOAD_INPUT);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * New weight/rep distributions per exercise id; only the distribution lines rebind
+     */
+    public void setDistributions(@Nullable SparseArray<SetDistribution> distributions) {
+        this.distributions = distributions;
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_DISTRIBUTION);
+    }
+    
+    @NonNull
+    @Override
+    public ExerciseViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new ExerciseViewHolder(ItemWorkoutExerciseBinding.inflate(
+                LayoutInflater.from(parent.getContext()), parent, false));
+    }
+    
+    @Override
+    public void onBindViewHolder(@NonNull ExerciseViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+    
+    @Override
+    public void onBindViewHolder(@NonNull ExerciseViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            super.onBindViewHolder(holder, position, payloads);
+            return;
+        }
+        if (payloads.contains(PAYLOAD_INPUT)) {
+            holder.bindInput();
+        }
+        if (payloads.contains(PAYLOAD_DISTRIBUTION)) {
+            holder.bindDistribution();
+        }
+    }
+    
+    private static String getExerciseEmoji(Exercise exercise) {
+        String name = exercise.getName().toLowerCase();
+        if (name.contains("bicep")) return "💪";
+        if (name.contains("pullup") || name.contains("pull-up")) return "🏋️";
+        if (name.contains("pushup") || name.contains("push-up")) return "🔥";
+        if (name.contains("squat")) return "🦵";
+        if (name.contains("plank")) return "🏃";
+        return "🏋️"; // Default
+    }
+    
+    class ExerciseViewHolder extends RecyclerView.ViewHolder {
+        private final ItemWorkoutExerciseBinding binding;
+        private Exercise exercise;
+        private ExerciseInput input;
+        // Set while bind code writes the weight field, so the watcher ignores it
+        private boolean updatingWeight;
+        
+        ExerciseViewHolder(ItemWorkoutExerciseBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+            
+            binding.inputWeight.addTextChangedListener(new TextWatcher() {
+                @Override
+                public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+                
+                @Override
+                public void onTextChanged(CharSequence s, int start, int before, int count) {}
+                
+                @Override
+                public void afterTextChanged(Editable s) {
+                    if (updatingWeight || input == null) return;
+                    input.setWeightText(s.toString());
+                    updateSaveButton();
+                }
+            });
+            
+            // Hide keyboard when user presses "Done"
+            binding.inputWeight.setOnEditorActionListener((v, actionId, event) -> {
+                if (actionId == EditorInfo.IME_ACTION_DONE || actionId == EditorInfo.IME_ACTION_NEXT) {
+                    listener.onRepsTapped();
+                    return true;
+                }
+                return false;
+            });
+            
+            binding.btnRepsMinus.setOnClickListener(v -> changeReps(-1));
+            binding.btnRepsPlus.setOnClickListener(v -> changeReps(1));
+            binding.btnSaveSet.setOnClickListener(v -> {
+                if (exercise != null) {
+                    listener.onSaveSet(exercise, input);
+                }
+            });
+        }
+        
+        void bind(Exercise exercise) {
+            this.exercise = exercise;
+            this.input = ExerciseInput.forExercise(inputs, exercise.getId());
+            binding.textExerciseTitle.setText(getExerciseEmoji(exercise) + " " + exercise.getName());
+            bindInput();
+            bindDistribution();
+        }
+        
+        void bindDistribution() {
+            SetDistribution distribution = distributions != null && exercise != null
+                    ? distributions.get(exercise.getId()) : null;
+            if (distribution == null || distribution.isEmpty()) {
+                binding.textDistribution.setVisibility(View.GONE);
+                return;
+            }
+            int repsLow = distribution.getTypicalRepsLow();
+            int repsHigh = distribution.getTypicalRepsHigh();
+            String reps = repsLow == repsHigh ? repsLow + " reps" : repsLow + "–" + repsHigh + " reps";
+            String text = distribution.getP90Weight() > 0
+                    ? String.format(Locale.getDefault(), "Median %.1fkg · p90 %.1fkg · %s",
+                            distribution.getMedianWeight(), distribution.getP90Weight(), reps)
+                    : "Usually " + reps;
+            binding.textDistribution.setText(text);
+            binding.textDistribution.setVisibility(View.VISIBLE);
+        }
+        
+        void bindInput() {
+            binding.textSetsCompleted.setText("Sets completed: " + input.getSetsCompleted());
+            binding.textRepsCount.setText(String.valueOf(input.getReps()));
+            if (!binding.inputWeight.getText().toString().equals(input.getWeightText())) {
+                updatingWeight = true;
+                binding.inputWeight.setText(input.getWeightText());
+                updatingWeight = false;
+            }
+            updateSaveButton();
+        }
+        
+        private void changeReps(int delta) {
+            if (input == null) return;
+            // Clear focus from weight input when user interacts with reps buttons
+            listener.onRepsTapped();
+            input.setReps(input.getReps() + delta);
+            binding.textRepsCount.setText(String.valueOf(input.getReps()));
+            updateSaveButton();
+        }
+        
+        private void updateSaveButton() {
+            binding.btnSaveSet.setEnabled(input.canSave());
+        }
+    }
+}
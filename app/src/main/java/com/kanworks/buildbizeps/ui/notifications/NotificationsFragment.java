@@ -14,20 +14,28 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.navigation.Navigation;
 
+import com.kanworks.buildbizeps.R;
 import com.kanworks.buildbizeps.databinding.FragmentNotificationsBinding;
+import com.kanworks.buildbizeps.data.analytics.HistoryStore;
+import com.kanworks.buildbizeps.data.analytics.MuscleFatigue;
+import com.kanworks.buildbizeps.data.analytics.TrainingCalendar;
+import com.kanworks.buildbizeps.data.analytics.TrainingDays;
+import com.kanworks.buildbizeps.data.analytics.TrainingLoad;
 import com.kanworks.buildbizeps.data.database.FitnessDatabase;
 import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.repository.FitnessRepository;
+import com.kanworks.buildbizeps.ui.progress.ProgressViewModel;
 
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class NotificationsFragment extends Fragment {
 
     private FragmentNotificationsBinding binding;
+    private NotificationsViewModel notificationsViewModel;
     private FitnessDatabase database;
-    private ExecutorService executor;
+    private FitnessRepository repository;
     private LinearLayout exercisesContainer;
 
     public View onCreateView(@NonNull LayoutInflater inflater,
@@ -36,12 +44,13 @@ public class NotificationsFragment extends Fragment {
         binding = FragmentNotificationsBinding.inflate(inflater, container, false);
         View root = binding.getRoot();
         
-        // Initialize database and executor
-        database = FitnessDatabase.getDatabase(getContext());
-        executor = Executors.newSingleThreadExecutor();
+        // Writes go through the app-wide write lane and finish even if the view is gone
+        repository = FitnessRepository.getInstance(requireContext());
+        database = repository.getDatabase();
+        notificationsViewModel = new ViewModelProvider(this).get(NotificationsViewModel.class);
         
         setupUI();
-        loadExercises();
+        observeExercises();
         
         return root;
     }
@@ -51,48 +60,16 @@ public class NotificationsFragment extends Fragment {
         
         // Set up add exercise button
         binding.btnAddExercise.setOnClickListener(v -> showAddExerciseDialog());
-        
-        // Add default exercises if database is empty
-        initializeDefaultExercises();
-    }
-    
-    private void initializeDefaultExercises() {
-        executor.execute(() -> {
-            List<Exercise> exercises = database.exerciseDao().getAllExercises();
-            if (exercises.isEmpty()) {
-                // Add default exercises
-                Exercise biceps = new Exercise("Biceps Curls", "strength", "Arm exercise using dumbbells or barbells", "arms", false);
-                Exercise pullups = new Exercise("Pull-ups", "strength", "Upper body exercise using body weight", "back", false);
-                Exercise pushups = new Exercise("Push-ups", "strength", "Chest and arm exercise using body weight", "chest", true);
-                
-                // Mark first two as favorites by default
-                biceps.setFavorite(true);
-                pullups.setFavorite(true);
-                
-                database.exerciseDao().insertExercise(biceps);
-                database.exerciseDao().insertExercise(pullups);
-                database.exerciseDao().insertExercise(pushups);
-                
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> loadExercises());
-                }
-            }
-        });
     }
     
-    private void loadExercises() {
-        executor.execute(() -> {
-            List<Exercise> exercises = database.exerciseDao().getAllExercises();
-            
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> {
+    private void observeExercises() {
+        notificationsViewModel.getExercises()
+                .observe(getViewLifecycleOwner(), exercises -> {
                     exercisesContainer.removeAllViews();
                     for (Exercise exercise : exercises) {
                         addExerciseToUI(exercise);
                     }
                 });
-            }
-        });
     }
     
     private void addExerciseToUI(Exercise exercise) {
@@ -125,7 +102,7 @@ public class NotificationsFragment extends Fragment {
         favoriteSwitch.setChecked(exercise.isFavorite());
         favoriteSwitch.setText("Favorite");
         favoriteSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            executor.execute(() -> {
+            repository.write(() -> {
                 database.exerciseDao().updateFavoriteStatus(exercise.getId(), isChecked);
             });
         });
@@ -136,6 +113,14 @@ public class NotificationsFragment extends Fragment {
         layout.addView(textLayout);
         layout.addView(favoriteSwitch);
         
+        // Tap for the exercise's progress chart
+        layout.setOnClickListener(v -> {
+            Bundle args = new Bundle();
+            args.putInt(ProgressViewModel.ARG_EXERCISE_ID, exercise.getId());
+            args.putString(ProgressViewModel.ARG_EXERCISE_NAME, exercise.getName());
+            Navigation.findNavController(v).navigate(R.id.navigation_progress, args);
+        });
+        
         // Add long-press listener for delete functionality
         layout.setOnLongClickListener(v -> {
             showDeleteExerciseDialog(exercise);
@@ -150,17 +135,22 @@ public class NotificationsFragment extends Fragment {
         builder.setTitle("Delete Exercise")
                .setMessage("Are you sure you want to delete \"" + exercise.getName() + "\"?\n\nThis will also remove all workout history for this exercise.")
                .setPositiveButton("Delete", (dialog, which) -> {
-                   executor.execute(() -> {
+                   MuscleFatigue fatigue = MuscleFatigue.getInstance(requireContext());
+                   repository.write(() -> {
                        // First delete all exercise records for this exercise
                        database.exerciseRecordDao().deleteRecordsByExerciseId(exercise.getId());
                        // Then delete the exercise itself
                        database.exerciseDao().deleteExercise(exercise);
+                       HistoryStore.invalidate();
+                       TrainingCalendar.getInstance().invalidate();
+                       TrainingDays.invalidate();
+                       TrainingLoad.getInstance().invalidate();
+                       fatigue.invalidate();
                        
                        if (getActivity() != null) {
-                           getActivity().runOnUiThread(() -> {
-                               loadExercises();
-                               Toast.makeText(getContext(), "Exercise deleted", Toast.LENGTH_SHORT).show();
-                           });
+                           getActivity().runOnUiThread(() ->
+                               Toast.makeText(getContext(), "Exercise deleted", Toast.LENGTH_SHORT).show()
+                           );
                        }
                    });
                })
@@ -200,13 +190,12 @@ public class NotificationsFragment extends Fragment {
                    
                    if (!name.isEmpty()) {
                        Exercise newExercise = new Exercise(name, "strength", desc, muscle, true);
-                       executor.execute(() -> {
+                       repository.write(() -> {
                            database.exerciseDao().insertExercise(newExercise);
                            if (getActivity() != null) {
-                               getActivity().runOnUiThread(() -> {
-                                   loadExercises();
-                                   Toast.makeText(getContext(), "Exercise added!", Toast.LENGTH_SHORT).show();
-                               });
+                               getActivity().runOnUiThread(() ->
+                                   Toast.makeText(getContext(), "Exercise added!", Toast.LENGTH_SHORT).show()
+                               );
                            }
                        });
                    }
@@ -218,9 +207,6 @@ public class NotificationsFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
         binding = null;
     }
 }
\ No newline at end of file
@@ -1,19 +1,58 @@
 package com.kanworks.buildbizeps.ui.notifications;
 
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.Transformations;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.repository.FitnessRepository;
+
+import java.util.List;
+
+/**
+ * Exercise list of the settings screen, kept across configuration changes so a rotation
+ * rebuilds the rows from the last result instead of querying again.
+ */
+public class NotificationsViewModel extends AndroidViewModel {
+
+    private final FitnessRepository repository;
+    private final FitnessDatabase database;
+    private final LiveData<List<Exercise>> exercises;
+
+    public NotificationsViewModel(@NonNull Application application) {
+        super(application);
+        repository = FitnessRepository.getInstance(application);
+        database = repository.getDatabase();
+        exercises = Transformations.distinctUntilChanged(database.exerciseDao().observeAllExercises());
+        // Once per ViewModel rather than on every view creation
+        initializeDefaultExercises();
+    }
 
-public class NotificationsViewModel extends ViewModel {
+    private void initializeDefaultExercises() {
+        repository.write(() -> {
+            List<Exercise> exercises = database.exerciseDao().getAllExercises();
+            if (exercises.isEmpty()) {
+                // Add default exercises
+                Exercise biceps = new Exercise("Biceps Curls", "strength", "Arm exercise using dumbbells or barbells", "arms", false);
+                Exercise pullups = new Exercise("Pull-ups", "strength", "Upper body exercise using body weight", "back", false);
+                Exercise pushups = new Exercise("Push-ups", "strength", "Chest and arm exercise using body weight", "chest", true);
 
-    private final MutableLiveData<String> mText;
+                // Mark first two as favorites by default
+                biceps.setFavorite(true);
+                pullups.setFavorite(true);
 
-    public NotificationsViewModel() {
-        mText = new MutableLiveData<>();
-        mText.setValue("This is notifications fragment");
+                database.exerciseDao().insertExercise(biceps);
+                database.exerciseDao().insertExercise(pullups);
+                database.exerciseDao().insertExercise(pushups);
+            }
+        });
     }
 
-    public LiveData<String> getText() {
-        return mText;
+    public LiveData<List<Exercise>> getExercises() {
+        return exercises;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.kanworks.buildbizeps.ui.progress;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.kanworks.buildbizeps.R;
+import com.kanworks.buildbizeps.data.model.ChartPoints;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import java.util.Locale;
+
+/**
+ * Line chart of one progress metric over time. Draws ChartPoints as they come, already
+ * reduced to about one point per pixel column, so a redraw is one Path over a few hundred
+ * points whatever the length of the history.
+ */
+public class ProgressChartView extends View {
+
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint gridPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path line = new Path();
+    private final float labelHeight;
+    private final float defaultHeight;
+
+    @Nullable
+    private ChartPoints points;
+    private float minValue;
+    private float maxValue;
+
+    public ProgressChartView(Context context) {
+        this(context, null);
+    }
+
+    public ProgressChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        defaultHeight = 220 * density;
+
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(2 * density);
+        linePaint.setStrokeJoin(Paint.Join.ROUND);
+        linePaint.setColor(ContextCompat.getColor(context, R.color.primary));
+
+        gridPaint.setStrokeWidth(density);
+        gridPaint.setColor(ContextCompat.getColor(context, R.color.divider));
+
+        labelPaint.setTextSize(11 * getResources().getDisplayMetrics().scaledDensity);
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.on_surface_secondary));
+        labelHeight = labelPaint.getTextSize() * 1.5f;
+    }
+
+    /**
+     * Most points worth drawing: one per pixel column of the plot
+     */
+    public int getMaxPoints() {
+        return Math.max(getWidth() - getPaddingLeft() - getPaddingRight(), 0);
+    }
+
+    public void setPoints(@Nullable ChartPoints points) {
+        this.points = points;
+        if (points != null && !points.isEmpty()) {
+            minValue = Float.MAX_VALUE;
+            maxValue = -Float.MAX_VALUE;
+            for (int i = 0; i < points.size(); i++) {
+                minValue = Math.min(minValue, points.valueAt(i));
+                maxValue = Math.max(maxValue, points.valueAt(i));
+            }
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        setMeasuredDimension(width, resolveSize((int) defaultHeight, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        float left = getPaddingLeft();
+        float right = getWidth() - getPaddingRight();
+        float top = getPaddingTop() + labelHeight;
+        float bottom = getHeight() - getPaddingBottom() - labelHeight;
+        canvas.drawLine(left, top, right, top, gridPaint);
+        canvas.drawLine(left, bottom, right, bottom, gridPaint);
+        if (points == null || points.isEmpty()) return;
+
+        long firstDay = points.dayAt(0);
+        long lastDay = points.dayAt(points.size() - 1);
+        float daySpan = Math.max(lastDay - firstDay, 1);
+        float valueSpan = maxValue > minValue ? maxValue - minValue : 1;
+
+        line.rewind();
+        for (int i = 0; i < points.size(); i++) {
+            float x = points.size() == 1
+                    ? (left + right) / 2
+                    : left + (points.dayAt(i) - firstDay) / daySpan * (right - left);
+            float y = bottom - (points.valueAt(i) - minValue) / valueSpan * (bottom - top);
+            if (i == 0) {
+                line.moveTo(x, y);
+            } else {
+                line.lineTo(x, y);
+            }
+        }
+        canvas.drawPath(line, linePaint);
+
+        // Value range on the left, date range along the bottom
+        float textBelow = labelPaint.getTextSize() * 1.2f;
+        labelPaint.setTextAlign(Paint.Align.LEFT);
+        canvas.drawText(formatValue(maxValue), left, top - labelHeight / 4, labelPaint);
+        canvas.drawText(formatValue(minValue), left, bottom + textBelow, labelPaint);
+        labelPaint.setTextAlign(Paint.Align.RIGHT);
+        canvas.drawText(TrainingDay.format(firstDay) + " – " + TrainingDay.format(lastDay),
+                right, bottom + textBelow, labelPaint);
+    }
+
+    private static String formatValue(float value) {
+        return value >= 1000
+                ? String.format(Locale.getDefault(), "%.1fk", value / 1000)
+                : String.format(Locale.getDefault(), "%.1f", value);
+    }
+}
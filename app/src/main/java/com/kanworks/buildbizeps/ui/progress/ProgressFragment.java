@@ -0,0 +1,124 @@
+package com.kanworks.buildbizeps.ui.progress;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.kanworks.buildbizeps.R;
+import com.kanworks.buildbizeps.data.model.ChartPoints;
+import com.kanworks.buildbizeps.data.model.ExerciseTrend;
+import com.kanworks.buildbizeps.data.repository.ProgressChartLoader;
+import com.kanworks.buildbizeps.databinding.FragmentProgressBinding;
+
+import java.util.Locale;
+
+/**
+ * Progress chart of one exercise: top-set weight, estimated one-rep max or volume per day,
+ * week or month. Opened from the exercise list with ProgressViewModel's arguments.
+ */
+public class ProgressFragment extends Fragment {
+
+    private FragmentProgressBinding binding;
+    private ProgressViewModel progressViewModel;
+
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             ViewGroup container, Bundle savedInstanceState) {
+
+        binding = FragmentProgressBinding.inflate(inflater, container, false);
+        progressViewModel = new ViewModelProvider(this).get(ProgressViewModel.class);
+
+        binding.textProgressTitle.setText(progressViewModel.getExerciseName());
+        setupToggles();
+        // Reduce to the plot's width once it is known, and again if it changes
+        binding.progressChart.addOnLayoutChangeListener((v, left, top, right, bottom,
+                                                         oldLeft, oldTop, oldRight, oldBottom) ->
+                progressViewModel.setMaxPoints(binding.progressChart.getMaxPoints()));
+        progressViewModel.getPoints().observe(getViewLifecycleOwner(), this::showPoints);
+        progressViewModel.getTrend().observe(getViewLifecycleOwner(), this::showTrend);
+
+        return binding.getRoot();
+    }
+
+    private void setupToggles() {
+        Integer zoom = progressViewModel.getZoom().getValue();
+        binding.zoomToggle.check(zoomButtonId(zoom != null ? zoom : ProgressChartLoader.ZOOM_WEEK));
+        binding.zoomToggle.addOnButtonCheckedListener((group, checkedId, isChecked) -> {
+            if (!isChecked) return;
+            if (checkedId == R.id.btn_zoom_day) {
+                progressViewModel.selectZoom(ProgressChartLoader.ZOOM_DAY);
+            } else if (checkedId == R.id.btn_zoom_month) {
+                progressViewModel.selectZoom(ProgressChartLoader.ZOOM_MONTH);
+            } else {
+                progressViewModel.selectZoom(ProgressChartLoader.ZOOM_WEEK);
+            }
+        });
+
+        Integer metric = progressViewModel.getMetric().getValue();
+        binding.metricToggle.check(metricButtonId(metric != null ? metric : ProgressChartLoader.METRIC_TOP_WEIGHT));
+        binding.metricToggle.addOnButtonCheckedListener((group, checkedId, isChecked) -> {
+            if (!isChecked) return;
+            if (checkedId == R.id.btn_metric_one_rep_max) {
+                progressViewModel.selectMetric(ProgressChartLoader.METRIC_ONE_REP_MAX);
+            } else if (checkedId == R.id.btn_metric_volume) {
+                progressViewModel.selectMetric(ProgressChartLoader.METRIC_VOLUME);
+            } else {
+                progressViewModel.selectMetric(ProgressChartLoader.METRIC_TOP_WEIGHT);
+            }
+        });
+    }
+
+    private static int zoomButtonId(int zoom) {
+        switch (zoom) {
+            case ProgressChartLoader.ZOOM_DAY: return R.id.btn_zoom_day;
+            case ProgressChartLoader.ZOOM_MONTH: return R.id.btn_zoom_month;
+            default: return R.id.btn_zoom_week;
+        }
+    }
+
+    private static int metricButtonId(int metric) {
+        switch (metric) {
+            case ProgressChartLoader.METRIC_ONE_REP_MAX: return R.id.btn_metric_one_rep_max;
+            case ProgressChartLoader.METRIC_VOLUME: return R.id.btn_metric_volume;
+            default: return R.id.btn_metric_weight;
+        }
+    }
+
+    private void showPoints(ChartPoints points) {
+        binding.progressChart.setPoints(points);
+        if (points.isEmpty()) {
+            binding.textProgressCaption.setText("No sets recorded yet");
+        } else if (points.size() < points.getBucketCount()) {
+            binding.textProgressCaption.setText(String.format(Locale.getDefault(),
+                    "%d periods, %d points shown", points.getBucketCount(), points.size()));
+        } else {
+            binding.textProgressCaption.setText(String.format(Locale.getDefault(),
+                    "%d periods", points.getBucketCount()));
+        }
+    }
+
+    private void showTrend(ExerciseTrend trend) {
+        if (trend == null) {
+            binding.textProgressTrend.setVisibility(View.GONE);
+            return;
+        }
+        String text = String.format(Locale.getDefault(), "🏆 Top set %.1f kg · est. 1RM %.1f kg",
+                trend.getTopWeight(), trend.getBestOneRepMax());
+        double change = trend.getVolumeChange();
+        if (!Double.isNaN(change)) {
+            text += String.format(Locale.getDefault(), "\n📈 Volume %+.0f%% on the previous 28 days", change * 100);
+        }
+        binding.textProgressTrend.setText(text);
+        binding.textProgressTrend.setVisibility(View.VISIBLE);
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        binding = null;
+    }
+}
@@ -0,0 +1,184 @@
+package com.kanworks.buildbizeps.ui.progress;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.room.InvalidationTracker;
+
+import com.kanworks.buildbizeps.data.analytics.HistoryStore;
+import com.kanworks.buildbizeps.data.model.ChartPoints;
+import com.kanworks.buildbizeps.data.model.ExerciseTrend;
+import com.kanworks.buildbizeps.data.repository.FitnessRepository;
+import com.kanworks.buildbizeps.data.repository.ProgressChartLoader;
+
+import java.util.Set;
+
+/**
+ * State of the progress chart screen: the exercise from the navigation arguments, the chosen
+ * zoom and metric, and the drawn line. The loader's per-zoom cache lives here, so rotating
+ * or flipping between zoom levels redraws without a query. The records and volume trend
+ * above the chart are read off the exercise's columns in the app-wide HistoryStore.
+ */
+public class ProgressViewModel extends AndroidViewModel {
+
+    private static final String TAG = "ProgressViewModel";
+
+    public static final String ARG_EXERCISE_ID = "exerciseId";
+    public static final String ARG_EXERCISE_NAME = "exerciseName";
+    private static final String KEY_ZOOM = "zoom";
+    private static final String KEY_METRIC = "metric";
+
+    private final FitnessRepository repository;
+    private final ProgressChartLoader loader;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final MutableLiveData<Integer> zoom;
+    private final MutableLiveData<Integer> metric;
+    private final MutableLiveData<ChartPoints> points = new MutableLiveData<>();
+    private final MutableLiveData<ExerciseTrend> trend = new MutableLiveData<>();
+    private final String exerciseName;
+
+    // Main thread only; a load that finishes after a newer one started is dropped
+    private int loadGeneration;
+    private int trendGeneration;
+    private int maxPoints;
+
+    private final InvalidationTracker.Observer recordsObserver =
+            new InvalidationTracker.Observer("exercise_records") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    loader.invalidate();
+                    mainHandler.post(() -> {
+                        load();
+                        loadTrend();
+                    });
+                }
+            };
+
+    public ProgressViewModel(@NonNull Application application, @NonNull SavedStateHandle state) {
+        super(application);
+        repository = FitnessRepository.getInstance(application);
+        Integer exerciseId = state.get(ARG_EXERCISE_ID);
+        String name = state.get(ARG_EXERCISE_NAME);
+        exerciseName = name != null ? name : "";
+        loader = new ProgressChartLoader(repository.getDatabase().exerciseRecordDao(),
+                exerciseId != null ? exerciseId : 0);
+        zoom = state.getLiveData(KEY_ZOOM, ProgressChartLoader.ZOOM_WEEK);
+        metric = state.getLiveData(KEY_METRIC, ProgressChartLoader.METRIC_TOP_WEIGHT);
+
+        repository.getDatabase().getInvalidationTracker().addObserver(recordsObserver);
+        loadTrend();
+    }
+
+    public String getExerciseName() {
+        return exerciseName;
+    }
+
+    /**
+     * ProgressChartLoader.ZOOM_DAY, ZOOM_WEEK or ZOOM_MONTH
+     */
+    public LiveData<Integer> getZoom() {
+        return zoom;
+    }
+
+    /**
+     * ProgressChartLoader.METRIC_TOP_WEIGHT, METRIC_ONE_REP_MAX or METRIC_VOLUME
+     */
+    public LiveData<Integer> getMetric() {
+        return metric;
+    }
+
+    /**
+     * The line for the current zoom and metric; only ever set for the latest choice
+     */
+    public LiveData<ChartPoints> getPoints() {
+        return points;
+    }
+
+    /**
+     * Records and recent volume trend of the exercise, or null before its first set
+     */
+    public LiveData<ExerciseTrend> getTrend() {
+        return trend;
+    }
+
+    @MainThread
+    public void selectZoom(int level) {
+        Integer current = zoom.getValue();
+        if (current != null && current == level) return;
+        zoom.setValue(level);
+        load();
+    }
+
+    @MainThread
+    public void selectMetric(int kind) {
+        Integer current = metric.getValue();
+        if (current != null && current == kind) return;
+        metric.setValue(kind);
+        load();
+    }
+
+    /**
+     * The chart's usable width changed, e.g. on first layout or rotation
+     */
+    @MainThread
+    public void setMaxPoints(int maxPoints) {
+        if (maxPoints <= 0 || maxPoints == this.maxPoints) return;
+        this.maxPoints = maxPoints;
+        load();
+    }
+
+    @MainThread
+    private void load() {
+        // Nothing to draw into before the chart is laid out
+        if (maxPoints <= 0) return;
+        int generation = ++loadGeneration;
+        int zoomLevel = zoom.getValue() != null ? zoom.getValue() : ProgressChartLoader.ZOOM_WEEK;
+        int metricKind = metric.getValue() != null ? metric.getValue() : ProgressChartLoader.METRIC_TOP_WEIGHT;
+        int width = maxPoints;
+        repository.read(() -> {
+            try {
+                ChartPoints line = loader.load(zoomLevel, metricKind, width);
+                mainHandler.post(() -> {
+                    if (generation == loadGeneration) {
+                        points.setValue(line);
+                    }
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading progress of exercise " + loader.getExerciseId(), e);
+            }
+        });
+    }
+
+    @MainThread
+    private void loadTrend() {
+        int generation = ++trendGeneration;
+        int exerciseId = loader.getExerciseId();
+        repository.read(() -> {
+            try {
+                ExerciseTrend loaded = HistoryStore.getInstance(getApplication())
+                        .getTrend(exerciseId, System.currentTimeMillis());
+                mainHandler.post(() -> {
+                    if (generation == trendGeneration) {
+                        trend.setValue(loaded);
+                    }
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading trend of exercise " + exerciseId, e);
+            }
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        repository.getDatabase().getInvalidationTracker().removeObserver(recordsObserver);
+    }
+}
@@ -0,0 +1,79 @@
+package com.kanworks.buildbizeps.utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Helpers for the local "training day" bucket.
+ * A training day is the number of days since 1970-01-01 in the device's time zone,
+ * which is what gets persisted (and indexed) as epochDay on records and sessions.
+ */
+public final class TrainingDay {
+
+    private TrainingDay() {}
+
+    public static long fromMillis(long millis) {
+        return Instant.ofEpochMilli(millis)
+                .atZone(ZoneId.systemDefault())
+                .toLocalDate()
+                .toEpochDay();
+    }
+
+    public static long fromDate(Date date) {
+        return fromMillis(date.getTime());
+    }
+
+    public static long today() {
+        return fromMillis(System.currentTimeMillis());
+    }
+
+    /**
+     * Local midnight at the start of the given training day, in epoch millis
+     */
+    public static long startOfDayMillis(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay)
+                .atStartOfDay(ZoneId.systemDefault())
+                .toInstant()
+                .toEpochMilli();
+    }
+
+    /**
+     * Training day of the first of the month the given day falls in
+     */
+    public static long firstOfMonth(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+    }
+
+    /**
+     * Training day the given day's week starts on, using the locale's first day of the week
+     */
+    public static long firstOfWeek(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay)
+                .with(TemporalAdjusters.previousOrSame(WeekFields.of(Locale.getDefault()).getFirstDayOfWeek()))
+                .toEpochDay();
+    }
+
+    public static long firstOfYear(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).withDayOfYear(1).toEpochDay();
+    }
+
+    public static int daysInMonth(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).lengthOfMonth();
+    }
+
+    public static int daysInYear(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).lengthOfYear();
+    }
+
+    /**
+     * Format as yyyy-MM-dd, matching the date label used on the dashboard
+     */
+    public static String format(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+}
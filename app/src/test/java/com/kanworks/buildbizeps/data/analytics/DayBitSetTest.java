@@ -0,0 +1,108 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the word-level DayBitSet operations against a plain set of days
+ */
+public class DayBitSetTest {
+
+    // Around 2024, well into the word array
+    private static final long BASE = 19_700;
+
+    @Test
+    public void testSetClearAndCount() {
+        DayBitSet days = new DayBitSet();
+        assertTrue(days.set(BASE));
+        assertFalse(days.set(BASE));
+        assertTrue(days.set(BASE + 63));
+        assertTrue(days.set(BASE + 64));
+        assertEquals(3, days.cardinality());
+        assertEquals(BASE + 64, days.last());
+
+        assertTrue(days.clear(BASE + 63));
+        assertFalse(days.clear(BASE + 63));
+        assertEquals(2, days.count(BASE, BASE + 64));
+        assertEquals(1, days.count(BASE + 1, BASE + 1000));
+        assertEquals(0, days.count(BASE + 1, BASE + 63));
+    }
+
+    @Test
+    public void testRunsAcrossWordBoundaries() {
+        DayBitSet days = new DayBitSet();
+        // 130 days in a row spans three words
+        for (long day = BASE; day < BASE + 130; day++) {
+            days.set(day);
+        }
+        days.set(BASE + 200);
+        days.set(BASE + 201);
+
+        assertEquals(130, days.runEndingAt(BASE + 129));
+        assertEquals(70, days.runEndingAt(BASE + 69));
+        assertEquals(2, days.runEndingAt(BASE + 201));
+        assertEquals(0, days.runEndingAt(BASE + 130));
+        assertEquals(130, days.longestRun());
+    }
+
+    @Test
+    public void testMatchesNaiveCountsOnRandomDays() {
+        Random random = new Random(42);
+        DayBitSet days = new DayBitSet();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 600; i++) {
+            long day = BASE + random.nextInt(1000);
+            days.set(day);
+            expected.add(day);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            long first = BASE - 10 + random.nextInt(1020);
+            long last = first + random.nextInt(120);
+            assertEquals(expected.subSet(first, true, last, true).size(), days.count(first, last));
+
+            long end = BASE + random.nextInt(1000);
+            int run = 0;
+            while (expected.contains(end - run)) run++;
+            assertEquals(run, days.runEndingAt(end));
+        }
+
+        int longest = 0;
+        int run = 0;
+        long previous = Long.MIN_VALUE;
+        long sum = 0;
+        for (long day : expected) {
+            run = day == previous + 1 ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            previous = day;
+            sum += day;
+        }
+        assertEquals(longest, days.longestRun());
+        assertEquals(sum, days.sum());
+    }
+
+    @Test
+    public void testRoundTripsThroughStream() throws IOException {
+        DayBitSet days = new DayBitSet();
+        days.set(BASE);
+        days.set(BASE + 500);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        days.writeTo(new DataOutputStream(bytes));
+        DayBitSet read = DayBitSet.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(2, read.cardinality());
+        assertTrue(read.get(BASE));
+        assertTrue(read.get(BASE + 500));
+        assertEquals(BASE + 500, read.last());
+    }
+}
@@ -0,0 +1,167 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseDistribution;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.SetDistribution;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that exercise_distribution follows logged, edited and deleted sets
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ExerciseDistributionsTest {
+
+    private FitnessDatabase db;
+    private int bicepsId;
+    private long thisMonth;
+    private long lastMonth;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        thisMonth = TrainingDay.firstOfMonth(TrainingDay.today());
+        lastMonth = TrainingDay.firstOfMonth(thisMonth - 1);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private ExerciseRecord set(long epochDay, float weight, int reps) {
+        ExerciseRecord record = new ExerciseRecord(bicepsId, 0, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(new Date(TrainingDay.startOfDayMillis(epochDay) + 12 * 3600_000L));
+        return record;
+    }
+
+    private void logSets(long epochDay, float... weights) {
+        List<ExerciseRecord> records = new ArrayList<>();
+        for (int i = 0; i < weights.length; i++) {
+            ExerciseRecord record = set(epochDay, weights[i], 8 + i);
+            // Distinct timestamps, or logSets() takes them for replays
+            record.setTimestamp(new Date(record.getTimestamp().getTime() + i));
+            records.add(record);
+        }
+        db.workoutLogDao().logSets(0, records);
+    }
+
+    @Test
+    public void testLoggedSetsGoToTheirMonth() {
+        logSets(lastMonth, 20f, 25f);
+        logSets(thisMonth, 30f, 35f, 40f);
+
+        List<ExerciseDistribution> rows = db.exerciseDao().getDistributions(bicepsId, lastMonth, thisMonth);
+        assertEquals(2, rows.size());
+
+        SetDistribution current = ExerciseDistributions.load(db, bicepsId, thisMonth, thisMonth);
+        assertEquals(3, current.getSetCount());
+        assertEquals(35f, current.getMedianWeight(), 0.001f);
+
+        // Both months merged, without reading exercise_records
+        SetDistribution both = ExerciseDistributions.load(db, bicepsId, lastMonth, thisMonth);
+        assertEquals(5, both.getSetCount());
+        assertEquals(30f, both.getMedianWeight(), 0.001f);
+        assertEquals(0.4, both.getWeightRank(30f), 1e-9);
+    }
+
+    @Test
+    public void testSingleLoggedSetIsCounted() {
+        db.workoutLogDao().logSet(0, bicepsId, 22.5f, 10, new Date());
+
+        SetDistribution current = ExerciseDistributions.load(db, bicepsId, thisMonth, thisMonth);
+        assertEquals(1, current.getSetCount());
+        assertEquals(10, current.getTypicalRepsLow());
+    }
+
+    @Test
+    public void testClearedDayRebuildsItsMonth() {
+        logSets(thisMonth, 30f, 35f);
+        logSets(thisMonth + 1, 50f);
+        logSets(lastMonth, 20f);
+
+        db.workoutLogDao().clearDay(thisMonth + 1);
+
+        SetDistribution current = ExerciseDistributions.load(db, bicepsId, thisMonth, thisMonth);
+        assertEquals(2, current.getSetCount());
+        assertEquals(35f, current.getP90Weight(), 0.001f);
+        // Other months are untouched
+        assertEquals(1, ExerciseDistributions.load(db, bicepsId, lastMonth, lastMonth).getSetCount());
+        // Its session went in the same transaction
+        assertEquals(2, db.workoutSessionDao().getAllWorkoutSessions().size());
+    }
+
+    @Test
+    public void testEditedAndDeletedRecordsRebuildTheirMonths() {
+        logSets(thisMonth, 30f, 35f, 40f);
+        logSets(lastMonth, 20f);
+        List<ExerciseRecord> records = db.exerciseRecordDao().getRecordsByDate(thisMonth);
+
+        ExerciseRecord heaviest = records.get(2);
+        assertEquals(40f, heaviest.getWeight(), 0f);
+        heaviest.setWeight(32.5f);
+        db.workoutLogDao().editRecord(heaviest);
+        SetDistribution current = ExerciseDistributions.load(db, bicepsId, thisMonth, thisMonth);
+        assertEquals(3, current.getSetCount());
+        assertEquals(35f, current.getP90Weight(), 0.001f);
+
+        // Moved back a month: it leaves this month's row and joins last month's
+        ExerciseRecord moved = records.get(0);
+        moved.setTimestamp(new Date(TrainingDay.startOfDayMillis(lastMonth) + 12 * 3600_000L));
+        db.workoutLogDao().editRecord(moved);
+        assertEquals(2, ExerciseDistributions.load(db, bicepsId, thisMonth, thisMonth).getSetCount());
+        assertEquals(2, ExerciseDistributions.load(db, bicepsId, lastMonth, lastMonth).getSetCount());
+
+        db.workoutLogDao().deleteRecord(records.get(1));
+        current = ExerciseDistributions.load(db, bicepsId, thisMonth, thisMonth);
+        assertEquals(1, current.getSetCount());
+        assertEquals(32.5f, current.getMedianWeight(), 0.001f);
+    }
+
+    @Test
+    public void testRebuildAllMatchesIncrementalRows() {
+        logSets(lastMonth, 20f, 25f, 27.5f);
+        logSets(thisMonth, 30f);
+        float median = ExerciseDistributions.load(db, bicepsId, lastMonth, thisMonth).getMedianWeight();
+
+        ExerciseDistributions.rebuildAll(db.getOpenHelper().getWritableDatabase());
+
+        SetDistribution rebuilt = ExerciseDistributions.load(db, bicepsId, lastMonth, thisMonth);
+        assertEquals(4, rebuilt.getSetCount());
+        assertEquals(median, rebuilt.getMedianWeight(), 0f);
+    }
+
+    @Test
+    public void testDeletedExerciseDropsItsRows() {
+        logSets(thisMonth, 30f);
+        db.workoutLogDao().clearAll();
+        assertTrue(db.exerciseDao().getDistributions(bicepsId, lastMonth, thisMonth).isEmpty());
+
+        logSets(thisMonth + 1, 30f);
+        db.exerciseDao().deleteExercise(db.exerciseDao().getExerciseById(bicepsId));
+        assertTrue(db.exerciseDao().getDistributions(bicepsId, lastMonth, thisMonth).isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the columnar ExerciseSeries
+ */
+public class ExerciseSeriesTest {
+
+    @Test
+    public void testAppendGrowsPastCapacity() {
+        ExerciseSeries series = new ExerciseSeries(1, 0);
+        for (int i = 0; i < 100; i++) {
+            series.append(i * 1000L, 20f + i, 10, 1);
+        }
+
+        assertEquals(100, series.size());
+        assertEquals(99_000L, series.timestampAt(99));
+        assertEquals(119f, series.weightAt(99), 0f);
+    }
+
+    @Test
+    public void testOutOfOrderAppendKeepsTimestampOrder() {
+        ExerciseSeries series = new ExerciseSeries(1, 4);
+        series.append(1000L, 20f, 10, 1);
+        series.append(3000L, 30f, 8, 1);
+        series.append(2000L, 25f, 9, 1);
+
+        assertEquals(2000L, series.timestampAt(1));
+        assertEquals(25f, series.weightAt(1), 0f);
+        assertEquals(9, series.repsAt(1));
+        assertEquals(3000L, series.timestampAt(2));
+    }
+
+    @Test
+    public void testIndexAtOrAfter() {
+        ExerciseSeries series = new ExerciseSeries(1, 4);
+        series.append(1000L, 20f, 10, 1);
+        series.append(2000L, 20f, 10, 1);
+        series.append(2000L, 20f, 10, 1);
+        series.append(3000L, 20f, 10, 1);
+
+        assertEquals(0, series.indexAtOrAfter(0L));
+        assertEquals(1, series.indexAtOrAfter(2000L));
+        assertEquals(3, series.indexAtOrAfter(2500L));
+        assertEquals(4, series.indexAtOrAfter(4000L));
+    }
+
+    @Test
+    public void testAggregates() {
+        ExerciseSeries series = new ExerciseSeries(1, 4);
+        series.append(1000L, 100f, 1, 1);
+        series.append(2000L, 90f, 6, 1);
+        series.append(3000L, 50f, 10, 2);
+
+        assertEquals(100f, series.maxWeight(), 0f);
+        // 90 * (1 + 6 / 30) = 108 beats the 100 single
+        assertEquals(108.0, series.bestEstimatedOneRepMax(), 0.001);
+        assertEquals(90 * 6 + 2 * 10 * 50, series.volumeBetween(2000L, 4000L), 0.001);
+        assertEquals(100, series.volumeBetween(0L, 2000L), 0.001);
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        ExerciseSeries series = new ExerciseSeries(1, 4);
+        series.append(1000L, 20f, 10, 1);
+        ExerciseSeries copy = series.copy();
+        series.append(2000L, 25f, 8, 1);
+
+        assertEquals(1, copy.size());
+        assertEquals(2, series.size());
+        assertEquals(copy.size() * 20L, copy.footprintBytes());
+    }
+}
@@ -0,0 +1,128 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.ExerciseTrend;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the app-wide HistoryStore holds every committed set exactly once
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HistoryStoreTest {
+
+    private static final long DAY = 24 * 3600_000L;
+
+    private FitnessDatabase db;
+    private int bicepsId;
+    private int sessionId;
+    private long now;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date()));
+        now = System.currentTimeMillis();
+        HistoryStore.invalidate();
+    }
+
+    @After
+    public void tearDown() {
+        HistoryStore.invalidate();
+        db.close();
+    }
+
+    private ExerciseRecord insertSet(long timestamp, float weight, int reps) {
+        ExerciseRecord record = new ExerciseRecord(bicepsId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(new Date(timestamp));
+        record.setId((int) db.exerciseRecordDao().insertExerciseRecord(record));
+        return record;
+    }
+
+    @Test
+    public void testAppendsAtOrBelowTheLoadedIdAreSkipped() {
+        ExerciseRecord loaded = insertSet(now - DAY, 20f, 10);
+        HistoryStore store = HistoryStore.getInstance(db);
+        assertEquals(1, store.getSetCount());
+
+        // The write queue's callback for a batch the load already read
+        HistoryStore.onSetsWritten(Collections.singletonList(loaded));
+        assertEquals(1, store.getSetCount());
+
+        ExerciseRecord next = insertSet(now, 22.5f, 8);
+        HistoryStore.onSetsWritten(Collections.singletonList(next));
+        assertEquals(2, store.getSetCount());
+        assertEquals(next.getId(), store.getLoadedThroughId());
+
+        // A reader catching up afterwards doesn't add it again
+        assertSame(store, HistoryStore.getInstance(db));
+        assertEquals(2, store.getSetCount());
+    }
+
+    @Test
+    public void testSetsCommittedWithoutTheCallbackAreCaughtUp() {
+        insertSet(now - DAY, 20f, 10);
+        HistoryStore store = HistoryStore.getInstance(db);
+
+        // Committed while the store was loading, so its callback found no store to append to
+        insertSet(now, 25f, 6);
+        assertEquals(2, HistoryStore.getInstance(db).getSetCount());
+        assertEquals(25f, store.getSeries(bicepsId).maxWeight(), 0f);
+    }
+
+    @Test
+    public void testLoadFinishingAfterInvalidateIsDiscarded() {
+        insertSet(now - DAY, 20f, 10);
+        int startedAt = HistoryStore.currentGeneration();
+        HistoryStore stale = HistoryStore.load(db.getOpenHelper().getReadableDatabase());
+
+        // Records deleted while that load was running
+        db.exerciseRecordDao().deleteAllRecords();
+        HistoryStore.invalidate();
+
+        assertNull(HistoryStore.publish(stale, startedAt));
+        HistoryStore store = HistoryStore.getInstance(db);
+        assertNotSame(stale, store);
+        assertEquals(0, store.getSetCount());
+    }
+
+    @Test
+    public void testTrendScansTheColumns() {
+        insertSet(now - 40 * DAY, 20f, 10);
+        insertSet(now - 30 * DAY, 30f, 1);
+        insertSet(now - DAY, 25f, 10);
+        insertSet(now, 25f, 10);
+
+        ExerciseTrend trend = HistoryStore.getInstance(db).getTrend(bicepsId, now);
+        assertEquals(4, trend.getSetCount());
+        assertEquals(30f, trend.getTopWeight(), 0f);
+        assertEquals(25 * (1 + 10 / 30.0), trend.getBestOneRepMax(), 1e-6);
+        assertEquals(500.0, trend.getRecentVolume(), 1e-6);
+        assertEquals(230.0, trend.getPreviousVolume(), 1e-6);
+        assertEquals(500.0 / 230.0 - 1, trend.getVolumeChange(), 1e-9);
+
+        assertNull(HistoryStore.getInstance(db).getTrend(bicepsId + 1, now));
+    }
+}
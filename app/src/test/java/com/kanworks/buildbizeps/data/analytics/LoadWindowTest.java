@@ -0,0 +1,116 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import com.kanworks.buildbizeps.data.model.WorkloadSnapshot;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the ring-buffer windows against sums recomputed from a plain per-day history
+ */
+public class LoadWindowTest {
+
+    private static final long START = 20_000;
+
+    @Test
+    public void testAcuteAndChronicSums() {
+        LoadWindow window = new LoadWindow(START);
+        window.add(START, 3, 300);
+        window.add(START - 6, 2, 100);
+        window.add(START - 7, 4, 400);
+        window.add(START - 27, 1, 50);
+        // Already out of the 28 days
+        window.add(START - 28, 10, 1000);
+
+        WorkloadSnapshot load = window.snapshot();
+        assertEquals(5, load.getAcuteSets());
+        assertEquals(400, load.getAcuteTonnage(), 0.001);
+        assertEquals(10, load.getChronicSets());
+        assertEquals(850, load.getChronicTonnage(), 0.001);
+    }
+
+    @Test
+    public void testAdvanceDropsOldDays() {
+        LoadWindow window = new LoadWindow(START);
+        window.add(START, 3, 300);
+        window.advanceTo(START + 7);
+
+        WorkloadSnapshot load = window.snapshot();
+        assertEquals(0, load.getAcuteSets());
+        assertEquals(3, load.getChronicSets());
+
+        window.advanceTo(START + 28);
+        assertEquals(0, window.snapshot().getChronicSets());
+    }
+
+    @Test
+    public void testLongGapClearsEverything() {
+        LoadWindow window = new LoadWindow(START);
+        for (int day = 0; day < 28; day++) {
+            window.add(START - day, 1, 10);
+        }
+        window.add(START + 365, 2, 20);
+
+        WorkloadSnapshot load = window.snapshot();
+        assertEquals(START + 365, load.getEpochDay());
+        assertEquals(2, load.getChronicSets());
+        assertEquals(20, load.getChronicTonnage(), 0.001);
+    }
+
+    @Test
+    public void testMatchesRecomputedSumsOverRandomHistory() {
+        Random random = new Random(7);
+        int days = 200;
+        int[] sets = new int[days];
+        double[] tonnage = new double[days];
+        LoadWindow window = new LoadWindow(START);
+
+        for (int day = 0; day < days; day++) {
+            // Some rest days, some late entries for the day before
+            int count = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(5);
+            for (int i = 0; i < count; i++) {
+                int target = day > 0 && random.nextInt(10) == 0 ? day - 1 : day;
+                double t = 10 + random.nextInt(100) * 2.5;
+                sets[target]++;
+                tonnage[target] += t;
+                window.add(START + target, 1, t);
+            }
+            window.advanceTo(START + day);
+
+            WorkloadSnapshot load = window.snapshot();
+            int acuteSets = 0;
+            int chronicSets = 0;
+            double acuteTonnage = 0;
+            double chronicTonnage = 0;
+            for (int age = 0; age < 28 && day - age >= 0; age++) {
+                chronicSets += sets[day - age];
+                chronicTonnage += tonnage[day - age];
+                if (age < 7) {
+                    acuteSets += sets[day - age];
+                    acuteTonnage += tonnage[day - age];
+                }
+            }
+            assertEquals(acuteSets, load.getAcuteSets());
+            assertEquals(chronicSets, load.getChronicSets());
+            assertEquals(acuteTonnage, load.getAcuteTonnage(), 0.01);
+            assertEquals(chronicTonnage, load.getChronicTonnage(), 0.01);
+        }
+    }
+
+    @Test
+    public void testRatioComparesWeekWithAverageWeek() {
+        LoadWindow window = new LoadWindow(START);
+        // 100 kg every week for four weeks, then a 200 kg week
+        for (int week = 1; week < 4; week++) {
+            window.add(START - 7 * week, 1, 100);
+        }
+        window.add(START, 2, 200);
+
+        // Chronic 500 kg over four weeks is 125 a week
+        assertEquals(200 / 125.0, window.snapshot().getRatio(), 0.001);
+        assertTrue(Double.isNaN(new LoadWindow(START).snapshot().getRatio()));
+    }
+}
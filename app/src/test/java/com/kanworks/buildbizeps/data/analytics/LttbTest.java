@@ -0,0 +1,69 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the LTTB downsampler keeps the point budget, the ends and the peaks
+ */
+public class LttbTest {
+
+    @Test
+    public void testKeepsEveryPointUnderTheThreshold() {
+        long[] x = {1, 2, 3, 4};
+        float[] y = {5, 1, 7, 2};
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.select(x, y, 10));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.select(x, y, 4));
+        assertEquals(0, Lttb.select(new long[0], new float[0], 10).length);
+    }
+
+    @Test
+    public void testReducesToThresholdKeepingEnds() {
+        int n = 5000;
+        long[] x = new long[n];
+        float[] y = new float[n];
+        Random random = new Random(3);
+        for (int i = 0; i < n; i++) {
+            x[i] = 19_000 + i;
+            y[i] = 50 + random.nextFloat() * 10;
+        }
+
+        int[] kept = Lttb.select(x, y, 300);
+
+        assertEquals(300, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(n - 1, kept[kept.length - 1]);
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+    }
+
+    @Test
+    public void testKeepsPeaksAndDips() {
+        int n = 2000;
+        long[] x = new long[n];
+        float[] y = new float[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i;
+            y[i] = 60;
+        }
+        // A one-day PR and a deload day in otherwise flat training
+        y[777] = 100;
+        y[1500] = 20;
+
+        int[] kept = Lttb.select(x, y, 50);
+
+        boolean peak = false;
+        boolean dip = false;
+        for (int index : kept) {
+            peak |= index == 777;
+            dip |= index == 1500;
+        }
+        assertTrue(peak);
+        assertTrue(dip);
+    }
+}
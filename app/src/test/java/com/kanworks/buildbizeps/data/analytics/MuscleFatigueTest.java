@@ -0,0 +1,171 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.MuscleReadiness;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the decaying per-muscle-group fatigue model and its saved state
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MuscleFatigueTest {
+
+    private static final long HOUR = 3600_000L;
+
+    private FitnessDatabase db;
+    private File file;
+    private int bicepsId;
+    private int pullUpsId;
+    private int sessionId;
+    private long now;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        file = new File(context.getCacheDir(), "muscle_fatigue_test.bin");
+        file.delete();
+
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "Arms"));
+        pullUpsId = (int) db.exerciseDao().insertExercise(new Exercise("Pull Ups", "strength", "", "back"));
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date()));
+        now = System.currentTimeMillis();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        file.delete();
+    }
+
+    private ExerciseRecord insertSet(int exerciseId, long timestamp) {
+        ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, 10);
+        record.setWeight(20f);
+        record.setTimestamp(new Date(timestamp));
+        record.setId((int) db.exerciseRecordDao().insertExerciseRecord(record));
+        return record;
+    }
+
+    private MuscleReadiness group(List<MuscleReadiness> readiness, String name) {
+        for (MuscleReadiness group : readiness) {
+            if (group.getMuscleGroup().equals(name)) return group;
+        }
+        fail("No readiness for " + name);
+        return null;
+    }
+
+    @Test
+    public void testBackfillDecaysByHalfLife() {
+        for (int i = 0; i < 6; i++) {
+            insertSet(bicepsId, now - (long) MuscleFatigue.HALF_LIFE_HOURS * HOUR);
+        }
+        insertSet(pullUpsId, now);
+
+        List<MuscleReadiness> readiness = new MuscleFatigue(file).getReadiness(db, now);
+
+        // Six sets one half-life ago carry three; group names are normalised
+        assertEquals(3.0, group(readiness, "arms").getFatigue(), 0.001);
+        assertEquals(1.0, group(readiness, "back").getFatigue(), 0.001);
+        assertEquals(1 - 3.0 / MuscleFatigue.FATIGUED_SETS, group(readiness, "arms").getReadiness(), 0.001);
+        // Least ready first
+        assertEquals("arms", readiness.get(0).getMuscleGroup());
+    }
+
+    @Test
+    public void testLoggedSetsMatchBackfill() {
+        MuscleFatigue incremental = new MuscleFatigue(file);
+        incremental.getReadiness(db, now - 10 * HOUR);
+
+        List<ExerciseRecord> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(insertSet(bicepsId, now - (10 - 2 * i) * HOUR));
+        }
+        incremental.addSets(db, batch);
+
+        MuscleFatigue rebuilt = new MuscleFatigue(new File(file.getPath() + ".rebuilt"));
+        rebuilt.backfill(db, now);
+
+        assertEquals(group(rebuilt.getReadiness(db, now), "arms").getFatigue(),
+                group(incremental.getReadiness(db, now), "arms").getFatigue(), 1e-9);
+        new File(file.getPath() + ".rebuilt").delete();
+    }
+
+    @Test
+    public void testSavedStateCatchesUpOnNewRecords() {
+        insertSet(bicepsId, now - HOUR);
+        new MuscleFatigue(file).getReadiness(db, now);
+        assertTrue(file.exists());
+
+        // Written while no model was loaded
+        insertSet(bicepsId, now);
+
+        double fatigue = group(new MuscleFatigue(file).getReadiness(db, now), "arms").getFatigue();
+        assertEquals(1 + Math.pow(0.5, 1 / MuscleFatigue.HALF_LIFE_HOURS), fatigue, 0.001);
+    }
+
+    @Test
+    public void testLoggedSetsUseTheExercisesCurrentGroup() {
+        MuscleFatigue model = new MuscleFatigue(file);
+        model.getReadiness(db, now);
+        model.addSets(db, Collections.singletonList(insertSet(bicepsId, now)));
+
+        Exercise biceps = db.exerciseDao().getExerciseById(bicepsId);
+        biceps.setMuscleGroup("Biceps");
+        db.exerciseDao().updateExercise(biceps);
+        int rowsId = (int) db.exerciseDao().insertExercise(new Exercise("Rows", "strength", "", "Back"));
+        model.addSets(db, Arrays.asList(insertSet(bicepsId, now), insertSet(rowsId, now)));
+
+        List<MuscleReadiness> readiness = model.getReadiness(db, now);
+        assertEquals(1.0, group(readiness, "arms").getFatigue(), 0.001);
+        assertEquals(1.0, group(readiness, "biceps").getFatigue(), 0.001);
+        assertEquals(1.0, group(readiness, "back").getFatigue(), 0.001);
+    }
+
+    @Test
+    public void testRecordsAlreadyLoadedAreNotCountedTwice() {
+        ExerciseRecord record = insertSet(bicepsId, now);
+        MuscleFatigue model = new MuscleFatigue(file);
+        model.getReadiness(db, now);
+
+        // The write queue's callback arriving after the load already saw the record
+        model.addSets(db, Collections.singletonList(record));
+
+        assertEquals(1.0, group(model.getReadiness(db, now), "arms").getFatigue(), 0.001);
+    }
+
+    @Test
+    public void testInvalidateRebuildsFromDatabase() {
+        insertSet(bicepsId, now);
+        MuscleFatigue model = new MuscleFatigue(file);
+        model.getReadiness(db, now);
+
+        db.exerciseRecordDao().deleteAllRecords();
+        model.invalidate();
+
+        assertTrue(model.getReadiness(db, now).isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks sketch ranks and quantiles against the exact sorted input
+ */
+public class QuantileSketchTest {
+
+    // Comfortably above the ~1% rank error of k = 200
+    private static final double RANK_TOLERANCE = 0.02;
+
+    @Test
+    public void testSmallInputIsExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (float weight : new float[]{40, 20, 30, 50, 10}) {
+            sketch.update(weight);
+        }
+
+        assertEquals(5, sketch.getCount());
+        assertEquals(30f, sketch.quantile(0.5), 0f);
+        assertEquals(10f, sketch.quantile(0), 0f);
+        assertEquals(50f, sketch.quantile(1), 0f);
+        assertEquals(0.4, sketch.rank(30), 1e-9);
+    }
+
+    @Test
+    public void testLargeInputStaysSmallAndAccurate() {
+        Random random = new Random(7);
+        int n = 100_000;
+        float[] values = new float[n];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < n; i++) {
+            values[i] = (float) (60 + random.nextGaussian() * 15);
+            sketch.update(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(n, sketch.getCount());
+        assertTrue("kept " + sketch.getRetained(), sketch.getRetained() < 1000);
+        assertEquals(values[0], sketch.getMin(), 0f);
+        assertEquals(values[n - 1], sketch.getMax(), 0f);
+        for (double fraction : new double[]{0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            assertQuantile(values, fraction, sketch.quantile(fraction));
+        }
+    }
+
+    @Test
+    public void testMergedMonthsMatchOneSketch() {
+        Random random = new Random(11);
+        QuantileSketch merged = new QuantileSketch();
+        float[] values = new float[12 * 400];
+        int n = 0;
+        for (int month = 0; month < 12; month++) {
+            QuantileSketch monthly = new QuantileSketch();
+            for (int i = 0; i < 400; i++) {
+                // Progressive overload: heavier every month
+                float weight = 40 + month * 2.5f + random.nextInt(10);
+                monthly.update(weight);
+                values[n++] = weight;
+            }
+            merged.merge(QuantileSketch.fromBytes(monthly.toBytes()));
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, merged.getCount());
+        for (double fraction : new double[]{0.25, 0.5, 0.9}) {
+            assertQuantile(values, fraction, merged.quantile(fraction));
+        }
+        assertEquals(exactRank(values, 60f), merged.rank(60f), RANK_TOLERANCE);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 1000; i++) {
+            sketch.update(i % 37);
+        }
+
+        QuantileSketch copy = QuantileSketch.fromBytes(sketch.toBytes());
+        assertNotNull(copy);
+        assertEquals(sketch.getCount(), copy.getCount());
+        assertEquals(sketch.getRetained(), copy.getRetained());
+        assertEquals(sketch.quantile(0.5), copy.quantile(0.5), 0f);
+        assertEquals(sketch.rank(20), copy.rank(20), 0);
+    }
+
+    @Test
+    public void testDamagedBlobIsRejected() {
+        byte[] bytes = new QuantileSketch().toBytes();
+        assertNull(QuantileSketch.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertNull(QuantileSketch.fromBytes(new byte[]{99}));
+        assertNull(QuantileSketch.fromBytes(null));
+    }
+
+    @Test
+    public void testEmptySketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(sketch.isEmpty());
+        assertTrue(Float.isNaN(sketch.quantile(0.5)));
+        assertTrue(Double.isNaN(sketch.rank(10)));
+    }
+
+    /**
+     * The estimate must sit where the true fraction is reached, give or take the tolerance;
+     * with repeated values that is anywhere within the run of equal ones
+     */
+    private static void assertQuantile(float[] sorted, double fraction, float estimate) {
+        String message = "quantile " + fraction + " = " + estimate;
+        assertTrue(message, exactRank(sorted, estimate) <= fraction + RANK_TOLERANCE);
+        assertTrue(message, exactRankAtOrBelow(sorted, estimate) >= fraction - RANK_TOLERANCE);
+    }
+
+    private static double exactRank(float[] sorted, float value) {
+        int below = 0;
+        while (below < sorted.length && sorted[below] < value) below++;
+        return (double) below / sorted.length;
+    }
+
+    private static double exactRankAtOrBelow(float[] sorted, float value) {
+        int atOrBelow = 0;
+        while (atOrBelow < sorted.length && sorted[atOrBelow] <= value) atOrBelow++;
+        return (double) atOrBelow / sorted.length;
+    }
+}
@@ -0,0 +1,146 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.MonthActivity;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the month cache behind the dashboard heatmap
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TrainingCalendarTest {
+
+    private FitnessDatabase db;
+    private TrainingCalendar calendar;
+    private int bicepsId;
+    private int sessionId;
+    private long firstDay;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        calendar = TrainingCalendar.getInstance();
+        // App-wide instance; start every test from an empty cache
+        calendar.invalidate();
+
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date()));
+        firstDay = TrainingDay.firstOfMonth(TrainingDay.today());
+    }
+
+    @After
+    public void tearDown() {
+        calendar.invalidate();
+        db.close();
+    }
+
+    private ExerciseRecord insertSet(long epochDay, int reps, float weight) {
+        ExerciseRecord record = new ExerciseRecord(bicepsId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(new Date(TrainingDay.startOfDayMillis(epochDay) + 12 * 3600_000L));
+        record.setId((int) db.exerciseRecordDao().insertExerciseRecord(record));
+        return record;
+    }
+
+    @Test
+    public void testMonthMatchesDailyRollups() {
+        insertSet(firstDay, 10, 20f);
+        insertSet(firstDay, 8, 20f);
+        insertSet(firstDay + 2, 12, 0f);
+        // Neighbouring months stay out
+        insertSet(firstDay - 1, 10, 20f);
+        insertSet(firstDay + TrainingDay.daysInMonth(firstDay), 10, 20f);
+
+        MonthActivity month = calendar.getMonth(db, firstDay + 5);
+
+        assertEquals(firstDay, month.getFirstDay());
+        assertEquals(TrainingDay.daysInMonth(firstDay), month.getDayCount());
+        assertEquals(2, month.getSets(firstDay));
+        assertEquals(360.0, month.getTonnage(firstDay), 0.001);
+        assertEquals(1, month.getSets(firstDay + 2));
+        assertEquals(0, month.getSets(firstDay + 1));
+    }
+
+    @Test
+    public void testLevelsScaleToBusiestDay() {
+        insertSet(firstDay, 10, 20f);
+        insertSet(firstDay + 1, 10, 20f);
+        insertSet(firstDay + 1, 10, 20f);
+        insertSet(firstDay + 1, 10, 20f);
+        insertSet(firstDay + 1, 10, 20f);
+
+        MonthActivity month = calendar.getMonth(db, firstDay);
+
+        assertEquals(MonthActivity.LEVELS - 1, month.getLevel(firstDay + 1));
+        assertEquals(1, month.getLevel(firstDay));
+        assertEquals(0, month.getLevel(firstDay + 2));
+    }
+
+    @Test
+    public void testMonthIsCachedAfterFirstLoad() {
+        assertNull(calendar.getCachedMonth(firstDay));
+        MonthActivity loaded = calendar.getMonth(db, firstDay);
+
+        assertSame(loaded, calendar.getCachedMonth(firstDay + 3));
+        assertEquals(1, calendar.cachedMonthCount());
+    }
+
+    @Test
+    public void testNewSetUpdatesOnlyItsDay() {
+        insertSet(firstDay, 10, 20f);
+        MonthActivity before = calendar.getMonth(db, firstDay);
+
+        ExerciseRecord added = insertSet(firstDay + 3, 5, 40f);
+        calendar.onSetsWritten(db, Collections.singletonList(added));
+
+        MonthActivity after = calendar.getCachedMonth(firstDay);
+        assertNotNull(after);
+        assertNotSame(before, after);
+        assertEquals(1, after.getSets(firstDay + 3));
+        assertEquals(200.0, after.getTonnage(firstDay + 3), 0.001);
+        assertEquals(1, after.getSets(firstDay));
+        // The instance handed out earlier is never changed underneath its reader
+        assertEquals(0, before.getSets(firstDay + 3));
+    }
+
+    @Test
+    public void testSetsInUncachedMonthAreIgnored() {
+        ExerciseRecord added = insertSet(firstDay - 1, 5, 40f);
+        calendar.onSetsWritten(db, Collections.singletonList(added));
+
+        assertEquals(0, calendar.cachedMonthCount());
+    }
+
+    @Test
+    public void testInvalidateDropsEveryMonth() {
+        calendar.getMonth(db, firstDay);
+        calendar.getMonth(db, firstDay - 1);
+        assertEquals(2, calendar.cachedMonthCount());
+
+        calendar.invalidate();
+
+        assertEquals(0, calendar.cachedMonthCount());
+    }
+}
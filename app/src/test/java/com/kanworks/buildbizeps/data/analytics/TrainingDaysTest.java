@@ -0,0 +1,132 @@
+package com.kanworks.buildbizeps.data.analytics;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.ConsistencyStats;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the persisted training day index against the database it mirrors
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TrainingDaysTest {
+
+    private FitnessDatabase db;
+    private File file;
+    private int bicepsId;
+    private int sessionId;
+    private long today;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        file = new File(context.getCacheDir(), "training_days_test.bin");
+        file.delete();
+
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date()));
+        today = TrainingDay.today();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        file.delete();
+    }
+
+    private ExerciseRecord insertSet(long epochDay) {
+        ExerciseRecord record = new ExerciseRecord(bicepsId, sessionId, 1, 10);
+        record.setWeight(20f);
+        record.setTimestamp(new Date(TrainingDay.startOfDayMillis(epochDay) + 12 * 3600_000L));
+        record.setId((int) db.exerciseRecordDao().insertExerciseRecord(record));
+        return record;
+    }
+
+    @Test
+    public void testStreaksFromDatabase() {
+        insertSet(today - 10);
+        insertSet(today - 9);
+        insertSet(today - 8);
+        insertSet(today - 2);
+        insertSet(today - 1);
+
+        ConsistencyStats stats = new TrainingDays(file).getStats(db, today);
+
+        // Today is still open, so yesterday's streak counts
+        assertEquals(2, stats.getCurrentStreak());
+        assertEquals(3, stats.getLongestStreak());
+        assertEquals(5, stats.getTotalDays());
+    }
+
+    @Test
+    public void testNewDayExtendsStreak() {
+        insertSet(today - 1);
+        TrainingDays index = new TrainingDays(file);
+        assertEquals(1, index.getStats(db, today).getCurrentStreak());
+
+        index.markTrained(Collections.singletonList(insertSet(today)));
+
+        assertEquals(2, index.getStats(db, today).getCurrentStreak());
+    }
+
+    @Test
+    public void testSavedFileIsReusedWhileInStep() {
+        insertSet(today - 3);
+        TrainingDays first = new TrainingDays(file);
+        first.getStats(db, today);
+        assertTrue(file.exists());
+
+        // A fresh instance reading the same database trusts the file
+        assertEquals(1, new TrainingDays(file).getStats(db, today).getTotalDays());
+    }
+
+    @Test
+    public void testStaleFileIsRebuilt() {
+        insertSet(today - 3);
+        new TrainingDays(file).getStats(db, today);
+
+        // Written while no index was loaded, so the file missed it
+        insertSet(today - 1);
+
+        ConsistencyStats stats = new TrainingDays(file).getStats(db, today);
+        assertEquals(2, stats.getTotalDays());
+        assertEquals(1, stats.getCurrentStreak());
+    }
+
+    @Test
+    public void testClearedDayIsDropped() {
+        insertSet(today - 1);
+        insertSet(today);
+        TrainingDays index = new TrainingDays(file);
+        index.getStats(db, today);
+
+        db.exerciseRecordDao().deleteRecordsByDate(today);
+        index.clearDay(today);
+
+        ConsistencyStats stats = index.getStats(db, today);
+        assertEquals(1, stats.getTotalDays());
+        assertEquals(1, stats.getCurrentStreak());
+    }
+}
@@ -0,0 +1,170 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.DailySummary;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the trigger-maintained daily_summary rollup follows every write,
+ * and that it agrees with the SQL aggregate projection
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DailySummaryDaoTest {
+
+    private FitnessDatabase db;
+    private long day;
+    private int bicepsId;
+    private int pullupsId;
+    private int sessionId;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        pullupsId = (int) db.exerciseDao().insertExercise(new Exercise("Pull-ups", "strength", "", "back"));
+        Date now = new Date();
+        day = TrainingDay.fromDate(now);
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(now));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private ExerciseRecord insertSet(int exerciseId, int reps, float weight) {
+        ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setId((int) db.exerciseRecordDao().insertExerciseRecord(record));
+        return record;
+    }
+
+    @Test
+    public void testInsertUpdatesRollup() {
+        insertSet(bicepsId, 10, 20f);
+        insertSet(bicepsId, 8, 25f);
+        insertSet(pullupsId, 6, 0f);
+
+        DailyRollup rollup = db.dailySummaryDao().getDailyRollup(day);
+        assertEquals(3, rollup.getTotalSets());
+        assertEquals(24, rollup.getTotalReps());
+        assertEquals(400.0, rollup.getTotalTonnage(), 0.001);
+        assertEquals(2, rollup.getDistinctExercises());
+        assertEquals(1, rollup.getSessionCount());
+    }
+
+    @Test
+    public void testUpdateAndDeleteUpdateRollup() {
+        ExerciseRecord first = insertSet(bicepsId, 10, 20f);
+        ExerciseRecord second = insertSet(pullupsId, 6, 0f);
+
+        first.setWeight(30f);
+        db.workoutLogDao().editRecord(first);
+        assertEquals(300.0, db.dailySummaryDao().getDailyRollup(day).getTotalTonnage(), 0.001);
+
+        db.workoutLogDao().deleteRecord(second);
+        DailyRollup rollup = db.dailySummaryDao().getDailyRollup(day);
+        assertEquals(1, rollup.getTotalSets());
+        assertEquals(10, rollup.getTotalReps());
+        assertEquals(1, rollup.getDistinctExercises());
+    }
+
+    @Test
+    public void testCascadeDeleteUpdatesRollup() {
+        insertSet(bicepsId, 10, 20f);
+        insertSet(pullupsId, 6, 0f);
+
+        db.exerciseDao().deleteExercise(db.exerciseDao().getExerciseById(bicepsId));
+
+        DailyRollup rollup = db.dailySummaryDao().getDailyRollup(day);
+        assertEquals(1, rollup.getTotalSets());
+        assertEquals(1, rollup.getDistinctExercises());
+    }
+
+    @Test
+    public void testClearingDayRemovesRollup() {
+        insertSet(bicepsId, 10, 20f);
+
+        db.exerciseRecordDao().deleteRecordsByDate(day);
+        db.workoutSessionDao().deleteSessionsByDate(day);
+
+        assertNull(db.dailySummaryDao().getDailyRollup(day));
+    }
+
+    @Test
+    public void testRebuildMatchesTriggers() {
+        insertSet(bicepsId, 10, 20f);
+        insertSet(bicepsId, 8, 25f);
+        insertSet(pullupsId, 6, 0f);
+        DailyRollup expected = db.dailySummaryDao().getDailyRollup(day);
+
+        db.dailySummaryDao().rebuildAll();
+        assertRollupEquals(expected, db.dailySummaryDao().getDailyRollup(day));
+
+        db.dailySummaryDao().deleteRollup(day);
+        db.dailySummaryDao().repairDay(day);
+        assertRollupEquals(expected, db.dailySummaryDao().getDailyRollup(day));
+    }
+
+    @Test
+    public void testSqlProjectionMatchesRollup() {
+        insertSet(bicepsId, 10, 20f);
+        insertSet(bicepsId, 8, 25f);
+        insertSet(pullupsId, 6, 0f);
+
+        DailySummary projected = db.exerciseRecordDao().getDailySummary(day, TrainingDay.format(day));
+        DailySummary rolledUp = db.dailySummaryDao().getDailyRollup(day).toDailySummary();
+
+        assertEquals(TrainingDay.format(day), projected.getDate());
+        assertEquals(rolledUp.getTotalReps(), projected.getTotalReps());
+        assertEquals(rolledUp.getTotalSets(), projected.getTotalSets());
+        assertEquals(rolledUp.getTotalExercises(), projected.getTotalExercises());
+        assertEquals(rolledUp.getWorkoutCount(), projected.getWorkoutCount());
+        assertEquals(rolledUp.getTotalTonnage(), projected.getTotalTonnage(), 0.001);
+    }
+
+    @Test
+    public void testSqlProjectionForEmptyDay() {
+        DailySummary projected = db.exerciseRecordDao().getDailySummary(day - 1, "rest day");
+
+        assertEquals("rest day", projected.getDate());
+        assertEquals(0, projected.getTotalReps());
+        assertEquals(0, projected.getTotalSets());
+        assertEquals(0, projected.getTotalExercises());
+        assertEquals(0, projected.getWorkoutCount());
+        assertEquals(0.0, projected.getTotalTonnage(), 0.0);
+    }
+
+    private static void assertRollupEquals(DailyRollup expected, DailyRollup actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getTotalSets(), actual.getTotalSets());
+        assertEquals(expected.getTotalReps(), actual.getTotalReps());
+        assertEquals(expected.getTotalTonnage(), actual.getTotalTonnage(), 0.001);
+        assertEquals(expected.getDistinctExercises(), actual.getDistinctExercises());
+        assertEquals(expected.getSessionCount(), actual.getSessionCount());
+        assertEquals(expected.getDurationMinutes(), actual.getDurationMinutes());
+    }
+}
@@ -0,0 +1,227 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.ExerciseProgressTriggers;
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseProgress;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the trigger-maintained exercise_progress rollup follows inserts and deletes
+ * and always matches a rebuild from history
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ExerciseProgressDaoTest {
+
+    private FitnessDatabase db;
+    private long today;
+    private int benchId;
+    private int sessionId;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+
+        benchId = (int) db.exerciseDao().insertExercise(new Exercise("Bench Press", "strength", "", "chest"));
+        today = TrainingDay.today();
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date()));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private ExerciseRecord insertSet(long epochDay, int reps, float weight) {
+        ExerciseRecord record = new ExerciseRecord(benchId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(new Date(TrainingDay.startOfDayMillis(epochDay) + 3_600_000L + reps));
+        record.setId((int) db.exerciseRecordDao().insertExerciseRecord(record));
+        return record;
+    }
+
+    private void assertMatchesRebuild() {
+        ExerciseProgress maintained = db.exerciseDao().getProgress(benchId);
+        db.getOpenHelper().getWritableDatabase().execSQL("DELETE FROM exercise_progress");
+        db.getOpenHelper().getWritableDatabase().execSQL(ExerciseProgressTriggers.REBUILD_ALL);
+        ExerciseProgress rebuilt = db.exerciseDao().getProgress(benchId);
+        if (rebuilt == null) {
+            assertNull(maintained);
+            return;
+        }
+        assertEquals(rebuilt.getHeaviestWeight(), maintained.getHeaviestWeight(), 0.001);
+        assertEquals(rebuilt.getBestOneRepMax(), maintained.getBestOneRepMax(), 0.001);
+        assertEquals(rebuilt.getBestSetVolume(), maintained.getBestSetVolume(), 0.001);
+        assertEquals(rebuilt.getLifetimeTonnage(), maintained.getLifetimeTonnage(), 0.001);
+        assertEquals(rebuilt.getTotalSets(), maintained.getTotalSets());
+        assertEquals(rebuilt.getFirstEpochDay(), maintained.getFirstEpochDay());
+        assertEquals(rebuilt.getLastEpochDay(), maintained.getLastEpochDay());
+    }
+
+    @Test
+    public void testInsertTracksRecords() {
+        insertSet(today - 10, 5, 100f);
+        insertSet(today - 3, 10, 80f);
+        insertSet(today, 1, 105f);
+
+        ExerciseProgress progress = db.exerciseDao().getProgress(benchId);
+        assertNotNull(progress);
+        assertEquals(105.0, progress.getHeaviestWeight(), 0.001);
+        // 80 * (1 + 10 / 30) = 106.67 beats the 105 single
+        assertEquals(80 * (1 + 10 / 30.0), progress.getBestOneRepMax(), 0.001);
+        assertEquals(800.0, progress.getBestSetVolume(), 0.001);
+        assertEquals(500 + 800 + 105, progress.getLifetimeTonnage(), 0.001);
+        assertEquals(3, progress.getTotalSets());
+        assertEquals(today - 10, progress.getFirstEpochDay());
+        assertEquals(today, progress.getLastEpochDay());
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void testDeletingRecordSetRescansMaxima() {
+        insertSet(today - 10, 5, 100f);
+        ExerciseRecord heaviest = insertSet(today - 5, 1, 120f);
+        insertSet(today, 8, 90f);
+
+        db.workoutLogDao().deleteRecord(heaviest);
+
+        ExerciseProgress progress = db.exerciseDao().getProgress(benchId);
+        assertEquals(100.0, progress.getHeaviestWeight(), 0.001);
+        assertEquals(2, progress.getTotalSets());
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void testEditingRecordRecomputesBothExercises() {
+        int squatId = (int) db.exerciseDao().insertExercise(new Exercise("Squats", "strength", "", "legs"));
+        insertSet(today - 4, 5, 100f);
+        ExerciseRecord edited = insertSet(today, 3, 140f);
+
+        // A typo fixed in place: lighter weight
+        edited.setWeight(110f);
+        db.workoutLogDao().editRecord(edited);
+        ExerciseProgress bench = db.exerciseDao().getProgress(benchId);
+        assertEquals(110.0, bench.getHeaviestWeight(), 0.001);
+        assertEquals(500 + 330, bench.getLifetimeTonnage(), 0.001);
+        assertMatchesRebuild();
+
+        // Then moved to the exercise it belonged to
+        edited.setExerciseId(squatId);
+        db.workoutLogDao().editRecord(edited);
+        bench = db.exerciseDao().getProgress(benchId);
+        assertEquals(100.0, bench.getHeaviestWeight(), 0.001);
+        assertEquals(1, bench.getTotalSets());
+        assertEquals(today - 4, bench.getLastEpochDay());
+        ExerciseProgress squats = db.exerciseDao().getProgress(squatId);
+        assertNotNull(squats);
+        assertEquals(110.0, squats.getHeaviestWeight(), 0.001);
+        assertEquals(today, squats.getFirstEpochDay());
+        assertMatchesRebuild();
+
+        // Moving an exercise's only set away leaves it no row
+        edited.setExerciseId(benchId);
+        db.workoutLogDao().editRecord(edited);
+        assertNull(db.exerciseDao().getProgress(squatId));
+        assertEquals(2, db.exerciseDao().getProgress(benchId).getTotalSets());
+    }
+
+    @Test
+    public void testDeletingTiedTopSetKeepsMaxima() {
+        insertSet(today - 2, 5, 100f);
+        ExerciseRecord tied = insertSet(today, 5, 100f);
+        insertSet(today, 8, 60f);
+
+        db.workoutLogDao().deleteRecord(tied);
+
+        ExerciseProgress progress = db.exerciseDao().getProgress(benchId);
+        assertEquals(100.0, progress.getHeaviestWeight(), 0.001);
+        assertEquals(500.0, progress.getBestSetVolume(), 0.001);
+        assertEquals(2, progress.getTotalSets());
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void testClearingDayRebuildsEveryExerciseTrainedThatDay() {
+        int squatId = (int) db.exerciseDao().insertExercise(new Exercise("Squats", "strength", "", "legs"));
+        insertSet(today - 3, 5, 100f);
+        insertSet(today, 1, 120f);
+        ExerciseRecord squat = new ExerciseRecord(squatId, sessionId, 1, 5);
+        squat.setWeight(140f);
+        squat.setTimestamp(new Date(TrainingDay.startOfDayMillis(today) + 7_200_000L));
+        db.exerciseRecordDao().insertExerciseRecord(squat);
+
+        db.exerciseRecordDao().deleteRecordsByDate(today);
+
+        ExerciseProgress bench = db.exerciseDao().getProgress(benchId);
+        assertEquals(100.0, bench.getHeaviestWeight(), 0.001);
+        assertEquals(today - 3, bench.getLastEpochDay());
+        assertNull(db.exerciseDao().getProgress(squatId));
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void testClearingDaysMovesFirstAndLast() {
+        insertSet(today - 10, 5, 100f);
+        insertSet(today - 5, 5, 100f);
+        insertSet(today, 5, 100f);
+
+        db.exerciseRecordDao().deleteRecordsByDate(today - 10);
+        db.exerciseRecordDao().deleteRecordsByDate(today);
+
+        ExerciseProgress progress = db.exerciseDao().getProgress(benchId);
+        assertEquals(today - 5, progress.getFirstEpochDay());
+        assertEquals(today - 5, progress.getLastEpochDay());
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void testRowRemovedWithLastRecord() {
+        insertSet(today, 5, 100f);
+        insertSet(today, 6, 100f);
+
+        db.exerciseRecordDao().deleteAllRecords();
+        assertNull(db.exerciseDao().getProgress(benchId));
+
+        insertSet(today, 5, 100f);
+        db.exerciseDao().deleteExercise(db.exerciseDao().getExerciseById(benchId));
+        assertNull(db.exerciseDao().getProgress(benchId));
+    }
+
+    @Test
+    public void testPersonalRecordCheck() {
+        insertSet(today, 5, 100f);
+        ExerciseProgress progress = db.exerciseDao().getProgress(benchId);
+
+        assertFalse(progress.isPersonalRecord(100f, 5));
+        assertFalse(progress.isPersonalRecord(90f, 6));
+        assertTrue(progress.isPersonalRecord(100f, 6));
+        assertTrue(progress.isPersonalRecord(101f, 1));
+
+        progress.recordSet(100f, 6);
+        assertFalse(progress.isPersonalRecord(100f, 6));
+
+        List<ExerciseProgress> board = db.exerciseDao().getProgressBoard();
+        assertEquals(1, board.size());
+    }
+}
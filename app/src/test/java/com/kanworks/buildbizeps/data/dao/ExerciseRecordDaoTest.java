@@ -0,0 +1,116 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the batched last-set-per-favorite lookup used to prefill Home
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ExerciseRecordDaoTest {
+
+    private FitnessDatabase db;
+    private int sessionId;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date()));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private int insertExercise(String name, boolean favorite) {
+        Exercise exercise = new Exercise(name, "strength", "", "arms");
+        exercise.setFavorite(favorite);
+        return (int) db.exerciseDao().insertExercise(exercise);
+    }
+
+    private void insertSet(int exerciseId, long millis, int reps, float weight) {
+        ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(new Date(millis));
+        db.exerciseRecordDao().insertExerciseRecord(record);
+    }
+
+    @Test
+    public void testLastSetPerFavorite() {
+        int curls = insertExercise("Biceps Curls", true);
+        int pullups = insertExercise("Pull-ups", true);
+        int squats = insertExercise("Squats", false);
+        insertExercise("Dips", true);  // favorite without history
+
+        long now = System.currentTimeMillis();
+        insertSet(curls, now - 3_000_000, 12, 15f);
+        insertSet(curls, now - 60_000, 10, 17.5f);
+        insertSet(pullups, now - 120_000, 8, 0f);
+        insertSet(squats, now, 5, 100f);
+        // Same timestamp twice: the later insert wins
+        insertSet(pullups, now - 30_000, 6, 5f);
+        insertSet(pullups, now - 30_000, 7, 5f);
+
+        Map<Integer, ExerciseSetRow> byExercise = new HashMap<>();
+        for (ExerciseSetRow row : db.exerciseRecordDao().getLastSetPerFavorite()) {
+            byExercise.put(row.getExerciseId(), row);
+        }
+
+        assertEquals(2, byExercise.size());
+        assertEquals(10, byExercise.get(curls).getReps());
+        assertEquals(17.5f, byExercise.get(curls).getWeight(), 0.001f);
+        assertEquals("Biceps Curls", byExercise.get(curls).getExerciseName());
+        assertEquals(7, byExercise.get(pullups).getReps());
+    }
+
+    @Test
+    public void testLastSetLookupSeeksIndex() {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN SELECT id FROM exercise_records WHERE exerciseId = ? "
+                + "ORDER BY timestamp DESC, id DESC LIMIT 1", new Object[]{1})) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+
+        String text = plan.toString();
+        assertTrue(text, text.contains("index_exercise_records_exerciseId_timestamp"));
+        assertFalse(text, text.contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void testNoFavoritesReturnsEmpty() {
+        int squats = insertExercise("Squats", false);
+        insertSet(squats, System.currentTimeMillis(), 5, 100f);
+
+        List<ExerciseSetRow> rows = db.exerciseRecordDao().getLastSetPerFavorite();
+        assertTrue(rows.isEmpty());
+    }
+}
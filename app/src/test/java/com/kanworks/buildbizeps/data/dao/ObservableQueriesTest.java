@@ -0,0 +1,129 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import android.content.Context;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.Transformations;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the LiveData DAO queries re-emit when their tables are written,
+ * and that distinctUntilChanged filters out re-runs with identical results
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ObservableQueriesTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private FitnessDatabase db;
+    private int bicepsId;
+    private int sessionId;
+    private long today;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .setQueryExecutor(Runnable::run)
+                .build();
+
+        Exercise biceps = new Exercise("Biceps Curls", "strength", "", "arms");
+        biceps.setFavorite(true);
+        bicepsId = (int) db.exerciseDao().insertExercise(biceps);
+        Date now = new Date();
+        today = TrainingDay.fromDate(now);
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(now));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static <T> List<T> record(LiveData<T> liveData) {
+        List<T> emissions = new ArrayList<>();
+        Observer<T> observer = emissions::add;
+        liveData.observeForever(observer);
+        return emissions;
+    }
+
+    private void insertSet(long epochDay, int reps) {
+        ExerciseRecord record = new ExerciseRecord(bicepsId, sessionId, 1, reps);
+        record.setTimestamp(new Date(TrainingDay.startOfDayMillis(epochDay) + 3_600_000L));
+        db.exerciseRecordDao().insertExerciseRecord(record);
+    }
+
+    @Test
+    public void testFavoritesReEmitOnlyWhenChanged() {
+        List<List<Exercise>> emissions = record(Transformations.distinctUntilChanged(
+                db.exerciseDao().observeFavoriteExercises()));
+        assertEquals(1, emissions.size());
+        assertEquals(1, emissions.get(0).size());
+
+        // Logging a set does not touch the exercises table
+        insertSet(today, 10);
+        assertEquals(1, emissions.size());
+
+        // Writing the same favorite flag invalidates the table but yields an identical list
+        db.exerciseDao().updateFavoriteStatus(bicepsId, true);
+        assertEquals(1, emissions.size());
+
+        db.exerciseDao().updateFavoriteStatus(bicepsId, false);
+        assertEquals(2, emissions.size());
+        assertTrue(emissions.get(1).isEmpty());
+    }
+
+    @Test
+    public void testDaySetsIgnoreOtherDays() {
+        List<List<ExerciseSetRow>> emissions = record(Transformations.distinctUntilChanged(
+                db.exerciseRecordDao().observeExerciseSetsForDay(today)));
+        assertEquals(1, emissions.size());
+        assertTrue(emissions.get(0).isEmpty());
+
+        insertSet(today - 1, 8);
+        assertEquals(1, emissions.size());
+
+        insertSet(today, 10);
+        assertEquals(2, emissions.size());
+        assertEquals(10, emissions.get(1).get(0).getReps());
+    }
+
+    @Test
+    public void testRollupFollowsDeletes() {
+        insertSet(today, 10);
+        List<DailyRollup> emissions = record(Transformations.distinctUntilChanged(
+                db.dailySummaryDao().observeDailyRollup(today)));
+        assertEquals(1, emissions.size());
+        assertEquals(10, emissions.get(0).getTotalReps());
+
+        db.exerciseRecordDao().deleteRecordsByDate(today);
+        db.workoutSessionDao().deleteSessionsByDate(today);
+        assertNull(emissions.get(emissions.size() - 1));
+    }
+}
@@ -0,0 +1,145 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.model.LoggedSet;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the single-transaction logSet() write path
+ */
+@RunWith(RobolectricTestRunner.class)
+public class WorkoutLogDaoTest {
+
+    private FitnessDatabase db;
+    private int bicepsId;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testFirstSetStartsSession() {
+        Date now = new Date();
+        LoggedSet logged = db.workoutLogDao().logSet(0, bicepsId, 20f, 10, now);
+
+        assertNotNull(logged);
+        assertTrue(logged.isNewSession());
+        assertNotNull(db.workoutSessionDao().getWorkoutSessionById(logged.getSessionId()));
+
+        List<ExerciseRecord> records = db.exerciseRecordDao().getRecordsByDate(TrainingDay.fromDate(now));
+        assertEquals(1, records.size());
+        ExerciseRecord record = records.get(0);
+        assertEquals(logged.getRecordId(), record.getId());
+        assertEquals(logged.getSessionId(), record.getWorkoutSessionId());
+        assertEquals(10, record.getReps());
+        assertEquals(20f, record.getWeight(), 0.001f);
+        assertEquals(now.getTime(), record.getTimestamp().getTime());
+    }
+
+    @Test
+    public void testLaterSetsReuseSession() {
+        LoggedSet first = db.workoutLogDao().logSet(0, bicepsId, 20f, 10, new Date());
+        LoggedSet second = db.workoutLogDao().logSet(first.getSessionId(), bicepsId, 20f, 8, new Date());
+
+        assertFalse(second.isNewSession());
+        assertEquals(first.getSessionId(), second.getSessionId());
+        assertEquals(1, db.workoutSessionDao().getAllWorkoutSessions().size());
+    }
+
+    @Test
+    public void testDeletedSessionIsReplaced() {
+        Date now = new Date();
+        LoggedSet first = db.workoutLogDao().logSet(0, bicepsId, 20f, 10, now);
+        db.workoutSessionDao().deleteSessionsByDate(TrainingDay.fromDate(now));
+
+        LoggedSet second = db.workoutLogDao().logSet(first.getSessionId(), bicepsId, 20f, 8, now);
+
+        assertTrue(second.isNewSession());
+        assertNotEquals(first.getSessionId(), second.getSessionId());
+        assertNotNull(db.workoutSessionDao().getWorkoutSessionById(second.getSessionId()));
+    }
+
+    @Test
+    public void testSetAfterMidnightStartsNewSession() {
+        long monday = TrainingDay.today() - 1;
+        Date lateMonday = new Date(TrainingDay.startOfDayMillis(monday + 1) - 60_000L);
+        Date earlyTuesday = new Date(TrainingDay.startOfDayMillis(monday + 1) + 60_000L);
+        LoggedSet first = db.workoutLogDao().logSet(0, bicepsId, 20f, 10, lateMonday);
+
+        LoggedSet second = db.workoutLogDao().logSet(first.getSessionId(), bicepsId, 20f, 8, earlyTuesday);
+
+        assertTrue(second.isNewSession());
+        assertNotEquals(first.getSessionId(), second.getSessionId());
+        assertEquals(monday + 1, db.workoutSessionDao().getWorkoutSessionById(second.getSessionId()).getEpochDay());
+
+        // Clearing Monday must leave Tuesday's set alone
+        db.exerciseRecordDao().deleteRecordsByDate(monday);
+        db.workoutSessionDao().deleteSessionsByDate(monday);
+        assertEquals(1, db.exerciseRecordDao().getRecordsByDate(monday + 1).size());
+    }
+
+    @Test
+    public void testBatchSpanningMidnightSplitsSessions() {
+        long monday = TrainingDay.today() - 1;
+        long midnight = TrainingDay.startOfDayMillis(monday + 1);
+        LoggedSet first = db.workoutLogDao().logSet(0, bicepsId, 20f, 10, new Date(midnight - 120_000L));
+
+        int sessionId = db.workoutLogDao().logSets(first.getSessionId(), Arrays.asList(
+                record(midnight - 60_000L), record(midnight + 60_000L)));
+
+        List<ExerciseRecord> mondayRecords = db.exerciseRecordDao().getRecordsByDate(monday);
+        List<ExerciseRecord> tuesdayRecords = db.exerciseRecordDao().getRecordsByDate(monday + 1);
+        assertEquals(2, mondayRecords.size());
+        for (ExerciseRecord record : mondayRecords) {
+            assertEquals(first.getSessionId(), record.getWorkoutSessionId());
+        }
+        assertEquals(1, tuesdayRecords.size());
+        assertEquals(sessionId, tuesdayRecords.get(0).getWorkoutSessionId());
+        assertNotEquals(first.getSessionId(), sessionId);
+        assertEquals(2, db.workoutSessionDao().getAllWorkoutSessions().size());
+    }
+
+    private ExerciseRecord record(long timestamp) {
+        ExerciseRecord record = new ExerciseRecord(bicepsId, 0, 1, 8);
+        record.setWeight(20f);
+        record.setTimestamp(new Date(timestamp));
+        return record;
+    }
+
+    @Test
+    public void testMissingExerciseWritesNothing() {
+        assertNull(db.workoutLogDao().logSet(0, bicepsId + 100, 20f, 10, new Date()));
+
+        assertTrue(db.workoutSessionDao().getAllWorkoutSessions().isEmpty());
+        assertTrue(db.exerciseRecordDao().getAllExerciseRecords().isEmpty());
+    }
+}
@@ -0,0 +1,151 @@
+package com.kanworks.buildbizeps.data.dao;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.DailySummary;
+import com.kanworks.buildbizeps.data.model.SessionDensity;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests rest, active time and work density derived from set timestamps
+ */
+@RunWith(RobolectricTestRunner.class)
+public class WorkoutSessionDaoTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private FitnessDatabase db;
+    private long day;
+    private long morning;
+    private int bicepsId;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        day = TrainingDay.today();
+        morning = TrainingDay.startOfDayMillis(day) + 9 * 60 * MINUTE;
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private int startSession(long millis) {
+        return (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date(millis)));
+    }
+
+    private void insertSet(int sessionId, long millis, int reps, float weight) {
+        ExerciseRecord record = new ExerciseRecord(bicepsId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(new Date(millis));
+        db.exerciseRecordDao().insertExerciseRecord(record);
+    }
+
+    @Test
+    public void testRestsBetweenConsecutiveSets() {
+        int session = startSession(morning);
+        // Logged out of order; rests follow the timestamps, not the insert order
+        insertSet(session, morning + 5 * MINUTE, 10, 20f);
+        insertSet(session, morning, 10, 20f);
+        insertSet(session, morning + 2 * MINUTE, 10, 20f);
+
+        SessionDensity density = db.workoutSessionDao().getSessionDensity(session);
+
+        assertEquals(1, density.getSessionCount());
+        assertEquals(3, density.getSetCount());
+        assertEquals(2, density.getRestCount());
+        assertEquals(5 * MINUTE, density.getActiveMillis());
+        assertEquals(5, density.getActiveMinutes());
+        assertEquals(150, density.getAverageRestSeconds());
+        assertEquals(600.0, density.getTonnage(), 0.001);
+        assertEquals(120.0, density.getWorkDensity(), 0.001);
+    }
+
+    @Test
+    public void testLongBreaksAreNotRest() {
+        int session = startSession(morning);
+        insertSet(session, morning, 10, 20f);
+        insertSet(session, morning + 3 * MINUTE, 10, 20f);
+        // Half an hour off before finishing
+        insertSet(session, morning + 33 * MINUTE, 10, 20f);
+        insertSet(session, morning + 34 * MINUTE, 10, 20f);
+
+        SessionDensity density = db.workoutSessionDao().getSessionDensity(session);
+
+        assertEquals(2, density.getRestCount());
+        assertEquals(4, density.getActiveMinutes());
+        assertEquals(800.0 / 4, density.getWorkDensity(), 0.001);
+    }
+
+    @Test
+    public void testSessionsOfADayAreMeasuredSeparately() {
+        int first = startSession(morning);
+        insertSet(first, morning, 10, 20f);
+        insertSet(first, morning + 2 * MINUTE, 10, 20f);
+        // A second session five minutes later doesn't rest from the first one's last set
+        int second = startSession(morning + 7 * MINUTE);
+        insertSet(second, morning + 7 * MINUTE, 5, 40f);
+        insertSet(second, morning + 10 * MINUTE, 5, 40f);
+        // Same-millisecond sets are ordered by id and rest 0
+        insertSet(second, morning + 10 * MINUTE, 5, 40f);
+
+        SessionDensity density = db.workoutSessionDao().getDayDensity(day);
+
+        assertEquals(2, density.getSessionCount());
+        assertEquals(5, density.getSetCount());
+        assertEquals(3, density.getRestCount());
+        assertEquals(5 * MINUTE, density.getActiveMillis());
+        assertEquals(1000.0 / 5, density.getWorkDensity(), 0.001);
+    }
+
+    @Test
+    public void testSingleSetOrEmptyDayHasNoDensity() {
+        SessionDensity empty = db.workoutSessionDao().getDayDensity(day);
+        assertEquals(0, empty.getSetCount());
+        assertEquals(0, empty.getActiveMillis());
+        assertEquals(0, empty.getAverageRestSeconds());
+        assertEquals(0.0, empty.getWorkDensity(), 0.0);
+
+        insertSet(startSession(morning), morning, 10, 20f);
+        SessionDensity single = db.workoutSessionDao().getDayDensity(day);
+        assertEquals(1, single.getSetCount());
+        assertEquals(0, single.getRestCount());
+        assertEquals(0.0, single.getWorkDensity(), 0.0);
+    }
+
+    @Test
+    public void testDailySummaryUsesSameDuration() {
+        int session = startSession(morning);
+        insertSet(session, morning, 10, 20f);
+        insertSet(session, morning + 4 * MINUTE, 10, 20f);
+
+        DailySummary summary = db.exerciseRecordDao().getDailySummary(day, TrainingDay.format(day));
+        SessionDensity density = db.workoutSessionDao().getDayDensity(day);
+
+        assertEquals(4, summary.getTotalDurationMinutes());
+        assertEquals(density.getActiveMinutes(), summary.getTotalDurationMinutes());
+        assertEquals(density.getWorkDensity(), summary.getWorkDensity(), 0.001);
+    }
+}
@@ -0,0 +1,280 @@
+package com.kanworks.buildbizeps.data.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.analytics.ExerciseDistributions;
+import com.kanworks.buildbizeps.data.entity.DailyRollup;
+import com.kanworks.buildbizeps.data.entity.ExerciseProgress;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.SetDistribution;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Migration tests that run on the JVM.
+ * Builds a database with the version 2 schema (the last destructive-migration release),
+ * fills it with history and opens it through Room, which runs every migration and
+ * validates the result against the current entities.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FitnessDatabaseMigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    private Context context;
+    private long morningMillis;
+    private long lateEveningMillis;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2025, Calendar.SEPTEMBER, 23, 7, 30, 0);
+        morningMillis = calendar.getTimeInMillis();
+        calendar.set(2025, Calendar.SEPTEMBER, 23, 23, 45, 0);
+        lateEveningMillis = calendar.getTimeInMillis();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void testMigrateFromVersion2KeepsHistory() {
+        createVersion2Database();
+
+        FitnessDatabase db = openMigratedDatabase();
+        try {
+            assertEquals(2, db.exerciseDao().getAllExercises().size());
+            assertEquals(2, db.workoutSessionDao().getAllWorkoutSessions().size());
+
+            List<ExerciseRecord> records = db.exerciseRecordDao().getAllExerciseRecords();
+            assertEquals(3, records.size());
+            for (ExerciseRecord record : records) {
+                assertEquals(TrainingDay.fromDate(record.getTimestamp()), record.getEpochDay());
+            }
+            for (WorkoutSession session : db.workoutSessionDao().getAllWorkoutSessions()) {
+                assertEquals(TrainingDay.fromDate(session.getStartTime()), session.getEpochDay());
+            }
+
+            // Both sets land on the same local day regardless of the UTC date
+            long day = TrainingDay.fromMillis(morningMillis);
+            assertEquals(3, db.exerciseRecordDao().getWorkoutCountForDate(day));
+            assertEquals(2, db.workoutSessionDao().getWorkoutSessionsByDate(day).size());
+
+            // The daily rollup is backfilled from the migrated history
+            DailyRollup rollup = db.dailySummaryDao().getDailyRollup(day);
+            assertNotNull(rollup);
+            assertEquals(3, rollup.getTotalSets());
+            assertEquals(24, rollup.getTotalReps());
+            assertEquals(2, rollup.getDistinctExercises());
+            assertEquals(2, rollup.getSessionCount());
+            assertEquals(10 * 20.0 + 8 * 22.5, rollup.getTotalTonnage(), 0.001);
+
+            // So is the per-exercise progress rollup
+            ExerciseProgress biceps = db.exerciseDao().getProgress(1);
+            assertNotNull(biceps);
+            assertEquals(22.5, biceps.getHeaviestWeight(), 0.001);
+            assertEquals(2, biceps.getTotalSets());
+            assertEquals(day, biceps.getFirstEpochDay());
+            assertEquals(day, biceps.getLastEpochDay());
+
+            // And the monthly weight and rep sketches
+            SetDistribution bicepsSets = ExerciseDistributions.load(db, 1, day, day);
+            assertEquals(2, bicepsSets.getSetCount());
+            assertEquals(20f, bicepsSets.getMedianWeight(), 0.001f);
+            assertEquals(22.5f, bicepsSets.getP90Weight(), 0.001f);
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testMigrationCreatesForeignKeyIndexes() {
+        createVersion2Database();
+
+        FitnessDatabase db = openMigratedDatabase();
+        try {
+            List<String> indexes = indexNames(db.getOpenHelper().getReadableDatabase(), "exercise_records");
+            assertTrue(indexes.contains("index_exercise_records_epochDay"));
+            assertTrue(indexes.contains("index_exercise_records_exerciseId_timestamp"));
+            assertTrue(indexes.contains("index_exercise_records_workoutSessionId_timestamp"));
+            assertFalse(indexes.contains("index_exercise_records_workoutSessionId"));
+            assertTrue(indexes.contains("index_exercise_records_timestamp"));
+
+            assertTrue(indexNames(db.getOpenHelper().getReadableDatabase(), "workout_sessions")
+                    .contains("index_workout_sessions_epochDay"));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testCascadeDeleteAfterMigration() {
+        createVersion2Database();
+
+        FitnessDatabase db = openMigratedDatabase();
+        try {
+            db.exerciseDao().deleteExercise(db.exerciseDao().getExerciseById(1));
+
+            assertEquals(1, db.exerciseRecordDao().getAllExerciseRecords().size());
+            assertTrue(db.exerciseRecordDao().getRecordsByExercise(1).isEmpty());
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testProgressFollowsRecordEditAfterMigration() {
+        createVersion2Database();
+
+        FitnessDatabase db = openMigratedDatabase();
+        try {
+            // The update trigger is the one recreated by version 10, portable to SQLite 3.22
+            try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query(
+                    "SELECT sql FROM sqlite_master WHERE type = 'trigger' AND name = 'exercise_progress_record_update'")) {
+                assertTrue(cursor.moveToFirst());
+                assertFalse(cursor.getString(0).contains("HAVING"));
+            }
+
+            ExerciseRecord heaviest = null;
+            for (ExerciseRecord record : db.exerciseRecordDao().getRecordsByExercise(1)) {
+                if (heaviest == null || record.getWeight() > heaviest.getWeight()) heaviest = record;
+            }
+            heaviest.setWeight(30f);
+            db.workoutLogDao().editRecord(heaviest);
+
+            ExerciseProgress biceps = db.exerciseDao().getProgress(1);
+            assertEquals(30.0, biceps.getHeaviestWeight(), 0.001);
+            assertEquals(10 * 20.0 + 8 * 30.0, biceps.getLifetimeTonnage(), 0.001);
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testDeleteTriggerSkipsTiedMaximaAfterMigration() {
+        createVersion2Database();
+
+        FitnessDatabase db = openMigratedDatabase();
+        try {
+            // The delete trigger is the one recreated by version 12
+            try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query(
+                    "SELECT sql FROM sqlite_master WHERE type = 'trigger' AND name = 'exercise_progress_record_delete'")) {
+                assertTrue(cursor.moveToFirst());
+                assertTrue(cursor.getString(0).contains("`exercise_progress`.`heaviestWeight`"));
+            }
+
+            db.exerciseRecordDao().deleteRecordsByExerciseId(1);
+            assertNull(db.exerciseDao().getProgress(1));
+        } finally {
+            db.close();
+        }
+    }
+
+    private FitnessDatabase openMigratedDatabase() {
+        return FitnessDatabase.configure(Room.databaseBuilder(context, FitnessDatabase.class, TEST_DB))
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    /**
+     * Create the database exactly as Room generated it for schema version 2
+     */
+    private void createVersion2Database() {
+        SupportSQLiteOpenHelper.Configuration configuration = SupportSQLiteOpenHelper.Configuration
+                .builder(context)
+                .name(TEST_DB)
+                .callback(new SupportSQLiteOpenHelper.Callback(2) {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        db.execSQL("CREATE TABLE IF NOT EXISTS `exercises` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT, `type` TEXT, `description` TEXT, `muscleGroup` TEXT, `isFavorite` INTEGER NOT NULL, `isCustom` INTEGER NOT NULL)");
+                        db.execSQL("CREATE TABLE IF NOT EXISTS `workout_sessions` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `startTime` INTEGER, `endTime` INTEGER, `durationMinutes` INTEGER NOT NULL, `notes` TEXT)");
+                        db.execSQL("CREATE TABLE IF NOT EXISTS `exercise_records` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `exerciseId` INTEGER NOT NULL, `workoutSessionId` INTEGER NOT NULL, `sets` INTEGER NOT NULL, `reps` INTEGER NOT NULL, `weight` REAL NOT NULL, `timestamp` INTEGER, `notes` TEXT, FOREIGN KEY(`exerciseId`) REFERENCES `exercises`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , FOREIGN KEY(`workoutSessionId`) REFERENCES `workout_sessions`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+                    }
+
+                    @Override
+                    public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion, int newVersion) {}
+                })
+                .build();
+
+        SupportSQLiteOpenHelper helper = new FrameworkSQLiteOpenHelperFactory().create(configuration);
+        SupportSQLiteDatabase db = helper.getWritableDatabase();
+
+        db.insert("exercises", SQLiteDatabase.CONFLICT_NONE, exercise("Biceps Curls", "arms"));
+        db.insert("exercises", SQLiteDatabase.CONFLICT_NONE, exercise("Pull-ups", "back"));
+
+        db.insert("workout_sessions", SQLiteDatabase.CONFLICT_NONE, session(morningMillis));
+        db.insert("workout_sessions", SQLiteDatabase.CONFLICT_NONE, session(lateEveningMillis));
+
+        db.insert("exercise_records", SQLiteDatabase.CONFLICT_NONE, record(1, 1, 10, 20f, morningMillis));
+        db.insert("exercise_records", SQLiteDatabase.CONFLICT_NONE, record(1, 1, 8, 22.5f, morningMillis + 120_000));
+        db.insert("exercise_records", SQLiteDatabase.CONFLICT_NONE, record(2, 2, 6, 0f, lateEveningMillis));
+
+        helper.close();
+    }
+
+    private static ContentValues exercise(String name, String muscleGroup) {
+        ContentValues values = new ContentValues();
+        values.put("name", name);
+        values.put("type", "strength");
+        values.put("muscleGroup", muscleGroup);
+        values.put("isFavorite", 1);
+        values.put("isCustom", 0);
+        return values;
+    }
+
+    private static ContentValues session(long startMillis) {
+        ContentValues values = new ContentValues();
+        values.put("startTime", startMillis);
+        values.put("durationMinutes", 0);
+        return values;
+    }
+
+    private static ContentValues record(int exerciseId, int sessionId, int reps, float weight, long millis) {
+        ContentValues values = new ContentValues();
+        values.put("exerciseId", exerciseId);
+        values.put("workoutSessionId", sessionId);
+        values.put("sets", 1);
+        values.put("reps", reps);
+        values.put("weight", weight);
+        values.put("timestamp", millis);
+        return values;
+    }
+
+    private static List<String> indexNames(SupportSQLiteDatabase db, String table) {
+        List<String> names = new ArrayList<>();
+        try (Cursor cursor = db.query("PRAGMA index_list(`" + table + "`)")) {
+            int nameColumn = cursor.getColumnIndexOrThrow("name");
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(nameColumn));
+            }
+        }
+        return names;
+    }
+}
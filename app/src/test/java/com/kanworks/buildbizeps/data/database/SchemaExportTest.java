@@ -0,0 +1,95 @@
+package com.kanworks.buildbizeps.data.database;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the committed schema of the current version against the database Room's generated
+ * code creates, so a schema file that was edited by hand or not re-exported after an entity
+ * change fails here instead of in MigrationSchemaTest on a device
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SchemaExportTest {
+
+    // Unit tests run from the module directory
+    private static final String SCHEMA_DIR = "schemas/" + FitnessDatabase.class.getName();
+
+    private FitnessDatabase db;
+    private JSONObject schema;
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        int version = db.getOpenHelper().getReadableDatabase().getVersion();
+        File file = new File(SCHEMA_DIR, version + ".json");
+        assertTrue("No exported schema for version " + version, file.exists());
+        schema = new JSONObject(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+                .getJSONObject("database");
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testIdentityHashMatchesGeneratedCode() {
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query(
+                "SELECT identity_hash FROM room_master_table WHERE id = 42")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(cursor.getString(0), schema.optString("identityHash"));
+        }
+    }
+
+    @Test
+    public void testTablesAndIndicesMatchGeneratedCode() throws Exception {
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getReadableDatabase();
+        JSONArray entities = schema.getJSONArray("entities");
+        for (int i = 0; i < entities.length(); i++) {
+            JSONObject entity = entities.getJSONObject(i);
+            String table = entity.getString("tableName");
+            assertEquals(table, createSql(entity.getString("createSql"), table), storedSql(sqlite, table));
+
+            JSONArray indices = entity.optJSONArray("indices");
+            for (int j = 0; indices != null && j < indices.length(); j++) {
+                JSONObject index = indices.getJSONObject(j);
+                String name = index.getString("name");
+                assertEquals(name, createSql(index.getString("createSql"), table), storedSql(sqlite, name));
+            }
+        }
+    }
+
+    /**
+     * sqlite_master keeps the statement as written, minus its IF NOT EXISTS
+     */
+    private static String createSql(String exported, String table) {
+        return exported.replace("${TABLE_NAME}", table).replace("IF NOT EXISTS ", "");
+    }
+
+    private static String storedSql(SupportSQLiteDatabase sqlite, String name) {
+        try (Cursor cursor = sqlite.query("SELECT sql FROM sqlite_master WHERE name = ?", new Object[]{name})) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+}
@@ -78,4 +78,27 @@ public class ExerciseHistoryDetailTest {
         assertEquals(10, detail.getSetDetails().get(0).getReps());
         assertEquals(50.0f, detail.getSetDetails().get(0).getWeight(), 0.01f);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFromSetRowsGroupsInOnePass() {
+        // Rows arrive ordered by exercise, then time
+        List<ExerciseSetRow> rows = new ArrayList<>();
+        rows.add(new ExerciseSetRow(1, "Biceps Curls", 1, 10, 20.0f, 1000L));
+        rows.add(new ExerciseSetRow(1, "Biceps Curls", 2, 8, 22.5f, 2000L));
+        rows.add(new ExerciseSetRow(3, "Pull-ups", 1, 6, 0.0f, 1500L));
+        
+        List<ExerciseHistoryDetail> details = ExerciseHistoryDetail.fromSetRows(rows);
+        
+        assertEquals(2, details.size());
+        assertEquals("Biceps Curls", details.get(0).getExerciseName());
+        assertEquals(3, details.get(0).getTotalSets()); // second row holds 2 sets
+        assertEquals(2000L, details.get(0).getSetDetails().get(2).getTimestamp());
+        assertEquals("Pull-ups", details.get(1).getExerciseName());
+        assertEquals(1, details.get(1).getTotalSets());
+    }
+
+    @Test
+    public void testFromSetRowsEmptyDay() {
+        assertTrue(ExerciseHistoryDetail.fromSetRows(new ArrayList<>()).isEmpty());
+    }
+}
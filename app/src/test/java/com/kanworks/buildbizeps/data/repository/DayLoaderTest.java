@@ -0,0 +1,110 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.DaySnapshot;
+import com.kanworks.buildbizeps.data.model.ExerciseHistoryDetail;
+import com.kanworks.buildbizeps.data.model.SessionDensity;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that DayLoader matches the DAO queries it mirrors and honours its cancellation signal
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DayLoaderTest {
+
+    private FitnessDatabase db;
+    private DayLoader loader;
+    private long day;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        loader = new DayLoader(db);
+
+        int bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        int pullupsId = (int) db.exerciseDao().insertExercise(new Exercise("Pull-ups", "strength", "", "back"));
+        Date now = new Date();
+        day = TrainingDay.fromDate(now);
+        int sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(now));
+        insertSet(bicepsId, sessionId, 10, 20f);
+        insertSet(bicepsId, sessionId, 8, 25f);
+        insertSet(pullupsId, sessionId, 6, 0f);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private void insertSet(int exerciseId, int sessionId, int reps, float weight) {
+        ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, reps);
+        record.setWeight(weight);
+        db.exerciseRecordDao().insertExerciseRecord(record);
+    }
+
+    @Test
+    public void testLoadMatchesDaoQueries() {
+        DaySnapshot snapshot = loader.load(day, new CancellationSignal());
+
+        assertEquals(day, snapshot.getEpochDay());
+        assertEquals(db.dailySummaryDao().getDailyRollup(day), snapshot.getRollup());
+        assertEquals(3, snapshot.getSummary().getTotalSets());
+        assertEquals(24, snapshot.getSummary().getTotalReps());
+
+        SessionDensity density = db.workoutSessionDao().getDayDensity(day);
+        assertEquals(density.getSetCount(), snapshot.getDensity().getSetCount());
+        assertEquals(density.getRestCount(), snapshot.getDensity().getRestCount());
+        assertEquals(density.getActiveMillis(), snapshot.getDensity().getActiveMillis());
+        assertEquals(density.getActiveMinutes(), snapshot.getSummary().getTotalDurationMinutes());
+        assertEquals(density.getWorkDensity(), snapshot.getSummary().getWorkDensity(), 0.001);
+
+        List<ExerciseHistoryDetail> expected = ExerciseHistoryDetail.fromSetRows(
+                db.exerciseRecordDao().getExerciseSetsForDay(day));
+        assertEquals(expected.size(), snapshot.getExercises().size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getFormattedHistory(), snapshot.getExercises().get(i).getFormattedHistory());
+        }
+    }
+
+    @Test
+    public void testEmptyDayHasZeroSummary() {
+        DaySnapshot snapshot = loader.load(day - 1, null);
+
+        assertNull(snapshot.getRollup());
+        assertEquals(TrainingDay.format(day - 1), snapshot.getSummary().getDate());
+        assertEquals(0, snapshot.getSummary().getTotalSets());
+        assertEquals(0, snapshot.getDensity().getSetCount());
+        assertTrue(snapshot.getExercises().isEmpty());
+    }
+
+    @Test(expected = OperationCanceledException.class)
+    public void testCancelledSignalStopsLoad() {
+        CancellationSignal signal = new CancellationSignal();
+        signal.cancel();
+        loader.load(day, signal);
+    }
+}
@@ -0,0 +1,133 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that DaySnapshotCache invalidates exactly the days whose records changed
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DaySnapshotCacheTest {
+
+    private FitnessDatabase db;
+    private DayLoader loader;
+    private DaySnapshotCache cache;
+    private int bicepsId;
+    private int sessionId;
+    private long today;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        loader = new DayLoader(db);
+        cache = new DaySnapshotCache();
+
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        Date now = new Date();
+        today = TrainingDay.fromDate(now);
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(now));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private ExerciseRecord insertSet(long epochDay, int reps, float weight) {
+        ExerciseRecord record = new ExerciseRecord(bicepsId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(new Date(TrainingDay.startOfDayMillis(epochDay) + 12 * 3600_000L));
+        record.setId((int) db.exerciseRecordDao().insertExerciseRecord(record));
+        return record;
+    }
+
+    private void cacheDays(long... days) {
+        for (long day : days) {
+            cache.put(loader.load(day, null));
+        }
+    }
+
+    @Test
+    public void testUnchangedDaysStayCached() {
+        insertSet(today - 1, 10, 20f);
+        insertSet(today, 8, 25f);
+        cacheDays(today - 2, today - 1, today);
+
+        assertTrue(cache.findStale(db).isEmpty());
+    }
+
+    @Test
+    public void testOnlyTheChangedDayIsStale() {
+        insertSet(today - 1, 10, 20f);
+        ExerciseRecord todays = insertSet(today, 8, 25f);
+        cacheDays(today - 2, today - 1, today);
+
+        todays.setWeight(27.5f);
+        db.workoutLogDao().editRecord(todays);
+        assertEquals(Collections.singletonList(today), cache.findStale(db));
+
+        cache.evict(today);
+        insertSet(today - 2, 5, 30f);
+        assertEquals(Collections.singletonList(today - 2), cache.findStale(db));
+    }
+
+    @Test
+    public void testEditThatKeepsTotalsMakesDayStale() {
+        ExerciseRecord todays = insertSet(today, 8, 25f);
+        cacheDays(today - 1, today);
+
+        todays.setTimestamp(new Date(todays.getTimestamp().getTime() + 60_000L));
+        db.workoutLogDao().editRecord(todays);
+        assertEquals(Collections.singletonList(today), cache.findStale(db));
+
+        cache.put(loader.load(today, null));
+        WorkoutSession session = db.workoutSessionDao().getWorkoutSessionById(sessionId);
+        session.setNotes("Felt strong");
+        db.workoutSessionDao().updateWorkoutSession(session);
+        assertEquals(Collections.singletonList(today), cache.findStale(db));
+    }
+
+    @Test
+    public void testDeletingADayMakesItStale() {
+        insertSet(today - 1, 10, 20f);
+        cacheDays(today - 1, today);
+
+        db.exerciseRecordDao().deleteRecordsByDate(today - 1);
+        assertEquals(Collections.singletonList(today - 1), cache.findStale(db));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDayIsDropped() {
+        DaySnapshotCache small = new DaySnapshotCache(2);
+        small.put(loader.load(today - 2, null));
+        small.put(loader.load(today - 1, null));
+        assertNotNull(small.get(today - 2));
+        small.put(loader.load(today, null));
+
+        assertTrue(small.contains(today - 2));
+        assertFalse(small.contains(today - 1));
+        assertTrue(small.contains(today));
+    }
+}
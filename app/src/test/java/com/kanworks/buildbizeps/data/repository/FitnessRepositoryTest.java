@@ -0,0 +1,138 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Tests for write ordering and lifecycle-bound reads in FitnessRepository
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FitnessRepositoryTest {
+
+    private FitnessDatabase db;
+    private ExecutorService writeExecutor;
+    private ExecutorService readExecutor;
+    private FitnessRepository repository;
+    private TestOwner owner;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        writeExecutor = Executors.newSingleThreadExecutor();
+        readExecutor = Executors.newFixedThreadPool(2);
+        repository = new FitnessRepository(db, writeExecutor, readExecutor);
+        owner = new TestOwner();
+        owner.registry.setCurrentState(Lifecycle.State.RESUMED);
+    }
+
+    @After
+    public void tearDown() {
+        writeExecutor.shutdownNow();
+        readExecutor.shutdownNow();
+        db.close();
+    }
+
+    @Test
+    public void testWritesApplyInIssueOrder() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            repository.write(() -> order.add(n));
+        }
+        writeExecutor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    public void testFailedWriteDoesNotBlockTheLane() throws Exception {
+        repository.write(() -> { throw new IllegalStateException("boom"); });
+        repository.write(() -> db.exerciseDao().insertExercise(new Exercise("Squat", "strength", "", "legs")));
+        writeExecutor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, db.exerciseDao().getAllExercises().size());
+    }
+
+    @Test
+    public void testReadDeliversOnMainThread() throws Exception {
+        db.exerciseDao().insertExercise(new Exercise("Squat", "strength", "", "legs"));
+        AtomicReference<Integer> delivered = new AtomicReference<>();
+
+        Future<Integer> read = repository.read(owner,
+                () -> db.exerciseDao().getAllExercises().size(),
+                count -> {
+                    assertSame(Looper.getMainLooper(), Looper.myLooper());
+                    delivered.set(count);
+                });
+        read.get(5, TimeUnit.SECONDS);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(Integer.valueOf(1), delivered.get());
+    }
+
+    @Test
+    public void testReadIsDroppedWhenOwnerIsDestroyed() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> delivered = new AtomicReference<>();
+
+        Future<String> read = repository.read(owner, () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "stale";
+        }, delivered::set);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        release.countDown();
+        readExecutor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertTrue(read.isCancelled());
+        assertNull(delivered.get());
+    }
+
+    private static class TestOwner implements LifecycleOwner {
+        final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.ChartPoints;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pins the rows read and points drawn for a progress chart over a long synthetic history
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ProgressChartLoaderTest {
+
+    // 100 sets a day for 1000 days, a little under three years
+    private static final int DAYS = 1000;
+    private static final int SETS_PER_DAY = 100;
+    private static final long START = 19_000;
+    private static final long PR_DAY = START + 500;
+    private static final int WIDTH = 400;
+
+    private FitnessDatabase db;
+    private ProgressChartLoader loader;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        int exerciseId = (int) db.exerciseDao().insertExercise(new Exercise("Squats", "strength", "", "legs"));
+        int sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date()));
+
+        db.runInTransaction(() -> {
+            List<ExerciseRecord> day = new ArrayList<>(SETS_PER_DAY);
+            for (int d = 0; d < DAYS; d++) {
+                long epochDay = START + d;
+                long noon = TrainingDay.startOfDayMillis(epochDay) + 12 * 3600_000L;
+                day.clear();
+                for (int i = 0; i < SETS_PER_DAY; i++) {
+                    ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, 5 + i % 6);
+                    // Slow progressive overload with a wave through the week
+                    record.setWeight(epochDay == PR_DAY && i == 0 ? 200f : 60f + d * 0.02f + (d % 7) + i % 5);
+                    record.setTimestamp(new Date(noon + i * 1000L));
+                    day.add(record);
+                }
+                db.exerciseRecordDao().insertExerciseRecords(day);
+            }
+        });
+        loader = new ProgressChartLoader(db.exerciseRecordDao(), exerciseId);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testDailyZoomIsReducedToWidth() {
+        ChartPoints points = loader.load(ProgressChartLoader.ZOOM_DAY, ProgressChartLoader.METRIC_TOP_WEIGHT, WIDTH);
+
+        // 100k sets reach Java as one row per day, drawn as one point per pixel column
+        assertEquals(DAYS, points.getBucketCount());
+        assertEquals(WIDTH, points.size());
+        assertEquals(START, points.dayAt(0));
+        assertEquals(START + DAYS - 1, points.dayAt(points.size() - 1));
+
+        // The one-day PR survives downsampling
+        float top = 0;
+        for (int i = 0; i < points.size(); i++) {
+            top = Math.max(top, points.valueAt(i));
+        }
+        assertEquals(200f, top, 0.001f);
+    }
+
+    @Test
+    public void testCoarserZoomsReadOneRowPerWeekOrMonth() {
+        Set<Long> weeks = new HashSet<>();
+        Set<Long> months = new HashSet<>();
+        for (long day = START; day < START + DAYS; day++) {
+            weeks.add(day - Math.floorMod(day + 3, 7));
+            months.add(TrainingDay.firstOfMonth(day));
+        }
+
+        ChartPoints weekly = loader.load(ProgressChartLoader.ZOOM_WEEK, ProgressChartLoader.METRIC_VOLUME, WIDTH);
+        assertEquals(weeks.size(), weekly.getBucketCount());
+        // Fewer buckets than pixels, so nothing is dropped
+        assertEquals(weeks.size(), weekly.size());
+        assertEquals(START - Math.floorMod(START + 3, 7), weekly.dayAt(0));
+
+        ChartPoints monthly = loader.load(ProgressChartLoader.ZOOM_MONTH, ProgressChartLoader.METRIC_ONE_REP_MAX, WIDTH);
+        assertEquals(months.size(), monthly.getBucketCount());
+        assertEquals(months.size(), monthly.size());
+        assertEquals(TrainingDay.firstOfMonth(START), monthly.dayAt(0));
+        assertEquals(TrainingDay.firstOfMonth(START + DAYS - 1), monthly.dayAt(monthly.size() - 1));
+    }
+
+    @Test
+    public void testLinesAreCachedPerZoom() {
+        ChartPoints first = loader.load(ProgressChartLoader.ZOOM_DAY, ProgressChartLoader.METRIC_TOP_WEIGHT, WIDTH);
+        loader.load(ProgressChartLoader.ZOOM_DAY, ProgressChartLoader.METRIC_ONE_REP_MAX, WIDTH);
+        loader.load(ProgressChartLoader.ZOOM_DAY, ProgressChartLoader.METRIC_VOLUME, WIDTH);
+        loader.load(ProgressChartLoader.ZOOM_MONTH, ProgressChartLoader.METRIC_TOP_WEIGHT, WIDTH);
+
+        // Other metrics of a zoom reuse its rows; coming back to a line is free
+        assertEquals(2, loader.getQueryCount());
+        assertSame(first, loader.load(ProgressChartLoader.ZOOM_DAY, ProgressChartLoader.METRIC_TOP_WEIGHT, WIDTH));
+        assertEquals(2, loader.getQueryCount());
+
+        // A new width re-reduces from the cached rows
+        assertEquals(WIDTH / 2, loader.load(ProgressChartLoader.ZOOM_DAY,
+                ProgressChartLoader.METRIC_TOP_WEIGHT, WIDTH / 2).size());
+        assertEquals(2, loader.getQueryCount());
+
+        loader.invalidate();
+        loader.load(ProgressChartLoader.ZOOM_DAY, ProgressChartLoader.METRIC_TOP_WEIGHT, WIDTH);
+        assertEquals(3, loader.getQueryCount());
+    }
+}
@@ -0,0 +1,139 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+import com.kanworks.buildbizeps.data.entity.WorkoutSession;
+import com.kanworks.buildbizeps.data.model.RangeSummary;
+import com.kanworks.buildbizeps.utils.TrainingDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the grouped range query against the per-day summaries it replaces
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RangeSummaryLoaderTest {
+
+    private FitnessDatabase db;
+    private RangeSummaryLoader loader;
+    private int bicepsId;
+    private int pullUpsId;
+    private int sessionId;
+    private long today;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        loader = new RangeSummaryLoader(db);
+
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+        pullUpsId = (int) db.exerciseDao().insertExercise(new Exercise("Pull Ups", "strength", "", "back"));
+        sessionId = (int) db.workoutSessionDao().insertWorkoutSession(new WorkoutSession(new Date()));
+        today = TrainingDay.today();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private void insertSet(int exerciseId, long epochDay, int reps, float weight) {
+        ExerciseRecord record = new ExerciseRecord(exerciseId, sessionId, 1, reps);
+        record.setWeight(weight);
+        record.setTimestamp(new Date(TrainingDay.startOfDayMillis(epochDay) + 12 * 3600_000L));
+        db.exerciseRecordDao().insertExerciseRecord(record);
+    }
+
+    @Test
+    public void testTotalsMatchPerDaySummaries() {
+        insertSet(bicepsId, today - 6, 10, 20f);
+        insertSet(bicepsId, today - 6, 8, 22.5f);
+        insertSet(pullUpsId, today - 3, 12, 0f);
+        insertSet(bicepsId, today, 6, 25f);
+        // Outside the range
+        insertSet(bicepsId, today - 7, 10, 100f);
+
+        RangeSummary summary = loader.load(today - 6, today, null);
+
+        int sets = 0;
+        int reps = 0;
+        double tonnage = 0;
+        for (long day = today - 6; day <= today; day++) {
+            sets += db.exerciseRecordDao().getDailySummary(day, TrainingDay.format(day)).getTotalSets();
+            reps += db.exerciseRecordDao().getDailySummary(day, TrainingDay.format(day)).getTotalReps();
+            tonnage += db.exerciseRecordDao().getDailySummary(day, TrainingDay.format(day)).getTotalTonnage();
+        }
+        assertEquals(3, summary.getTrainedDays());
+        assertEquals(sets, summary.getTotalSets());
+        assertEquals(reps, summary.getTotalReps());
+        assertEquals(tonnage, summary.getTotalTonnage(), 0.001);
+    }
+
+    @Test
+    public void testPerExerciseBreakdownAndBestSet() {
+        insertSet(bicepsId, today - 2, 10, 20f);
+        insertSet(bicepsId, today - 2, 5, 25f);
+        insertSet(bicepsId, today - 1, 8, 25f);
+        insertSet(bicepsId, today, 12, 15f);
+        insertSet(pullUpsId, today, 8, 0f);
+        insertSet(pullUpsId, today - 1, 11, 0f);
+
+        RangeSummary summary = loader.load(today - 6, today, null);
+
+        assertEquals(2, summary.getExercises().size());
+        // Most sets first
+        RangeSummary.ExerciseTotals biceps = summary.getExercises().get(0);
+        assertEquals(bicepsId, biceps.getExerciseId());
+        assertEquals("Biceps Curls", biceps.getExerciseName());
+        assertEquals(3, biceps.getDays());
+        assertEquals(4, biceps.getSets());
+        assertEquals(35, biceps.getReps());
+        // Heaviest, then most reps at that weight
+        assertEquals(25f, biceps.getBestWeight(), 0.001f);
+        assertEquals(8, biceps.getBestReps());
+        assertEquals(today - 1, biceps.getBestDay());
+
+        // Bodyweight: best by reps
+        RangeSummary.ExerciseTotals pullUps = summary.getExercises().get(1);
+        assertEquals(11, pullUps.getBestReps());
+        assertEquals(today - 1, pullUps.getBestDay());
+    }
+
+    @Test
+    public void testEmptyRange() {
+        RangeSummary summary = loader.load(today - 30, today, null);
+
+        assertEquals(today - 30, summary.getFirstDay());
+        assertEquals(today, summary.getLastDay());
+        assertEquals(0, summary.getTrainedDays());
+        assertTrue(summary.getExercises().isEmpty());
+    }
+
+    @Test(expected = OperationCanceledException.class)
+    public void testCancelledLoadThrows() {
+        insertSet(bicepsId, today, 10, 20f);
+        CancellationSignal signal = new CancellationSignal();
+        signal.cancel();
+
+        loader.load(today - 6, today, signal);
+    }
+}
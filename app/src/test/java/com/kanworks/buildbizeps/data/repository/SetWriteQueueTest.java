@@ -0,0 +1,121 @@
+package com.kanworks.buildbizeps.data.repository;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.kanworks.buildbizeps.data.database.FitnessDatabase;
+import com.kanworks.buildbizeps.data.entity.Exercise;
+import com.kanworks.buildbizeps.data.entity.ExerciseRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for batching, journaling and crash replay in SetWriteQueue
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SetWriteQueueTest {
+
+    // Long enough that nothing flushes on its own during a test
+    private static final long WINDOW_MS = 60_000;
+
+    private FitnessDatabase db;
+    private File journal;
+    private ScheduledExecutorService executor;
+    private int bicepsId;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = FitnessDatabase.configure(Room.inMemoryDatabaseBuilder(context, FitnessDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        journal = new File(context.getCacheDir(), "test_sets.journal");
+        journal.delete();
+        executor = Executors.newSingleThreadScheduledExecutor();
+        bicepsId = (int) db.exerciseDao().insertExercise(new Exercise("Biceps Curls", "strength", "", "arms"));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        db.close();
+        journal.delete();
+    }
+
+    @Test
+    public void testBurstIsWrittenAsOneSession() throws Exception {
+        SetWriteQueue queue = new SetWriteQueue(db, journal, executor, WINDOW_MS);
+        queue.enqueue(bicepsId, 20f, 10);
+        queue.enqueue(bicepsId, 20f, 8);
+        queue.enqueue(bicepsId, 22.5f, 6);
+        queue.flush().get();
+
+        List<ExerciseRecord> records = db.exerciseRecordDao().getAllExerciseRecords();
+        assertEquals(3, records.size());
+        assertEquals(1, db.workoutSessionDao().getAllWorkoutSessions().size());
+        assertFalse(journal.exists());
+    }
+
+    @Test
+    public void testPendingSetsAreJournaled() throws Exception {
+        SetWriteQueue queue = new SetWriteQueue(db, journal, executor, WINDOW_MS);
+        queue.enqueue(bicepsId, 20f, 10);
+        queue.enqueue(bicepsId, 20f, 8);
+
+        // Wait for the enqueues without flushing
+        executor.submit(() -> {}).get();
+
+        assertTrue(journal.exists());
+        assertTrue(db.exerciseRecordDao().getAllExerciseRecords().isEmpty());
+    }
+
+    @Test
+    public void testReplaySkipsSetsAlreadyWritten() throws Exception {
+        long written = System.currentTimeMillis() - 60_000;
+        ExerciseRecord existing = new ExerciseRecord(bicepsId, 0, 1, 10);
+        existing.setTimestamp(new Date(written));
+        db.workoutLogDao().logSets(0, Collections.singletonList(existing));
+
+        // Crash after the commit of the first set but before the journal was cleared
+        try (FileWriter writer = new FileWriter(journal)) {
+            writer.write(written + "," + bicepsId + ",20.0,10\n");
+            writer.write((written + 5_000) + "," + bicepsId + ",20.0,8\n");
+            writer.write("12345,1");  // torn write
+        }
+
+        SetWriteQueue queue = new SetWriteQueue(db, journal, executor, WINDOW_MS);
+        queue.flush().get();
+
+        assertEquals(2, db.exerciseRecordDao().getAllExerciseRecords().size());
+        assertFalse(journal.exists());
+    }
+
+    @Test
+    public void testJournalLineRoundTrip() {
+        SetWriteQueue.PendingSet set = new SetWriteQueue.PendingSet(1700000000123L, 7, 62.5f, 8);
+        SetWriteQueue.PendingSet decoded = SetWriteQueue.PendingSet.decode(set.encode());
+
+        assertNotNull(decoded);
+        assertEquals(set.timestamp, decoded.timestamp);
+        assertEquals(set.exerciseId, decoded.exerciseId);
+        assertEquals(set.weight, decoded.weight, 0f);
+        assertEquals(set.reps, decoded.reps);
+        assertNull(SetWriteQueue.PendingSet.decode("garbage"));
+    }
+}
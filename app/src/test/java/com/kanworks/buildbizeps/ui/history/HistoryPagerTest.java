@@ -0,0 +1,122 @@
+package com.kanworks.buildbizeps.ui.history;
+
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the bounded keyset pager behind the history screen
+ */
+public class HistoryPagerTest {
+
+    private static final int TOTAL_SETS = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_PAGES = 4;
+
+    private FakeSource source;
+    private HistoryPager pager;
+
+    /**
+     * In-memory stand-in for the DAO keyset queries; timestamps collide in pairs
+     * so the id tie-breaker is exercised
+     */
+    private static class FakeSource implements HistoryPager.PageSource {
+        final List<ExerciseSetRow> newestFirst = new ArrayList<>();
+        int rowsRead;
+
+        FakeSource() {
+            for (int id = TOTAL_SETS; id >= 1; id--) {
+                newestFirst.add(new ExerciseSetRow(1, "Squats", 1, 5, 100f, (id + 1) / 2 * 1000L));
+                newestFirst.get(newestFirst.size() - 1).setId(id);
+            }
+        }
+
+        private static int compare(ExerciseSetRow row, long timestamp, int id) {
+            if (row.getTimestamp() != timestamp) return Long.compare(row.getTimestamp(), timestamp);
+            return Integer.compare(row.getId(), id);
+        }
+
+        @Override
+        public List<ExerciseSetRow> loadNewest(int limit) {
+            List<ExerciseSetRow> page = new ArrayList<>(newestFirst.subList(0, Math.min(limit, newestFirst.size())));
+            rowsRead += page.size();
+            return page;
+        }
+
+        @Override
+        public List<ExerciseSetRow> loadBefore(long timestamp, int id, int limit) {
+            List<ExerciseSetRow> page = new ArrayList<>();
+            for (ExerciseSetRow row : newestFirst) {
+                if (compare(row, timestamp, id) < 0 && page.size() < limit) page.add(row);
+            }
+            rowsRead += page.size();
+            return page;
+        }
+
+        @Override
+        public List<ExerciseSetRow> loadAfter(long timestamp, int id, int limit) {
+            List<ExerciseSetRow> page = new ArrayList<>();
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                ExerciseSetRow row = newestFirst.get(i);
+                if (compare(row, timestamp, id) > 0 && page.size() < limit) page.add(row);
+            }
+            rowsRead += page.size();
+            return page;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        source = new FakeSource();
+        pager = new HistoryPager(source, PAGE_SIZE, MAX_PAGES);
+    }
+
+    @Test
+    public void testFirstPageIsNewestSets() {
+        assertTrue(pager.loadOlder());
+
+        List<ExerciseSetRow> rows = pager.snapshot();
+        assertEquals(PAGE_SIZE, rows.size());
+        assertEquals(TOTAL_SETS, rows.get(0).getId());
+        assertEquals(PAGE_SIZE, source.rowsRead);
+        assertFalse(pager.hasNewer());
+    }
+
+    @Test
+    public void testWindowStaysBoundedWhileScrollingToTheEnd() {
+        List<Integer> seen = new ArrayList<>();
+        while (pager.loadOlder()) {
+            List<ExerciseSetRow> rows = pager.snapshot();
+            assertTrue(rows.size() <= PAGE_SIZE * MAX_PAGES);
+            seen.add(rows.get(rows.size() - 1).getId());
+        }
+
+        // Every page boundary moved strictly older, no rows skipped or repeated
+        assertEquals(TOTAL_SETS / PAGE_SIZE, seen.size());
+        assertEquals(1, (int) seen.get(seen.size() - 1));
+        assertEquals(TOTAL_SETS, source.rowsRead);
+        assertFalse(pager.hasOlder());
+        assertTrue(pager.hasNewer());
+    }
+
+    @Test
+    public void testScrollingBackRestoresNewerRows() {
+        for (int i = 0; i < 10; i++) pager.loadOlder();
+        int oldestInWindow = pager.snapshot().get(0).getId();
+
+        assertTrue(pager.loadNewer());
+
+        List<ExerciseSetRow> rows = pager.snapshot();
+        assertEquals(PAGE_SIZE * MAX_PAGES, rows.size());
+        assertEquals(oldestInWindow + PAGE_SIZE, rows.get(0).getId());
+        for (int i = 1; i < rows.size(); i++) {
+            assertEquals(rows.get(i - 1).getId() - 1, rows.get(i).getId());
+        }
+        assertTrue(pager.hasOlder());
+    }
+}
@@ -0,0 +1,36 @@
+package com.kanworks.buildbizeps.ui.home;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the per-card input state behind the Home workout list
+ */
+public class ExerciseInputTest {
+
+    @Test
+    public void testCanSaveNeedsWeightAndReps() {
+        ExerciseInput input = new ExerciseInput();
+        assertFalse(input.canSave());
+
+        input.setWeightText("20");
+        assertFalse(input.canSave());
+
+        input.setReps(8);
+        assertTrue(input.canSave());
+
+        input.setWeightText("0.0");
+        assertFalse(input.canSave());
+
+        input.setWeightText(" 17.5 ");
+        assertTrue(input.canSave());
+    }
+
+    @Test
+    public void testRepsNeverNegative() {
+        ExerciseInput input = new ExerciseInput();
+        input.setReps(input.getReps() - 1);
+        assertEquals(0, input.getReps());
+    }
+}
@@ -0,0 +1,65 @@
+package com.kanworks.buildbizeps.ui.home;
+
+import android.os.Bundle;
+import android.util.SparseArray;
+
+import com.kanworks.buildbizeps.data.model.ExerciseSetRow;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the saved-state round trip and last-set prefill of the Home workout drafts
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HomeViewModelTest {
+
+    @Test
+    public void testInputsSurviveSavedStateRoundTrip() {
+        SparseArray<ExerciseInput> inputs = new SparseArray<>();
+        ExerciseInput curls = new ExerciseInput();
+        curls.setWeightText("17.5");
+        curls.setReps(10);
+        curls.setSetsCompleted(3);
+        inputs.put(7, curls);
+        inputs.put(2, new ExerciseInput());
+
+        SparseArray<ExerciseInput> restored = new SparseArray<>();
+        HomeViewModel.restoreInputs(HomeViewModel.saveInputs(inputs), restored);
+
+        assertEquals(2, restored.size());
+        assertEquals("17.5", restored.get(7).getWeightText());
+        assertEquals(10, restored.get(7).getReps());
+        assertEquals(3, restored.get(7).getSetsCompleted());
+        assertEquals("", restored.get(2).getWeightText());
+        assertEquals(0, restored.get(2).getSetsCompleted());
+    }
+
+    @Test
+    public void testRestoreIgnoresMissingState() {
+        SparseArray<ExerciseInput> restored = new SparseArray<>();
+        HomeViewModel.restoreInputs(null, restored);
+        HomeViewModel.restoreInputs(new Bundle(), restored);
+        assertEquals(0, restored.size());
+    }
+
+    @Test
+    public void testPrefillKeepsWhatTheUserTyped() {
+        ExerciseSetRow lastSet = new ExerciseSetRow(1, "Biceps Curls", 1, 8, 20f, 0L);
+
+        ExerciseInput empty = new ExerciseInput();
+        assertTrue(HomeViewModel.prefillInput(empty, lastSet));
+        assertEquals("20", empty.getWeightText());
+        assertEquals(8, empty.getReps());
+
+        ExerciseInput typed = new ExerciseInput();
+        typed.setWeightText("22.5");
+        typed.setReps(6);
+        assertFalse(HomeViewModel.prefillInput(typed, lastSet));
+        assertEquals("22.5", typed.getWeightText());
+        assertEquals(6, typed.getReps());
+    }
+}
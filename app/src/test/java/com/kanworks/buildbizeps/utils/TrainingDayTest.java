@@ -0,0 +1,37 @@
+package com.kanworks.buildbizeps.utils;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Unit tests for the local training-day bucket
+ */
+public class TrainingDayTest {
+
+    @Test
+    public void testEpochDayUsesLocalCalendarDay() {
+        // 23:59 and 00:01 local time fall into consecutive training days
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2025, Calendar.SEPTEMBER, 23, 23, 59, 0);
+        long lateEvening = TrainingDay.fromDate(calendar.getTime());
+
+        calendar.set(2025, Calendar.SEPTEMBER, 24, 0, 1, 0);
+        long earlyMorning = TrainingDay.fromDate(calendar.getTime());
+
+        assertEquals(lateEvening + 1, earlyMorning);
+        assertEquals("2025-09-23", TrainingDay.format(lateEvening));
+        assertEquals("2025-09-24", TrainingDay.format(earlyMorning));
+    }
+
+    @Test
+    public void testStartOfDayRoundTrip() {
+        long day = TrainingDay.fromDate(new Date());
+        long start = TrainingDay.startOfDayMillis(day);
+
+        assertEquals(day, TrainingDay.fromMillis(start));
+        assertEquals(day - 1, TrainingDay.fromMillis(start - 1));
+    }
+}